@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,11 @@
  */
 package org.springframework.statemachine.boot;
 
+import java.util.List;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.statemachine.event.EventPublishingOverflowPolicy;
+import org.springframework.statemachine.event.StateMachineEvent;
 
 /**
  * Spring Boot {@link ConfigurationProperties} for <em>spring.statemachine</em>.
@@ -27,6 +31,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class StateMachineProperties {
 
 	private StateMachineMonitoringProperties monitor;
+	private StateMachineEventsProperties events;
 
 	public StateMachineMonitoringProperties getMonitor() {
 		return monitor;
@@ -36,11 +41,45 @@ public class StateMachineProperties {
 		this.monitor = monitor;
 	}
 
+	public StateMachineEventsProperties getEvents() {
+		return events;
+	}
+
+	public void setEvents(StateMachineEventsProperties events) {
+		this.events = events;
+	}
+
 	/**
 	 * Config props for "spring.statemachine.monitor".
 	 */
 	public static class StateMachineMonitoringProperties {
 		private boolean enabled = false;
+		private StateMachineMetricsProperties metrics;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public StateMachineMetricsProperties getMetrics() {
+			return metrics;
+		}
+
+		public void setMetrics(StateMachineMetricsProperties metrics) {
+			this.metrics = metrics;
+		}
+	}
+
+	/**
+	 * Config props for "spring.statemachine.monitor.metrics".
+	 */
+	public static class StateMachineMetricsProperties {
+		private boolean enabled = false;
+		private int maxStates = 100;
+		private int maxEvents = 100;
 
 		public boolean isEnabled() {
 			return enabled;
@@ -49,5 +88,87 @@ public class StateMachineProperties {
 		public void setEnabled(boolean enabled) {
 			this.enabled = enabled;
 		}
+
+		public int getMaxStates() {
+			return maxStates;
+		}
+
+		public void setMaxStates(int maxStates) {
+			this.maxStates = maxStates;
+		}
+
+		public int getMaxEvents() {
+			return maxEvents;
+		}
+
+		public void setMaxEvents(int maxEvents) {
+			this.maxEvents = maxEvents;
+		}
+	}
+
+	/**
+	 * Config props for "spring.statemachine.events".
+	 */
+	public static class StateMachineEventsProperties {
+		private List<Class<? extends StateMachineEvent>> types;
+		private StateMachineEventsAsyncProperties async;
+
+		public List<Class<? extends StateMachineEvent>> getTypes() {
+			return types;
+		}
+
+		public void setTypes(List<Class<? extends StateMachineEvent>> types) {
+			this.types = types;
+		}
+
+		public StateMachineEventsAsyncProperties getAsync() {
+			return async;
+		}
+
+		public void setAsync(StateMachineEventsAsyncProperties async) {
+			this.async = async;
+		}
+	}
+
+	/**
+	 * Config props for "spring.statemachine.events.async".
+	 */
+	public static class StateMachineEventsAsyncProperties {
+		private boolean enabled = false;
+		private int capacity = 1024;
+		private int drainSize = 64;
+		private EventPublishingOverflowPolicy overflowPolicy = EventPublishingOverflowPolicy.DROP_NEWEST;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getCapacity() {
+			return capacity;
+		}
+
+		public void setCapacity(int capacity) {
+			this.capacity = capacity;
+		}
+
+		public int getDrainSize() {
+			return drainSize;
+		}
+
+		public void setDrainSize(int drainSize) {
+			this.drainSize = drainSize;
+		}
+
+		public EventPublishingOverflowPolicy getOverflowPolicy() {
+			return overflowPolicy;
+		}
+
+		public void setOverflowPolicy(EventPublishingOverflowPolicy overflowPolicy) {
+			this.overflowPolicy = overflowPolicy;
+		}
 	}
 }
@@ -25,10 +25,12 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.statemachine.boot.StateMachineProperties;
+import org.springframework.statemachine.boot.StateMachineProperties.StateMachineMetricsProperties;
 import org.springframework.statemachine.boot.actuate.InMemoryStateMachineTraceRepository;
 import org.springframework.statemachine.boot.actuate.StateMachineTraceEndpoint;
 import org.springframework.statemachine.boot.actuate.StateMachineTraceRepository;
 import org.springframework.statemachine.boot.support.BootStateMachineMonitor;
+import org.springframework.statemachine.boot.support.MicrometerStateMachineMetrics;
 
 import io.micrometer.core.instrument.MeterRegistry;
 
@@ -68,15 +70,26 @@ public class StateMachineAutoConfiguration {
 
 		private final MeterRegistry meterRegistry;
 		private final StateMachineTraceRepository stateMachineTraceRepository;
+		private final StateMachineProperties properties;
 
 		public StateMachineMonitoringConfiguration(ObjectProvider<MeterRegistry> meterRegistryProvider,
-				ObjectProvider<StateMachineTraceRepository> traceRepositoryProvider) {
+				ObjectProvider<StateMachineTraceRepository> traceRepositoryProvider,
+				ObjectProvider<StateMachineProperties> propertiesProvider) {
 			this.meterRegistry = meterRegistryProvider.getIfAvailable();
 			this.stateMachineTraceRepository = traceRepositoryProvider.getIfAvailable();
+			this.properties = propertiesProvider.getIfAvailable();
 		}
 
 		@Bean
 		public BootStateMachineMonitor<?, ?> bootStateMachineMonitor() {
+			StateMachineMetricsProperties metrics = properties != null && properties.getMonitor() != null
+					? properties.getMonitor().getMetrics()
+					: null;
+			if (meterRegistry != null && metrics != null && metrics.isEnabled()) {
+				return new BootStateMachineMonitor<>(meterRegistry, stateMachineTraceRepository,
+						new MicrometerStateMachineMetrics<>(meterRegistry, metrics.getMaxStates(),
+								metrics.getMaxEvents()));
+			}
 			return new BootStateMachineMonitor<>(meterRegistry, stateMachineTraceRepository);
 		}
 	}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.boot.autoconfigure;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.statemachine.boot.StateMachineProperties;
+import org.springframework.statemachine.boot.StateMachineProperties.StateMachineEventsAsyncProperties;
+import org.springframework.statemachine.boot.StateMachineProperties.StateMachineEventsProperties;
+import org.springframework.statemachine.event.DefaultStateMachineEventPublisher;
+import org.springframework.statemachine.event.StateMachineEvent;
+
+/**
+ * {@link EnableAutoConfiguration Auto-configuration} for a
+ * {@link DefaultStateMachineEventPublisher} configured from
+ * <em>spring.statemachine.events</em>.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+@Configuration
+@EnableConfigurationProperties({ StateMachineProperties.class })
+public class StateMachineEventPublisherAutoConfiguration {
+
+	@Bean
+	public static StateMachineEventPublisherPostProcessor stateMachineEventPublisherPostProcessor(
+			ObjectProvider<StateMachineProperties> propertiesProvider) {
+		return new StateMachineEventPublisherPostProcessor(propertiesProvider);
+	}
+
+	/**
+	 * {@link BeanPostProcessor} applying event properties into a
+	 * {@link DefaultStateMachineEventPublisher}.
+	 */
+	public static class StateMachineEventPublisherPostProcessor implements BeanPostProcessor {
+
+		private final ObjectProvider<StateMachineProperties> propertiesProvider;
+
+		public StateMachineEventPublisherPostProcessor(ObjectProvider<StateMachineProperties> propertiesProvider) {
+			this.propertiesProvider = propertiesProvider;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+			if (!(bean instanceof DefaultStateMachineEventPublisher)) {
+				return bean;
+			}
+			StateMachineProperties properties = propertiesProvider.getIfAvailable();
+			StateMachineEventsProperties events = properties != null ? properties.getEvents() : null;
+			if (events == null) {
+				return bean;
+			}
+			DefaultStateMachineEventPublisher publisher = (DefaultStateMachineEventPublisher) bean;
+			if (events.getTypes() != null && !events.getTypes().isEmpty()) {
+				publisher.setEventTypes(events.getTypes().toArray(new Class[0]));
+			}
+			StateMachineEventsAsyncProperties async = events.getAsync();
+			if (async != null && async.isEnabled()) {
+				publisher.setAsyncPublishing(async.getCapacity(), async.getDrainSize(), async.getOverflowPolicy());
+			}
+			return bean;
+		}
+	}
+}
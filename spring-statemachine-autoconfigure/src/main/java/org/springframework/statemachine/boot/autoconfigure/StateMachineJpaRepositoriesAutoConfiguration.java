@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,8 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.statemachine.data.jpa.JpaRepositoryState;
@@ -38,4 +40,27 @@ import org.springframework.statemachine.data.jpa.JpaStateRepository;
 @EnableJpaRepositories(basePackageClasses = { JpaStateRepository.class })
 public class StateMachineJpaRepositoriesAutoConfiguration {
 
+	/**
+	 * Enables Hibernate JDBC batching unless already configured so that rows
+	 * written by Hibernate, like collection rows of inserted state machines,
+	 * are written in batches. Changes global Hibernate settings and thus is
+	 * opt-in.
+	 */
+	@Configuration
+	@ConditionalOnClass(name = "org.hibernate.Session")
+	@ConditionalOnProperty(prefix = "spring.statemachine.data.jpa.batching", name = "enabled", havingValue = "true", matchIfMissing = false)
+	public static class StateMachineJpaBatchingConfiguration {
+
+		private static final String BATCH_SIZE = "50";
+
+		@Bean
+		public HibernatePropertiesCustomizer stateMachineHibernatePropertiesCustomizer() {
+			return properties -> {
+				properties.putIfAbsent("hibernate.jdbc.batch_size", BATCH_SIZE);
+				properties.putIfAbsent("hibernate.jdbc.batch_versioned_data", "true");
+				properties.putIfAbsent("hibernate.order_inserts", "true");
+				properties.putIfAbsent("hibernate.order_updates", "true");
+			};
+		}
+	}
 }
@@ -20,10 +20,12 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+import org.springframework.messaging.Message;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.boot.actuate.StateMachineTraceRepository;
 import org.springframework.statemachine.monitor.AbstractStateMachineMonitor;
+import org.springframework.statemachine.monitor.StateMachineMetrics;
 import org.springframework.statemachine.monitor.StateMachineMonitor;
 import org.springframework.statemachine.state.State;
 import org.springframework.statemachine.transition.Transition;
@@ -48,6 +50,7 @@ public class BootStateMachineMonitor<S, E> extends AbstractStateMachineMonitor<S
 
 	private final StateMachineTraceRepository traceRepository;
 	private final MeterRegistry meterRegistry;
+	private final StateMachineMetrics<S, E> stateMachineMetrics;
 
 	/**
 	 * Instantiates a new boot state machine monitor.
@@ -57,8 +60,21 @@ public class BootStateMachineMonitor<S, E> extends AbstractStateMachineMonitor<S
 	 */
 	public BootStateMachineMonitor(MeterRegistry meterRegistry,
 			StateMachineTraceRepository stateMachineTraceRepository) {
+		this(meterRegistry, stateMachineTraceRepository, null);
+	}
+
+	/**
+	 * Instantiates a new boot state machine monitor.
+	 *
+	 * @param meterRegistry the meter registry
+	 * @param stateMachineTraceRepository the statemachine trace repository
+	 * @param stateMachineMetrics the state machine metrics
+	 */
+	public BootStateMachineMonitor(MeterRegistry meterRegistry,
+			StateMachineTraceRepository stateMachineTraceRepository, StateMachineMetrics<S, E> stateMachineMetrics) {
 		this.meterRegistry = meterRegistry;
 		this.traceRepository = stateMachineTraceRepository;
+		this.stateMachineMetrics = stateMachineMetrics;
 	}
 
 	@Override
@@ -84,6 +100,50 @@ public class BootStateMachineMonitor<S, E> extends AbstractStateMachineMonitor<S
 		traceRepository.add(traceInfo);
 	}
 
+	@Override
+	public void stateEntered(StateMachine<S, E> stateMachine, State<S, E> state) {
+		if (stateMachineMetrics != null) {
+			stateMachineMetrics.stateEntered(stateMachine, state);
+		}
+	}
+
+	@Override
+	public void stateExited(StateMachine<S, E> stateMachine, State<S, E> state) {
+		if (stateMachineMetrics != null) {
+			stateMachineMetrics.stateExited(stateMachine, state);
+		}
+	}
+
+	@Override
+	public void eventNotAccepted(StateMachine<S, E> stateMachine, State<S, E> state, Message<E> event) {
+		if (stateMachineMetrics != null) {
+			stateMachineMetrics.eventNotAccepted(stateMachine, state, event);
+		}
+	}
+
+	@Override
+	public void eventDeferred(StateMachine<S, E> stateMachine, Message<E> event, int deferredEventCount) {
+		if (stateMachineMetrics != null) {
+			stateMachineMetrics.eventDeferred(stateMachine, event, deferredEventCount);
+		}
+	}
+
+	@Override
+	public void stateMachineStopped(StateMachine<S, E> stateMachine) {
+		if (stateMachineMetrics != null) {
+			stateMachineMetrics.stateMachineStopped(stateMachine);
+		}
+	}
+
+	/**
+	 * Gets the state machine metrics.
+	 *
+	 * @return the state machine metrics or {@code null} if not enabled
+	 */
+	public StateMachineMetrics<S, E> getStateMachineMetrics() {
+		return stateMachineMetrics;
+	}
+
 	private Counter.Builder getTransitionCounterBuilder(Transition<S, E> transition) {
 		String transitionName = transitionToName(transition);
 		Counter.Builder builder = Counter.builder("ssm.transition.transit")
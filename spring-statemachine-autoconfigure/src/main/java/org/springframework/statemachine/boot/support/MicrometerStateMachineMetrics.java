@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.boot.support;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.statemachine.monitor.StateMachineMetrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@link StateMachineMetrics} exposing aggregated metrics via Micrometer.
+ * Meters read aggregated counters when published so recording doesn't go
+ * through a {@link MeterRegistry}. Tags are limited to bounded state and
+ * event keys.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class MicrometerStateMachineMetrics<S, E> extends StateMachineMetrics<S, E> {
+
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Instantiates a new micrometer state machine metrics.
+	 *
+	 * @param meterRegistry the meter registry
+	 * @param maxStates the maximum number of distinct states
+	 * @param maxEvents the maximum number of distinct events
+	 */
+	public MicrometerStateMachineMetrics(MeterRegistry meterRegistry, int maxStates, int maxEvents) {
+		super(maxStates, maxEvents);
+		this.meterRegistry = meterRegistry;
+		FunctionCounter.builder("ssm.event.deferred", this, m -> m.getDeferredEventCount())
+				.description("Counter of deferred events")
+				.register(meterRegistry);
+		Gauge.builder("ssm.event.deferred.max", this, m -> m.getMaxDeferredEventCount())
+				.description("Maximum deferred event queue depth")
+				.register(meterRegistry);
+	}
+
+	@Override
+	protected void onStateMetricsRegistered(StateMetrics metrics) {
+		String state = metrics.getState();
+		Gauge.builder("ssm.state.occupancy", metrics, m -> m.getOccupancy())
+				.tags("state", state)
+				.description("Number of machines in a state")
+				.register(meterRegistry);
+		FunctionCounter.builder("ssm.state.entry", metrics, m -> m.getEntryCount())
+				.tags("state", state)
+				.description("Counter of state entries")
+				.register(meterRegistry);
+		FunctionTimer.builder("ssm.state.dwell", metrics, m -> m.getDwellCount(), m -> m.getDwellTime(),
+				TimeUnit.MILLISECONDS)
+				.tags("state", state)
+				.description("Time spent in a state")
+				.register(meterRegistry);
+		long[] buckets = getDwellBuckets();
+		for (int i = 0; i < buckets.length; i++) {
+			final int index = i;
+			FunctionCounter.builder("ssm.state.dwell.histogram", metrics, m -> m.getDwellBucketCount(index))
+					.tags("state", state, "le", Long.toString(buckets[i]))
+					.description("Cumulative count of dwell times in millis")
+					.register(meterRegistry);
+		}
+	}
+
+	@Override
+	protected void onDeniedEventMetricsRegistered(DeniedEventMetrics metrics) {
+		FunctionCounter.builder("ssm.event.denied", metrics, m -> m.getCount())
+				.tags("state", metrics.getState(), "event", metrics.getEvent())
+				.description("Counter of events not accepted")
+				.register(meterRegistry);
+	}
+}
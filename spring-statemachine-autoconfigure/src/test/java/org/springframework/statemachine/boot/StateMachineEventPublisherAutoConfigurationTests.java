@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.boot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.statemachine.boot.autoconfigure.StateMachineEventPublisherAutoConfiguration;
+import org.springframework.statemachine.event.DefaultStateMachineEventPublisher;
+import org.springframework.statemachine.event.OnExtendedStateChanged;
+import org.springframework.statemachine.event.OnStateChangedEvent;
+import org.springframework.statemachine.event.StateMachineEvent;
+
+/**
+ * Tests for {@link StateMachineEventPublisherAutoConfiguration}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class StateMachineEventPublisherAutoConfigurationTests {
+
+	private AnnotationConfigApplicationContext context;
+
+	@AfterEach
+	public void close() {
+		if (context != null) {
+			context.close();
+		}
+	}
+
+	@Test
+	public void testDefaults() throws Exception {
+		context = new AnnotationConfigApplicationContext();
+		context.register(StateMachineEventPublisherAutoConfiguration.class, Config1.class);
+		context.refresh();
+		DefaultStateMachineEventPublisher publisher = context.getBean(DefaultStateMachineEventPublisher.class);
+		Object dispatcher = TestUtils.readField("dispatcher", publisher);
+		Set<Class<?>> eventTypes = TestUtils.readField("eventTypes", publisher);
+		assertThat(dispatcher).isNull();
+		assertThat(eventTypes).isNull();
+	}
+
+	@Test
+	public void testEventsConfigured() throws Exception {
+		context = new AnnotationConfigApplicationContext();
+		TestPropertyValues
+				.of("spring.statemachine.events.types=org.springframework.statemachine.event.OnExtendedStateChanged",
+						"spring.statemachine.events.async.enabled=true",
+						"spring.statemachine.events.async.capacity=16",
+						"spring.statemachine.events.async.drain-size=4",
+						"spring.statemachine.events.async.overflow-policy=block")
+				.applyTo(context);
+		context.register(StateMachineEventPublisherAutoConfiguration.class, Config1.class);
+		context.refresh();
+		DefaultStateMachineEventPublisher publisher = context.getBean(DefaultStateMachineEventPublisher.class);
+		Object dispatcher = TestUtils.readField("dispatcher", publisher);
+		Set<Class<?>> eventTypes = TestUtils.readField("eventTypes", publisher);
+		assertThat(dispatcher).isNotNull();
+		assertThat(TestUtils.<Integer>readField("drainSize", dispatcher)).isEqualTo(4);
+		assertThat(eventTypes).containsExactly(OnExtendedStateChanged.class);
+
+		Config1 config = context.getBean(Config1.class);
+		publisher.publishStateChanged(this, null, null);
+		publisher.publishExtendedStateChanged(this, "key", "value");
+		assertThat(config.latch.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(config.events).hasSize(1);
+		assertThat(config.events.get(0)).isInstanceOf(OnExtendedStateChanged.class);
+		assertThat(config.threads).doesNotContain(Thread.currentThread());
+		assertThat(config.events).noneMatch(e -> e instanceof OnStateChangedEvent);
+	}
+
+	@Configuration
+	public static class Config1 {
+
+		final List<StateMachineEvent> events = new CopyOnWriteArrayList<>();
+		final List<Thread> threads = new CopyOnWriteArrayList<>();
+		final CountDownLatch latch = new CountDownLatch(1);
+
+		@Bean
+		public DefaultStateMachineEventPublisher stateMachineEventPublisher() {
+			return new DefaultStateMachineEventPublisher();
+		}
+
+		@Bean
+		public ApplicationListener<StateMachineEvent> stateMachineEventListener() {
+			return new ApplicationListener<StateMachineEvent>() {
+
+				@Override
+				public void onApplicationEvent(StateMachineEvent event) {
+					events.add(event);
+					threads.add(Thread.currentThread());
+					latch.countDown();
+				}
+			};
+		}
+	}
+}
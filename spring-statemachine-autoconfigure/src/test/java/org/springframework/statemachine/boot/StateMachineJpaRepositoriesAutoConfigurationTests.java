@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2020 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -52,6 +52,22 @@ public class StateMachineJpaRepositoriesAutoConfigurationTests {
 
 		context.refresh();
 		assertThat(context.containsBean("jpaStateRepository")).isTrue();
+		assertThat(context.containsBean("stateMachineHibernatePropertiesCustomizer")).isFalse();
+	}
+
+	@Test
+	public void testJpaBatchingEnabled() throws Exception {
+		context = new AnnotationConfigApplicationContext();
+		TestPropertyValues.of("spring.statemachine.data.jpa.batching.enabled=true").applyTo(context);
+		context.register(TestConfiguration.class);
+		context.register(
+				EmbeddedDataSourceConfiguration.class,
+				HibernateJpaAutoConfiguration.class,
+				JpaRepositoriesAutoConfiguration.class,
+				StateMachineJpaRepositoriesAutoConfiguration.class);
+
+		context.refresh();
+		assertThat(context.containsBean("stateMachineHibernatePropertiesCustomizer")).isTrue();
 	}
 
 	@Test
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2020 the original author or authors.
+ * Copyright 2017-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,12 @@ import static org.springframework.statemachine.TestUtils.doStartAndAssert;
 import static org.springframework.statemachine.TestUtils.resolveFactory;
 import static org.springframework.statemachine.TestUtils.resolvePersister;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -28,6 +34,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
 import org.springframework.statemachine.StateMachinePersist;
 import org.springframework.statemachine.buildtests.tck.redis.EnabledOnRedis;
 import org.springframework.statemachine.config.EnableStateMachineFactory;
@@ -39,6 +46,8 @@ import org.springframework.statemachine.data.redis.RedisStateMachineContextRepos
 import org.springframework.statemachine.data.redis.RedisStateMachinePersister;
 import org.springframework.statemachine.persist.RepositoryStateMachinePersist;
 import org.springframework.statemachine.persist.StateMachinePersister;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
 
 @EnabledOnRedis
 public class RedisPersistTests extends AbstractBuildTests {
@@ -99,6 +108,31 @@ public class RedisPersistTests extends AbstractBuildTests {
 		assertThat(stateMachine.getState().getIds()).containsOnly(TestStates.S4);
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testWriteAllAndReadAll() throws Exception {
+		context.register(RedisConfig.class, Config1.class);
+		context.refresh();
+
+		StateMachinePersist<TestStates, TestEvents, String> persist = context.getBean(StateMachinePersist.class);
+		List<StateMachineContext<TestStates, TestEvents>> childs = new ArrayList<>();
+		childs.add(new DefaultStateMachineContext<TestStates, TestEvents>(TestStates.S20, null, null,
+				new DefaultExtendedState(), null, "R1"));
+		Map<String, StateMachineContext<TestStates, TestEvents>> contexts = new LinkedHashMap<>();
+		contexts.put("xxx1", new DefaultStateMachineContext<TestStates, TestEvents>(childs, TestStates.S2, null, null,
+				new DefaultExtendedState(), null, "testid1"));
+		contexts.put("xxx2", new DefaultStateMachineContext<TestStates, TestEvents>(TestStates.S4, null, null,
+				new DefaultExtendedState(), null, "testid2"));
+		persist.writeAll(contexts);
+
+		Map<String, StateMachineContext<TestStates, TestEvents>> read = persist.readAll(Arrays.asList("xxx1", "xxx2", "xxx3"));
+		assertThat(read).containsOnlyKeys("xxx1", "xxx2");
+		assertThat(read.get("xxx1").getState()).isEqualTo(TestStates.S2);
+		assertThat(read.get("xxx1").getId()).isEqualTo("testid1");
+		assertThat(read.get("xxx1").getChilds()).extracting(child -> child.getState()).containsExactly(TestStates.S20);
+		assertThat(read.get("xxx2").getState()).isEqualTo(TestStates.S4);
+	}
+
 	@Configuration
 	static class RedisConfig {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2017 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,20 +15,50 @@
  */
 package org.springframework.statemachine.cluster;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher.Event.EventType;
 import org.springframework.integration.leader.Context;
 import org.springframework.integration.leader.DefaultCandidate;
 import org.springframework.integration.zookeeper.leader.LeaderInitiator;
 import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachineException;
 import org.springframework.statemachine.ensemble.StateMachineEnsemble;
+import org.springframework.statemachine.ensemble.StateMachineEnsembleException;
 import org.springframework.statemachine.zookeeper.ZookeeperStateMachineEnsemble;
+import org.springframework.util.Assert;
 
 /**
  * {@link StateMachineEnsemble} backed by a zookeeper and leader functionality
  * from a Spring Cloud Cluster.
+ * <p>
+ * When group commit is enabled, members don't write state changes directly
+ * but propose those as sequential nodes together with a state version
+ * a change is based on. Elected leader then commits proposals in order,
+ * several contexts within one transaction, and rejects proposals based on
+ * a stale version exactly like a versioned write would fail. Member waits
+ * for its proposal to be either committed or rejected, and a rejection
+ * fails {@link #setState(StateMachineContext)} so that a transition is
+ * vetoed. Other members learn about changes through an existing log.
  *
  * @author Janne Valkealahti
  *
@@ -37,10 +67,23 @@ import org.springframework.statemachine.zookeeper.ZookeeperStateMachineEnsemble;
  */
 public class LeaderZookeeperStateMachineEnsemble<S, E> extends ZookeeperStateMachineEnsemble<S, E> {
 
+	private final static Log log = LogFactory.getLog(LeaderZookeeperStateMachineEnsemble.class);
+	private final static int DEFAULT_MAX_BATCH_SIZE = 16;
+	private final static String PATH_PROPOSALS = "data/proposals";
+	private final static String PROPOSAL_PREFIX = "p-";
+	private final static byte[] REJECTED = new byte[0];
+	private final static long DEFAULT_PROPOSAL_TIMEOUT = 30000;
 	private final Map<StateMachine<S, E>, InitiatorHolder> holders = new HashMap<>();
 	private final CuratorFramework curatorClient;
 	private final String basePath;
-	private StateMachine<S, E> leader;
+	private final String proposalPath;
+	private final CuratorWatcher proposalWatcher = new ProposalWatcher();
+	private final AtomicBoolean commitScheduled = new AtomicBoolean();
+	private volatile StateMachine<S, E> leader;
+	private boolean groupCommit;
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+	private long proposalTimeout = DEFAULT_PROPOSAL_TIMEOUT;
+	private volatile ExecutorService committer;
 
 	/**
 	 * Instantiates a new leader zookeeper state machine ensemble.
@@ -52,6 +95,7 @@ public class LeaderZookeeperStateMachineEnsemble<S, E> extends ZookeeperStateMac
 		super(curatorClient, basePath);
 		this.curatorClient = curatorClient;
 		this.basePath = basePath;
+		this.proposalPath = basePath + "/" + PATH_PROPOSALS;
 	}
 
 	/**
@@ -66,6 +110,96 @@ public class LeaderZookeeperStateMachineEnsemble<S, E> extends ZookeeperStateMac
 		super(curatorClient, basePath, cleanState, logSize);
 		this.curatorClient = curatorClient;
 		this.basePath = basePath;
+		this.proposalPath = basePath + "/" + PATH_PROPOSALS;
+	}
+
+	@Override
+	protected void onInit() throws Exception {
+		super.onInit();
+		if (groupCommit) {
+			try {
+				curatorClient.create().creatingParentsIfNeeded().forPath(proposalPath);
+			} catch (KeeperException.NodeExistsException e) {
+			}
+		}
+	}
+
+	@Override
+	protected void doStart() {
+		if (groupCommit && committer == null) {
+			committer = Executors.newSingleThreadExecutor();
+		}
+		super.doStart();
+	}
+
+	@Override
+	protected void doStop() {
+		super.doStop();
+		if (committer != null) {
+			committer.shutdown();
+			committer = null;
+		}
+	}
+
+	/**
+	 * Sets if state changes are committed by a leader in batches. Needs to
+	 * be set consistently for all members of an ensemble.
+	 * Defaults to {@code false}.
+	 *
+	 * @param groupCommit the group commit flag
+	 */
+	public void setGroupCommit(boolean groupCommit) {
+		this.groupCommit = groupCommit;
+	}
+
+	/**
+	 * Sets the maximum number of contexts committed within one transaction
+	 * in a group commit mode. Effective size is capped by a log size so that
+	 * members are always able to replay a whole batch.
+	 *
+	 * @param maxBatchSize the max batch size
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.state(maxBatchSize > 0, "Max batch size must be positive");
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Sets the time in milliseconds a member waits for its proposal to be
+	 * committed or rejected in a group commit mode. Proposal not decided
+	 * within this time is withdrawn and fails as rejected.
+	 * Defaults to {@code 30000}.
+	 *
+	 * @param proposalTimeout the proposal timeout
+	 */
+	public void setProposalTimeout(long proposalTimeout) {
+		this.proposalTimeout = proposalTimeout;
+	}
+
+	@Override
+	public void setState(StateMachineContext<S, E> context) {
+		if (!groupCommit) {
+			super.setState(context);
+			return;
+		}
+		int baseVersion = getStateVersion();
+		if (log.isDebugEnabled()) {
+			log.debug("Proposing state context=" + context + " based on version " + baseVersion);
+		}
+		String path;
+		try {
+			path = curatorClient.create().withMode(CreateMode.PERSISTENT_SEQUENTIAL)
+					.forPath(proposalPath + "/" + PROPOSAL_PREFIX, encodeProposal(baseVersion, context));
+		} catch (Exception e) {
+			throw new StateMachineException("Error proposing state", e);
+		}
+		if (awaitProposal(path)) {
+			// accepted proposal was committed right on top of its base version
+			stateCommitted(context, baseVersion + 1);
+		} else {
+			throw new StateMachineEnsembleException("Proposal " + path + " based on version " + baseVersion
+					+ " was rejected");
+		}
 	}
 
 	@Override
@@ -91,6 +225,148 @@ public class LeaderZookeeperStateMachineEnsemble<S, E> extends ZookeeperStateMac
 		return leader;
 	}
 
+	private void scheduleCommit() {
+		ExecutorService committer = this.committer;
+		if (committer != null && leader != null && commitScheduled.compareAndSet(false, true)) {
+			committer.execute(() -> {
+				commitScheduled.set(false);
+				try {
+					commitProposals();
+				} catch (Exception e) {
+					log.error("Error committing proposals", e);
+					notifyError(new StateMachineEnsembleException("Error committing proposals", e));
+				}
+			});
+		}
+	}
+
+	/**
+	 * Waits until a proposal is either committed, meaning its node has been
+	 * deleted by a leader, or rejected. Rejected or timed out proposal is
+	 * removed by a proposer.
+	 *
+	 * @param path the proposal path
+	 * @return true if proposal was committed, false if rejected
+	 */
+	private boolean awaitProposal(String path) {
+		long deadline = System.currentTimeMillis() + proposalTimeout;
+		try {
+			while (true) {
+				CountDownLatch latch = new CountDownLatch(1);
+				byte[] data;
+				try {
+					data = curatorClient.getData().usingWatcher((CuratorWatcher) event -> latch.countDown())
+							.forPath(path);
+				} catch (KeeperException.NoNodeException e) {
+					return true;
+				}
+				if (Arrays.equals(data, REJECTED)) {
+					curatorClient.delete().forPath(path);
+					return false;
+				}
+				long wait = deadline - System.currentTimeMillis();
+				if (wait <= 0 || !latch.await(wait, TimeUnit.MILLISECONDS)) {
+					try {
+						// withdrawn proposal fails a leader transaction which tries to commit it
+						curatorClient.delete().forPath(path);
+					} catch (KeeperException.NoNodeException e) {
+						return true;
+					}
+					log.warn("Proposal " + path + " not decided within " + proposalTimeout + "ms, withdrawn");
+					return false;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StateMachineException("Interrupted while waiting proposal " + path, e);
+		} catch (Exception e) {
+			throw new StateMachineException("Error waiting proposal " + path, e);
+		}
+	}
+
+	/**
+	 * Commits pending proposals in sequence order, at most a batch size
+	 * within one transaction which also deletes committed proposals.
+	 * Proposals not based on a version they would be committed on top of
+	 * are rejected. If a state or proposals changed under a leader, nothing
+	 * gets committed and proposals are validated again.
+	 */
+	private void commitProposals() throws Exception {
+		int batchSize = Math.min(maxBatchSize, getLogSize());
+		while (leader != null) {
+			List<String> children = curatorClient.getChildren().usingWatcher(proposalWatcher).forPath(proposalPath);
+			Collections.sort(children);
+			int expectedVersion = readStateVersion();
+			int version = expectedVersion;
+			List<StateMachineContext<S, E>> contexts = new ArrayList<>();
+			List<String> accepted = new ArrayList<>();
+			List<String> rejected = new ArrayList<>();
+			boolean more = false;
+			for (String child : children) {
+				if (contexts.size() >= batchSize) {
+					more = true;
+					break;
+				}
+				String path = proposalPath + "/" + child;
+				byte[] data;
+				try {
+					data = curatorClient.getData().forPath(path);
+				} catch (KeeperException.NoNodeException e) {
+					continue;
+				}
+				if (Arrays.equals(data, REJECTED)) {
+					// waiting proposer to remove it
+					continue;
+				}
+				ByteBuffer buffer = ByteBuffer.wrap(data);
+				int baseVersion = buffer.getInt();
+				if (baseVersion == version) {
+					contexts.add(deserializeContext(Arrays.copyOfRange(data, buffer.position(), data.length)));
+					accepted.add(path);
+					version++;
+				} else {
+					rejected.add(path);
+				}
+			}
+			if (contexts.isEmpty() && rejected.isEmpty()) {
+				return;
+			}
+			if (log.isDebugEnabled()) {
+				log.debug("Committing " + contexts.size() + " and rejecting " + rejected.size() + " proposals of "
+						+ children.size());
+			}
+			if (!contexts.isEmpty()) {
+				try {
+					setStates(contexts, expectedVersion, accepted);
+				} catch (StateMachineException e) {
+					if (e.getCause() instanceof KeeperException.BadVersionException
+							|| e.getCause() instanceof KeeperException.NoNodeException) {
+						// state changed or proposal withdrawn, nothing was written
+						if (log.isDebugEnabled()) {
+							log.debug("Batch not committed, validating proposals again", e);
+						}
+						continue;
+					}
+					throw e;
+				}
+			}
+			for (String path : rejected) {
+				try {
+					curatorClient.setData().forPath(path, REJECTED);
+				} catch (KeeperException.NoNodeException e) {
+				}
+			}
+			if (!more) {
+				return;
+			}
+		}
+	}
+
+	private byte[] encodeProposal(int baseVersion, StateMachineContext<S, E> context) {
+		byte[] data = serializeContext(context);
+		return ByteBuffer.allocate(4 + data.length).putInt(baseVersion).put(data).array();
+	}
+
 	private class InitiatorHolder {
 		final StateMachineCandidate candidate;
 		final LeaderInitiator initiator;
@@ -114,6 +390,7 @@ public class LeaderZookeeperStateMachineEnsemble<S, E> extends ZookeeperStateMac
 			super.onGranted(ctx);
 			leader = stateMachine;
 			notifyGranted(stateMachine);
+			scheduleCommit();
 		}
 
 		@Override
@@ -123,4 +400,14 @@ public class LeaderZookeeperStateMachineEnsemble<S, E> extends ZookeeperStateMac
 			notifyRevoked(stateMachine);
 		}
 	}
+
+	private class ProposalWatcher implements CuratorWatcher {
+
+		@Override
+		public void process(WatchedEvent event) throws Exception {
+			if (event.getType() == EventType.NodeChildrenChanged) {
+				scheduleCommit();
+			}
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2020 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,13 @@
 package org.springframework.statemachine.cluster;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -27,6 +33,7 @@ import org.springframework.context.annotation.AnnotationConfigApplicationContext
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
 import org.springframework.statemachine.config.EnableStateMachineFactory;
 import org.springframework.statemachine.config.StateMachineConfigurerAdapter;
 import org.springframework.statemachine.config.StateMachineFactory;
@@ -35,6 +42,9 @@ import org.springframework.statemachine.config.builders.StateMachineStateConfigu
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
 import org.springframework.statemachine.ensemble.EnsembleListenerAdapter;
 import org.springframework.statemachine.ensemble.StateMachineEnsemble;
+import org.springframework.statemachine.ensemble.StateMachineEnsembleException;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
 
 public class LeaderZookeeperStateMachineEnsembleTests extends AbstractZookeeperTests {
 
@@ -65,6 +75,68 @@ public class LeaderZookeeperStateMachineEnsembleTests extends AbstractZookeeperT
 		assertThat(stateMachineEnsemble.getLeader()).isEqualTo(machine2);
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testGroupCommit() throws Exception {
+		context.register(ZkServerConfig.class, BaseConfig.class);
+		context.refresh();
+
+		CuratorFramework curatorClient = context.getBean("curatorClient", CuratorFramework.class);
+
+		LeaderZookeeperStateMachineEnsemble<String, String> ensemble1 =
+				new LeaderZookeeperStateMachineEnsemble<String, String>(curatorClient, "/foo", true, 8);
+		LeaderZookeeperStateMachineEnsemble<String, String> ensemble2 =
+				new LeaderZookeeperStateMachineEnsemble<String, String>(curatorClient, "/foo", false, 8);
+		ensemble1.setGroupCommit(true);
+		ensemble2.setGroupCommit(true);
+		ensemble1.setMaxBatchSize(4);
+		ensemble2.setMaxBatchSize(4);
+		TestEnsembleListener listener1 = new TestEnsembleListener();
+		StateChangeListener listener2 = new StateChangeListener(10);
+		ensemble1.addEnsembleListener(listener1);
+		ensemble2.addEnsembleListener(listener2);
+
+		ensemble1.afterPropertiesSet();
+		ensemble1.start();
+		ensemble2.afterPropertiesSet();
+		ensemble2.start();
+
+		ensemble1.join(mock(StateMachine.class));
+		assertThat(listener1.latch.await(2, TimeUnit.SECONDS)).isTrue();
+		ensemble2.join(mock(StateMachine.class));
+
+		for (int i = 0; i < 10; i++) {
+			ensemble2.setState(new DefaultStateMachineContext<String, String>("S" + i, "E" + i,
+					new HashMap<String, Object>(), new DefaultExtendedState()));
+		}
+
+		assertThat(listener2.latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(listener2.events).hasSize(10);
+		for (int i = 0; i < 10; i++) {
+			assertThat(listener2.events.get(i).getEvent()).isEqualTo("E" + i);
+		}
+		assertThat(ensemble1.getState().getState()).isEqualTo("S9");
+		assertThat(curatorClient.getChildren().forPath("/foo/data/proposals")).isEmpty();
+
+		// member based on a stale version gets its change rejected
+		LeaderZookeeperStateMachineEnsemble<String, String> ensemble3 =
+				new LeaderZookeeperStateMachineEnsemble<String, String>(curatorClient, "/foo", false, 8) {
+
+			@Override
+			protected int getStateVersion() {
+				return 1;
+			}
+		};
+		ensemble3.setGroupCommit(true);
+		ensemble3.afterPropertiesSet();
+		ensemble3.start();
+		assertThatThrownBy(() -> ensemble3.setState(new DefaultStateMachineContext<String, String>("SX", "EX",
+				new HashMap<String, Object>(), new DefaultExtendedState())))
+						.isInstanceOf(StateMachineEnsembleException.class);
+		assertThat(ensemble1.getState().getState()).isEqualTo("S9");
+		assertThat(curatorClient.getChildren().forPath("/foo/data/proposals")).isEmpty();
+	}
+
 	@Configuration
 	@EnableStateMachineFactory
 	static class Config1 extends StateMachineConfigurerAdapter<String, String> {
@@ -134,4 +206,20 @@ public class LeaderZookeeperStateMachineEnsembleTests extends AbstractZookeeperT
 		}
 	}
 
+	static class StateChangeListener extends EnsembleListenerAdapter<String, String> {
+		final CountDownLatch latch;
+		final List<StateMachineContext<String, String>> events =
+				Collections.synchronizedList(new ArrayList<StateMachineContext<String, String>>());
+
+		StateChangeListener(int count) {
+			this.latch = new CountDownLatch(count);
+		}
+
+		@Override
+		public void stateChanged(StateMachineContext<String, String> context) {
+			events.add(context);
+			latch.countDown();
+		}
+	}
+
 }
@@ -15,6 +15,11 @@
  */
 package org.springframework.statemachine;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
 /**
  * Repository interface for saving and retrieving {@link StateMachineContext} objects.
  *
@@ -42,4 +47,32 @@ public interface StateMachineContextRepository<S, E, T extends StateMachineConte
 	 */
 	T getContext(String id);
 
+	/**
+	 * Save multiple contexts.
+	 *
+	 * @param contexts the contexts keyed by id
+	 */
+	default void saveAll(Map<String, T> contexts) {
+		for (Entry<String, T> entry : contexts.entrySet()) {
+			save(entry.getValue(), entry.getKey());
+		}
+	}
+
+	/**
+	 * Gets multiple contexts. Ids without a context are not present in a
+	 * returned map.
+	 *
+	 * @param ids the ids
+	 * @return the contexts keyed by id
+	 */
+	default Map<String, T> getContexts(Collection<String> ids) {
+		Map<String, T> contexts = new LinkedHashMap<>();
+		for (String id : ids) {
+			T context = getContext(id);
+			if (context != null) {
+				contexts.put(id, context);
+			}
+		}
+		return contexts;
+	}
 }
@@ -15,6 +15,10 @@
  */
 package org.springframework.statemachine;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 
 /**
  * {@code StateMachinePersist} is an interface handling serialization
@@ -48,4 +52,38 @@ public interface StateMachinePersist<S, E, T> {
 	 */
 	StateMachineContext<S, E> read(T contextObj) throws Exception;
 
+	/**
+	 * Write multiple {@link StateMachineContext}s into a persistent store.
+	 * Default implementation writes contexts one by one, implementations
+	 * should override this if a store supports batched writes.
+	 *
+	 * @param contexts the contexts keyed by context object
+	 * @throws Exception the exception
+	 */
+	default void writeAll(Map<T, StateMachineContext<S, E>> contexts) throws Exception {
+		for (Entry<T, StateMachineContext<S, E>> entry : contexts.entrySet()) {
+			write(entry.getValue(), entry.getKey());
+		}
+	}
+
+	/**
+	 * Read multiple {@link StateMachineContext}s from a persistent store.
+	 * Context objects not found from a store are not present in a returned
+	 * map. Default implementation reads contexts one by one, implementations
+	 * should override this if a store supports batched reads.
+	 *
+	 * @param contextObjs the context objects
+	 * @return the contexts keyed by context object
+	 * @throws Exception the exception
+	 */
+	default Map<T, StateMachineContext<S, E>> readAll(Collection<T> contextObjs) throws Exception {
+		Map<T, StateMachineContext<S, E>> contexts = new LinkedHashMap<>();
+		for (T contextObj : contextObjs) {
+			StateMachineContext<S, E> context = read(contextObj);
+			if (context != null) {
+				contexts.put(contextObj, context);
+			}
+		}
+		return contexts;
+	}
 }
@@ -40,4 +40,15 @@ public interface ActionListener<S, E> {
 	 * @param duration the transition duration
 	 */
 	void onExecute(StateMachine<S, E> stateMachine, Function<StateContext<S, E>, Mono<Void>> action, long duration);
+
+	/**
+	 * Notified when a particular action was cancelled before it completed.
+	 *
+	 * @param stateMachine the state machine
+	 * @param action the action
+	 * @param duration the duration action was running
+	 */
+	default void onCancel(StateMachine<S, E> stateMachine, Function<StateContext<S, E>, Mono<Void>> action,
+			long duration) {
+	}
 }
@@ -43,4 +43,13 @@ public class CompositeActionListener<S, E> extends AbstractCompositeItems<Action
 			listener.onExecute(stateMachine, action, duration);
 		}
 	}
+
+	@Override
+	public void onCancel(StateMachine<S, E> stateMachine, Function<StateContext<S, E>, Mono<Void>> action,
+			long duration) {
+		for (Iterator<ActionListener<S, E>> iterator = getItems().reverse(); iterator.hasNext();) {
+			ActionListener<S, E> listener = iterator.next();
+			listener.onCancel(stateMachine, action, duration);
+		}
+	}
 }
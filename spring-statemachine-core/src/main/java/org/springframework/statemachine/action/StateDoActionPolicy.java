@@ -32,5 +32,11 @@ public enum StateDoActionPolicy {
 	/**
 	 * Policy interrupting action after a timeout before state is exited.
 	 */
-	TIMEOUT_CANCEL;
+	TIMEOUT_CANCEL,
+
+	/**
+	 * Policy exiting state immediately and interrupting action asynchronously
+	 * after a timeout if it is still running.
+	 */
+	TIMEOUT_CANCEL_ASYNC;
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2021 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,15 +19,20 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
 import java.util.Stack;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -79,9 +84,11 @@ import org.springframework.statemachine.state.State;
 import org.springframework.statemachine.state.StateHolder;
 import org.springframework.statemachine.state.StateMachineState;
 import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.ExtendedStateSchema;
 import org.springframework.statemachine.support.LifecycleObjectSupport;
 import org.springframework.statemachine.support.StateMachineInterceptor;
 import org.springframework.statemachine.support.StateMachineInterceptorAdapter;
+import org.springframework.statemachine.support.TypedExtendedState;
 import org.springframework.statemachine.support.tree.Tree;
 import org.springframework.statemachine.support.tree.Tree.Node;
 import org.springframework.statemachine.support.tree.TreeTraverser;
@@ -94,6 +101,8 @@ import org.springframework.statemachine.transition.TransitionKind;
 import org.springframework.statemachine.trigger.EventTrigger;
 import org.springframework.statemachine.trigger.TimerTrigger;
 import org.springframework.statemachine.trigger.Trigger;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
 import org.springframework.util.ObjectUtils;
 
 import reactor.core.publisher.Mono;
@@ -123,6 +132,21 @@ public abstract class AbstractStateMachineFactory<S, E> extends LifecycleObjectS
 
 	private StateMachineMonitor<S, E> defaultStateMachineMonitor;
 
+	private final Map<StateMachineModel<S, E>, Boolean> verifiedModels = new ConcurrentReferenceHashMap<>(16,
+			ReferenceType.WEAK);
+
+	private static final Object NO_MACHINE_ID = new Object();
+
+	@SuppressWarnings("serial")
+	private final Map<Object, Optional<Set<S>>> stateIds = Collections.synchronizedMap(
+			new LinkedHashMap<Object, Optional<Set<S>>>(16, 0.75f, true) {
+
+				@Override
+				protected boolean removeEldestEntry(Entry<Object, Optional<Set<S>>> eldest) {
+					return size() > 256;
+				}
+			});
+
 	/**
 	 * Instantiates a new abstract state machine factory.
 	 *
@@ -166,16 +190,20 @@ public abstract class AbstractStateMachineFactory<S, E> extends LifecycleObjectS
 		ArrayList<StateMachine<S, E>> machines = new ArrayList<>();
 
 		StateMachineModel<S, E> stateMachineModel = resolveStateMachineModel(machineId);
-		if (stateMachineModel.getConfigurationData().isVerifierEnabled()) {
+		if (stateMachineModel.getConfigurationData().isVerifierEnabled() && !verifiedModels.containsKey(stateMachineModel)) {
 			StateMachineModelVerifier<S, E> verifier = stateMachineModel.getConfigurationData().getVerifier();
 			if (verifier == null) {
 				verifier = new CompositeStateMachineModelVerifier<S, E>();
 			}
 			verifier.verify(stateMachineModel);
+			// model is immutable once built so it only needs to be verified once
+			verifiedModels.put(stateMachineModel, Boolean.TRUE);
 		}
 
 		// shared
-		DefaultExtendedState defaultExtendedState = new DefaultExtendedState();
+		ExtendedStateSchema extendedStateSchema = stateMachineModel.getConfigurationData().getExtendedStateSchema();
+		ExtendedState defaultExtendedState = extendedStateSchema != null ? new TypedExtendedState(extendedStateSchema)
+				: new DefaultExtendedState();
 
 		StateMachine<S, E> machine = null;
 
@@ -246,6 +274,7 @@ public abstract class AbstractStateMachineFactory<S, E> extends LifecycleObjectS
 						stateData != null ? stateData.getExitActions() : null,
 						new DefaultPseudoState<S, E>(PseudoStateKind.INITIAL), stateMachineModel);
 				rstate.setRegionExecutionPolicy(stateMachineModel.getConfigurationData().getRegionExecutionPolicy());
+				rstate.setRegionExecutionScheduler(stateMachineModel.getConfigurationData().getRegionExecutionScheduler());
 				if (stateData != null) {
 					stateMap.put(stateData.getState(), rstate);
 				} else {
@@ -473,6 +502,56 @@ public abstract class AbstractStateMachineFactory<S, E> extends LifecycleObjectS
 		}
 	}
 
+	private Supplier<Collection<S>> submachineStateIds(StateMachineFactory<S, E> submachineFactory, String machineId) {
+		// ids can only be resolved from a model without building a machine
+		if (!(submachineFactory instanceof AbstractStateMachineFactory)) {
+			return () -> null;
+		}
+		return () -> ((AbstractStateMachineFactory<S, E>) submachineFactory).getStateIds(machineId);
+	}
+
+	/**
+	 * Gets all state ids of a model for a machine, including ids of its
+	 * submachines, or {@code null} if those can't be resolved from models.
+	 * Ids are memoized as resolving a model may build it.
+	 */
+	private Set<S> getStateIds(String machineId) {
+		// without a model factory a model is same for all machines
+		Object key = stateMachineModelFactory == null || machineId == null ? NO_MACHINE_ID : machineId;
+		Optional<Set<S>> ids = stateIds.get(key);
+		if (ids == null) {
+			ids = Optional.ofNullable(collectStateIds(machineId));
+			stateIds.put(key, ids);
+		}
+		return ids.orElse(null);
+	}
+
+	private Set<S> collectStateIds(String machineId) {
+		Set<S> ids = new HashSet<S>();
+		StateMachineModel<S, E> model = resolveStateMachineModel(machineId);
+		for (StateData<S, E> stateData : model.getStatesData().getStateData()) {
+			ids.add(stateData.getState());
+			if (stateData.getSubmachine() != null) {
+				for (State<S, E> state : stateData.getSubmachine().getStates()) {
+					for (State<S, E> s : state.getStates()) {
+						ids.add(s.getId());
+					}
+				}
+			} else if (stateData.getSubmachineFactory() != null) {
+				if (!(stateData.getSubmachineFactory() instanceof AbstractStateMachineFactory)) {
+					return null;
+				}
+				Set<S> submachineIds = ((AbstractStateMachineFactory<S, E>) stateData.getSubmachineFactory())
+						.getStateIds(machineId);
+				if (submachineIds == null) {
+					return null;
+				}
+				ids.addAll(submachineIds);
+			}
+		}
+		return Collections.unmodifiableSet(ids);
+	}
+
 	private int getInitialCount(Collection<StateData<S, E>> stateDatas) {
 		int count = 0;
 		for (StateData<S, E> stateData : stateDatas) {
@@ -560,7 +639,7 @@ public abstract class AbstractStateMachineFactory<S, E> extends LifecycleObjectS
 	private StateMachine<S, E> buildMachine(Map<Object, StateMachine<S, E>> machineMap, Map<S, State<S, E>> stateMap,
 			List<HolderListItem<S, E>> holderList, Collection<StateData<S, E>> stateDatas,
 			Collection<TransitionData<S, E>> transitionsData, BeanFactory beanFactory, Boolean contextEvents,
-			DefaultExtendedState defaultExtendedState, TransitionsData<S, E> stateMachineTransitions, String machineId,
+			ExtendedState defaultExtendedState, TransitionsData<S, E> stateMachineTransitions, String machineId,
 			UUID uuid, StateMachineModel<S, E> stateMachineModel) {
 		State<S, E> state = null;
 		State<S, E> initialState = null;
@@ -573,12 +652,19 @@ public abstract class AbstractStateMachineFactory<S, E> extends LifecycleObjectS
 
 		for (StateData<S, E> stateData : stateDatas) {
 			StateMachine<S, E> stateMachine = machineMap.get(stateData.getState());
+			// submachines from a factory are isolated from states in this
+			// machine so those can be built when state is first used.
+			boolean lazySubmachine = false;
 			if (stateMachine == null) {
 				// get a submachine from state data if we didn't have
 				// it already. stays null if we don't have one.
 				stateMachine = stateData.getSubmachine();
 				if (stateMachine == null && stateData.getSubmachineFactory() != null) {
-					stateMachine = stateData.getSubmachineFactory().getStateMachine(machineId);
+					if (stateMachineModel.getConfigurationData().isLazySubmachines()) {
+						lazySubmachine = true;
+					} else {
+						stateMachine = stateData.getSubmachineFactory().getStateMachine(machineId);
+					}
 				}
 			}
 			state = stateMap.get(stateData.getState());
@@ -589,14 +675,23 @@ public abstract class AbstractStateMachineFactory<S, E> extends LifecycleObjectS
 				}
 				continue;
 			}
-			if (stateMachine != null) {
+			if (stateMachine != null || lazySubmachine) {
 				PseudoState<S, E> pseudoState = null;
 				if (stateData.isInitial()) {
 					pseudoState = new DefaultPseudoState<S, E>(PseudoStateKind.INITIAL);
 				}
-				StateMachineState<S, E> stateMachineState = new StateMachineState<S, E>(stateData.getState(),
-						stateMachine, stateData.getDeferred(), stateData.getEntryActions(), stateData.getExitActions(),
-						pseudoState);
+				StateMachineState<S, E> stateMachineState;
+				if (lazySubmachine) {
+					StateMachineFactory<S, E> submachineFactory = stateData.getSubmachineFactory();
+					stateMachineState = new StateMachineState<S, E>(stateData.getState(),
+							() -> submachineFactory.getStateMachine(machineId), stateData.getDeferred(),
+							stateData.getEntryActions(), stateData.getExitActions(), pseudoState);
+					stateMachineState.setSubmachineStateIds(submachineStateIds(submachineFactory, machineId));
+				} else {
+					stateMachineState = new StateMachineState<S, E>(stateData.getState(), stateMachine,
+							stateData.getDeferred(), stateData.getEntryActions(), stateData.getExitActions(),
+							pseudoState);
+				}
 				stateMachineState
 						.setStateDoActionPolicy(stateMachineModel.getConfigurationData().getStateDoActionPolicy());
 				stateMachineState.setStateDoActionPolicyTimeout(
@@ -710,7 +805,10 @@ public abstract class AbstractStateMachineFactory<S, E> extends LifecycleObjectS
 					}
 					choices.add(new ChoiceStateData<S, E>(holder, c.getGuard(), Actions.from(c.getActions())));
 				}
-				PseudoState<S, E> pseudoState = new ChoicePseudoState<S, E>(choices);
+				ChoicePseudoState<S, E> pseudoState = new ChoicePseudoState<S, E>(choices);
+				pseudoState.setGuardEvaluationPolicy(stateMachineModel.getConfigurationData().getGuardEvaluationPolicy());
+				pseudoState.setGuardEvaluationPolicyTimeout(
+						stateMachineModel.getConfigurationData().getGuardEvaluationPolicyTimeout());
 				state = buildStateInternal(stateData.getState(), stateData.getDeferred(), stateData.getEntryActions(),
 						stateData.getExitActions(), stateData.getStateActions(), pseudoState, stateMachineModel);
 				states.add(state);
@@ -729,7 +827,10 @@ public abstract class AbstractStateMachineFactory<S, E> extends LifecycleObjectS
 					}
 					junctions.add(new JunctionStateData<S, E>(holder, c.getGuard(), Actions.from(c.getActions())));
 				}
-				PseudoState<S, E> pseudoState = new JunctionPseudoState<S, E>(junctions);
+				JunctionPseudoState<S, E> pseudoState = new JunctionPseudoState<S, E>(junctions);
+				pseudoState.setGuardEvaluationPolicy(stateMachineModel.getConfigurationData().getGuardEvaluationPolicy());
+				pseudoState.setGuardEvaluationPolicyTimeout(
+						stateMachineModel.getConfigurationData().getGuardEvaluationPolicyTimeout());
 				state = buildStateInternal(stateData.getState(), stateData.getDeferred(), stateData.getEntryActions(),
 						stateData.getExitActions(), stateData.getStateActions(), pseudoState, stateMachineModel);
 				states.add(state);
@@ -829,6 +930,9 @@ public abstract class AbstractStateMachineFactory<S, E> extends LifecycleObjectS
 					}
 				}
 				JoinPseudoState<S, E> pseudoState = new JoinPseudoState<S, E>(joins, joinTargets);
+				pseudoState.setGuardEvaluationPolicy(stateMachineModel.getConfigurationData().getGuardEvaluationPolicy());
+				pseudoState.setGuardEvaluationPolicyTimeout(
+						stateMachineModel.getConfigurationData().getGuardEvaluationPolicyTimeout());
 
 				state = buildStateInternal(stateData.getState(), stateData.getDeferred(), stateData.getEntryActions(),
 						stateData.getExitActions(), stateData.getStateActions(), pseudoState, stateMachineModel);
@@ -80,6 +80,8 @@ public class ObjectStateMachineFactory<S, E> extends AbstractStateMachineFactory
 		machine.setId(machineId);
 		machine.setHistoryState(historyState);
 		machine.setTransitionConflightPolicy(stateMachineModel.getConfigurationData().getTransitionConflictPolicy());
+		machine.setDeferredEventCapacity(stateMachineModel.getConfigurationData().getDeferredEventCapacity(),
+				stateMachineModel.getConfigurationData().getDeferredEventOverflowPolicy());
 		if (contextEventsEnabled != null) {
 			machine.setContextEventsEnabled(contextEventsEnabled);
 		}
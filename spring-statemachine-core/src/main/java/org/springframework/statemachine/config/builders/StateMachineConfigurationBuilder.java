@@ -40,14 +40,19 @@ import org.springframework.statemachine.config.model.ConfigurationData;
 import org.springframework.statemachine.config.model.StatesData;
 import org.springframework.statemachine.config.model.verifier.StateMachineModelVerifier;
 import org.springframework.statemachine.ensemble.StateMachineEnsemble;
+import org.springframework.statemachine.guard.GuardEvaluationPolicy;
 import org.springframework.statemachine.listener.StateMachineListener;
 import org.springframework.statemachine.monitor.StateMachineMonitor;
 import org.springframework.statemachine.persist.StateMachineRuntimePersister;
 import org.springframework.statemachine.region.RegionExecutionPolicy;
 import org.springframework.statemachine.security.SecurityRule;
+import org.springframework.statemachine.support.DeferredEventOverflowPolicy;
+import org.springframework.statemachine.support.ExtendedStateSchema;
 import org.springframework.statemachine.support.StateMachineInterceptor;
 import org.springframework.statemachine.transition.TransitionConflictPolicy;
 
+import reactor.core.scheduler.Scheduler;
+
 /**
  * {@link AnnotationBuilder} for {@link StatesData}.
  *
@@ -67,6 +72,13 @@ public class StateMachineConfigurationBuilder<S, E>
 	private StateDoActionPolicy stateDoActionPolicy;
 	private Long stateDoActionPolicyTimeout;
 	private RegionExecutionPolicy regionExecutionPolicy;
+	private boolean lazySubmachines = false;
+	private int deferredEventCapacity;
+	private DeferredEventOverflowPolicy deferredEventOverflowPolicy;
+	private ExtendedStateSchema extendedStateSchema;
+	private Scheduler regionExecutionScheduler;
+	private GuardEvaluationPolicy guardEvaluationPolicy;
+	private Long guardEvaluationPolicyTimeout;
 	private StateMachineEnsemble<S, E> ensemble;
 	private final List<StateMachineListener<S, E>> listeners = new ArrayList<StateMachineListener<S, E>>();
 	private boolean securityEnabled = false;
@@ -149,7 +161,9 @@ public class StateMachineConfigurationBuilder<S, E>
 		return new ConfigurationData<S, E>(beanFactory, autoStart, ensemble, listeners, securityEnabled,
 				transitionSecurityAccessDecisionManager, eventSecurityAccessDecisionManager, eventSecurityRule,
 				transitionSecurityRule, verifierEnabled, verifier, machineId, stateMachineMonitor, interceptorsCopy,
-				transitionConflictPolicy, stateDoActionPolicy, stateDoActionPolicyTimeout, regionExecutionPolicy);
+				transitionConflictPolicy, stateDoActionPolicy, stateDoActionPolicyTimeout, regionExecutionPolicy,
+				lazySubmachines, deferredEventCapacity, deferredEventOverflowPolicy, extendedStateSchema,
+				regionExecutionScheduler, guardEvaluationPolicy, guardEvaluationPolicyTimeout);
 	}
 
 	/**
@@ -307,4 +321,54 @@ public class StateMachineConfigurationBuilder<S, E>
 	public void setRegionExecutionPolicy(RegionExecutionPolicy regionExecutionPolicy) {
 		this.regionExecutionPolicy = regionExecutionPolicy;
 	}
+
+	/**
+	 * Sets the lazy submachines flag.
+	 *
+	 * @param lazySubmachines the lazy submachines flag
+	 */
+	public void setLazySubmachines(boolean lazySubmachines) {
+		this.lazySubmachines = lazySubmachines;
+	}
+
+	/**
+	 * Sets the deferred event capacity and overflow policy.
+	 *
+	 * @param deferredEventCapacity the deferred event capacity
+	 * @param deferredEventOverflowPolicy the deferred event overflow policy
+	 */
+	public void setDeferredEventCapacity(int deferredEventCapacity,
+			DeferredEventOverflowPolicy deferredEventOverflowPolicy) {
+		this.deferredEventCapacity = deferredEventCapacity;
+		this.deferredEventOverflowPolicy = deferredEventOverflowPolicy;
+	}
+
+	/**
+	 * Sets the extended state schema.
+	 *
+	 * @param extendedStateSchema the extended state schema
+	 */
+	public void setExtendedStateSchema(ExtendedStateSchema extendedStateSchema) {
+		this.extendedStateSchema = extendedStateSchema;
+	}
+
+	/**
+	 * Sets the region execution scheduler.
+	 *
+	 * @param regionExecutionScheduler the region execution scheduler
+	 */
+	public void setRegionExecutionScheduler(Scheduler regionExecutionScheduler) {
+		this.regionExecutionScheduler = regionExecutionScheduler;
+	}
+
+	/**
+	 * Sets the guard evaluation policy.
+	 *
+	 * @param guardEvaluationPolicy the new guard evaluation policy
+	 * @param guardEvaluationPolicyTimeout the new guard evaluation policy timeout
+	 */
+	public void setGuardEvaluationPolicy(GuardEvaluationPolicy guardEvaluationPolicy, Long guardEvaluationPolicyTimeout) {
+		this.guardEvaluationPolicy = guardEvaluationPolicy;
+		this.guardEvaluationPolicyTimeout = guardEvaluationPolicyTimeout;
+	}
 }
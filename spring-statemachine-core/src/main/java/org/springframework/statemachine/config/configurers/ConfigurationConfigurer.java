@@ -22,10 +22,17 @@ import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.action.StateDoActionPolicy;
 import org.springframework.statemachine.config.builders.StateMachineConfigurationConfigurer;
 import org.springframework.statemachine.config.common.annotation.AnnotationConfigurerBuilder;
+import org.springframework.statemachine.guard.GuardEvaluationPolicy;
 import org.springframework.statemachine.listener.StateMachineListener;
 import org.springframework.statemachine.region.RegionExecutionPolicy;
+import org.springframework.statemachine.support.DeferredEventOverflowPolicy;
+import org.springframework.statemachine.support.ExtendedStateSchema;
+import org.springframework.statemachine.support.TypedExtendedState;
 import org.springframework.statemachine.transition.TransitionConflictPolicy;
 
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * Base {@code ConfigConfigurer} interface for configuring generic config.
  *
@@ -105,4 +112,63 @@ public interface ConfigurationConfigurer<S, E> extends
 	 * @return the configuration configurer
 	 */
 	ConfigurationConfigurer<S, E> regionExecutionPolicy(RegionExecutionPolicy regionExecutionPolicy);
+
+	/**
+	 * Specify if submachines referenced via a state machine factory are built
+	 * lazily when their state is entered or restored, instead of when machine
+	 * is built. Defaults to {@code false}.
+	 *
+	 * @param lazySubmachines the lazy submachines flag
+	 * @return the configuration configurer
+	 */
+	ConfigurationConfigurer<S, E> lazySubmachines(boolean lazySubmachines);
+
+	/**
+	 * Specify a capacity of deferred events and a {@link DeferredEventOverflowPolicy}
+	 * used when capacity is reached. Deferred events are unbounded by default.
+	 *
+	 * @param capacity the capacity
+	 * @param overflowPolicy the overflow policy
+	 * @return the configuration configurer
+	 */
+	ConfigurationConfigurer<S, E> deferredEventCapacity(int capacity, DeferredEventOverflowPolicy overflowPolicy);
+
+	/**
+	 * Specify an {@link ExtendedStateSchema} whose variables are kept in
+	 * primitive slots of a {@link TypedExtendedState}. Variables not in a
+	 * schema are still available as untyped variables.
+	 *
+	 * @param extendedStateSchema the extended state schema
+	 * @return the configuration configurer
+	 */
+	ConfigurationConfigurer<S, E> extendedStateSchema(ExtendedStateSchema extendedStateSchema);
+
+	/**
+	 * Specify a {@link Scheduler} used to run regions with
+	 * {@link RegionExecutionPolicy#PARALLEL}. Defaults to
+	 * {@link Schedulers#parallel()}.
+	 *
+	 * @param regionExecutionScheduler the region execution scheduler
+	 * @return the configuration configurer
+	 */
+	ConfigurationConfigurer<S, E> regionExecutionScheduler(Scheduler regionExecutionScheduler);
+
+	/**
+	 * Specify a {@link GuardEvaluationPolicy} used with choice, junction and
+	 * join pseudo states. Defaults to {@link GuardEvaluationPolicy#SEQUENTIAL}.
+	 *
+	 * @param guardEvaluationPolicy the guard evaluation policy
+	 * @return the configuration configurer
+	 */
+	ConfigurationConfigurer<S, E> guardEvaluationPolicy(GuardEvaluationPolicy guardEvaluationPolicy);
+
+	/**
+	 * Specify a timeout per guard used with {@link GuardEvaluationPolicy#CONCURRENT}.
+	 * Guard not evaluated within a timeout is treated as {@code false}.
+	 *
+	 * @param timeout the timeout
+	 * @param unit the time unit
+	 * @return the configuration configurer
+	 */
+	ConfigurationConfigurer<S, E> guardEvaluationPolicyTimeout(long timeout, TimeUnit unit);
 }
@@ -25,10 +25,15 @@ import org.springframework.statemachine.config.builders.StateMachineConfiguratio
 import org.springframework.statemachine.config.builders.StateMachineConfigurationConfigurer;
 import org.springframework.statemachine.config.common.annotation.AnnotationConfigurerAdapter;
 import org.springframework.statemachine.config.model.ConfigurationData;
+import org.springframework.statemachine.guard.GuardEvaluationPolicy;
 import org.springframework.statemachine.listener.StateMachineListener;
 import org.springframework.statemachine.region.RegionExecutionPolicy;
+import org.springframework.statemachine.support.DeferredEventOverflowPolicy;
+import org.springframework.statemachine.support.ExtendedStateSchema;
 import org.springframework.statemachine.transition.TransitionConflictPolicy;
 
+import reactor.core.scheduler.Scheduler;
+
 /**
  * Default implementation of a {@link ConfigurationConfigurer}.
  *
@@ -48,6 +53,13 @@ public class DefaultConfigurationConfigurer<S, E>
 	private StateDoActionPolicy stateDoActionPolicy;
 	private Long stateDoActionPolicyTimeout;
 	private RegionExecutionPolicy regionExecutionPolicy;
+	private boolean lazySubmachines = false;
+	private int deferredEventCapacity;
+	private DeferredEventOverflowPolicy deferredEventOverflowPolicy;
+	private ExtendedStateSchema extendedStateSchema;
+	private Scheduler regionExecutionScheduler;
+	private GuardEvaluationPolicy guardEvaluationPolicy;
+	private Long guardEvaluationPolicyTimeout;
 	private final List<StateMachineListener<S, E>> listeners = new ArrayList<StateMachineListener<S, E>>();
 
 	@Override
@@ -59,6 +71,11 @@ public class DefaultConfigurationConfigurer<S, E>
 		builder.setTransitionConflictPolicy(transitionConflightPolicy);
 		builder.setStateDoActionPolicy(stateDoActionPolicy, stateDoActionPolicyTimeout);
 		builder.setRegionExecutionPolicy(regionExecutionPolicy);
+		builder.setLazySubmachines(lazySubmachines);
+		builder.setDeferredEventCapacity(deferredEventCapacity, deferredEventOverflowPolicy);
+		builder.setExtendedStateSchema(extendedStateSchema);
+		builder.setRegionExecutionScheduler(regionExecutionScheduler);
+		builder.setGuardEvaluationPolicy(guardEvaluationPolicy, guardEvaluationPolicyTimeout);
 	}
 
 	@Override
@@ -108,4 +125,42 @@ public class DefaultConfigurationConfigurer<S, E>
 		this.regionExecutionPolicy = regionExecutionPolicy;
 		return this;
 	}
+
+	@Override
+	public ConfigurationConfigurer<S, E> lazySubmachines(boolean lazySubmachines) {
+		this.lazySubmachines = lazySubmachines;
+		return this;
+	}
+
+	@Override
+	public ConfigurationConfigurer<S, E> deferredEventCapacity(int capacity,
+			DeferredEventOverflowPolicy overflowPolicy) {
+		this.deferredEventCapacity = capacity;
+		this.deferredEventOverflowPolicy = overflowPolicy;
+		return this;
+	}
+
+	@Override
+	public ConfigurationConfigurer<S, E> extendedStateSchema(ExtendedStateSchema extendedStateSchema) {
+		this.extendedStateSchema = extendedStateSchema;
+		return this;
+	}
+
+	@Override
+	public ConfigurationConfigurer<S, E> regionExecutionScheduler(Scheduler regionExecutionScheduler) {
+		this.regionExecutionScheduler = regionExecutionScheduler;
+		return this;
+	}
+
+	@Override
+	public ConfigurationConfigurer<S, E> guardEvaluationPolicy(GuardEvaluationPolicy guardEvaluationPolicy) {
+		this.guardEvaluationPolicy = guardEvaluationPolicy;
+		return this;
+	}
+
+	@Override
+	public ConfigurationConfigurer<S, E> guardEvaluationPolicyTimeout(long timeout, TimeUnit unit) {
+		this.guardEvaluationPolicyTimeout = unit.toMillis(timeout);
+		return this;
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2019 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,13 +25,18 @@ import org.springframework.statemachine.config.builders.StateMachineConfiguratio
 import org.springframework.statemachine.config.model.verifier.DefaultStateMachineModelVerifier;
 import org.springframework.statemachine.config.model.verifier.StateMachineModelVerifier;
 import org.springframework.statemachine.ensemble.StateMachineEnsemble;
+import org.springframework.statemachine.guard.GuardEvaluationPolicy;
 import org.springframework.statemachine.listener.StateMachineListener;
 import org.springframework.statemachine.monitor.StateMachineMonitor;
 import org.springframework.statemachine.region.RegionExecutionPolicy;
 import org.springframework.statemachine.security.SecurityRule;
+import org.springframework.statemachine.support.DeferredEventOverflowPolicy;
+import org.springframework.statemachine.support.ExtendedStateSchema;
 import org.springframework.statemachine.support.StateMachineInterceptor;
 import org.springframework.statemachine.transition.TransitionConflictPolicy;
 
+import reactor.core.scheduler.Scheduler;
+
 /**
  * Configuration object used to keep things together in {@link StateMachineConfigurationBuilder}.
  *
@@ -60,6 +65,13 @@ public class ConfigurationData<S, E> {
 	private final StateMachineMonitor<S, E> stateMachineMonitor;
 	private final List<StateMachineInterceptor<S, E>> interceptors;
 	private final RegionExecutionPolicy regionExecutionPolicy;
+	private final boolean lazySubmachines;
+	private final int deferredEventCapacity;
+	private final DeferredEventOverflowPolicy deferredEventOverflowPolicy;
+	private final ExtendedStateSchema extendedStateSchema;
+	private final Scheduler regionExecutionScheduler;
+	private final GuardEvaluationPolicy guardEvaluationPolicy;
+	private final Long guardEvaluationPolicyTimeout;
 
 	/**
 	 * Instantiates a new state machine configuration config data.
@@ -130,6 +142,221 @@ public class ConfigurationData<S, E> {
 			List<StateMachineInterceptor<S, E>> interceptors, TransitionConflictPolicy transitionConflightPolicy,
 			StateDoActionPolicy stateDoActionPolicy, Long stateDoActionPolicyTimeout,
 			RegionExecutionPolicy regionExecutionPolicy) {
+		this(beanFactory, autoStart, ensemble, listeners, securityEnabled, transitionSecurityAccessDecisionManager,
+				eventSecurityAccessDecisionManager, eventSecurityRule, transitionSecurityRule, verifierEnabled,
+				verifier, machineId, stateMachineMonitor, interceptors, transitionConflightPolicy, stateDoActionPolicy,
+				stateDoActionPolicyTimeout, regionExecutionPolicy, false);
+	}
+
+	/**
+	 * Instantiates a new state machine configuration config data.
+	 *
+	 * @param beanFactory the bean factory
+	 * @param autoStart the autostart flag
+	 * @param ensemble the state machine ensemble
+	 * @param listeners the state machine listeners
+	 * @param securityEnabled the security enabled flag
+	 * @param transitionSecurityAccessDecisionManager the transition security access decision manager
+	 * @param eventSecurityAccessDecisionManager the event security access decision manager
+	 * @param eventSecurityRule the event security rule
+	 * @param transitionSecurityRule the transition security rule
+	 * @param verifierEnabled the verifier enabled flag
+	 * @param verifier the state machine model verifier
+	 * @param machineId the machine id
+	 * @param stateMachineMonitor the state machine monitor
+	 * @param interceptors the state machine interceptors.
+	 * @param transitionConflightPolicy the transition conflict policy
+	 * @param stateDoActionPolicy the state do action policy
+	 * @param stateDoActionPolicyTimeout the state do action policy timeout
+	 * @param regionExecutionPolicy the region execution policy
+	 * @param lazySubmachines the lazy submachines flag
+	 */
+	public ConfigurationData(BeanFactory beanFactory, boolean autoStart, StateMachineEnsemble<S, E> ensemble,
+			List<StateMachineListener<S, E>> listeners, boolean securityEnabled,
+			AccessDecisionManager transitionSecurityAccessDecisionManager,
+			AccessDecisionManager eventSecurityAccessDecisionManager, SecurityRule eventSecurityRule,
+			SecurityRule transitionSecurityRule, boolean verifierEnabled, StateMachineModelVerifier<S, E> verifier,
+			String machineId, StateMachineMonitor<S, E> stateMachineMonitor,
+			List<StateMachineInterceptor<S, E>> interceptors, TransitionConflictPolicy transitionConflightPolicy,
+			StateDoActionPolicy stateDoActionPolicy, Long stateDoActionPolicyTimeout,
+			RegionExecutionPolicy regionExecutionPolicy, boolean lazySubmachines) {
+		this(beanFactory, autoStart, ensemble, listeners, securityEnabled, transitionSecurityAccessDecisionManager,
+				eventSecurityAccessDecisionManager, eventSecurityRule, transitionSecurityRule, verifierEnabled,
+				verifier, machineId, stateMachineMonitor, interceptors, transitionConflightPolicy, stateDoActionPolicy,
+				stateDoActionPolicyTimeout, regionExecutionPolicy, lazySubmachines, 0, null);
+	}
+
+	/**
+	 * Instantiates a new state machine configuration config data.
+	 *
+	 * @param beanFactory the bean factory
+	 * @param autoStart the autostart flag
+	 * @param ensemble the state machine ensemble
+	 * @param listeners the state machine listeners
+	 * @param securityEnabled the security enabled flag
+	 * @param transitionSecurityAccessDecisionManager the transition security access decision manager
+	 * @param eventSecurityAccessDecisionManager the event security access decision manager
+	 * @param eventSecurityRule the event security rule
+	 * @param transitionSecurityRule the transition security rule
+	 * @param verifierEnabled the verifier enabled flag
+	 * @param verifier the state machine model verifier
+	 * @param machineId the machine id
+	 * @param stateMachineMonitor the state machine monitor
+	 * @param interceptors the state machine interceptors.
+	 * @param transitionConflightPolicy the transition conflict policy
+	 * @param stateDoActionPolicy the state do action policy
+	 * @param stateDoActionPolicyTimeout the state do action policy timeout
+	 * @param regionExecutionPolicy the region execution policy
+	 * @param lazySubmachines the lazy submachines flag
+	 * @param deferredEventCapacity the deferred event capacity
+	 * @param deferredEventOverflowPolicy the deferred event overflow policy
+	 */
+	public ConfigurationData(BeanFactory beanFactory, boolean autoStart, StateMachineEnsemble<S, E> ensemble,
+			List<StateMachineListener<S, E>> listeners, boolean securityEnabled,
+			AccessDecisionManager transitionSecurityAccessDecisionManager,
+			AccessDecisionManager eventSecurityAccessDecisionManager, SecurityRule eventSecurityRule,
+			SecurityRule transitionSecurityRule, boolean verifierEnabled, StateMachineModelVerifier<S, E> verifier,
+			String machineId, StateMachineMonitor<S, E> stateMachineMonitor,
+			List<StateMachineInterceptor<S, E>> interceptors, TransitionConflictPolicy transitionConflightPolicy,
+			StateDoActionPolicy stateDoActionPolicy, Long stateDoActionPolicyTimeout,
+			RegionExecutionPolicy regionExecutionPolicy, boolean lazySubmachines, int deferredEventCapacity,
+			DeferredEventOverflowPolicy deferredEventOverflowPolicy) {
+		this(beanFactory, autoStart, ensemble, listeners, securityEnabled, transitionSecurityAccessDecisionManager,
+				eventSecurityAccessDecisionManager, eventSecurityRule, transitionSecurityRule, verifierEnabled,
+				verifier, machineId, stateMachineMonitor, interceptors, transitionConflightPolicy, stateDoActionPolicy,
+				stateDoActionPolicyTimeout, regionExecutionPolicy, lazySubmachines, deferredEventCapacity,
+				deferredEventOverflowPolicy, null);
+	}
+
+	/**
+	 * Instantiates a new state machine configuration config data.
+	 *
+	 * @param beanFactory the bean factory
+	 * @param autoStart the autostart flag
+	 * @param ensemble the state machine ensemble
+	 * @param listeners the state machine listeners
+	 * @param securityEnabled the security enabled flag
+	 * @param transitionSecurityAccessDecisionManager the transition security access decision manager
+	 * @param eventSecurityAccessDecisionManager the event security access decision manager
+	 * @param eventSecurityRule the event security rule
+	 * @param transitionSecurityRule the transition security rule
+	 * @param verifierEnabled the verifier enabled flag
+	 * @param verifier the state machine model verifier
+	 * @param machineId the machine id
+	 * @param stateMachineMonitor the state machine monitor
+	 * @param interceptors the state machine interceptors.
+	 * @param transitionConflightPolicy the transition conflict policy
+	 * @param stateDoActionPolicy the state do action policy
+	 * @param stateDoActionPolicyTimeout the state do action policy timeout
+	 * @param regionExecutionPolicy the region execution policy
+	 * @param lazySubmachines the lazy submachines flag
+	 * @param deferredEventCapacity the deferred event capacity
+	 * @param deferredEventOverflowPolicy the deferred event overflow policy
+	 * @param extendedStateSchema the extended state schema
+	 */
+	public ConfigurationData(BeanFactory beanFactory, boolean autoStart, StateMachineEnsemble<S, E> ensemble,
+			List<StateMachineListener<S, E>> listeners, boolean securityEnabled,
+			AccessDecisionManager transitionSecurityAccessDecisionManager,
+			AccessDecisionManager eventSecurityAccessDecisionManager, SecurityRule eventSecurityRule,
+			SecurityRule transitionSecurityRule, boolean verifierEnabled, StateMachineModelVerifier<S, E> verifier,
+			String machineId, StateMachineMonitor<S, E> stateMachineMonitor,
+			List<StateMachineInterceptor<S, E>> interceptors, TransitionConflictPolicy transitionConflightPolicy,
+			StateDoActionPolicy stateDoActionPolicy, Long stateDoActionPolicyTimeout,
+			RegionExecutionPolicy regionExecutionPolicy, boolean lazySubmachines, int deferredEventCapacity,
+			DeferredEventOverflowPolicy deferredEventOverflowPolicy, ExtendedStateSchema extendedStateSchema) {
+		this(beanFactory, autoStart, ensemble, listeners, securityEnabled, transitionSecurityAccessDecisionManager,
+				eventSecurityAccessDecisionManager, eventSecurityRule, transitionSecurityRule, verifierEnabled,
+				verifier, machineId, stateMachineMonitor, interceptors, transitionConflightPolicy, stateDoActionPolicy,
+				stateDoActionPolicyTimeout, regionExecutionPolicy, lazySubmachines, deferredEventCapacity,
+				deferredEventOverflowPolicy, extendedStateSchema, null);
+	}
+
+	/**
+	 * Instantiates a new state machine configuration config data.
+	 *
+	 * @param beanFactory the bean factory
+	 * @param autoStart the autostart flag
+	 * @param ensemble the state machine ensemble
+	 * @param listeners the state machine listeners
+	 * @param securityEnabled the security enabled flag
+	 * @param transitionSecurityAccessDecisionManager the transition security access decision manager
+	 * @param eventSecurityAccessDecisionManager the event security access decision manager
+	 * @param eventSecurityRule the event security rule
+	 * @param transitionSecurityRule the transition security rule
+	 * @param verifierEnabled the verifier enabled flag
+	 * @param verifier the state machine model verifier
+	 * @param machineId the machine id
+	 * @param stateMachineMonitor the state machine monitor
+	 * @param interceptors the state machine interceptors.
+	 * @param transitionConflightPolicy the transition conflict policy
+	 * @param stateDoActionPolicy the state do action policy
+	 * @param stateDoActionPolicyTimeout the state do action policy timeout
+	 * @param regionExecutionPolicy the region execution policy
+	 * @param lazySubmachines the lazy submachines flag
+	 * @param deferredEventCapacity the deferred event capacity
+	 * @param deferredEventOverflowPolicy the deferred event overflow policy
+	 * @param extendedStateSchema the extended state schema
+	 * @param regionExecutionScheduler the region execution scheduler
+	 */
+	public ConfigurationData(BeanFactory beanFactory, boolean autoStart, StateMachineEnsemble<S, E> ensemble,
+			List<StateMachineListener<S, E>> listeners, boolean securityEnabled,
+			AccessDecisionManager transitionSecurityAccessDecisionManager,
+			AccessDecisionManager eventSecurityAccessDecisionManager, SecurityRule eventSecurityRule,
+			SecurityRule transitionSecurityRule, boolean verifierEnabled, StateMachineModelVerifier<S, E> verifier,
+			String machineId, StateMachineMonitor<S, E> stateMachineMonitor,
+			List<StateMachineInterceptor<S, E>> interceptors, TransitionConflictPolicy transitionConflightPolicy,
+			StateDoActionPolicy stateDoActionPolicy, Long stateDoActionPolicyTimeout,
+			RegionExecutionPolicy regionExecutionPolicy, boolean lazySubmachines, int deferredEventCapacity,
+			DeferredEventOverflowPolicy deferredEventOverflowPolicy, ExtendedStateSchema extendedStateSchema,
+			Scheduler regionExecutionScheduler) {
+		this(beanFactory, autoStart, ensemble, listeners, securityEnabled, transitionSecurityAccessDecisionManager,
+				eventSecurityAccessDecisionManager, eventSecurityRule, transitionSecurityRule, verifierEnabled,
+				verifier, machineId, stateMachineMonitor, interceptors, transitionConflightPolicy, stateDoActionPolicy,
+				stateDoActionPolicyTimeout, regionExecutionPolicy, lazySubmachines, deferredEventCapacity,
+				deferredEventOverflowPolicy, extendedStateSchema, regionExecutionScheduler, null, null);
+	}
+
+	/**
+	 * Instantiates a new state machine configuration config data.
+	 *
+	 * @param beanFactory the bean factory
+	 * @param autoStart the autostart flag
+	 * @param ensemble the state machine ensemble
+	 * @param listeners the state machine listeners
+	 * @param securityEnabled the security enabled flag
+	 * @param transitionSecurityAccessDecisionManager the transition security access decision manager
+	 * @param eventSecurityAccessDecisionManager the event security access decision manager
+	 * @param eventSecurityRule the event security rule
+	 * @param transitionSecurityRule the transition security rule
+	 * @param verifierEnabled the verifier enabled flag
+	 * @param verifier the state machine model verifier
+	 * @param machineId the machine id
+	 * @param stateMachineMonitor the state machine monitor
+	 * @param interceptors the state machine interceptors.
+	 * @param transitionConflightPolicy the transition conflict policy
+	 * @param stateDoActionPolicy the state do action policy
+	 * @param stateDoActionPolicyTimeout the state do action policy timeout
+	 * @param regionExecutionPolicy the region execution policy
+	 * @param lazySubmachines the lazy submachines flag
+	 * @param deferredEventCapacity the deferred event capacity
+	 * @param deferredEventOverflowPolicy the deferred event overflow policy
+	 * @param extendedStateSchema the extended state schema
+	 * @param regionExecutionScheduler the region execution scheduler
+	 * @param guardEvaluationPolicy the guard evaluation policy
+	 * @param guardEvaluationPolicyTimeout the guard evaluation policy timeout
+	 */
+	public ConfigurationData(BeanFactory beanFactory, boolean autoStart, StateMachineEnsemble<S, E> ensemble,
+			List<StateMachineListener<S, E>> listeners, boolean securityEnabled,
+			AccessDecisionManager transitionSecurityAccessDecisionManager,
+			AccessDecisionManager eventSecurityAccessDecisionManager, SecurityRule eventSecurityRule,
+			SecurityRule transitionSecurityRule, boolean verifierEnabled, StateMachineModelVerifier<S, E> verifier,
+			String machineId, StateMachineMonitor<S, E> stateMachineMonitor,
+			List<StateMachineInterceptor<S, E>> interceptors, TransitionConflictPolicy transitionConflightPolicy,
+			StateDoActionPolicy stateDoActionPolicy, Long stateDoActionPolicyTimeout,
+			RegionExecutionPolicy regionExecutionPolicy, boolean lazySubmachines, int deferredEventCapacity,
+			DeferredEventOverflowPolicy deferredEventOverflowPolicy, ExtendedStateSchema extendedStateSchema,
+			Scheduler regionExecutionScheduler, GuardEvaluationPolicy guardEvaluationPolicy,
+			Long guardEvaluationPolicyTimeout) {
 		this.beanFactory = beanFactory;
 		this.autoStart = autoStart;
 		this.ensemble = ensemble;
@@ -148,6 +375,13 @@ public class ConfigurationData<S, E> {
 		this.stateDoActionPolicy = stateDoActionPolicy;
 		this.stateDoActionPolicyTimeout = stateDoActionPolicyTimeout;
 		this.regionExecutionPolicy = regionExecutionPolicy;
+		this.lazySubmachines = lazySubmachines;
+		this.deferredEventCapacity = deferredEventCapacity;
+		this.deferredEventOverflowPolicy = deferredEventOverflowPolicy;
+		this.extendedStateSchema = extendedStateSchema;
+		this.regionExecutionScheduler = regionExecutionScheduler;
+		this.guardEvaluationPolicy = guardEvaluationPolicy;
+		this.guardEvaluationPolicyTimeout = guardEvaluationPolicyTimeout;
 	}
 
 	public String getMachineId() {
@@ -306,4 +540,67 @@ public class ConfigurationData<S, E> {
 	public RegionExecutionPolicy getRegionExecutionPolicy() {
 		return regionExecutionPolicy;
 	}
+
+	/**
+	 * Checks if submachines are built lazily.
+	 *
+	 * @return true, if submachines are built lazily
+	 */
+	public boolean isLazySubmachines() {
+		return lazySubmachines;
+	}
+
+	/**
+	 * Gets the deferred event capacity.
+	 *
+	 * @return the deferred event capacity
+	 */
+	public int getDeferredEventCapacity() {
+		return deferredEventCapacity;
+	}
+
+	/**
+	 * Gets the deferred event overflow policy.
+	 *
+	 * @return the deferred event overflow policy
+	 */
+	public DeferredEventOverflowPolicy getDeferredEventOverflowPolicy() {
+		return deferredEventOverflowPolicy;
+	}
+
+	/**
+	 * Gets the extended state schema.
+	 *
+	 * @return the extended state schema
+	 */
+	public ExtendedStateSchema getExtendedStateSchema() {
+		return extendedStateSchema;
+	}
+
+	/**
+	 * Gets the region execution scheduler.
+	 *
+	 * @return the region execution scheduler
+	 */
+	public Scheduler getRegionExecutionScheduler() {
+		return regionExecutionScheduler;
+	}
+
+	/**
+	 * Gets the guard evaluation policy.
+	 *
+	 * @return the guard evaluation policy
+	 */
+	public GuardEvaluationPolicy getGuardEvaluationPolicy() {
+		return guardEvaluationPolicy;
+	}
+
+	/**
+	 * Gets the guard evaluation policy timeout.
+	 *
+	 * @return the guard evaluation policy timeout
+	 */
+	public Long getGuardEvaluationPolicyTimeout() {
+		return guardEvaluationPolicyTimeout;
+	}
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.ensemble;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
+
+/**
+ * {@link StateMachineEnsemble} which keeps a distributed state within a
+ * single jvm. State changes are looped back to all members synchronously
+ * which makes this ensemble useful to share a state between machines in
+ * a same process and to measure an overhead of a {@link DistributedStateMachine}
+ * without any external infrastructure.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class LocalStateMachineEnsemble<S, E> extends StateMachineEnsembleObjectSupport<S, E> {
+
+	private final Set<StateMachine<S, E>> joined = new CopyOnWriteArraySet<StateMachine<S, E>>();
+	private final Object lock = new Object();
+	private volatile StateMachine<S, E> leader;
+	private volatile StateMachineContext<S, E> current;
+
+	@Override
+	public void join(StateMachine<S, E> stateMachine) {
+		boolean granted = false;
+		synchronized (lock) {
+			if (!joined.add(stateMachine)) {
+				return;
+			}
+			if (leader == null) {
+				leader = stateMachine;
+				granted = true;
+			}
+		}
+		notifyJoined(stateMachine, current);
+		if (granted) {
+			notifyGranted(stateMachine);
+		}
+	}
+
+	@Override
+	public void leave(StateMachine<S, E> stateMachine) {
+		StateMachine<S, E> newLeader = null;
+		boolean revoked = false;
+		synchronized (lock) {
+			if (!joined.remove(stateMachine)) {
+				return;
+			}
+			if (leader == stateMachine) {
+				Iterator<StateMachine<S, E>> iterator = joined.iterator();
+				newLeader = iterator.hasNext() ? iterator.next() : null;
+				leader = newLeader;
+				revoked = true;
+			}
+		}
+		notifyLeft(stateMachine, current);
+		if (revoked) {
+			notifyRevoked(stateMachine);
+			if (newLeader != null) {
+				notifyGranted(newLeader);
+			}
+		}
+	}
+
+	@Override
+	public void setState(StateMachineContext<S, E> context) {
+		// serialize changes so that every member sees
+		// those in a same order
+		synchronized (lock) {
+			current = context;
+			notifyStateChanged(context);
+		}
+	}
+
+	@Override
+	public StateMachineContext<S, E> getState() {
+		return current;
+	}
+
+	@Override
+	public StateMachine<S, E> getLeader() {
+		return leader;
+	}
+
+	@Override
+	public String toString() {
+		return "LocalStateMachineEnsemble [joined=" + joined.size() + ", leader=" + leader + "]";
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,22 +15,55 @@
  */
 package org.springframework.statemachine.event;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.messaging.Message;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.state.State;
 import org.springframework.statemachine.transition.Transition;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Default implementation of {@link StateMachineEventPublisher}.
+ * <p>
+ * Events are published synchronously by default which means that every
+ * application listener is executed within a state machine transition.
+ * With {@link #setAsyncPublishing(int, int, EventPublishingOverflowPolicy)}
+ * events are queued into a bounded queue and published one by one, in queue
+ * order, from a dedicated dispatcher thread. Events which can't be queued,
+ * either because dispatcher has been stopped or because a queue is full with
+ * {@link EventPublishingOverflowPolicy#CALLER_RUNS}, are published in a
+ * calling thread right away and thus may be seen by listeners before events
+ * queued earlier.
+ * {@link #setEventTypes(Class...)} can be used to limit which events are
+ * published at all.
  *
  * @author Janne Valkealahti
  *
  */
-public class DefaultStateMachineEventPublisher implements StateMachineEventPublisher, ApplicationEventPublisherAware {
+public class DefaultStateMachineEventPublisher implements StateMachineEventPublisher, ApplicationEventPublisherAware,
+		DisposableBean {
 
+	private static final Log log = LogFactory.getLog(DefaultStateMachineEventPublisher.class);
 	private ApplicationEventPublisher applicationEventPublisher;
+	private volatile Set<Class<?>> eventTypes;
+	private volatile AsyncDispatcher dispatcher;
+	private final AtomicLong droppedEvents = new AtomicLong();
 
 	/**
 	 * Instantiates a new state machine event publisher.
@@ -52,81 +85,296 @@ public class DefaultStateMachineEventPublisher implements StateMachineEventPubli
 		this.applicationEventPublisher = applicationEventPublisher;
 	}
 
+	@Override
+	public void destroy() throws Exception {
+		AsyncDispatcher dispatcher = this.dispatcher;
+		this.dispatcher = null;
+		if (dispatcher != null) {
+			dispatcher.stop();
+		}
+	}
+
+	/**
+	 * Sets the event types to publish. Events which are not instances of any
+	 * given type are not created nor published. Publishing all events is
+	 * restored by setting empty types.
+	 *
+	 * @param eventTypes the event types
+	 */
+	@SafeVarargs
+	public final void setEventTypes(Class<? extends StateMachineEvent>... eventTypes) {
+		this.eventTypes = ObjectUtils.isEmpty(eventTypes) ? null : new HashSet<Class<?>>(Arrays.asList(eventTypes));
+	}
+
+	/**
+	 * Enables asynchronous publishing. Events are queued into a queue of a
+	 * given capacity and published one by one from a dedicated dispatcher
+	 * thread which drains at most a given number of events from a queue at
+	 * once. Overflow policy decides what happens when queue is full.
+	 *
+	 * @param capacity the queue capacity
+	 * @param drainSize the maximum number of events drained from a queue at once
+	 * @param overflowPolicy the overflow policy
+	 */
+	public synchronized void setAsyncPublishing(int capacity, int drainSize, EventPublishingOverflowPolicy overflowPolicy) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than zero");
+		Assert.isTrue(drainSize > 0, "Drain size must be greater than zero");
+		AsyncDispatcher previous = this.dispatcher;
+		AsyncDispatcher dispatcher = new AsyncDispatcher(capacity, drainSize,
+				overflowPolicy != null ? overflowPolicy : EventPublishingOverflowPolicy.DROP_NEWEST);
+		dispatcher.start();
+		this.dispatcher = dispatcher;
+		if (previous != null) {
+			previous.stop();
+		}
+	}
+
+	/**
+	 * Gets the number of events dropped by an overflow policy.
+	 *
+	 * @return the number of dropped events
+	 */
+	public long getDroppedEventCount() {
+		return droppedEvents.get();
+	}
+
 	@Override
 	public void publishStateChanged(Object source, State<?, ?> sourceState, State<?, ?> targetState) {
-		if (applicationEventPublisher != null) {
-			applicationEventPublisher.publishEvent(new OnStateChangedEvent(source, sourceState, targetState));
+		if (isPublished(OnStateChangedEvent.class)) {
+			publish(new OnStateChangedEvent(source, sourceState, targetState));
 		}
 	}
 
 	@Override
 	public void publishStateEntered(Object source, State<?, ?> state) {
-		if (applicationEventPublisher != null) {
-			applicationEventPublisher.publishEvent(new OnStateEntryEvent(source, state));
+		if (isPublished(OnStateEntryEvent.class)) {
+			publish(new OnStateEntryEvent(source, state));
 		}
 	}
 
 	@Override
 	public void publishStateExited(Object source, State<?, ?> state) {
-		if (applicationEventPublisher != null) {
-			applicationEventPublisher.publishEvent(new OnStateExitEvent(source, state));
+		if (isPublished(OnStateExitEvent.class)) {
+			publish(new OnStateExitEvent(source, state));
 		}
 	}
 
 	@Override
 	public void publishEventNotAccepted(Object source, Message<?> event) {
-		if (applicationEventPublisher != null) {
-			applicationEventPublisher.publishEvent(new OnEventNotAcceptedEvent(source, event));
+		if (isPublished(OnEventNotAcceptedEvent.class)) {
+			publish(new OnEventNotAcceptedEvent(source, event));
 		}
 	}
 
 	@Override
 	public void publishTransitionStart(Object source, Transition<?, ?> transition) {
-		if (applicationEventPublisher != null) {
-			applicationEventPublisher.publishEvent(new OnTransitionStartEvent(source, transition));
+		if (isPublished(OnTransitionStartEvent.class)) {
+			publish(new OnTransitionStartEvent(source, transition));
 		}
 	}
 
 	@Override
 	public void publishTransitionEnd(Object source, Transition<?, ?> transition) {
-		if (applicationEventPublisher != null) {
-			applicationEventPublisher.publishEvent(new OnTransitionEndEvent(source, transition));
+		if (isPublished(OnTransitionEndEvent.class)) {
+			publish(new OnTransitionEndEvent(source, transition));
 		}
 	}
 
 	@Override
 	public void publishTransition(Object source, Transition<?, ?> transition) {
-		if (applicationEventPublisher != null) {
-			applicationEventPublisher.publishEvent(new OnTransitionEvent(source, transition));
+		if (isPublished(OnTransitionEvent.class)) {
+			publish(new OnTransitionEvent(source, transition));
 		}
 	}
 
 	@Override
 	public void publishStateMachineStart(Object source, StateMachine<?, ?> stateMachine) {
-		if (applicationEventPublisher != null) {
-			applicationEventPublisher.publishEvent(new OnStateMachineStart(source, stateMachine));
+		if (isPublished(OnStateMachineStart.class)) {
+			publish(new OnStateMachineStart(source, stateMachine));
 		}
 	}
 
 	@Override
 	public void publishStateMachineStop(Object source, StateMachine<?, ?> stateMachine) {
-		if (applicationEventPublisher != null) {
-			applicationEventPublisher.publishEvent(new OnStateMachineStop(source, stateMachine));
+		if (isPublished(OnStateMachineStop.class)) {
+			publish(new OnStateMachineStop(source, stateMachine));
 		}
 	}
 
 	@Override
 	public void publishStateMachineError(Object source, StateMachine<?, ?> stateMachine, Exception exception) {
-		if (applicationEventPublisher != null) {
-			applicationEventPublisher.publishEvent(new OnStateMachineError(source, stateMachine, exception));
+		if (isPublished(OnStateMachineError.class)) {
+			publish(new OnStateMachineError(source, stateMachine, exception));
 		}
 	}
 
 	@Override
 	public void publishExtendedStateChanged(Object source, Object key, Object value) {
-		if (applicationEventPublisher != null) {
-			applicationEventPublisher.publishEvent(new OnExtendedStateChanged(source, key, value));
+		if (isPublished(OnExtendedStateChanged.class)) {
+			publish(new OnExtendedStateChanged(source, key, value));
 		}
 	}
 
+	private boolean isPublished(Class<? extends StateMachineEvent> eventType) {
+		if (applicationEventPublisher == null) {
+			return false;
+		}
+		Set<Class<?>> types = eventTypes;
+		if (types == null || types.contains(eventType)) {
+			return true;
+		}
+		for (Class<?> type : types) {
+			if (type.isAssignableFrom(eventType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void publish(ApplicationEvent event) {
+		AsyncDispatcher dispatcher = this.dispatcher;
+		if (dispatcher == null || !dispatcher.offer(event)) {
+			applicationEventPublisher.publishEvent(event);
+		}
+	}
+
+	/**
+	 * Dispatcher publishing queued events from its own thread.
+	 */
+	private class AsyncDispatcher implements Runnable {
+
+		private final BlockingQueue<ApplicationEvent> queue;
+		private final int drainSize;
+		private final EventPublishingOverflowPolicy overflowPolicy;
+		private final Thread thread;
+		private volatile boolean running = true;
+
+		AsyncDispatcher(int capacity, int drainSize, EventPublishingOverflowPolicy overflowPolicy) {
+			this.queue = new ArrayBlockingQueue<>(capacity);
+			this.drainSize = drainSize;
+			this.overflowPolicy = overflowPolicy;
+			this.thread = new Thread(this, "statemachine-event-publisher");
+			this.thread.setDaemon(true);
+		}
+
+		void start() {
+			thread.start();
+		}
+
+		/**
+		 * Stops accepting events and waits dispatcher to publish what was
+		 * queued. Events queued after dispatcher exited are published in a
+		 * calling thread.
+		 */
+		void stop() {
+			running = false;
+			if (Thread.currentThread() == thread) {
+				return;
+			}
+			try {
+				thread.join(TimeUnit.SECONDS.toMillis(5));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (thread.isAlive()) {
+				log.warn("Event publishing dispatcher didn't stop in time, leaving it to drain its queue");
+				return;
+			}
+			List<ApplicationEvent> events = new ArrayList<>(drainSize);
+			while (queue.drainTo(events, drainSize) > 0) {
+				publishAll(events);
+			}
+		}
+
+		/**
+		 * Offer an event into a queue.
+		 *
+		 * @param event the event
+		 * @return false, if event should be published in a calling thread
+		 */
+		boolean offer(ApplicationEvent event) {
+			if (!running) {
+				return false;
+			}
+			if (queue.offer(event)) {
+				return queued(event);
+			}
+			switch (overflowPolicy) {
+			case BLOCK:
+				// wake up periodically so that a stop doesn't leave us blocked
+				try {
+					while (running) {
+						if (queue.offer(event, 100, TimeUnit.MILLISECONDS)) {
+							return queued(event);
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return false;
+			case DROP_OLDEST:
+				while (!queue.offer(event)) {
+					ApplicationEvent oldest = queue.poll();
+					if (oldest != null) {
+						dropped(oldest);
+					}
+				}
+				return queued(event);
+			case CALLER_RUNS:
+				return false;
+			default:
+				dropped(event);
+				return true;
+			}
+		}
+
+		@Override
+		public void run() {
+			List<ApplicationEvent> events = new ArrayList<>(drainSize);
+			while (running) {
+				ApplicationEvent event;
+				try {
+					event = queue.poll(100, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					break;
+				}
+				if (event != null) {
+					events.add(event);
+					queue.drainTo(events, drainSize - 1);
+					publishAll(events);
+				}
+			}
+			// publish what was left when stopped
+			while (queue.drainTo(events, drainSize) > 0) {
+				publishAll(events);
+			}
+		}
+
+		/**
+		 * Checks that a queued event will be published. If dispatcher was
+		 * stopped meanwhile and event is still queued, it's taken back to get
+		 * published in a calling thread.
+		 */
+		private boolean queued(ApplicationEvent event) {
+			return running || !queue.remove(event);
+		}
+
+		private void publishAll(List<ApplicationEvent> events) {
+			for (ApplicationEvent event : events) {
+				try {
+					applicationEventPublisher.publishEvent(event);
+				} catch (Exception e) {
+					log.warn("Error publishing event " + event, e);
+				}
+			}
+			events.clear();
+		}
+
+		private void dropped(ApplicationEvent event) {
+			droppedEvents.incrementAndGet();
+			if (log.isDebugEnabled()) {
+				log.debug("Event publishing queue full, dropping event " + event);
+			}
+		}
+	}
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.event;
+
+/**
+ * Enumerations for possible policies when an asynchronous event publishing
+ * queue is full and a new event is about to be published.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public enum EventPublishingOverflowPolicy {
+
+	/**
+	 * Policy blocking a publishing thread until there is room in a queue.
+	 */
+	BLOCK,
+
+	/**
+	 * Policy dropping a new event.
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * Policy dropping an oldest queued event to make room for a new event.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * Policy publishing a new event synchronously in a publishing thread.
+	 * Such an event is not ordered with events still queued.
+	 */
+	CALLER_RUNS;
+}
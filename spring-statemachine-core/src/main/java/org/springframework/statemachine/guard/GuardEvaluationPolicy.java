@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.guard;
+
+/**
+ * Enumerations for possible guard evaluation policies of choice, junction
+ * and join pseudo states. {@code SEQUENTIAL} is a default setting.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public enum GuardEvaluationPolicy {
+
+	/**
+	 * Policy evaluating guards one by one in declaration order.
+	 */
+	SEQUENTIAL,
+
+	/**
+	 * Policy evaluating all guards concurrently. First guard in declaration
+	 * order evaluating to true wins and remaining evaluations are cancelled.
+	 */
+	CONCURRENT;
+}
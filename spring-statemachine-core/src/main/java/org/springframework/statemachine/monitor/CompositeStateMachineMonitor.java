@@ -18,8 +18,10 @@ package org.springframework.statemachine.monitor;
 import java.util.Iterator;
 import java.util.function.Function;
 
+import org.springframework.messaging.Message;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.state.State;
 import org.springframework.statemachine.support.AbstractCompositeItems;
 import org.springframework.statemachine.transition.Transition;
 
@@ -52,4 +54,53 @@ public class CompositeStateMachineMonitor<S, E> extends AbstractCompositeItems<S
 			monitor.action(stateMachine, action, duration);
 		}
 	}
+
+	@Override
+	public void actionCancelled(StateMachine<S, E> stateMachine, Function<StateContext<S, E>, Mono<Void>> action,
+			long duration) {
+		for (Iterator<StateMachineMonitor<S, E>> iterator = getItems().reverse(); iterator.hasNext();) {
+			StateMachineMonitor<S, E> monitor = iterator.next();
+			monitor.actionCancelled(stateMachine, action, duration);
+		}
+	}
+
+	@Override
+	public void stateEntered(StateMachine<S, E> stateMachine, State<S, E> state) {
+		for (Iterator<StateMachineMonitor<S, E>> iterator = getItems().reverse(); iterator.hasNext();) {
+			StateMachineMonitor<S, E> monitor = iterator.next();
+			monitor.stateEntered(stateMachine, state);
+		}
+	}
+
+	@Override
+	public void stateExited(StateMachine<S, E> stateMachine, State<S, E> state) {
+		for (Iterator<StateMachineMonitor<S, E>> iterator = getItems().reverse(); iterator.hasNext();) {
+			StateMachineMonitor<S, E> monitor = iterator.next();
+			monitor.stateExited(stateMachine, state);
+		}
+	}
+
+	@Override
+	public void eventNotAccepted(StateMachine<S, E> stateMachine, State<S, E> state, Message<E> event) {
+		for (Iterator<StateMachineMonitor<S, E>> iterator = getItems().reverse(); iterator.hasNext();) {
+			StateMachineMonitor<S, E> monitor = iterator.next();
+			monitor.eventNotAccepted(stateMachine, state, event);
+		}
+	}
+
+	@Override
+	public void eventDeferred(StateMachine<S, E> stateMachine, Message<E> event, int deferredEventCount) {
+		for (Iterator<StateMachineMonitor<S, E>> iterator = getItems().reverse(); iterator.hasNext();) {
+			StateMachineMonitor<S, E> monitor = iterator.next();
+			monitor.eventDeferred(stateMachine, event, deferredEventCount);
+		}
+	}
+
+	@Override
+	public void stateMachineStopped(StateMachine<S, E> stateMachine) {
+		for (Iterator<StateMachineMonitor<S, E>> iterator = getItems().reverse(); iterator.hasNext();) {
+			StateMachineMonitor<S, E> monitor = iterator.next();
+			monitor.stateMachineStopped(stateMachine);
+		}
+	}
 }
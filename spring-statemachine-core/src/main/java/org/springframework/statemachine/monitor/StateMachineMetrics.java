@@ -0,0 +1,501 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.monitor;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.messaging.Message;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.state.State;
+import org.springframework.util.Assert;
+
+/**
+ * {@link StateMachineMonitor} aggregating state level metrics of all
+ * machines it is registered with, typically all machines built by a
+ * {@code StateMachineFactory}. Metrics are kept per state and per denied
+ * state and event pair:
+ * <ul>
+ * <li>occupancy, a number of machines currently in a state</li>
+ * <li>entry count and a dwell time histogram of exited states</li>
+ * <li>count of events not accepted in a state</li>
+ * <li>count of deferred events and a maximum deferred queue depth</li>
+ * </ul>
+ * Counters are striped {@link LongAdder}s so that recording doesn't contend
+ * between machines. Number of distinct states and events is bounded and
+ * everything beyond limits is recorded under {@link #OTHER}, which keeps
+ * cardinality of exported metrics bounded.
+ * <p>
+ * Machine is counted in a state from its entry until it exits or a machine
+ * is stopped. Entry times are kept in a concurrent map weakly referencing
+ * machines, and a machine garbage collected without being stopped stops
+ * being counted next time metrics are recorded or read.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class StateMachineMetrics<S, E> extends AbstractStateMachineMonitor<S, E> {
+
+	/** Key used for states and events beyond configured limits */
+	public static final String OTHER = "other";
+
+	/** Key used when there is no state */
+	public static final String NONE = "none";
+
+	private static final long[] DEFAULT_DWELL_BUCKETS = new long[] { 10, 50, 100, 500, 1000, 5000, 10000, 30000,
+			60000, 300000, 900000, 3600000 };
+
+	private final int maxStates;
+	private final int maxEvents;
+	private final long[] dwellBuckets;
+	private final Map<String, StateMetrics> stateMetrics = new ConcurrentHashMap<>();
+	private final Map<DeniedEventKey, DeniedEventMetrics> deniedEventMetrics = new ConcurrentHashMap<>();
+	private final Set<String> events = ConcurrentHashMap.newKeySet();
+	private final Map<MachineKey, Map<S, Long>> entryTimes = new ConcurrentHashMap<>();
+	private final ReferenceQueue<Object> collectedMachines = new ReferenceQueue<>();
+	private final LongAdder deferredEventCount = new LongAdder();
+	private final LongAccumulator maxDeferredEventCount = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Instantiates a new state machine metrics with at most 100 states and
+	 * 100 events.
+	 */
+	public StateMachineMetrics() {
+		this(100, 100);
+	}
+
+	/**
+	 * Instantiates a new state machine metrics.
+	 *
+	 * @param maxStates the maximum number of distinct states
+	 * @param maxEvents the maximum number of distinct events
+	 */
+	public StateMachineMetrics(int maxStates, int maxEvents) {
+		this(maxStates, maxEvents, DEFAULT_DWELL_BUCKETS);
+	}
+
+	/**
+	 * Instantiates a new state machine metrics.
+	 *
+	 * @param maxStates the maximum number of distinct states
+	 * @param maxEvents the maximum number of distinct events
+	 * @param dwellBuckets the ascending upper bounds of dwell time buckets in millis
+	 */
+	public StateMachineMetrics(int maxStates, int maxEvents, long[] dwellBuckets) {
+		Assert.isTrue(maxStates > 0, "maxStates must be positive");
+		Assert.isTrue(maxEvents > 0, "maxEvents must be positive");
+		Assert.isTrue(dwellBuckets != null && dwellBuckets.length > 0, "dwellBuckets must be set");
+		for (int i = 1; i < dwellBuckets.length; i++) {
+			Assert.isTrue(dwellBuckets[i] > dwellBuckets[i - 1], "dwellBuckets must be ascending");
+		}
+		this.maxStates = maxStates;
+		this.maxEvents = maxEvents;
+		this.dwellBuckets = dwellBuckets.clone();
+	}
+
+	@Override
+	public void stateEntered(StateMachine<S, E> stateMachine, State<S, E> state) {
+		if (stateMachine == null || state == null) {
+			return;
+		}
+		releaseCollectedMachines();
+		StateMetrics metrics = getOrCreateStateMetrics(state.getId());
+		metrics.entries.increment();
+		Map<S, Long> times = entryTimes.get(new MachineKey(stateMachine, null));
+		if (times == null) {
+			times = entryTimes.computeIfAbsent(new MachineKey(stateMachine, collectedMachines),
+					k -> new ConcurrentHashMap<>());
+		}
+		Long previous = times.put(state.getId(), System.nanoTime());
+		if (previous == null) {
+			metrics.occupancy.increment();
+		}
+	}
+
+	@Override
+	public void stateExited(StateMachine<S, E> stateMachine, State<S, E> state) {
+		if (stateMachine == null || state == null) {
+			return;
+		}
+		Map<S, Long> times = entryTimes.get(new MachineKey(stateMachine, null));
+		Long entered = times != null ? times.remove(state.getId()) : null;
+		if (entered != null) {
+			StateMetrics metrics = getOrCreateStateMetrics(state.getId());
+			metrics.occupancy.decrement();
+			metrics.recordDwell(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - entered), dwellBuckets);
+		}
+	}
+
+	@Override
+	public void stateMachineStopped(StateMachine<S, E> stateMachine) {
+		releaseCollectedMachines();
+		if (stateMachine != null) {
+			release(entryTimes.remove(new MachineKey(stateMachine, null)));
+		}
+	}
+
+	@Override
+	public void eventNotAccepted(StateMachine<S, E> stateMachine, State<S, E> state, Message<E> event) {
+		String stateKey = getOrCreateStateMetrics(state != null ? state.getId() : null).getState();
+		String eventKey = resolveEventKey(event != null ? event.getPayload() : null);
+		DeniedEventKey key = new DeniedEventKey(stateKey, eventKey);
+		DeniedEventMetrics metrics = deniedEventMetrics.get(key);
+		if (metrics == null) {
+			DeniedEventMetrics created = new DeniedEventMetrics(stateKey, eventKey);
+			metrics = deniedEventMetrics.putIfAbsent(key, created);
+			if (metrics == null) {
+				metrics = created;
+				onDeniedEventMetricsRegistered(created);
+			}
+		}
+		metrics.count.increment();
+	}
+
+	@Override
+	public void eventDeferred(StateMachine<S, E> stateMachine, Message<E> event, int deferredEventCount) {
+		this.deferredEventCount.increment();
+		maxDeferredEventCount.accumulate(deferredEventCount);
+	}
+
+	/**
+	 * Gets metrics of all states.
+	 *
+	 * @return the state metrics
+	 */
+	public Collection<StateMetrics> getStateMetrics() {
+		releaseCollectedMachines();
+		return Collections.unmodifiableCollection(stateMetrics.values());
+	}
+
+	/**
+	 * Gets metrics of a state.
+	 *
+	 * @param state the state key
+	 * @return the state metrics or {@code null} if nothing recorded
+	 */
+	public StateMetrics getStateMetrics(String state) {
+		releaseCollectedMachines();
+		return stateMetrics.get(state);
+	}
+
+	/**
+	 * Gets metrics of all denied state and event pairs.
+	 *
+	 * @return the denied event metrics
+	 */
+	public Collection<DeniedEventMetrics> getDeniedEventMetrics() {
+		return Collections.unmodifiableCollection(deniedEventMetrics.values());
+	}
+
+	/**
+	 * Gets a total count of deferred events.
+	 *
+	 * @return the deferred event count
+	 */
+	public long getDeferredEventCount() {
+		return deferredEventCount.sum();
+	}
+
+	/**
+	 * Gets a maximum deferred event queue depth seen in any machine.
+	 *
+	 * @return the maximum deferred event count
+	 */
+	public long getMaxDeferredEventCount() {
+		return maxDeferredEventCount.get();
+	}
+
+	/**
+	 * Gets the upper bounds of dwell time buckets in millis.
+	 *
+	 * @return the dwell time buckets
+	 */
+	public long[] getDwellBuckets() {
+		return dwellBuckets.clone();
+	}
+
+	/**
+	 * Called once when metrics for a new state are created. Can be used to
+	 * register metrics into external systems.
+	 *
+	 * @param metrics the state metrics
+	 */
+	protected void onStateMetricsRegistered(StateMetrics metrics) {
+	}
+
+	/**
+	 * Called once when metrics for a new denied state and event pair are
+	 * created. Can be used to register metrics into external systems.
+	 *
+	 * @param metrics the denied event metrics
+	 */
+	protected void onDeniedEventMetricsRegistered(DeniedEventMetrics metrics) {
+	}
+
+	private StateMetrics getOrCreateStateMetrics(Object id) {
+		String key = id != null ? id.toString() : NONE;
+		StateMetrics metrics = stateMetrics.get(key);
+		if (metrics != null) {
+			return metrics;
+		}
+		if (stateMetrics.size() >= maxStates) {
+			key = OTHER;
+			metrics = stateMetrics.get(key);
+			if (metrics != null) {
+				return metrics;
+			}
+		}
+		StateMetrics created = new StateMetrics(key, dwellBuckets.length);
+		metrics = stateMetrics.putIfAbsent(key, created);
+		if (metrics == null) {
+			metrics = created;
+			onStateMetricsRegistered(created);
+		}
+		return metrics;
+	}
+
+	private void releaseCollectedMachines() {
+		Reference<?> reference;
+		while ((reference = collectedMachines.poll()) != null) {
+			release(entryTimes.remove(reference));
+		}
+	}
+
+	private void release(Map<S, Long> times) {
+		if (times != null) {
+			for (S id : times.keySet()) {
+				getOrCreateStateMetrics(id).occupancy.decrement();
+			}
+		}
+	}
+
+	private String resolveEventKey(Object event) {
+		String key = event != null ? event.toString() : NONE;
+		if (events.contains(key)) {
+			return key;
+		}
+		if (events.size() >= maxEvents) {
+			return OTHER;
+		}
+		events.add(key);
+		return key;
+	}
+
+	/**
+	 * Metrics of a single state.
+	 */
+	public static class StateMetrics {
+
+		private final String state;
+		private final LongAdder occupancy = new LongAdder();
+		private final LongAdder entries = new LongAdder();
+		private final LongAdder dwellCount = new LongAdder();
+		private final LongAdder dwellTime = new LongAdder();
+		private final LongAdder[] dwellBucketCounts;
+
+		StateMetrics(String state, int buckets) {
+			this.state = state;
+			this.dwellBucketCounts = new LongAdder[buckets];
+			for (int i = 0; i < buckets; i++) {
+				dwellBucketCounts[i] = new LongAdder();
+			}
+		}
+
+		void recordDwell(long millis, long[] bounds) {
+			dwellCount.increment();
+			dwellTime.add(millis);
+			for (int i = 0; i < bounds.length; i++) {
+				if (millis <= bounds[i]) {
+					dwellBucketCounts[i].increment();
+					break;
+				}
+			}
+		}
+
+		/**
+		 * Gets the state key.
+		 *
+		 * @return the state key
+		 */
+		public String getState() {
+			return state;
+		}
+
+		/**
+		 * Gets a number of machines currently in this state.
+		 *
+		 * @return the occupancy
+		 */
+		public long getOccupancy() {
+			return occupancy.sum();
+		}
+
+		/**
+		 * Gets a number of times this state has been entered.
+		 *
+		 * @return the entry count
+		 */
+		public long getEntryCount() {
+			return entries.sum();
+		}
+
+		/**
+		 * Gets a number of recorded dwell times.
+		 *
+		 * @return the dwell count
+		 */
+		public long getDwellCount() {
+			return dwellCount.sum();
+		}
+
+		/**
+		 * Gets a total of recorded dwell times in millis.
+		 *
+		 * @return the total dwell time
+		 */
+		public long getDwellTime() {
+			return dwellTime.sum();
+		}
+
+		/**
+		 * Gets a cumulative number of dwell times less than or equal to an
+		 * upper bound of a bucket. Dwell times above a last bucket are only
+		 * included in {@link #getDwellCount()}.
+		 *
+		 * @param index the bucket index
+		 * @return the cumulative bucket count
+		 */
+		public long getDwellBucketCount(int index) {
+			long count = 0;
+			for (int i = 0; i <= index; i++) {
+				count += dwellBucketCounts[i].sum();
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * Metrics of events not accepted in a state.
+	 */
+	public static class DeniedEventMetrics {
+
+		private final String state;
+		private final String event;
+		private final LongAdder count = new LongAdder();
+
+		DeniedEventMetrics(String state, String event) {
+			this.state = state;
+			this.event = event;
+		}
+
+		/**
+		 * Gets the state key.
+		 *
+		 * @return the state key
+		 */
+		public String getState() {
+			return state;
+		}
+
+		/**
+		 * Gets the event key.
+		 *
+		 * @return the event key
+		 */
+		public String getEvent() {
+			return event;
+		}
+
+		/**
+		 * Gets a number of events not accepted.
+		 *
+		 * @return the count
+		 */
+		public long getCount() {
+			return count.sum();
+		}
+	}
+
+	/**
+	 * Weak key comparing machines by identity. Cleared key is only equal to
+	 * itself so that it can still be removed after its machine is collected.
+	 */
+	private static class MachineKey extends WeakReference<Object> {
+
+		final int hash;
+
+		MachineKey(Object machine, ReferenceQueue<Object> queue) {
+			super(machine, queue);
+			this.hash = System.identityHashCode(machine);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof MachineKey)) {
+				return false;
+			}
+			Object machine = get();
+			return machine != null && machine == ((MachineKey) obj).get();
+		}
+	}
+
+	private static class DeniedEventKey {
+
+		final String state;
+		final String event;
+
+		DeniedEventKey(String state, String event) {
+			this.state = state;
+			this.event = event;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * state.hashCode() + event.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof DeniedEventKey)) {
+				return false;
+			}
+			DeniedEventKey other = (DeniedEventKey) obj;
+			return state.equals(other.state) && event.equals(other.event);
+		}
+	}
+}
@@ -17,8 +17,10 @@ package org.springframework.statemachine.monitor;
 
 import java.util.function.Function;
 
+import org.springframework.messaging.Message;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.state.State;
 import org.springframework.statemachine.transition.Transition;
 
 import reactor.core.publisher.Mono;
@@ -50,4 +52,63 @@ public interface StateMachineMonitor<S, E> {
 	 * @param duration the transition duration
 	 */
 	void action(StateMachine<S, E> stateMachine, Function<StateContext<S, E>, Mono<Void>> action, long duration);
+
+	/**
+	 * Notified when a particular action was cancelled before it completed.
+	 *
+	 * @param stateMachine the state machine
+	 * @param action the action
+	 * @param duration the duration action was running
+	 */
+	default void actionCancelled(StateMachine<S, E> stateMachine, Function<StateContext<S, E>, Mono<Void>> action,
+			long duration) {
+	}
+
+	/**
+	 * Notified when a state was entered. Events from submachines and regions
+	 * are notified with a top-level state machine.
+	 *
+	 * @param stateMachine the state machine
+	 * @param state the state
+	 */
+	default void stateEntered(StateMachine<S, E> stateMachine, State<S, E> state) {
+	}
+
+	/**
+	 * Notified when a state was exited. Events from submachines and regions
+	 * are notified with a top-level state machine.
+	 *
+	 * @param stateMachine the state machine
+	 * @param state the state
+	 */
+	default void stateExited(StateMachine<S, E> stateMachine, State<S, E> state) {
+	}
+
+	/**
+	 * Notified when an event was not accepted.
+	 *
+	 * @param stateMachine the state machine
+	 * @param state the current state
+	 * @param event the event
+	 */
+	default void eventNotAccepted(StateMachine<S, E> stateMachine, State<S, E> state, Message<E> event) {
+	}
+
+	/**
+	 * Notified when an event was deferred.
+	 *
+	 * @param stateMachine the state machine
+	 * @param event the event
+	 * @param deferredEventCount the number of deferred events after this event
+	 */
+	default void eventDeferred(StateMachine<S, E> stateMachine, Message<E> event, int deferredEventCount) {
+	}
+
+	/**
+	 * Notified when a state machine was stopped.
+	 *
+	 * @param stateMachine the state machine
+	 */
+	default void stateMachineStopped(StateMachine<S, E> stateMachine) {
+	}
 }
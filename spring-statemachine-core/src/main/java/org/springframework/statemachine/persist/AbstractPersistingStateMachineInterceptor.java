@@ -36,10 +36,10 @@ import org.springframework.statemachine.state.HistoryPseudoState;
 import org.springframework.statemachine.state.PseudoState;
 import org.springframework.statemachine.state.State;
 import org.springframework.statemachine.support.AbstractStateMachine;
-import org.springframework.statemachine.support.DefaultExtendedState;
 import org.springframework.statemachine.support.DefaultStateMachineContext;
 import org.springframework.statemachine.support.StateMachineInterceptor;
 import org.springframework.statemachine.support.StateMachineInterceptorAdapter;
+import org.springframework.statemachine.support.StateMachineUtils;
 import org.springframework.statemachine.transition.Transition;
 import org.springframework.statemachine.transition.TransitionKind;
 import org.springframework.util.Assert;
@@ -159,7 +159,7 @@ public abstract class AbstractPersistingStateMachineInterceptor<S, E, T> extends
 	 */
 	protected StateMachineContext<S, E> buildStateMachineContext(StateMachine<S, E> stateMachine,
 			StateMachine<S, E> rootStateMachine, State<S, E> state, Message<E> message) {
-		ExtendedState extendedState = new DefaultExtendedState();
+		ExtendedState extendedState = StateMachineUtils.newExtendedState(stateMachine.getExtendedState());
 		extendedState.getVariables().putAll(extendedStateVariablesFunction.apply(stateMachine));
 
 		List<StateMachineContext<S, E>> childs = new ArrayList<StateMachineContext<S, E>>();
@@ -189,7 +189,7 @@ public abstract class AbstractPersistingStateMachineInterceptor<S, E, T> extends
 		}
 		Collection<State<S, E>> states = stateMachine.getStates();
 		for (State<S, E> ss : states) {
-			if (ss.isSubmachineState()) {
+			if (ss.isSubmachineState() && ((AbstractState<S, E>) ss).isSubmachineBuilt()) {
 				StateMachine<S, E> submachine = ((AbstractState<S, E>) ss).getSubmachine();
 				PseudoState<S, E> ps = ((AbstractStateMachine<S, E>) submachine).getHistoryState();
 				if (ps != null) {
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.persist;
+
+import java.util.HashMap;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.service.StateMachineSerialisationService;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+import org.springframework.util.Assert;
+
+/**
+ * Base implementation of a {@link StateMachineJournal} storing events and
+ * snapshots as bytes produced by a {@link StateMachineSerialisationService}.
+ * Events are carried in a context having only event and its headers so that
+ * existing serialisation services can be used as is.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public abstract class AbstractStateMachineJournal<S, E> implements StateMachineJournal<S, E> {
+
+	private final StateMachineSerialisationService<S, E> serialisationService;
+
+	/**
+	 * Instantiates a new abstract state machine journal.
+	 *
+	 * @param serialisationService the serialisation service
+	 */
+	protected AbstractStateMachineJournal(StateMachineSerialisationService<S, E> serialisationService) {
+		Assert.notNull(serialisationService, "Serialisation service must be set");
+		this.serialisationService = serialisationService;
+	}
+
+	protected byte[] serializeMessage(Message<E> message) throws Exception {
+		StateMachineContext<S, E> context = new DefaultStateMachineContext<S, E>(null, message.getPayload(),
+				new HashMap<String, Object>(message.getHeaders()), new DefaultExtendedState());
+		return serialisationService.serialiseStateMachineContext(context);
+	}
+
+	protected Message<E> deserializeMessage(byte[] data) throws Exception {
+		StateMachineContext<S, E> context = serialisationService.deserialiseStateMachineContext(data);
+		MessageBuilder<E> builder = MessageBuilder.withPayload(context.getEvent());
+		if (context.getEventHeaders() != null) {
+			builder.copyHeaders(context.getEventHeaders());
+		}
+		return builder.build();
+	}
+
+	protected byte[] serializeContext(StateMachineContext<S, E> context) throws Exception {
+		return serialisationService.serialiseStateMachineContext(context);
+	}
+
+	protected StateMachineContext<S, E> deserializeContext(byte[] data) throws Exception {
+		return serialisationService.deserialiseStateMachineContext(data);
+	}
+}
@@ -30,8 +30,8 @@ import org.springframework.statemachine.state.HistoryPseudoState;
 import org.springframework.statemachine.state.PseudoState;
 import org.springframework.statemachine.state.State;
 import org.springframework.statemachine.support.AbstractStateMachine;
-import org.springframework.statemachine.support.DefaultExtendedState;
 import org.springframework.statemachine.support.DefaultStateMachineContext;
+import org.springframework.statemachine.support.StateMachineUtils;
 import org.springframework.util.Assert;
 
 /**
@@ -73,7 +73,7 @@ public abstract class AbstractStateMachinePersister<S, E, T> implements StateMac
 	}
 
 	protected StateMachineContext<S, E> buildStateMachineContext(StateMachine<S, E> stateMachine) {
-		ExtendedState extendedState = new DefaultExtendedState();
+		ExtendedState extendedState = StateMachineUtils.newExtendedState(stateMachine.getExtendedState());
 		extendedState.getVariables().putAll(stateMachine.getExtendedState().getVariables());
 
 		ArrayList<StateMachineContext<S, E>> childs = new ArrayList<StateMachineContext<S, E>>();
@@ -102,7 +102,7 @@ public abstract class AbstractStateMachinePersister<S, E, T> implements StateMac
 		}
 		Collection<State<S, E>> states = stateMachine.getStates();
 		for (State<S, E> ss : states) {
-			if (ss.isSubmachineState()) {
+			if (ss.isSubmachineState() && ((AbstractState<S, E>) ss).isSubmachineBuilt()) {
 				StateMachine<S, E> submachine = ((AbstractState<S, E>) ss).getSubmachine();
 				PseudoState<S, E> ps = ((AbstractStateMachine<S, E>) submachine).getHistoryState();
 				if (ps != null) {
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.persist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.messaging.Message;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachineEventResult;
+import org.springframework.statemachine.StateMachineEventResult.ResultType;
+import org.springframework.statemachine.StateMachinePersist;
+import org.springframework.statemachine.support.StatelessStateMachineEvaluator;
+import org.springframework.util.Assert;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link StateMachinePersister} using a {@link StateMachineJournal} for an
+ * event sourced persistence. Events sent via
+ * {@link #sendEvent(StateMachine, String, Message)} which are accepted by a
+ * machine are appended into a journal and a full context snapshot is written
+ * every {@link #setSnapshotInterval(int) snapshot interval} events.
+ * <p>
+ * Sending an event, appending it and taking a snapshot are serialised per
+ * machine id, using a lock striped over machine ids, so that a journal order matches an order in which a machine
+ * processed events and a snapshot reflects exactly its sequence. Explicit
+ * {@link #persist(StateMachine, Object)} takes a same lock for writing, a
+ * context it's given should not be captured while events are sent to a
+ * same machine. Events for a machine must not be sent via this persister
+ * from within its own event processing.
+ * <p>
+ * Restore loads a latest snapshot and replays remaining events with a
+ * {@link StatelessStateMachineEvaluator} which doesn't run actions or notify
+ * listeners, then resets a machine into a replayed context. As actions are
+ * not run, changes actions make into extended state are only restored from
+ * snapshots.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class EventSourcedStateMachinePersister<S, E> extends AbstractStateMachinePersister<S, E, String> {
+
+	private final StateMachineJournal<S, E> journal;
+	private final JournalStateMachinePersist<S, E> journalPersist;
+	private int snapshotInterval = 100;
+
+	/**
+	 * Instantiates a new event sourced state machine persister.
+	 *
+	 * @param journal the state machine journal
+	 * @param evaluator the evaluator used to replay events
+	 */
+	public EventSourcedStateMachinePersister(StateMachineJournal<S, E> journal,
+			StatelessStateMachineEvaluator<S, E> evaluator) {
+		this(new JournalStateMachinePersist<S, E>(journal, evaluator));
+	}
+
+	private EventSourcedStateMachinePersister(JournalStateMachinePersist<S, E> journalPersist) {
+		super(journalPersist);
+		this.journal = journalPersist.journal;
+		this.journalPersist = journalPersist;
+	}
+
+	/**
+	 * Sends an event to a machine and appends it into a journal if it was
+	 * accepted by a machine.
+	 *
+	 * @param stateMachine the state machine
+	 * @param machineId the machine id used in a journal
+	 * @param message the event message
+	 * @return the event results
+	 */
+	public Flux<StateMachineEventResult<S, E>> sendEvent(StateMachine<S, E> stateMachine, String machineId,
+			Message<E> message) {
+		// lock is held until results are emitted so that no other event
+		// is processed between this one, its append and a snapshot
+		return Flux.using(() -> journalPersist.lock(machineId), lock -> stateMachine.sendEvent(Mono.just(message))
+				.collectList()
+				.flatMapMany(results -> {
+					boolean accepted = false;
+					for (StateMachineEventResult<S, E> result : results) {
+						accepted |= result.getResultType() == ResultType.ACCEPTED;
+					}
+					Mono<Void> append = Mono.empty();
+					if (accepted) {
+						append = Mono.fromCallable(() -> {
+							long sequence = journal.append(machineId, message);
+							if (sequence % snapshotInterval == 0) {
+								journal.writeSnapshot(machineId, sequence, buildStateMachineContext(stateMachine));
+							}
+							return sequence;
+						}).then();
+					}
+					return append.thenMany(Flux.fromIterable(results));
+				}), Semaphore::release);
+	}
+
+	/**
+	 * Sets how many accepted events are appended between context snapshots.
+	 * Defaults to {@code 100}.
+	 *
+	 * @param snapshotInterval the snapshot interval
+	 */
+	public void setSnapshotInterval(int snapshotInterval) {
+		Assert.isTrue(snapshotInterval > 0, "Snapshot interval must be greater than zero");
+		this.snapshotInterval = snapshotInterval;
+	}
+
+	/**
+	 * Reads a latest snapshot and replays remaining journal entries on top of
+	 * it. Explicit persist calls snapshot a context at a last journal sequence.
+	 */
+	private static class JournalStateMachinePersist<S, E> implements StateMachinePersist<S, E, String> {
+
+		private static final int LOCK_STRIPES = 64;
+		private final StateMachineJournal<S, E> journal;
+		private final StatelessStateMachineEvaluator<S, E> evaluator;
+		// semaphores as a lock may be released from another thread
+		private final Semaphore[] locks = new Semaphore[LOCK_STRIPES];
+
+		JournalStateMachinePersist(StateMachineJournal<S, E> journal, StatelessStateMachineEvaluator<S, E> evaluator) {
+			Assert.notNull(journal, "Journal must be set");
+			Assert.notNull(evaluator, "Evaluator must be set");
+			this.journal = journal;
+			this.evaluator = evaluator;
+			for (int i = 0; i < LOCK_STRIPES; i++) {
+				locks[i] = new Semaphore(1);
+			}
+		}
+
+		@Override
+		public void write(StateMachineContext<S, E> context, String machineId) throws Exception {
+			Semaphore lock = lock(machineId);
+			try {
+				journal.writeSnapshot(machineId, journal.getLastSequence(machineId), context);
+			} finally {
+				lock.release();
+			}
+		}
+
+		@Override
+		public StateMachineContext<S, E> read(String machineId) throws Exception {
+			JournalSnapshot<S, E> snapshot = journal.readSnapshot(machineId);
+			long sequence = snapshot != null ? snapshot.getSequence() : 0;
+			List<Message<E>> messages = new ArrayList<>();
+			for (JournalEntry<E> entry : journal.read(machineId, sequence)) {
+				messages.add(entry.getMessage());
+			}
+			StateMachineContext<S, E> context = snapshot != null ? snapshot.getContext() : null;
+			if (!messages.isEmpty()) {
+				context = evaluator.replay(context, machineId, messages).block();
+			}
+			return context;
+		}
+
+		Semaphore lock(String machineId) throws InterruptedException {
+			Semaphore lock = locks[(machineId.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+			lock.acquire();
+			return lock;
+		}
+	}
+}
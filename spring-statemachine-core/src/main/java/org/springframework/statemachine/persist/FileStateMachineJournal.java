@@ -0,0 +1,314 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.persist;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.messaging.Message;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.service.StateMachineSerialisationService;
+import org.springframework.util.Assert;
+
+/**
+ * {@link StateMachineJournal} keeping a journal and a latest snapshot per
+ * machine in local files under a directory.
+ * <p>
+ * Journal records are appended as {@code length, sequence, timestamp, data, crc32}
+ * and a record failing its checksum or cut short by a crash ends reading of a
+ * journal. Snapshots are written into a temporary file which is then moved
+ * over a previous one. After a snapshot is written, a journal is rolled to
+ * keep only entries after a snapshot sequence so that reading and restoring
+ * a machine only parses a tail since its latest snapshot.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class FileStateMachineJournal<S, E> extends AbstractStateMachineJournal<S, E> {
+
+	private final static Log log = LogFactory.getLog(FileStateMachineJournal.class);
+	private static final int HEADER_LENGTH = 4 + 8 + 8;
+	private final Path directory;
+	private final ConcurrentHashMap<String, Object> locks = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Long> sequences = new ConcurrentHashMap<>();
+	private boolean sync = false;
+
+	/**
+	 * Instantiates a new file state machine journal.
+	 *
+	 * @param directory the directory for journal files
+	 * @param serialisationService the serialisation service
+	 */
+	public FileStateMachineJournal(Path directory, StateMachineSerialisationService<S, E> serialisationService) {
+		super(serialisationService);
+		Assert.notNull(directory, "Directory must be set");
+		this.directory = directory;
+	}
+
+	/**
+	 * Sets if appends and snapshots are forced to a storage device before
+	 * returning. Defaults to {@code false}.
+	 *
+	 * @param sync the sync flag
+	 */
+	public void setSync(boolean sync) {
+		this.sync = sync;
+	}
+
+	@Override
+	public long append(String machineId, Message<E> message) throws Exception {
+		byte[] data = serializeMessage(message);
+		synchronized (lock(machineId)) {
+			long sequence = getLastSequence(machineId) + 1;
+			ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + data.length + 4);
+			buffer.putInt(data.length);
+			buffer.putLong(sequence);
+			buffer.putLong(System.currentTimeMillis());
+			buffer.put(data);
+			CRC32 crc = new CRC32();
+			crc.update(buffer.array(), 0, HEADER_LENGTH + data.length);
+			buffer.putInt((int) crc.getValue());
+			buffer.flip();
+			Files.createDirectories(directory);
+			try (FileChannel channel = FileChannel.open(journalPath(machineId), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				if (sync) {
+					channel.force(false);
+				}
+			}
+			sequences.put(machineId, sequence);
+			return sequence;
+		}
+	}
+
+	@Override
+	public List<JournalEntry<E>> read(String machineId, long afterSequence) throws Exception {
+		List<JournalEntry<E>> entries = new ArrayList<>();
+		synchronized (lock(machineId)) {
+			scan(machineId, afterSequence, entries, false);
+		}
+		return entries;
+	}
+
+	@Override
+	public long getLastSequence(String machineId) throws Exception {
+		Long sequence = sequences.get(machineId);
+		if (sequence == null) {
+			synchronized (lock(machineId)) {
+				sequence = sequences.get(machineId);
+				if (sequence == null) {
+					// a rolled journal may be empty, sequence then continues from a snapshot
+					sequence = Math.max(scan(machineId, Long.MAX_VALUE, null, false).last,
+							readSnapshotSequence(machineId));
+					sequences.put(machineId, sequence);
+				}
+			}
+		}
+		return sequence;
+	}
+
+	@Override
+	public void writeSnapshot(String machineId, long sequence, StateMachineContext<S, E> context) throws Exception {
+		byte[] data = serializeContext(context);
+		ByteBuffer buffer = ByteBuffer.allocate(8 + data.length);
+		buffer.putLong(sequence);
+		buffer.put(data);
+		Files.createDirectories(directory);
+		Path snapshot = snapshotPath(machineId);
+		Path temp = directory.resolve(snapshot.getFileName() + ".tmp");
+		synchronized (lock(machineId)) {
+			if (readSnapshotSequence(machineId) > sequence) {
+				return;
+			}
+			if (sync) {
+				try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+					buffer.flip();
+					while (buffer.hasRemaining()) {
+						channel.write(buffer);
+					}
+					channel.force(false);
+				}
+			} else {
+				Files.write(temp, buffer.array());
+			}
+			Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			roll(machineId, sequence);
+		}
+	}
+
+	@Override
+	public JournalSnapshot<S, E> readSnapshot(String machineId) throws Exception {
+		Path snapshot = snapshotPath(machineId);
+		if (!Files.exists(snapshot)) {
+			return null;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+		long sequence = buffer.getLong();
+		byte[] data = new byte[buffer.remaining()];
+		buffer.get(data);
+		return new JournalSnapshot<S, E>(sequence, deserializeContext(data));
+	}
+
+	/**
+	 * Rewrites a journal to keep only entries after a given sequence. A crash
+	 * before a new journal is moved in leaves a previous journal which is
+	 * still valid as covered entries are skipped when read.
+	 */
+	private void roll(String machineId, long sequence) throws Exception {
+		Path journal = journalPath(machineId);
+		if (!Files.exists(journal)) {
+			return;
+		}
+		Scan scan = scan(machineId, sequence, null, true);
+		if (scan.start == 0) {
+			return;
+		}
+		Path temp = directory.resolve(journal.getFileName() + ".tmp");
+		try (FileChannel source = FileChannel.open(journal, StandardOpenOption.READ);
+				FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING)) {
+			long position = scan.start;
+			while (position < scan.end) {
+				position += source.transferTo(position, scan.end - position, target);
+			}
+			if (sync) {
+				target.force(false);
+			}
+		}
+		Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private long readSnapshotSequence(String machineId) throws Exception {
+		Path snapshot = snapshotPath(machineId);
+		if (!Files.exists(snapshot)) {
+			return 0;
+		}
+		try (DataInputStream dis = new DataInputStream(Files.newInputStream(snapshot))) {
+			return dis.readLong();
+		} catch (EOFException e) {
+			return 0;
+		}
+	}
+
+	private Scan scan(String machineId, long afterSequence, List<JournalEntry<E>> entries, boolean positionsOnly)
+			throws Exception {
+		Scan scan = new Scan();
+		Path journal = journalPath(machineId);
+		if (!Files.exists(journal)) {
+			return scan;
+		}
+		long position = 0;
+		long start = -1;
+		long size = Files.size(journal);
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(journal));
+				DataInputStream dis = new DataInputStream(in)) {
+			while (true) {
+				byte[] header = new byte[HEADER_LENGTH];
+				byte[] data;
+				int checksum;
+				try {
+					dis.readFully(header);
+					int length = ByteBuffer.wrap(header).getInt();
+					if (length < 0 || length > size - position) {
+						break;
+					}
+					data = new byte[length];
+					dis.readFully(data);
+					checksum = dis.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+				CRC32 crc = new CRC32();
+				crc.update(header);
+				crc.update(data);
+				if ((int) crc.getValue() != checksum) {
+					log.warn("Journal record checksum mismatch for machine " + machineId + ", ignoring rest of journal");
+					break;
+				}
+				ByteBuffer headerBuffer = ByteBuffer.wrap(header, 4, 16);
+				long sequence = headerBuffer.getLong();
+				long timestamp = headerBuffer.getLong();
+				scan.last = sequence;
+				if (sequence > afterSequence && start < 0) {
+					start = position;
+				}
+				position += HEADER_LENGTH + data.length + 4;
+				if (entries != null && sequence > afterSequence) {
+					entries.add(new JournalEntry<E>(sequence, timestamp, deserializeMessage(data)));
+				}
+			}
+		}
+		scan.start = start < 0 ? position : start;
+		scan.end = position;
+		if (entries == null && !positionsOnly && size > position) {
+			// drop a torn record so that new appends stay readable
+			log.warn("Truncating partial journal record for machine " + machineId);
+			try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+				channel.truncate(position);
+			}
+		}
+		return scan;
+	}
+
+	private Object lock(String machineId) {
+		return locks.computeIfAbsent(machineId, id -> new Object());
+	}
+
+	private Path journalPath(String machineId) throws IOException {
+		return directory.resolve(encode(machineId) + ".journal");
+	}
+
+	private Path snapshotPath(String machineId) throws IOException {
+		return directory.resolve(encode(machineId) + ".snapshot");
+	}
+
+	private static String encode(String machineId) throws IOException {
+		return URLEncoder.encode(machineId, StandardCharsets.UTF_8.name());
+	}
+
+	/**
+	 * Result of a journal scan, {@code start} is a position of a first entry
+	 * after a scanned sequence and {@code end} an end of valid entries.
+	 */
+	private static class Scan {
+		long last;
+		long start;
+		long end;
+	}
+}
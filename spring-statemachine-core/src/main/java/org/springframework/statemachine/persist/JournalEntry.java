@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.persist;
+
+import org.springframework.messaging.Message;
+
+/**
+ * Single event stored in a {@link StateMachineJournal}.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <E> the type of event
+ */
+public class JournalEntry<E> {
+
+	private final long sequence;
+	private final long timestamp;
+	private final Message<E> message;
+
+	/**
+	 * Instantiates a new journal entry.
+	 *
+	 * @param sequence the sequence
+	 * @param timestamp the append timestamp
+	 * @param message the event message
+	 */
+	public JournalEntry(long sequence, long timestamp, Message<E> message) {
+		this.sequence = sequence;
+		this.timestamp = timestamp;
+		this.message = message;
+	}
+
+	/**
+	 * Gets the sequence.
+	 *
+	 * @return the sequence
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Gets the timestamp when entry was appended.
+	 *
+	 * @return the timestamp
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Gets the event message.
+	 *
+	 * @return the event message
+	 */
+	public Message<E> getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return "JournalEntry [sequence=" + sequence + ", timestamp=" + timestamp + ", event="
+				+ (message != null ? message.getPayload() : null) + "]";
+	}
+}
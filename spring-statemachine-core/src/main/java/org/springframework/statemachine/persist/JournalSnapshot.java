@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.persist;
+
+import org.springframework.statemachine.StateMachineContext;
+
+/**
+ * Snapshot of a {@link StateMachineContext} stored in a {@link StateMachineJournal}.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class JournalSnapshot<S, E> {
+
+	private final long sequence;
+	private final StateMachineContext<S, E> context;
+
+	/**
+	 * Instantiates a new journal snapshot.
+	 *
+	 * @param sequence the last sequence included in a snapshot
+	 * @param context the state machine context
+	 */
+	public JournalSnapshot(long sequence, StateMachineContext<S, E> context) {
+		this.sequence = sequence;
+		this.context = context;
+	}
+
+	/**
+	 * Gets the last sequence included in a snapshot.
+	 *
+	 * @return the sequence
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Gets the state machine context.
+	 *
+	 * @return the state machine context
+	 */
+	public StateMachineContext<S, E> getContext() {
+		return context;
+	}
+}
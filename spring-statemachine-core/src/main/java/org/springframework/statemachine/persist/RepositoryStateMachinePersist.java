@@ -15,6 +15,9 @@
  */
 package org.springframework.statemachine.persist;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.springframework.statemachine.StateMachineContext;
 import org.springframework.statemachine.StateMachineContextRepository;
 import org.springframework.statemachine.StateMachinePersist;
@@ -51,4 +54,14 @@ public class RepositoryStateMachinePersist<S, E> implements StateMachinePersist<
 		return repository.getContext(contextObj);
 	}
 
+	@Override
+	public void writeAll(Map<String, StateMachineContext<S, E>> contexts) throws Exception {
+		repository.saveAll(contexts);
+	}
+
+	@Override
+	public Map<String, StateMachineContext<S, E>> readAll(Collection<String> contextObjs) throws Exception {
+		return repository.getContexts(contextObjs);
+	}
+
 }
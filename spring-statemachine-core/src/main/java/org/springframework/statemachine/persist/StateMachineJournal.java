@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.persist;
+
+import java.util.List;
+
+import org.springframework.messaging.Message;
+import org.springframework.statemachine.StateMachineContext;
+
+/**
+ * Interface for an append only journal of accepted events per machine
+ * together with periodic {@link StateMachineContext} snapshots.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public interface StateMachineJournal<S, E> {
+
+	/**
+	 * Append an event to a machine journal.
+	 *
+	 * @param machineId the machine id
+	 * @param message the event message
+	 * @return the sequence of an appended entry, starting from one
+	 * @throws Exception if append fails
+	 */
+	long append(String machineId, Message<E> message) throws Exception;
+
+	/**
+	 * Read journal entries having a sequence greater than a given one.
+	 *
+	 * @param machineId the machine id
+	 * @param afterSequence the sequence to read after
+	 * @return the journal entries in sequence order
+	 * @throws Exception if read fails
+	 */
+	List<JournalEntry<E>> read(String machineId, long afterSequence) throws Exception;
+
+	/**
+	 * Gets the last appended sequence.
+	 *
+	 * @param machineId the machine id
+	 * @return the last sequence or zero if nothing is appended
+	 * @throws Exception if read fails
+	 */
+	long getLastSequence(String machineId) throws Exception;
+
+	/**
+	 * Write a snapshot of a context covering events up to a given sequence.
+	 * A snapshot is not replaced with one having an older sequence. Entries
+	 * covered by a snapshot may be discarded.
+	 *
+	 * @param machineId the machine id
+	 * @param sequence the last sequence included in a snapshot
+	 * @param context the state machine context
+	 * @throws Exception if write fails
+	 */
+	void writeSnapshot(String machineId, long sequence, StateMachineContext<S, E> context) throws Exception;
+
+	/**
+	 * Read the latest snapshot.
+	 *
+	 * @param machineId the machine id
+	 * @return the snapshot or {@code null} if there is none
+	 * @throws Exception if read fails
+	 */
+	JournalSnapshot<S, E> readSnapshot(String machineId) throws Exception;
+}
@@ -17,13 +17,14 @@ package org.springframework.statemachine.processor;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
@@ -59,6 +60,7 @@ import org.springframework.statemachine.annotation.OnTransitionStart;
 import org.springframework.statemachine.annotation.WithStateMachine;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ReflectionUtils;
 
 /**
@@ -75,6 +77,15 @@ public class StateMachineAnnotationPostProcessor implements BeanPostProcessor, B
 
 	private final static Log log = LogFactory.getLog(StateMachineAnnotationPostProcessor.class);
 
+	private final static List<Class<? extends Annotation>> HANDLER_ANNOTATION_TYPES = Arrays.asList(
+			OnTransition.class, OnTransitionStart.class, OnTransitionEnd.class, OnStateChanged.class,
+			OnStateEntry.class, OnStateExit.class, OnStateMachineStart.class, OnStateMachineStop.class,
+			OnEventNotAccepted.class, OnStateMachineError.class, OnExtendedStateChanged.class);
+
+	/** Handler metadata per bean class, weakly referenced not to pin classes */
+	private final static Map<Class<?>, List<HandlerMetadata>> handlerMetadataCache =
+			new ConcurrentReferenceHashMap<Class<?>, List<HandlerMetadata>>(64);
+
 	/** Factory from BeanFactoryAware */
 	private volatile ConfigurableListableBeanFactory beanFactory;
 
@@ -141,75 +152,21 @@ public class StateMachineAnnotationPostProcessor implements BeanPostProcessor, B
 		Assert.notNull(beanFactory, "BeanFactory must not be null");
 		final Class<?> beanClass = getBeanClass(bean);
 
-		if (AnnotationUtils.findAnnotation(beanClass, WithStateMachine.class) == null) {
-			// we only post-process beans having WithStateMachine
-			// in it or as a meta annotation
-			return bean;
-		}
-
-		ReflectionUtils.doWithMethods(beanClass, new ReflectionUtils.MethodCallback() {
-
+		for (HandlerMetadata metadata : resolveHandlerMetadata(beanClass)) {
+			Method method = metadata.method;
+			Annotation annotation = metadata.annotation;
 			@SuppressWarnings({ "unchecked", "rawtypes" })
-			public void doWith(Method method) throws IllegalArgumentException, IllegalAccessException {
-
-				Map<Class<? extends Annotation>, List<Annotation>> annotationChains = new HashMap<>();
-				for (Class<? extends Annotation> annotationType : postProcessors.keySet()) {
-					if (AnnotatedElementUtils.isAnnotated(method, annotationType.getName())) {
-						List<Annotation> annotationChain = getAnnotationChain(method, annotationType);
-						if (annotationChain.size() > 0) {
-							annotationChains.put(annotationType, annotationChain);
-						}
-					}
-				}
-
-				for (Entry<Class<? extends Annotation>, List<Annotation>> entry : annotationChains.entrySet()) {
-					Class<? extends Annotation> annotationType = entry.getKey();
-					List<Annotation> annotations = entry.getValue();
-					Annotation metaAnnotation = null;
-					Annotation annotation = null;
-					if (annotations.size() == 2) {
-						annotation = annotations.get(0);
-						metaAnnotation = annotations.get(1);
-					} else if (annotations.size() == 1) {
-						annotation = annotations.get(0);
-						metaAnnotation = annotations.get(0);
-					}
-
-					MethodAnnotationPostProcessor postProcessor = metaAnnotation != null ? postProcessors.get(annotationType) : null;
-					if (postProcessor != null) {
-						// TODO: should change post processor to handle annotation list
-						Object result = postProcessor.postProcess(beanClass, bean, beanName, method, metaAnnotation, annotation);
-						if (result != null && result instanceof StateMachineHandler) {
-							String endpointBeanName = generateBeanName(beanName, method, annotation.annotationType());
-
-							if (result instanceof BeanNameAware) {
-								((BeanNameAware) result).setBeanName(endpointBeanName);
-							}
-							beanFactory.registerSingleton(endpointBeanName, result);
-							if (result instanceof BeanFactoryAware) {
-								((BeanFactoryAware) result).setBeanFactory(beanFactory);
-							}
-							if (result instanceof InitializingBean) {
-								try {
-									((InitializingBean) result).afterPropertiesSet();
-								} catch (Exception e) {
-									throw new BeanInitializationException("failed to initialize annotated component", e);
-								}
-							}
-							if (result instanceof Lifecycle) {
-								lifecycles.add((Lifecycle) result);
-								if (result instanceof SmartLifecycle && ((SmartLifecycle) result).isAutoStartup()) {
-									((SmartLifecycle) result).start();
-								}
-							}
-							if (result instanceof ApplicationListener) {
-								listeners.add((ApplicationListener) result);
-							}
-						}
-					}
-				}
+			MethodAnnotationPostProcessor<Annotation> postProcessor = (MethodAnnotationPostProcessor) postProcessors
+					.get(metadata.annotationType);
+			if (postProcessor == null) {
+				continue;
 			}
-		}, ReflectionUtils.USER_DECLARED_METHODS);
+			// TODO: should change post processor to handle annotation list
+			Object result = postProcessor.postProcess(beanClass, bean, beanName, method, metadata.metaAnnotation, annotation);
+			if (result != null && result instanceof StateMachineHandler) {
+				registerHandler(result, generateBeanName(beanName, method, annotation.annotationType()));
+			}
+		}
 		return bean;
 	}
 
@@ -252,6 +209,77 @@ public class StateMachineAnnotationPostProcessor implements BeanPostProcessor, B
 		this.running = false;
 	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void registerHandler(Object result, String endpointBeanName) {
+		if (result instanceof BeanNameAware) {
+			((BeanNameAware) result).setBeanName(endpointBeanName);
+		}
+		beanFactory.registerSingleton(endpointBeanName, result);
+		if (result instanceof BeanFactoryAware) {
+			((BeanFactoryAware) result).setBeanFactory(beanFactory);
+		}
+		if (result instanceof InitializingBean) {
+			try {
+				((InitializingBean) result).afterPropertiesSet();
+			} catch (Exception e) {
+				throw new BeanInitializationException("failed to initialize annotated component", e);
+			}
+		}
+		if (result instanceof Lifecycle) {
+			lifecycles.add((Lifecycle) result);
+			if (result instanceof SmartLifecycle && ((SmartLifecycle) result).isAutoStartup()) {
+				((SmartLifecycle) result).start();
+			}
+		}
+		if (result instanceof ApplicationListener) {
+			listeners.add((ApplicationListener) result);
+		}
+	}
+
+	/**
+	 * Resolve handler metadata for a bean class. Metadata only depends on a
+	 * class so it is resolved once and shared by all beans and contexts using
+	 * same class.
+	 *
+	 * @param beanClass the bean class
+	 * @return the handler metadata
+	 */
+	private List<HandlerMetadata> resolveHandlerMetadata(Class<?> beanClass) {
+		List<HandlerMetadata> metadata = handlerMetadataCache.get(beanClass);
+		if (metadata == null) {
+			metadata = buildHandlerMetadata(beanClass);
+			handlerMetadataCache.put(beanClass, metadata);
+		}
+		return metadata;
+	}
+
+	private List<HandlerMetadata> buildHandlerMetadata(Class<?> beanClass) {
+		if (!AnnotationUtils.isCandidateClass(beanClass, WithStateMachine.class)
+				|| AnnotationUtils.findAnnotation(beanClass, WithStateMachine.class) == null) {
+			// we only post-process beans having WithStateMachine
+			// in it or as a meta annotation
+			return Collections.emptyList();
+		}
+		List<HandlerMetadata> metadata = new ArrayList<HandlerMetadata>();
+		ReflectionUtils.doWithMethods(beanClass, method -> {
+			if (method.getAnnotations().length == 0) {
+				return;
+			}
+			for (Class<? extends Annotation> annotationType : HANDLER_ANNOTATION_TYPES) {
+				if (!AnnotatedElementUtils.isAnnotated(method, annotationType.getName())) {
+					continue;
+				}
+				List<Annotation> annotations = getAnnotationChain(method, annotationType);
+				if (annotations.size() == 2) {
+					metadata.add(new HandlerMetadata(method, annotationType, annotations.get(0), annotations.get(1)));
+				} else if (annotations.size() == 1) {
+					metadata.add(new HandlerMetadata(method, annotationType, annotations.get(0), annotations.get(0)));
+				}
+			}
+		}, ReflectionUtils.USER_DECLARED_METHODS);
+		return Collections.unmodifiableList(metadata);
+	}
+
 	/**
 	 * Gets the bean class. Will check if bean is a proxy and
 	 * find a class from there as target class, otherwise
@@ -307,4 +335,23 @@ public class StateMachineAnnotationPostProcessor implements BeanPostProcessor, B
 		}
 		return false;
 	}
+
+	/**
+	 * Annotated handler method resolved from a bean class.
+	 */
+	private static class HandlerMetadata {
+
+		final Method method;
+		final Class<? extends Annotation> annotationType;
+		final Annotation annotation;
+		final Annotation metaAnnotation;
+
+		HandlerMetadata(Method method, Class<? extends Annotation> annotationType, Annotation annotation,
+				Annotation metaAnnotation) {
+			this.method = method;
+			this.annotationType = annotationType;
+			this.annotation = annotation;
+			this.metaAnnotation = metaAnnotation;
+		}
+	}
 }
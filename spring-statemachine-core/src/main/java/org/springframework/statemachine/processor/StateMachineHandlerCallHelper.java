@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2017 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,11 +17,14 @@ package org.springframework.statemachine.processor;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -49,6 +52,7 @@ import org.springframework.statemachine.config.configuration.StateMachineHandler
 import org.springframework.statemachine.state.State;
 import org.springframework.statemachine.support.StateMachineUtils;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -56,6 +60,11 @@ import org.springframework.util.StringUtils;
  * of StateMachineHandlers and provides needed caching so that a runtime calls
  * are fast. Also provides dedicated methods for each annotated methods so that
  * parameters are handled accordingly.
+ * <p>
+ * Handlers are resolved into immutable tables when helper is initialised or
+ * application context is refreshed. Tables are keyed by an annotation type and
+ * a machine id, and handlers matching a source and target state pair are
+ * remembered so that a runtime call doesn't need to touch annotations.
  *
  * @author Janne Valkealahti
  *
@@ -64,11 +73,12 @@ import org.springframework.util.StringUtils;
  */
 public class StateMachineHandlerCallHelper<S, E> implements InitializingBean, BeanFactoryAware {
 
+	private static final int MAX_STATE_PAIRS = 256;
 	private final Log log = LogFactory.getLog(StateMachineHandlerCallHelper.class);
-	private final Map<String, List<CacheEntry>> cache = new HashMap<>();
+	private volatile Map<Class<? extends Annotation>, Map<String, HandlerTable>> tables = Collections.emptyMap();
 	private ListableBeanFactory beanFactory;
 	private StateMachineHandlerApplicationListener stateMachineHandlerApplicationListener;
-	private long last = Long.MIN_VALUE;
+	private volatile long last = Long.MIN_VALUE;
 
 	@SuppressWarnings("unchecked")
 	@Override
@@ -84,6 +94,7 @@ public class StateMachineHandlerCallHelper<S, E> implements InitializingBean, Be
 			this.stateMachineHandlerApplicationListener = beanFactory.getBean(StateMachineHandlerApplicationListener.BEAN_NAME,
 					StateMachineHandlerApplicationListener.class);
 		}
+		Map<Class<? extends Annotation>, Map<String, List<HandlerEntry>>> entries = new HashMap<>();
 		for (StateMachineHandler<? extends Annotation, S, E> handler : beanFactory.getBeansOfType(StateMachineHandler.class).values()) {
 			Annotation annotation = handler.getAnnotation();
 			Annotation metaAnnotation = handler.getMetaAnnotation();
@@ -91,15 +102,24 @@ public class StateMachineHandlerCallHelper<S, E> implements InitializingBean, Be
 					WithStateMachine.class);
 
 			// don't check name if id is set as name defaults to
-			// 'stateMachine' and would cause additional cache entry
+			// 'stateMachine' and would cause additional table entry
 			if (StringUtils.hasText(withStateMachine.id())) {
-				updateCache(metaAnnotation.annotationType().getName() +"_"+ withStateMachine.id(),
-						new CacheEntry(handler, annotation, metaAnnotation));
+				addEntry(entries, metaAnnotation.annotationType(), withStateMachine.id(),
+						new HandlerEntry(handler, annotation, metaAnnotation));
 			} else if (StringUtils.hasText(withStateMachine.name())) {
-				updateCache(metaAnnotation.annotationType().getName() +"_"+ withStateMachine.name(),
-						new CacheEntry(handler, annotation, metaAnnotation));
+				addEntry(entries, metaAnnotation.annotationType(), withStateMachine.name(),
+						new HandlerEntry(handler, annotation, metaAnnotation));
 			}
 		}
+		Map<Class<? extends Annotation>, Map<String, HandlerTable>> tables = new HashMap<>();
+		for (Entry<Class<? extends Annotation>, Map<String, List<HandlerEntry>>> e : entries.entrySet()) {
+			Map<String, HandlerTable> byId = new HashMap<>();
+			for (Entry<String, List<HandlerEntry>> ee : e.getValue().entrySet()) {
+				byId.put(ee.getKey(), new HandlerTable(ee.getValue()));
+			}
+			tables.put(e.getKey(), Collections.unmodifiableMap(byId));
+		}
+		this.tables = Collections.unmodifiableMap(tables);
 	}
 
 	@Override
@@ -115,352 +135,305 @@ public class StateMachineHandlerCallHelper<S, E> implements InitializingBean, Be
 	}
 
 	public void callOnStateChanged(String stateMachineId, StateContext<S, E> stateContext) {
-		if (!StringUtils.hasText(stateMachineId)) {
-			return;
-		}
-		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<StateMachineHandler<? extends Annotation, S, E>>();
-		String cacheKey = OnStateChanged.class.getName() +"_"+ stateMachineId;
-		List<CacheEntry> list = getCacheEntries(cacheKey);
-		if (list == null) {
+		HandlerTable table = getHandlerTable(OnStateChanged.class, stateMachineId);
+		if (table == null) {
 			return;
 		}
-		for (CacheEntry entry : list) {
-			if (annotationHandlerSourceTargetMatch((String[]) AnnotationUtils.getValue(entry.metaAnnotation, "source"),
-					(String[]) AnnotationUtils.getValue(entry.metaAnnotation, "target"), entry.annotation, stateContext.getSource(),
-					stateContext.getTarget())) {
-				handlersList.add(entry.handler);
-			}
-		}
-		getStateMachineHandlerResults(handlersList, stateContext);
+		handle(table.match(stateContext.getSource(), stateContext.getTarget()), stateContext);
 	}
 
 	public void callOnStateEntry(String stateMachineId, StateContext<S, E> stateContext) {
-		if (!StringUtils.hasText(stateMachineId)) {
+		HandlerTable table = getHandlerTable(OnStateEntry.class, stateMachineId);
+		if (table == null) {
 			return;
 		}
-		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<StateMachineHandler<? extends Annotation, S, E>>();
-		String cacheKey = OnStateEntry.class.getName() +"_"+ stateMachineId;
-		List<CacheEntry> list = getCacheEntries(cacheKey);
-		if (list == null) {
-			return;
-		}
-		for (CacheEntry entry : list) {
-			if (annotationHandlerSourceTargetMatch((String[]) AnnotationUtils.getValue(entry.metaAnnotation, "source"),
-					(String[]) AnnotationUtils.getValue(entry.metaAnnotation, "target"), entry.annotation, stateContext.getSource(),
-					stateContext.getTarget())) {
-				handlersList.add(entry.handler);
-			}
-		}
-		getStateMachineHandlerResults(handlersList, stateContext);
+		handle(table.match(stateContext.getSource(), stateContext.getTarget()), stateContext);
 	}
 
 	public void callOnStateExit(String stateMachineId, StateContext<S, E> stateContext) {
-		if (!StringUtils.hasText(stateMachineId)) {
-			return;
-		}
-		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<StateMachineHandler<? extends Annotation, S, E>>();
-		String cacheKey = OnStateExit.class.getName() +"_"+ stateMachineId;
-		List<CacheEntry> list = getCacheEntries(cacheKey);
-		if (list == null) {
+		HandlerTable table = getHandlerTable(OnStateExit.class, stateMachineId);
+		if (table == null) {
 			return;
 		}
-		for (CacheEntry entry : list) {
-			if (annotationHandlerSourceTargetMatch((String[]) AnnotationUtils.getValue(entry.metaAnnotation, "source"),
-					(String[]) AnnotationUtils.getValue(entry.metaAnnotation, "target"), entry.annotation, stateContext.getSource(),
-					stateContext.getTarget())) {
-				handlersList.add(entry.handler);
-			}
-		}
-		getStateMachineHandlerResults(handlersList, stateContext);
+		handle(table.match(stateContext.getSource(), stateContext.getTarget()), stateContext);
 	}
 
 	public void callOnEventNotAccepted(String stateMachineId, StateContext<S, E> stateContext) {
-		if (!StringUtils.hasText(stateMachineId)) {
+		HandlerTable table = getHandlerTable(OnEventNotAccepted.class, stateMachineId);
+		if (table == null) {
 			return;
 		}
-		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<StateMachineHandler<? extends Annotation, S, E>>();
-		String cacheKey = OnEventNotAccepted.class.getName() +"_"+ stateMachineId;
-		List<CacheEntry> list = getCacheEntries(cacheKey);
-		if (list == null) {
+		E event = stateContext.getEvent();
+		if (event == null) {
+			handle(table.handlers, stateContext);
 			return;
 		}
-		for (CacheEntry entry : list) {
-			E event = stateContext.getEvent();
-			if (event != null) {
-				if (annotationHandlerEventVariableMatch(entry.metaAnnotation, new String[]{event.toString()})) {
-					handlersList.add(entry.handler);
-				}
-			} else {
+		String eventString = event.toString();
+		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<>(table.entries.size());
+		for (HandlerEntry entry : table.entries) {
+			if (entry.events.isEmpty() || entry.events.contains(eventString)) {
 				handlersList.add(entry.handler);
 			}
 		}
-		getStateMachineHandlerResults(handlersList, stateContext);
+		handle(handlersList, stateContext);
 	}
 
-
 	public void callOnTransitionStart(String stateMachineId, StateContext<S, E> stateContext) {
-		if (!StringUtils.hasText(stateMachineId)) {
+		HandlerTable table = getHandlerTable(OnTransitionStart.class, stateMachineId);
+		if (table == null) {
 			return;
 		}
-		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<StateMachineHandler<? extends Annotation, S, E>>();
-		String cacheKey = OnTransitionStart.class.getName() +"_"+ stateMachineId;
-		List<CacheEntry> list = getCacheEntries(cacheKey);
-		if (list == null) {
-			return;
-		}
-		for (CacheEntry entry : list) {
-			if (annotationHandlerSourceTargetMatch((String[]) AnnotationUtils.getValue(entry.metaAnnotation, "source"),
-					(String[]) AnnotationUtils.getValue(entry.metaAnnotation, "target"), entry.annotation,
-					stateContext.getTransition().getSource(), stateContext.getTransition().getTarget())) {
-				handlersList.add(entry.handler);
-			}
-		}
-		getStateMachineHandlerResults(handlersList, stateContext);
+		handle(table.match(stateContext.getTransition().getSource(), stateContext.getTransition().getTarget()),
+				stateContext);
 	}
 
 	public void callOnTransition(String stateMachineId, StateContext<S, E> stateContext) {
-		if (!StringUtils.hasText(stateMachineId)) {
-			return;
-		}
-		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<StateMachineHandler<? extends Annotation, S, E>>();
-		String cacheKey = OnTransition.class.getName() +"_"+ stateMachineId;
-		List<CacheEntry> list = getCacheEntries(cacheKey);
-		if (list == null) {
+		HandlerTable table = getHandlerTable(OnTransition.class, stateMachineId);
+		if (table == null) {
 			return;
 		}
-		for (CacheEntry entry : list) {
-			if (annotationHandlerSourceTargetMatch((String[]) AnnotationUtils.getValue(entry.metaAnnotation, "source"),
-					(String[]) AnnotationUtils.getValue(entry.metaAnnotation, "target"), entry.annotation,
-					stateContext.getTransition().getSource(), stateContext.getTransition().getTarget())) {
-				handlersList.add(entry.handler);
-			}
-		}
-		getStateMachineHandlerResults(handlersList, stateContext);
+		handle(table.match(stateContext.getTransition().getSource(), stateContext.getTransition().getTarget()),
+				stateContext);
 	}
 
 	public void callOnTransitionEnd(String stateMachineId, StateContext<S, E> stateContext) {
-		if (!StringUtils.hasText(stateMachineId)) {
-			return;
-		}
-		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<StateMachineHandler<? extends Annotation, S, E>>();
-		String cacheKey = OnTransitionEnd.class.getName() +"_"+ stateMachineId;
-		List<CacheEntry> list = getCacheEntries(cacheKey);
-		if (list == null) {
+		HandlerTable table = getHandlerTable(OnTransitionEnd.class, stateMachineId);
+		if (table == null) {
 			return;
 		}
-		for (CacheEntry entry : list) {
-			if (annotationHandlerSourceTargetMatch((String[]) AnnotationUtils.getValue(entry.metaAnnotation, "source"),
-					(String[]) AnnotationUtils.getValue(entry.metaAnnotation, "target"), entry.annotation,
-					stateContext.getTransition().getSource(), stateContext.getTransition().getTarget())) {
-				handlersList.add(entry.handler);
-			}
-		}
-		getStateMachineHandlerResults(handlersList, stateContext);
+		handle(table.match(stateContext.getTransition().getSource(), stateContext.getTransition().getTarget()),
+				stateContext);
 	}
 
 	public void callOnStateMachineStart(String stateMachineId, StateContext<S, E> stateContext) {
-		if (!StringUtils.hasText(stateMachineId)) {
-			return;
-		}
-		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<StateMachineHandler<? extends Annotation, S, E>>();
-		String cacheKey = OnStateMachineStart.class.getName() +"_"+ stateMachineId;
-		List<CacheEntry> list = getCacheEntries(cacheKey);
-		if (list == null) {
+		HandlerTable table = getHandlerTable(OnStateMachineStart.class, stateMachineId);
+		if (table == null) {
 			return;
 		}
-		for (CacheEntry entry : list) {
-			handlersList.add(entry.handler);
-		}
-		getStateMachineHandlerResults(handlersList, stateContext);
+		handle(table.handlers, stateContext);
 	}
 
 	public void callOnStateMachineStop(String stateMachineId, StateContext<S, E> stateContext) {
-		if (!StringUtils.hasText(stateMachineId)) {
+		HandlerTable table = getHandlerTable(OnStateMachineStop.class, stateMachineId);
+		if (table == null) {
 			return;
 		}
-		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<StateMachineHandler<? extends Annotation, S, E>>();
-		String cacheKey = OnStateMachineStop.class.getName() +"_"+ stateMachineId;
-		List<CacheEntry> list = getCacheEntries(cacheKey);
-		if (list == null) {
-			return;
-		}
-		for (CacheEntry entry : list) {
-			handlersList.add(entry.handler);
-		}
-		getStateMachineHandlerResults(handlersList, stateContext);
+		handle(table.handlers, stateContext);
 	}
 
 	public void callOnStateMachineError(String stateMachineId, StateContext<S, E> stateContext) {
-		if (!StringUtils.hasText(stateMachineId)) {
+		HandlerTable table = getHandlerTable(OnStateMachineError.class, stateMachineId);
+		if (table == null) {
 			return;
 		}
-		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<StateMachineHandler<? extends Annotation, S, E>>();
-		String cacheKey = OnStateMachineError.class.getName() +"_"+ stateMachineId;
-		List<CacheEntry> list = getCacheEntries(cacheKey);
-		if (list == null) {
-			return;
-		}
-		for (CacheEntry entry : list) {
-			handlersList.add(entry.handler);
-		}
-		getStateMachineHandlerResults(handlersList, stateContext);
+		handle(table.handlers, stateContext);
 	}
 
 	public void callOnExtendedStateChanged(String stateMachineId, Object key, Object value, StateContext<S, E> stateContext) {
-		if (!StringUtils.hasText(stateMachineId)) {
-			return;
-		}
-		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<StateMachineHandler<? extends Annotation, S, E>>();
-		String cacheKey = OnExtendedStateChanged.class.getName() +"_"+ stateMachineId;
-		List<CacheEntry> list = getCacheEntries(cacheKey);
-		if (list == null) {
+		HandlerTable table = getHandlerTable(OnExtendedStateChanged.class, stateMachineId);
+		if (table == null) {
 			return;
 		}
-		for (CacheEntry entry : list) {
-			if (annotationHandlerVariableMatch(entry.metaAnnotation, key)) {
+		Collection<String> keys = null;
+		List<StateMachineHandler<? extends Annotation, S, E>> handlersList = new ArrayList<>(table.entries.size());
+		for (HandlerEntry entry : table.entries) {
+			if (entry.keys.isEmpty()) {
+				handlersList.add(entry.handler);
+				continue;
+			}
+			if (keys == null) {
+				keys = StateMachineUtils.toStringCollection(key);
+			}
+			if (StateMachineUtils.containsAtleastOne(entry.keys, keys)) {
 				handlersList.add(entry.handler);
 			}
 		}
-		getStateMachineHandlerResults(handlersList, stateContext);
+		handle(handlersList, stateContext);
 	}
 
-	private void updateCache(String key, CacheEntry cacheEntry) {
-		List<CacheEntry> list = cache.get(key);
+	private void addEntry(Map<Class<? extends Annotation>, Map<String, List<HandlerEntry>>> entries,
+			Class<? extends Annotation> type, String id, HandlerEntry entry) {
+		Map<String, List<HandlerEntry>> byId = entries.get(type);
+		if (byId == null) {
+			byId = new HashMap<>();
+			entries.put(type, byId);
+		}
+		List<HandlerEntry> list = byId.get(id);
 		if (list == null) {
 			list = new ArrayList<>();
-			cache.put(key, list);
+			byId.put(id, list);
 		}
-		list.add(cacheEntry);
+		list.add(entry);
 	}
 
-	private synchronized List<CacheEntry> getCacheEntries(String cacheKey) {
-		if (stateMachineHandlerApplicationListener != null) {
-			Long l = stateMachineHandlerApplicationListener.getLastRefreshTime();
-			if (l != null && l < System.currentTimeMillis() ) {
-				if (last != l) {
-					cache.clear();
-					try {
-						afterPropertiesSet();
-					} catch (Exception e) {
-						log.error("Unable to update handler cache", e);
-					}
-					last = l;
-				}
-			}
+	private HandlerTable getHandlerTable(Class<? extends Annotation> type, String stateMachineId) {
+		if (!StringUtils.hasText(stateMachineId)) {
+			return null;
 		}
-		//Try to get the CacheEntry using the provided key
-		//Or use default machine name in the key
-		if (cache.containsKey(cacheKey)) {
-			return cache.get(cacheKey);
-		} else {
-			cacheKey = cacheKey.replaceFirst(cacheKey.substring(cacheKey.indexOf("_")+1),
-					StateMachineSystemConstants.DEFAULT_ID_STATEMACHINE);
-			return cache.get(cacheKey);
+		checkRefresh();
+		Map<String, HandlerTable> byId = tables.get(type);
+		if (byId == null) {
+			return null;
 		}
-	}
-
-	private boolean annotationHandlerVariableMatch(Annotation annotation, Object key) {
-		boolean handle = false;
-		Map<String, Object> annotationAttributes = AnnotationUtils.getAnnotationAttributes(annotation);
-		Object object = annotationAttributes.get("key");
-		Collection<String> scoll = StateMachineUtils.toStringCollection(object);
-		if (!scoll.isEmpty()) {
-			if (StateMachineUtils.containsAtleastOne(scoll, StateMachineUtils.toStringCollection(key))) {
-				handle = true;
-			}
-		} else {
-			handle = true;
+		//Try to get the table using the provided id
+		//Or use default machine name
+		HandlerTable table = byId.get(stateMachineId);
+		if (table == null) {
+			table = byId.get(StateMachineSystemConstants.DEFAULT_ID_STATEMACHINE);
 		}
-		return handle;
+		return table;
 	}
 
-	private boolean annotationHandlerEventVariableMatch(Annotation annotation, Object key) {
-		boolean handle = false;
-		Map<String, Object> annotationAttributes = AnnotationUtils.getAnnotationAttributes(annotation);
-		Object object = annotationAttributes.get("event");
-		Collection<String> scoll = StateMachineUtils.toStringCollection(object);
-		if (!scoll.isEmpty()) {
-			if (StateMachineUtils.containsAtleastOne(scoll, StateMachineUtils.toStringCollection(key))) {
-				handle = true;
-			}
-		} else {
-			handle = true;
+	private void checkRefresh() {
+		if (stateMachineHandlerApplicationListener == null) {
+			return;
 		}
-		return handle;
-	}
-
-	private boolean annotationHandlerSourceTargetMatch(String[] msources, String[] mtargets, Annotation methodAnnotation,
-			State<S, E> sourceState, State<S, E> targetState) {
-		Map<String, Object> annotationAttributes = AnnotationUtils.getAnnotationAttributes(methodAnnotation);
-		Object source = annotationAttributes.get("source");
-		Object target = annotationAttributes.get("target");
-
-		Collection<String> scoll = StateMachineUtils.toStringCollection(source);
-		if (scoll.isEmpty() && msources != null) {
-			scoll = Arrays.asList(msources);
-		}
-		Collection<String> tcoll = StateMachineUtils.toStringCollection(target);
-		if (tcoll.isEmpty() && mtargets != null) {
-			tcoll = Arrays.asList(mtargets);
-		}
-
-		boolean handle = false;
-		if (!scoll.isEmpty() && !tcoll.isEmpty()) {
-			if (sourceState != null
-					&& targetState != null
-					&& StateMachineUtils.containsAtleastOne(scoll,
-							StateMachineUtils.toStringCollection(sourceState.getIds()))
-					&& StateMachineUtils.containsAtleastOne(tcoll,
-							StateMachineUtils.toStringCollection(targetState.getIds()))) {
-				handle = true;
-			}
-		} else if (!scoll.isEmpty()) {
-			if (sourceState != null
-					&& StateMachineUtils.containsAtleastOne(scoll,
-							StateMachineUtils.toStringCollection(sourceState.getIds()))) {
-				handle = true;
-			}
-		} else if (!tcoll.isEmpty()) {
-			if (targetState != null
-					&& StateMachineUtils.containsAtleastOne(tcoll,
-							StateMachineUtils.toStringCollection(targetState.getIds()))) {
-				handle = true;
+		Long l = stateMachineHandlerApplicationListener.getLastRefreshTime();
+		if (l == null || l == last) {
+			return;
+		}
+		synchronized (this) {
+			if (l != last) {
+				try {
+					afterPropertiesSet();
+				} catch (Exception e) {
+					log.error("Unable to update handler tables", e);
+				}
+				last = l;
 			}
-		} else if (scoll.isEmpty() && tcoll.isEmpty()) {
-			handle = true;
 		}
-
-		return handle;
 	}
 
-	private List<Object> getStateMachineHandlerResults(List<StateMachineHandler<? extends Annotation, S, E>> stateMachineHandlers,
+	private void handle(List<StateMachineHandler<? extends Annotation, S, E>> stateMachineHandlers,
 			final StateContext<S, E> stateContext) {
+		if (stateMachineHandlers.isEmpty()) {
+			return;
+		}
 		StateMachineRuntime<S, E> runtime = new StateMachineRuntime<S, E>() {
 			@Override
 			public StateContext<S, E> getStateContext() {
 				return stateContext;
 			}
 		};
-		List<Object> results = new ArrayList<Object>();
 		for (StateMachineHandler<? extends Annotation, S, E> handler : stateMachineHandlers) {
 			try {
-				results.add(handler.handle(runtime));
+				handler.handle(runtime);
 			} catch (Throwable e) {
 				log.error("Error processing handler " + handler, e);
 			}
 		}
-		return results;
 	}
 
-	private class CacheEntry {
+	private static Collection<String> attributeValues(Annotation annotation, String name) {
+		return StateMachineUtils.toStringCollection(AnnotationUtils.getValue(annotation, name));
+	}
+
+	/**
+	 * Immutable handler entries for an annotation type and machine id together
+	 * with a bounded memory of handlers matching a source and target state pair.
+	 */
+	private class HandlerTable {
+
+		final List<HandlerEntry> entries;
+		final List<StateMachineHandler<? extends Annotation, S, E>> handlers;
+		final Map<StatePair, List<StateMachineHandler<? extends Annotation, S, E>>> matches = new ConcurrentHashMap<>();
+
+		HandlerTable(List<HandlerEntry> entries) {
+			this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+			List<StateMachineHandler<? extends Annotation, S, E>> handlers = new ArrayList<>(entries.size());
+			for (HandlerEntry entry : entries) {
+				handlers.add(entry.handler);
+			}
+			this.handlers = Collections.unmodifiableList(handlers);
+		}
+
+		List<StateMachineHandler<? extends Annotation, S, E>> match(State<S, E> sourceState, State<S, E> targetState) {
+			StatePair pair = new StatePair(sourceState, targetState);
+			List<StateMachineHandler<? extends Annotation, S, E>> matched = matches.get(pair);
+			if (matched != null) {
+				return matched;
+			}
+			List<StateMachineHandler<? extends Annotation, S, E>> list = new ArrayList<>(entries.size());
+			for (HandlerEntry entry : entries) {
+				if (entry.matches(pair.sourceIds, pair.targetIds)) {
+					list.add(entry.handler);
+				}
+			}
+			matched = Collections.unmodifiableList(list);
+			if (matches.size() < MAX_STATE_PAIRS) {
+				matches.put(pair, matched);
+			}
+			return matched;
+		}
+	}
+
+	/**
+	 * Key of a source and target state pair, based on state ids as those
+	 * change with an active substate.
+	 */
+	private static class StatePair {
+
+		final Collection<String> sourceIds;
+		final Collection<String> targetIds;
+
+		StatePair(State<?, ?> source, State<?, ?> target) {
+			this.sourceIds = source != null ? StateMachineUtils.toStringCollection(source.getIds()) : null;
+			this.targetIds = target != null ? StateMachineUtils.toStringCollection(target.getIds()) : null;
+		}
+
+		@Override
+		public int hashCode() {
+			return ObjectUtils.nullSafeHashCode(sourceIds) * 31 + ObjectUtils.nullSafeHashCode(targetIds);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof StatePair)) {
+				return false;
+			}
+			StatePair other = (StatePair) obj;
+			return ObjectUtils.nullSafeEquals(sourceIds, other.sourceIds)
+					&& ObjectUtils.nullSafeEquals(targetIds, other.targetIds);
+		}
+	}
+
+	private class HandlerEntry {
 		final StateMachineHandler<? extends Annotation, S, E> handler;
-		final Annotation annotation;
-		final Annotation metaAnnotation;
+		final Collection<String> sources;
+		final Collection<String> targets;
+		final Collection<String> events;
+		final Collection<String> keys;
 
-		public CacheEntry(StateMachineHandler<? extends Annotation, S, E> handler, Annotation annotation, Annotation metaAnnotation) {
+		public HandlerEntry(StateMachineHandler<? extends Annotation, S, E> handler, Annotation annotation, Annotation metaAnnotation) {
 			this.handler = handler;
-			this.annotation = annotation;
-			this.metaAnnotation = metaAnnotation;
+			// method annotation source and target are used over ones in a meta annotation
+			Collection<String> sources = attributeValues(annotation, "source");
+			if (sources.isEmpty()) {
+				sources = attributeValues(metaAnnotation, "source");
+			}
+			Collection<String> targets = attributeValues(annotation, "target");
+			if (targets.isEmpty()) {
+				targets = attributeValues(metaAnnotation, "target");
+			}
+			this.sources = new HashSet<>(sources);
+			this.targets = new HashSet<>(targets);
+			this.events = new HashSet<>(attributeValues(metaAnnotation, "event"));
+			this.keys = new HashSet<>(attributeValues(metaAnnotation, "key"));
+		}
+
+		boolean matches(Collection<String> sourceIds, Collection<String> targetIds) {
+			if (!sources.isEmpty() && !targets.isEmpty()) {
+				return sourceIds != null && targetIds != null && StateMachineUtils.containsAtleastOne(sourceIds, sources)
+						&& StateMachineUtils.containsAtleastOne(targetIds, targets);
+			} else if (!sources.isEmpty()) {
+				return sourceIds != null && StateMachineUtils.containsAtleastOne(sourceIds, sources);
+			} else if (!targets.isEmpty()) {
+				return targetIds != null && StateMachineUtils.containsAtleastOne(targetIds, targets);
+			}
+			return true;
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,9 @@
 package org.springframework.statemachine.processor;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
@@ -53,6 +56,7 @@ import org.springframework.statemachine.support.AnnotatedMethodFilter;
 import org.springframework.statemachine.support.FixedMethodFilter;
 import org.springframework.statemachine.support.UniqueMethodFilter;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.ReflectionUtils.MethodCallback;
 import org.springframework.util.ReflectionUtils.MethodFilter;
@@ -60,6 +64,11 @@ import org.springframework.util.StringUtils;
 
 /**
  * A helper class using spel to execute target methods.
+ * <p>
+ * When a target method is known up front and all its parameters can be
+ * resolved directly from a {@link StateContext}, method is invoked via a
+ * {@link MethodHandle} and spel is only used as a fallback if resolved
+ * arguments need a type conversion.
  *
  * @author Janne Valkealahti
  *
@@ -89,6 +98,8 @@ public class StateMachineMethodInvokerHelper<T, S, E> extends AbstractExpression
 
 	private final Class<?> expectedType;
 
+	private final MethodHandle methodHandle;
+
 	public StateMachineMethodInvokerHelper(Object targetObject, Method method) {
 		this(targetObject, method, null);
 	}
@@ -139,6 +150,7 @@ public class StateMachineMethodInvokerHelper<T, S, E> extends AbstractExpression
 		this.handlerMethods = null;
 		this.handlerMessageMethods = null;
 		this.handlerMethodsList = null;
+		this.methodHandle = expectedType == null ? createMethodHandle(targetObject, this.handlerMethod) : null;
 		try {
 			this.prepareEvaluationContext(this.getEvaluationContext(false), method, annotationType);
 		} catch (Exception e) {
@@ -167,11 +179,13 @@ public class StateMachineMethodInvokerHelper<T, S, E> extends AbstractExpression
 			this.handlerMethods = null;
 			this.handlerMessageMethods = null;
 			this.handlerMethodsList = null;
+			this.methodHandle = expectedType == null ? createMethodHandle(targetObject, this.handlerMethod) : null;
 		} else {
 			this.handlerMethod = null;
 			this.handlerMethods = handlerMethods;
 			this.handlerMessageMethods = handlerMessageMethods;
 			this.handlerMethodsList = new LinkedList<Map<Class<?>, HandlerMethod>>();
+			this.methodHandle = null;
 
 			// TODO Consider to use global option to determine a precedence of
 			// methods
@@ -233,7 +247,41 @@ public class StateMachineMethodInvokerHelper<T, S, E> extends AbstractExpression
 		return false;
 	}
 
+	private MethodHandle createMethodHandle(Object targetObject, HandlerMethod handlerMethod) {
+		Method method = handlerMethod.method;
+		if (handlerMethod.parameterKinds == null || Modifier.isStatic(method.getModifiers())
+				|| !method.getDeclaringClass().isInstance(targetObject)) {
+			return null;
+		}
+		try {
+			ReflectionUtils.makeAccessible(method);
+			int count = method.getParameterCount();
+			return MethodHandles.lookup().unreflect(method).bindTo(targetObject)
+					.asType(MethodType.genericMethodType(count)).asSpreader(Object[].class, count);
+		} catch (Exception e) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Unable to create method handle for " + method + ", using spel", e);
+			}
+			return null;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
 	private T processInternal(ParametersWrapper<S, E> parameters) throws Exception {
+		Object[] arguments = methodHandle != null ? handlerMethod.resolveArguments(parameters) : null;
+		if (arguments != null) {
+			try {
+				return (T) (Object) methodHandle.invokeExact(arguments);
+			} catch (Exception e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException("Cannot process message", e);
+			}
+		}
+		return processExpression(parameters);
+	}
+
+	private T processExpression(ParametersWrapper<S, E> parameters) throws Exception {
 		HandlerMethod candidate = this.findHandlerMethodForParameters(parameters);
 		Assert.notNull(candidate, "No candidate methods found for messages.");
 		Expression expression = candidate.getExpression();
@@ -409,9 +457,57 @@ public class StateMachineMethodInvokerHelper<T, S, E> extends AbstractExpression
 
 		private volatile boolean messageMethod;
 
+		private ParameterKind[] parameterKinds;
+
+		private String[] parameterKeys;
+
+		private Class<?>[] parameterTypes;
+
 		HandlerMethod(Method method) {
 			this.method = method;
 			this.expression = this.generateExpression(method);
+			this.resolveParameterKinds(method);
+		}
+
+		/**
+		 * Resolve arguments for a direct method invocation.
+		 *
+		 * @param parameters the parameters wrapper
+		 * @return the arguments or {@code null} if arguments need spel for type conversion
+		 */
+		Object[] resolveArguments(ParametersWrapper<?, ?> parameters) {
+			Object[] arguments = new Object[parameterKinds.length];
+			for (int i = 0; i < parameterKinds.length; i++) {
+				Object argument;
+				switch (parameterKinds[i]) {
+				case HEADERS:
+					argument = parameters.getHeaders();
+					break;
+				case VARIABLE:
+					argument = parameters.getVariables().get(parameterKeys[i]);
+					break;
+				case STATE_CONTEXT:
+					argument = parameters.getStateContext();
+					break;
+				case EXTENDED_STATE:
+					argument = parameters.getExtendedState();
+					break;
+				case STATE_MACHINE:
+					argument = parameters.getStateMachine();
+					break;
+				case MESSAGE:
+					argument = parameters.getMessage();
+					break;
+				default:
+					argument = parameters.getException();
+					break;
+				}
+				if (!ClassUtils.isAssignableValue(parameterTypes[i], argument)) {
+					return null;
+				}
+				arguments[i] = argument;
+			}
+			return arguments;
 		}
 
 		Expression getExpression() {
@@ -484,6 +580,45 @@ public class StateMachineMethodInvokerHelper<T, S, E> extends AbstractExpression
 			return EXPRESSION_PARSER.parseExpression(sb.toString());
 		}
 
+		private void resolveParameterKinds(Method method) {
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+			ParameterKind[] kinds = new ParameterKind[parameterTypes.length];
+			String[] keys = new String[parameterTypes.length];
+			for (int i = 0; i < parameterTypes.length; i++) {
+				Class<?> parameterType = ClassUtils.resolvePrimitiveIfNecessary(parameterTypes[i]);
+				Annotation mappingAnnotation = findMappingAnnotation(parameterAnnotations[i]);
+				if (mappingAnnotation != null) {
+					Class<? extends Annotation> annotationType = mappingAnnotation.annotationType();
+					if (annotationType.equals(EventHeaders.class)) {
+						kinds[i] = ParameterKind.HEADERS;
+					} else if (annotationType.equals(ExtendedStateVariable.class)) {
+						kinds[i] = ParameterKind.VARIABLE;
+						keys[i] = AnnotationAttributes.fromMap(AnnotationUtils.getAnnotationAttributes(mappingAnnotation))
+								.getString("value");
+					} else {
+						// header expressions are left to spel
+						return;
+					}
+				} else if (StateContext.class.isAssignableFrom(parameterType)) {
+					kinds[i] = ParameterKind.STATE_CONTEXT;
+				} else if (ExtendedState.class.isAssignableFrom(parameterType)) {
+					kinds[i] = ParameterKind.EXTENDED_STATE;
+				} else if (StateMachine.class.isAssignableFrom(parameterType)) {
+					kinds[i] = ParameterKind.STATE_MACHINE;
+				} else if (Message.class.isAssignableFrom(parameterType)) {
+					kinds[i] = ParameterKind.MESSAGE;
+				} else if (Exception.class.isAssignableFrom(parameterType)) {
+					kinds[i] = ParameterKind.EXCEPTION;
+				} else {
+					return;
+				}
+			}
+			this.parameterKinds = kinds;
+			this.parameterKeys = keys;
+			this.parameterTypes = parameterTypes;
+		}
+
 		private Annotation findMappingAnnotation(Annotation[] annotations) {
 			if (annotations == null || annotations.length == 0) {
 				return null;
@@ -547,6 +682,13 @@ public class StateMachineMethodInvokerHelper<T, S, E> extends AbstractExpression
 		}
 	}
 
+	/**
+	 * Source of an argument resolved without spel.
+	 */
+	private enum ParameterKind {
+		HEADERS, VARIABLE, STATE_CONTEXT, EXTENDED_STATE, STATE_MACHINE, MESSAGE, EXCEPTION
+	}
+
 	/**
 	 * Wrapping everything we need to work with spel.
 	 */
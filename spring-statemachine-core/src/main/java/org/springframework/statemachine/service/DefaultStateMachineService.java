@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2021 the original author or authors.
+ * Copyright 2017-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,11 @@
 package org.springframework.statemachine.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.CountDownLatch;
 
 import org.apache.commons.logging.Log;
@@ -32,6 +35,10 @@ import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.statemachine.listener.StateMachineListenerAdapter;
 import org.springframework.util.Assert;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * Default implementation of a {@link StateMachineService}.
  *
@@ -46,6 +53,8 @@ public class DefaultStateMachineService<S, E> implements StateMachineService<S,
 	private final StateMachineFactory<S, E> stateMachineFactory;
 	private final Map<String, StateMachine<S, E>> machines = new HashMap<String, StateMachine<S, E>>();
 	private StateMachinePersist<S, E, String> stateMachinePersist;
+	private int prefetchBatchSize = 500;
+	private int prefetchConcurrency = 4;
 
 	/**
 	 * Instantiates a new default state machine service.
@@ -129,6 +138,65 @@ public class DefaultStateMachineService<S, E> implements StateMachineService<S,
 		}
 	}
 
+	/**
+	 * Acquires machines ahead of use. Ids of machines not yet managed are split
+	 * into batches of {@link #setPrefetchBatchSize(int) batch size} which are
+	 * read with {@link StateMachinePersist#readAll(Collection)} and restored
+	 * concurrently, up to {@link #setPrefetchConcurrency(int) concurrency}
+	 * batches at a time.
+	 *
+	 * @param machineIds the machine ids
+	 * @param start if machines should be started
+	 */
+	public void prefetchStateMachines(Collection<String> machineIds, boolean start) {
+		List<List<String>> batches = new ArrayList<>();
+		List<String> batch = new ArrayList<>();
+		int count = 0;
+		synchronized (machines) {
+			for (String machineId : machineIds) {
+				if (!machines.containsKey(machineId)) {
+					batch.add(machineId);
+					count++;
+					if (batch.size() >= prefetchBatchSize) {
+						batches.add(batch);
+						batch = new ArrayList<>();
+					}
+				}
+			}
+		}
+		if (!batch.isEmpty()) {
+			batches.add(batch);
+		}
+		log.info("Prefetching " + count + " of " + machineIds.size() + " machines in " + batches.size() + " batches");
+		Flux.fromIterable(batches)
+			.flatMap(b -> Mono.fromRunnable(() -> prefetchBatch(b, start)).subscribeOn(Schedulers.boundedElastic()),
+					prefetchConcurrency)
+			.then()
+			.block();
+	}
+
+	/**
+	 * Sets the batch size used with {@link #prefetchStateMachines(Collection, boolean)}.
+	 * Defaults to {@code 500}.
+	 *
+	 * @param prefetchBatchSize the prefetch batch size
+	 */
+	public void setPrefetchBatchSize(int prefetchBatchSize) {
+		Assert.isTrue(prefetchBatchSize > 0, "'prefetchBatchSize' must be greater than zero");
+		this.prefetchBatchSize = prefetchBatchSize;
+	}
+
+	/**
+	 * Sets how many batches are prefetched concurrently with
+	 * {@link #prefetchStateMachines(Collection, boolean)}. Defaults to {@code 4}.
+	 *
+	 * @param prefetchConcurrency the prefetch concurrency
+	 */
+	public void setPrefetchConcurrency(int prefetchConcurrency) {
+		Assert.isTrue(prefetchConcurrency > 0, "'prefetchConcurrency' must be greater than zero");
+		this.prefetchConcurrency = prefetchConcurrency;
+	}
+
 	/**
 	 * Determines if the given machine identifier denotes a known managed state machine.
 	 *
@@ -160,6 +228,35 @@ public class DefaultStateMachineService<S, E> implements StateMachineService<S,
 		}
 	}
 
+	private void prefetchBatch(List<String> machineIds, boolean start) {
+		Map<String, StateMachineContext<S, E>> contexts = new HashMap<>();
+		if (stateMachinePersist != null) {
+			try {
+				contexts = stateMachinePersist.readAll(machineIds);
+			} catch (Exception e) {
+				log.error("Error handling contexts", e);
+				throw new StateMachineException("Unable to read contexts from store", e);
+			}
+		}
+		Map<String, StateMachine<S, E>> restored = new HashMap<>();
+		for (String machineId : machineIds) {
+			StateMachine<S, E> stateMachine = stateMachineFactory.getStateMachine(machineId);
+			restored.put(machineId, restoreStateMachine(stateMachine, contexts.get(machineId)));
+		}
+		List<StateMachine<S, E>> added = new ArrayList<>();
+		synchronized (machines) {
+			for (Entry<String, StateMachine<S, E>> entry : restored.entrySet()) {
+				// machine may have been acquired while this batch was read
+				if (machines.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+					added.add(entry.getValue());
+				}
+			}
+		}
+		for (StateMachine<S, E> stateMachine : added) {
+			handleStart(stateMachine, start);
+		}
+	}
+
 	protected StateMachine<S, E> restoreStateMachine(StateMachine<S, E> stateMachine, final StateMachineContext<S, E> stateMachineContext) {
 		if (stateMachineContext == null) {
 			return stateMachine;
@@ -0,0 +1,457 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineEventResult;
+import org.springframework.statemachine.StateMachineException;
+import org.springframework.statemachine.support.LifecycleObjectSupport;
+import org.springframework.util.Assert;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Runtime dispatching events to many machines from a fixed set of single
+ * threaded event loops. Machines are acquired from a {@link StateMachineService}
+ * and hashed by their id onto a home shard. Every machine has a lightweight
+ * mailbox which is processed by at most one loop at a time, giving run to
+ * completion ordering per machine and parallelism across machines. Idle
+ * loops steal waiting mailboxes from other shards so that a hot shard doesn't
+ * hold back processing. A machine is acquired once when its mailbox first
+ * processes an event and is kept with a mailbox until it's released.
+ * <p>
+ * Runtime schedules and orders work across machines, it doesn't replace a
+ * machine's own executor. Every event is still handed to a machine and
+ * waited on a loop, thus every machine keeps its own trigger sink and
+ * subscription and a memory footprint per machine is not reduced.
+ * <p>
+ * Stopping a runtime lets loops finish mailboxes they are processing, fails
+ * events still waiting in mailboxes and releases all acquired machines.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class ShardedStateMachineRuntime<S, E> extends LifecycleObjectSupport {
+
+	private final static Log log = LogFactory.getLog(ShardedStateMachineRuntime.class);
+	private final StateMachineService<S, E> stateMachineService;
+	private final ConcurrentHashMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+	private final Set<String> acquired = ConcurrentHashMap.newKeySet();
+	private final int shardCount;
+	private volatile Shard[] shards = new Shard[0];
+	private boolean workStealing = true;
+	private int throughput = 16;
+	private volatile boolean running;
+
+	/**
+	 * Instantiates a new sharded state machine runtime using one shard per
+	 * available processor.
+	 *
+	 * @param stateMachineService the state machine service
+	 */
+	public ShardedStateMachineRuntime(StateMachineService<S, E> stateMachineService) {
+		this(stateMachineService, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Instantiates a new sharded state machine runtime.
+	 *
+	 * @param stateMachineService the state machine service
+	 * @param shards the number of shards
+	 */
+	public ShardedStateMachineRuntime(StateMachineService<S, E> stateMachineService, int shards) {
+		Assert.notNull(stateMachineService, "State machine service must be set");
+		Assert.isTrue(shards > 0, "Shards must be greater than zero");
+		this.stateMachineService = stateMachineService;
+		this.shardCount = shards;
+		setAutoStartup(true);
+	}
+
+	@Override
+	protected Mono<Void> doPreStartReactively() {
+		return Mono.fromRunnable(() -> doStart());
+	}
+
+	protected void doStart() {
+		Shard[] shards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			shards[i] = new Shard(i);
+		}
+		this.shards = shards;
+		running = true;
+		for (Shard shard : shards) {
+			shard.start();
+		}
+	}
+
+	@Override
+	protected Mono<Void> doPreStopReactively() {
+		return Mono.fromRunnable(() -> doStop());
+	}
+
+	protected void doStop() {
+		running = false;
+		// let loops finish mailboxes they already work on instead of
+		// interrupting a machine in a middle of its event processing
+		for (Shard shard : shards) {
+			if (shard != Thread.currentThread()) {
+				try {
+					shard.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		// complete what is left in mailboxes, loop as enqueue racing with
+		// a stop may still add a mailbox
+		while (!mailboxes.isEmpty()) {
+			for (String machineId : mailboxes.keySet()) {
+				Mailbox mailbox = mailboxes.remove(machineId);
+				Envelope<S, E> envelope;
+				while (mailbox != null && (envelope = mailbox.queue.poll()) != null) {
+					mailbox.depth.decrementAndGet();
+					mailbox.home.pending.decrementAndGet();
+					if (envelope.message == null) {
+						// machines are released below anyway
+						envelope.future.complete(null);
+					} else {
+						envelope.future.completeExceptionally(new StateMachineException("Runtime stopped"));
+					}
+				}
+			}
+		}
+		for (String machineId : acquired) {
+			try {
+				stateMachineService.releaseStateMachine(machineId);
+			} catch (Exception e) {
+				log.warn("Error releasing machine " + machineId, e);
+			}
+		}
+		acquired.clear();
+	}
+
+	/**
+	 * Sends an event to a machine. Returned mono completes when event has
+	 * been processed by a machine on its event loop.
+	 *
+	 * @param machineId the machine id
+	 * @param event the event
+	 * @return the mono for event results
+	 */
+	public Mono<List<StateMachineEventResult<S, E>>> sendEvent(String machineId, E event) {
+		return sendEvent(machineId, MessageBuilder.withPayload(event).build());
+	}
+
+	/**
+	 * Sends an event message to a machine. Returned mono completes when event
+	 * has been processed by a machine on its event loop.
+	 *
+	 * @param machineId the machine id
+	 * @param message the event message
+	 * @return the mono for event results
+	 */
+	public Mono<List<StateMachineEventResult<S, E>>> sendEvent(String machineId, Message<E> message) {
+		Assert.notNull(machineId, "Machine id must be set");
+		Assert.notNull(message, "Message must be set");
+		return Mono.defer(() -> {
+			CompletableFuture<List<StateMachineEventResult<S, E>>> future = new CompletableFuture<>();
+			enqueue(machineId, new Envelope<S, E>(message, future));
+			return Mono.fromFuture(future);
+		});
+	}
+
+	/**
+	 * Releases a machine after all events queued before this call have been
+	 * processed.
+	 *
+	 * @param machineId the machine id
+	 * @return the mono completing when machine has been released
+	 */
+	public Mono<Void> releaseStateMachine(String machineId) {
+		return Mono.defer(() -> {
+			CompletableFuture<List<StateMachineEventResult<S, E>>> future = new CompletableFuture<>();
+			enqueue(machineId, new Envelope<S, E>(null, future));
+			return Mono.fromFuture(future).then();
+		});
+	}
+
+	/**
+	 * Gets the shard a machine is hashed to.
+	 *
+	 * @param machineId the machine id
+	 * @return the shard index
+	 */
+	public int getShard(String machineId) {
+		return (machineId.hashCode() & 0x7fffffff) % shardCount;
+	}
+
+	/**
+	 * Gets the number of events waiting in a machine mailbox.
+	 *
+	 * @param machineId the machine id
+	 * @return the mailbox depth
+	 */
+	public int getMailboxDepth(String machineId) {
+		Mailbox mailbox = mailboxes.get(machineId);
+		return mailbox != null ? mailbox.depth.get() : 0;
+	}
+
+	/**
+	 * Gets metrics for all shards.
+	 *
+	 * @return the shard metrics
+	 */
+	public List<ShardMetrics> getShardMetrics() {
+		List<ShardMetrics> metrics = new ArrayList<>(shardCount);
+		for (Shard shard : shards) {
+			metrics.add(new ShardMetrics(shard.index, shard.runQueue.size(), shard.pending.get(),
+					shard.processed.get(), shard.stolen.get()));
+		}
+		return metrics;
+	}
+
+	/**
+	 * Sets if idle shards steal mailboxes from other shards. Defaults to
+	 * {@code true}.
+	 *
+	 * @param workStealing the work stealing flag
+	 */
+	public void setWorkStealing(boolean workStealing) {
+		this.workStealing = workStealing;
+	}
+
+	/**
+	 * Sets the maximum number of events processed from a mailbox before
+	 * a loop moves to a next mailbox. Defaults to {@code 16}.
+	 *
+	 * @param throughput the throughput
+	 */
+	public void setThroughput(int throughput) {
+		Assert.isTrue(throughput > 0, "Throughput must be greater than zero");
+		this.throughput = throughput;
+	}
+
+	private void enqueue(String machineId, Envelope<S, E> envelope) {
+		if (!running) {
+			envelope.future.completeExceptionally(new StateMachineException("Runtime is not running"));
+			return;
+		}
+		// add within compute so that a release can't drop a mailbox
+		// between its lookup and adding an envelope
+		Mailbox mailbox = mailboxes.compute(machineId, (id, existing) -> {
+			// check again as stop may have drained mailboxes after a check above
+			if (!running) {
+				envelope.future.completeExceptionally(new StateMachineException("Runtime is not running"));
+				return existing;
+			}
+			Mailbox m = existing != null ? existing : new Mailbox(id, shards[getShard(id)]);
+			m.queue.add(envelope);
+			m.depth.incrementAndGet();
+			m.home.pending.incrementAndGet();
+			return m;
+		});
+		if (mailbox != null) {
+			mailbox.schedule();
+		}
+	}
+
+	private void process(Mailbox mailbox) {
+		for (int i = 0; i < throughput; i++) {
+			Envelope<S, E> envelope = mailbox.queue.poll();
+			if (envelope == null) {
+				break;
+			}
+			mailbox.depth.decrementAndGet();
+			mailbox.home.pending.decrementAndGet();
+			try {
+				if (envelope.message == null) {
+					mailbox.stateMachine = null;
+					stateMachineService.releaseStateMachine(mailbox.machineId);
+					acquired.remove(mailbox.machineId);
+					mailboxes.computeIfPresent(mailbox.machineId, (id, m) -> m == mailbox && m.queue.isEmpty() ? null : m);
+					envelope.future.complete(null);
+				} else {
+					StateMachine<S, E> stateMachine = mailbox.stateMachine;
+					if (stateMachine == null) {
+						// service acquire is synchronized and logs, do it once per mailbox
+						stateMachine = stateMachineService.acquireStateMachine(mailbox.machineId);
+						acquired.add(mailbox.machineId);
+						mailbox.stateMachine = stateMachine;
+					}
+					envelope.future.complete(stateMachine.sendEvent(Mono.just(envelope.message)).collectList().block());
+				}
+			} catch (Throwable e) {
+				log.error("Error processing event for machine " + mailbox.machineId, e);
+				envelope.future.completeExceptionally(e);
+			}
+		}
+		mailbox.scheduled.set(false);
+		if (!mailbox.queue.isEmpty()) {
+			mailbox.schedule();
+		}
+	}
+
+	/**
+	 * Snapshot of metrics for a single shard.
+	 */
+	public static class ShardMetrics {
+
+		private final int shard;
+		private final int queuedMailboxes;
+		private final long pendingEvents;
+		private final long processedMailboxes;
+		private final long stolenMailboxes;
+
+		ShardMetrics(int shard, int queuedMailboxes, long pendingEvents, long processedMailboxes, long stolenMailboxes) {
+			this.shard = shard;
+			this.queuedMailboxes = queuedMailboxes;
+			this.pendingEvents = pendingEvents;
+			this.processedMailboxes = processedMailboxes;
+			this.stolenMailboxes = stolenMailboxes;
+		}
+
+		public int getShard() {
+			return shard;
+		}
+
+		public int getQueuedMailboxes() {
+			return queuedMailboxes;
+		}
+
+		public long getPendingEvents() {
+			return pendingEvents;
+		}
+
+		public long getProcessedMailboxes() {
+			return processedMailboxes;
+		}
+
+		public long getStolenMailboxes() {
+			return stolenMailboxes;
+		}
+
+		@Override
+		public String toString() {
+			return "ShardMetrics [shard=" + shard + ", queuedMailboxes=" + queuedMailboxes + ", pendingEvents="
+					+ pendingEvents + ", processedMailboxes=" + processedMailboxes + ", stolenMailboxes="
+					+ stolenMailboxes + "]";
+		}
+	}
+
+	private static class Envelope<S, E> {
+
+		final Message<E> message;
+		final CompletableFuture<List<StateMachineEventResult<S, E>>> future;
+
+		Envelope(Message<E> message, CompletableFuture<List<StateMachineEventResult<S, E>>> future) {
+			this.message = message;
+			this.future = future;
+		}
+	}
+
+	private class Mailbox {
+
+		final String machineId;
+		final Shard home;
+		final Queue<Envelope<S, E>> queue = new ConcurrentLinkedQueue<>();
+		final AtomicInteger depth = new AtomicInteger();
+		final AtomicBoolean scheduled = new AtomicBoolean();
+		// only touched by a loop owning a mailbox
+		volatile StateMachine<S, E> stateMachine;
+
+		Mailbox(String machineId, Shard home) {
+			this.machineId = machineId;
+			this.home = home;
+		}
+
+		void schedule() {
+			// only one loop may own a mailbox at a time
+			if (scheduled.compareAndSet(false, true)) {
+				home.runQueue.offerLast(this);
+			}
+		}
+	}
+
+	private class Shard extends Thread {
+
+		final int index;
+		final LinkedBlockingDeque<Mailbox> runQueue = new LinkedBlockingDeque<>();
+		final AtomicLong pending = new AtomicLong();
+		final AtomicLong processed = new AtomicLong();
+		final AtomicLong stolen = new AtomicLong();
+
+		Shard(int index) {
+			super("ssm-shard-" + index);
+			this.index = index;
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				try {
+					Mailbox mailbox = runQueue.pollFirst(10, TimeUnit.MILLISECONDS);
+					if (mailbox == null && workStealing) {
+						mailbox = steal();
+					}
+					if (mailbox != null) {
+						processed.incrementAndGet();
+						process(mailbox);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+
+		private Mailbox steal() {
+			Shard victim = null;
+			for (Shard shard : shards) {
+				if (shard != this && shard.runQueue.size() > 1
+						&& (victim == null || shard.runQueue.size() > victim.runQueue.size())) {
+					victim = shard;
+				}
+			}
+			// take from a tail so that owner keeps its oldest work
+			Mailbox mailbox = victim != null ? victim.runQueue.pollLast() : null;
+			if (mailbox != null) {
+				stolen.incrementAndGet();
+			}
+			return mailbox;
+		}
+	}
+}
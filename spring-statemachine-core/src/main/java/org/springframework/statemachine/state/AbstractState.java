@@ -23,8 +23,11 @@ import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -68,7 +71,9 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 	private final Collection<Function<StateContext<S, E>, Mono<Void>>> stateActions;
 	private final List<ScheduledAction> scheduledActions = new ArrayList<>();
 	private final Collection<Region<S, E>> regions = new ArrayList<Region<S, E>>();
-	private final StateMachine<S, E> submachine;
+	private volatile StateMachine<S, E> submachine;
+	private final Supplier<StateMachine<S, E>> submachineSupplier;
+	private final List<Consumer<StateMachine<S, E>>> submachineCallbacks = new ArrayList<>();
 	private List<Trigger<S, E>> triggers = new ArrayList<Trigger<S, E>>();
 	private final CompositeStateListener<S, E> stateListener = new CompositeStateListener<S, E>();
 	private CompositeActionListener<S, E> actionListener;
@@ -143,6 +148,24 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 		this(id, deferred, entryActions, exitActions, pseudoState, null, submachine);
 	}
 
+	/**
+	 * Instantiates a new abstract state with a submachine which is built
+	 * lazily on first access.
+	 *
+	 * @param id the state identifier
+	 * @param deferred the deferred
+	 * @param entryActions the entry actions
+	 * @param exitActions the exit actions
+	 * @param pseudoState the pseudo state
+	 * @param submachineSupplier the submachine supplier
+	 */
+	protected AbstractState(S id, Collection<E> deferred,
+			Collection<Function<StateContext<S, E>, Mono<Void>>> entryActions,
+			Collection<Function<StateContext<S, E>, Mono<Void>>> exitActions, PseudoState<S, E> pseudoState,
+			Supplier<StateMachine<S, E>> submachineSupplier) {
+		this(id, deferred, entryActions, exitActions, null, pseudoState, null, null, submachineSupplier);
+	}
+
 	/**
 	 * Instantiates a new abstract state.
 	 *
@@ -195,6 +218,15 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 			Collection<Function<StateContext<S, E>, Mono<Void>>> exitActions,
 			Collection<Function<StateContext<S, E>, Mono<Void>>> stateActions, PseudoState<S, E> pseudoState,
 			Collection<Region<S, E>> regions, StateMachine<S, E> submachine) {
+		this(id, deferred, entryActions, exitActions, stateActions, pseudoState, regions, submachine, null);
+	}
+
+	private AbstractState(S id, Collection<E> deferred,
+			Collection<Function<StateContext<S, E>, Mono<Void>>> entryActions,
+			Collection<Function<StateContext<S, E>, Mono<Void>>> exitActions,
+			Collection<Function<StateContext<S, E>, Mono<Void>>> stateActions, PseudoState<S, E> pseudoState,
+			Collection<Region<S, E>> regions, StateMachine<S, E> submachine,
+			Supplier<StateMachine<S, E>> submachineSupplier) {
 		this.id = id;
 		this.deferred = deferred != null ? deferred : Collections.<E>emptySet();
 		this.entryActions = entryActions != null ? entryActions : Collections.emptySet();
@@ -208,6 +240,7 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 			this.regions.addAll(regions);
 		}
 		this.submachine = submachine;
+		this.submachineSupplier = submachineSupplier;
 	}
 
 	@Override
@@ -250,8 +283,9 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 	@Override
 	public Mono<Void> entry(StateContext<S, E> context) {
 		return Mono.defer(() -> {
-			if (submachine != null) {
-				Disposable disposable = Mono.just(submachine)
+			StateMachine<S, E> machine = getSubmachine();
+			if (machine != null) {
+				Disposable disposable = Mono.just(machine)
 					.flatMap(submachine -> completionStateListenerSink(submachine))
 					// TODO: REACTOR this is causing cancel which breaks some things
 					// .then(handleStateDoOnComplete(context))
@@ -326,7 +360,7 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 
 	@Override
 	public boolean isSubmachineState() {
-		return submachine != null;
+		return submachine != null || submachineSupplier != null;
 	}
 
 	@Override
@@ -374,7 +408,56 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 	 * @return the submachine or null if not set
 	 */
 	public StateMachine<S, E> getSubmachine() {
-		return submachine;
+		StateMachine<S, E> machine = submachine;
+		if (machine == null && submachineSupplier != null) {
+			synchronized (submachineCallbacks) {
+				machine = submachine;
+				if (machine == null) {
+					machine = submachineSupplier.get();
+					if (log.isDebugEnabled()) {
+						log.debug("Built lazy submachine " + machine + " for state " + id);
+					}
+					for (Consumer<StateMachine<S, E>> callback : submachineCallbacks) {
+						callback.accept(machine);
+					}
+					submachineCallbacks.clear();
+					submachine = machine;
+				}
+			}
+		}
+		return machine;
+	}
+
+	/**
+	 * Checks if a submachine is available without building it. Always
+	 * {@code true} for states not having a lazily built submachine.
+	 *
+	 * @return true if submachine has been built
+	 */
+	public boolean isSubmachineBuilt() {
+		return submachineSupplier == null || submachine != null;
+	}
+
+	/**
+	 * Execute given callback with a submachine. If submachine is built lazily
+	 * and hasn't yet been built, callback is executed when that happens.
+	 *
+	 * @param callback the submachine callback
+	 */
+	public void doWithSubmachine(Consumer<StateMachine<S, E>> callback) {
+		StateMachine<S, E> machine = submachine;
+		if (machine == null && submachineSupplier != null) {
+			synchronized (submachineCallbacks) {
+				machine = submachine;
+				if (machine == null) {
+					submachineCallbacks.add(callback);
+					return;
+				}
+			}
+		}
+		if (machine != null) {
+			callback.accept(machine);
+		}
 	}
 
 	/**
@@ -467,6 +550,7 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 			Long timeout = resolveDoActionTimeout(context);
 			return Flux.fromIterable(stateActions)
 				.doOnNext(stateAction -> {
+					ScheduledAction scheduledAction = new ScheduledAction(stateAction, context.getStateMachine(), timeout);
 					executeAction(stateAction, context)
 						.onErrorResume(t -> Mono.empty())
 						.subscribeOn(Schedulers.parallel())
@@ -474,8 +558,11 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 							if (log.isDebugEnabled()) {
 								log.debug("Adding new scheduled action with subscription=" + subscription);
 							}
-							scheduledActions.add(new ScheduledAction(subscription, timeout, System.currentTimeMillis()));
+							scheduledAction.subscribeTime = System.currentTimeMillis();
+							scheduledAction.subscription = subscription;
+							scheduledActions.add(scheduledAction);
 						})
+						.doOnSuccess(v -> scheduledAction.complete())
 						.then(handleCompleteOrEmpty1(context, completionCount))
 						.subscribe();
 				})
@@ -507,6 +594,9 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 	}
 
 	private Mono<Void> cancelStateActions() {
+		if (stateDoActionPolicy == StateDoActionPolicy.TIMEOUT_CANCEL_ASYNC) {
+			return Mono.fromRunnable(() -> cancelStateActionsAsync());
+		}
 		return Flux.fromIterable(scheduledActions)
 			// state action tells us how long it needs for timeout, delay
 			.flatMap(stateAction -> {
@@ -518,18 +608,55 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 				}
 			})
 			// then dispose which i.e. should interrupt blocking threads or cancel reactive code
-			.doOnNext(stateAction -> {
-				if (stateAction.subscription != null) {
-					log.debug("About to dispose subscription " + stateAction.subscription);
-					stateAction.subscription.cancel();
-				}
-			})
+			.doOnNext(stateAction -> cancelStateAction(stateAction))
 			// we're done, clear state scheduled state actions
 			.thenEmpty(Mono.fromRunnable(() -> {
 				scheduledActions.clear();
 			}));
 	}
 
+	private void cancelStateActionsAsync() {
+		// exit doesn't wait for a timeout, actions still running when
+		// timeout expires are cancelled from a shared parallel scheduler
+		List<ScheduledAction> actions = new ArrayList<>(scheduledActions);
+		scheduledActions.clear();
+		for (ScheduledAction stateAction : actions) {
+			long delay = stateAction.getNeededDelayNow().toMillis();
+			if (stateAction.completed) {
+				continue;
+			} else if (delay > 0) {
+				stateAction.cancelTask = Schedulers.parallel().schedule(() -> cancelStateAction(stateAction), delay,
+						TimeUnit.MILLISECONDS);
+				if (stateAction.completed) {
+					stateAction.cancelTask.dispose();
+				}
+			} else {
+				cancelStateAction(stateAction);
+			}
+		}
+	}
+
+	private void cancelStateAction(ScheduledAction stateAction) {
+		if (stateAction.subscription != null) {
+			log.debug("About to dispose subscription " + stateAction.subscription);
+			stateAction.subscription.cancel();
+			if (!stateAction.completed) {
+				notifyActionCancelled(stateAction);
+			}
+		}
+	}
+
+	private void notifyActionCancelled(ScheduledAction stateAction) {
+		if (this.actionListener != null) {
+			try {
+				this.actionListener.onCancel(stateAction.stateMachine, stateAction.action,
+						System.currentTimeMillis() - stateAction.subscribeTime);
+			} catch (Exception e) {
+				log.warn("Error with actionListener", e);
+			}
+		}
+	}
+
 	/**
 	 * Execute action and notify action listener if set.
 	 *
@@ -564,7 +691,8 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 
 	private Long resolveDoActionTimeout(StateContext<S, E> context) {
 		Long timeout = null;
-		if (stateDoActionPolicy == StateDoActionPolicy.TIMEOUT_CANCEL) {
+		if (stateDoActionPolicy == StateDoActionPolicy.TIMEOUT_CANCEL
+				|| stateDoActionPolicy == StateDoActionPolicy.TIMEOUT_CANCEL_ASYNC) {
 			timeout = StateMachineUtils.getMessageHeaderDoActionTimeout(context);
 			if (timeout == null) {
 				timeout = stateDoActionPolicyTimeout;
@@ -573,15 +701,27 @@ public abstract class AbstractState<S, E> extends LifecycleObjectSupport impleme
 		return timeout;
 	}
 
-	private static class ScheduledAction {
-		Subscription subscription;
-		Long timeout;
-		Long subscribeTime;
+	private class ScheduledAction {
+		final Function<StateContext<S, E>, Mono<Void>> action;
+		final StateMachine<S, E> stateMachine;
+		final Long timeout;
+		volatile Subscription subscription;
+		volatile Long subscribeTime;
+		volatile boolean completed;
+		volatile Disposable cancelTask;
 
-		ScheduledAction(Subscription subscription, Long timeout, Long subscribeTime) {
-			this.subscription = subscription;
+		ScheduledAction(Function<StateContext<S, E>, Mono<Void>> action, StateMachine<S, E> stateMachine, Long timeout) {
+			this.action = action;
+			this.stateMachine = stateMachine;
 			this.timeout = timeout;
-			this.subscribeTime = subscribeTime;
+		}
+
+		void complete() {
+			completed = true;
+			Disposable task = cancelTask;
+			if (task != null) {
+				task.dispose();
+			}
 		}
 
 		Duration getNeededDelayNow() {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2020 the original author or authors.
+ * Copyright 2017-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package org.springframework.statemachine.state;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.Function;
@@ -23,10 +24,12 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.guard.Guard;
+import org.springframework.statemachine.guard.GuardEvaluationPolicy;
 import org.springframework.util.Assert;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Choice implementation of a {@link PseudoState}.
@@ -40,6 +43,8 @@ public class ChoicePseudoState<S, E> implements PseudoState<S, E> {
 
 	private final static Log log = LogFactory.getLog(ChoicePseudoState.class);
 	private final List<ChoiceStateData<S, E>> choices;
+	private GuardEvaluationPolicy guardEvaluationPolicy = GuardEvaluationPolicy.SEQUENTIAL;
+	private Long guardEvaluationPolicyTimeout;
 
 	/**
 	 * Instantiates a new choice pseudo state.
@@ -57,16 +62,7 @@ public class ChoicePseudoState<S, E> implements PseudoState<S, E> {
 
 	@Override
 	public Mono<State<S, E>> entry(StateContext<S, E> context) {
-		return Mono.defer(() -> {
-			ChoiceStateData<S, E> csd = null;
-			for (ChoiceStateData<S, E> c : choices) {
-				csd = c;
-				if (c.guard != null && evaluateInternal(c.guard, context)) {
-					break;
-				}
-			}
-			return Mono.justOrEmpty(csd);
-		})
+		return selectInternal(context)
 		.flatMap(csd -> {
 			return Flux.fromIterable(csd.getActions())
 				.flatMap(a -> a.apply(context))
@@ -87,6 +83,52 @@ public class ChoicePseudoState<S, E> implements PseudoState<S, E> {
 	public void setPseudoStateListeners(List<PseudoStateListener<S, E>> listeners) {
 	}
 
+	/**
+	 * Sets the guard evaluation policy.
+	 *
+	 * @param guardEvaluationPolicy the new guard evaluation policy
+	 */
+	public void setGuardEvaluationPolicy(GuardEvaluationPolicy guardEvaluationPolicy) {
+		this.guardEvaluationPolicy = guardEvaluationPolicy != null ? guardEvaluationPolicy
+				: GuardEvaluationPolicy.SEQUENTIAL;
+	}
+
+	/**
+	 * Sets the timeout in millis used per guard with
+	 * {@link GuardEvaluationPolicy#CONCURRENT}.
+	 *
+	 * @param guardEvaluationPolicyTimeout the new guard evaluation policy timeout
+	 */
+	public void setGuardEvaluationPolicyTimeout(Long guardEvaluationPolicyTimeout) {
+		this.guardEvaluationPolicyTimeout = guardEvaluationPolicyTimeout;
+	}
+
+	private Mono<ChoiceStateData<S, E>> selectInternal(StateContext<S, E> context) {
+		if (guardEvaluationPolicy == GuardEvaluationPolicy.CONCURRENT && choices.size() > 1) {
+			// last branch is a fallback taken regardless of its guard
+			Duration timeout = guardEvaluationPolicyTimeout != null ? Duration.ofMillis(guardEvaluationPolicyTimeout) : null;
+			return ConcurrentGuardEvaluator.first(choices, c -> {
+				if (c.guard == null) {
+					return Mono.just(false);
+				}
+				// guards are blocking so each one needs its own worker
+				return Mono.fromCallable(() -> evaluateInternal(c.guard, context))
+					.subscribeOn(Schedulers.boundedElastic());
+			}, timeout)
+			.switchIfEmpty(Mono.fromSupplier(() -> choices.get(choices.size() - 1)));
+		}
+		return Mono.defer(() -> {
+			ChoiceStateData<S, E> csd = null;
+			for (ChoiceStateData<S, E> c : choices) {
+				csd = c;
+				if (c.guard != null && evaluateInternal(c.guard, context)) {
+					break;
+				}
+			}
+			return Mono.justOrEmpty(csd);
+		});
+	}
+
 	private boolean evaluateInternal(Guard<S, E> guard, StateContext<S, E> context) {
 		try {
 			return guard.evaluate(context);
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.state;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.statemachine.guard.GuardEvaluationPolicy;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+/**
+ * Helper evaluating guards of pseudo state branches with
+ * {@link GuardEvaluationPolicy#CONCURRENT}. All guards are subscribed at once
+ * and a first branch in declaration order whose guard evaluates to true is
+ * selected as soon as all branches before it are known to be false, which
+ * then cancels evaluations still in progress.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+final class ConcurrentGuardEvaluator {
+
+	private final static Log log = LogFactory.getLog(ConcurrentGuardEvaluator.class);
+
+	private ConcurrentGuardEvaluator() {
+	}
+
+	/**
+	 * Select a first branch in declaration order whose guard evaluates to true.
+	 * Guard erroring or not completing within a timeout is treated as false.
+	 *
+	 * @param <T> the type of branch
+	 * @param branches the branches
+	 * @param guard the function evaluating a guard of a branch
+	 * @param timeout the timeout per guard, {@code null} for no timeout
+	 * @return mono of selected branch, empty if no guard evaluated to true
+	 */
+	static <T> Mono<T> first(List<T> branches, Function<T, Mono<Boolean>> guard, Duration timeout) {
+		int size = branches.size();
+		if (size == 0) {
+			return Mono.empty();
+		}
+		return Mono.defer(() -> {
+			// results and cursor are only touched from serialized onNext signals
+			Boolean[] results = new Boolean[size];
+			int[] cursor = new int[1];
+			return Flux.range(0, size)
+				.flatMap(i -> evaluate(guard.apply(branches.get(i)), timeout).map(b -> Tuples.of(i, b)), size)
+				.<T>handle((result, sink) -> {
+					results[result.getT1()] = result.getT2();
+					while (cursor[0] < size && results[cursor[0]] != null) {
+						if (results[cursor[0]]) {
+							sink.next(branches.get(cursor[0]));
+							return;
+						}
+						cursor[0]++;
+					}
+				})
+				.next();
+		});
+	}
+
+	private static Mono<Boolean> evaluate(Mono<Boolean> guard, Duration timeout) {
+		Mono<Boolean> mono = guard.defaultIfEmpty(false);
+		if (timeout != null) {
+			mono = mono.timeout(timeout);
+		}
+		return mono.onErrorResume(e -> {
+			log.warn("Deny guard due to throw as GUARD should not error", e);
+			return Mono.just(false);
+		});
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2020 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package org.springframework.statemachine.state;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -25,11 +26,13 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.guard.Guard;
+import org.springframework.statemachine.guard.GuardEvaluationPolicy;
 import org.springframework.statemachine.state.PseudoStateContext.PseudoAction;
 import org.springframework.util.Assert;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Join implementation of a {@link PseudoState}.
@@ -45,6 +48,8 @@ public class JoinPseudoState<S, E> extends AbstractPseudoState<S, E> {
 	private final List<List<State<S, E>>> joins;
 	private final JoinTracker tracker;
 	private final List<JoinStateData<S, E>> joinTargets;
+	private GuardEvaluationPolicy guardEvaluationPolicy = GuardEvaluationPolicy.SEQUENTIAL;
+	private Long guardEvaluationPolicyTimeout;
 
 	/**
 	 * Instantiates a new join pseudo state.
@@ -65,6 +70,14 @@ public class JoinPseudoState<S, E> extends AbstractPseudoState<S, E> {
 			if (!tracker.isNotified()) {
 				return Mono.empty();
 			}
+			if (guardEvaluationPolicy == GuardEvaluationPolicy.CONCURRENT && joinTargets.size() > 1) {
+				Duration timeout = guardEvaluationPolicyTimeout != null ? Duration.ofMillis(guardEvaluationPolicyTimeout) : null;
+				return ConcurrentGuardEvaluator.first(joinTargets, jst -> {
+					return Mono.defer(() -> evaluateInternal(jst.guard, context))
+						.subscribeOn(Schedulers.boundedElastic());
+				}, timeout)
+				.map(jst -> jst.getState());
+			}
 			return Flux.fromIterable(joinTargets)
 				.filterWhen(jst -> evaluateInternal(jst.guard, context))
 				.next()
@@ -88,6 +101,26 @@ public class JoinPseudoState<S, E> extends AbstractPseudoState<S, E> {
 		return joins;
 	}
 
+	/**
+	 * Sets the guard evaluation policy.
+	 *
+	 * @param guardEvaluationPolicy the new guard evaluation policy
+	 */
+	public void setGuardEvaluationPolicy(GuardEvaluationPolicy guardEvaluationPolicy) {
+		this.guardEvaluationPolicy = guardEvaluationPolicy != null ? guardEvaluationPolicy
+				: GuardEvaluationPolicy.SEQUENTIAL;
+	}
+
+	/**
+	 * Sets the timeout in millis used per guard with
+	 * {@link GuardEvaluationPolicy#CONCURRENT}.
+	 *
+	 * @param guardEvaluationPolicyTimeout the new guard evaluation policy timeout
+	 */
+	public void setGuardEvaluationPolicyTimeout(Long guardEvaluationPolicyTimeout) {
+		this.guardEvaluationPolicyTimeout = guardEvaluationPolicyTimeout;
+	}
+
 	/**
 	 * Resets join state according to given state ids
 	 * so that we can continue with correct tracking.
@@ -125,6 +158,8 @@ public class JoinPseudoState<S, E> extends AbstractPseudoState<S, E> {
 
 						@Override
 						public void onComplete(StateContext<S, E> context) {
+							// regions may complete in parallel, only last one notifies
+							boolean complete = false;
 							synchronized (track) {
 								Iterator<List<State<S, E>>> iterator = track.iterator();
 								while(iterator.hasNext()) {
@@ -133,10 +168,13 @@ public class JoinPseudoState<S, E> extends AbstractPseudoState<S, E> {
 										iterator.remove();
 									}
 								}
+								if (!notified && track.isEmpty()) {
+									notified = true;
+									complete = true;
+								}
 							}
-							if (!notified && track.isEmpty()) {
+							if (complete) {
 								log.debug("Join complete");
-								notified = true;
 								notifyContext(new DefaultPseudoStateContext<S, E>(JoinPseudoState.this, PseudoAction.JOIN_COMPLETED));
 							}
 						}
@@ -146,27 +184,31 @@ public class JoinPseudoState<S, E> extends AbstractPseudoState<S, E> {
 		}
 
 		void reset() {
-			track.clear();
-			for (List<State<S, E>> list : joins) {
-				track.add(new ArrayList<State<S,E>>(list));
+			synchronized (track) {
+				track.clear();
+				for (List<State<S, E>> list : joins) {
+					track.add(new ArrayList<State<S,E>>(list));
+				}
+				notified = false;
 			}
-			notified = false;
 		}
 
 		void reset(Collection<S> ids) {
-			// put pack all as normal reset
-			reset();
-
-			// remove given states to reflect correct join stage
-			Iterator<List<State<S, E>>> trackIter = track.iterator();
-			while (trackIter.hasNext()) {
-				List<State<S, E>> list = trackIter.next();
-				Iterator<State<S, E>> iterator = list.iterator();
-				while (iterator.hasNext()) {
-					State<S, E> next = iterator.next();
-					if (ids.contains(next.getId())) {
-						iterator.remove();
-						trackIter.remove();
+			synchronized (track) {
+				// put pack all as normal reset
+				reset();
+
+				// remove given states to reflect correct join stage
+				Iterator<List<State<S, E>>> trackIter = track.iterator();
+				while (trackIter.hasNext()) {
+					List<State<S, E>> list = trackIter.next();
+					Iterator<State<S, E>> iterator = list.iterator();
+					while (iterator.hasNext()) {
+						State<S, E> next = iterator.next();
+						if (ids.contains(next.getId())) {
+							iterator.remove();
+							trackIter.remove();
+						}
 					}
 				}
 			}
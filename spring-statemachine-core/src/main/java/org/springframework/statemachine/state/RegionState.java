@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2019 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,8 +17,11 @@ package org.springframework.statemachine.state;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.function.Function;
 
+import org.reactivestreams.Publisher;
+
 import org.springframework.messaging.Message;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateMachineEventResult;
@@ -28,10 +31,16 @@ import org.springframework.statemachine.support.StateMachineUtils;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
 /**
  * A {@link State} implementation where states are wrapped in a regions..
+ * <p>
+ * With {@link RegionExecutionPolicy#PARALLEL} regions are started, stopped,
+ * restored and receive events in parallel on a region execution
+ * {@link Scheduler}, {@link Schedulers#parallel()} if not set. A single
+ * region is always executed in a calling thread.
  *
  * @author Janne Valkealahti
  *
@@ -41,6 +50,7 @@ import reactor.core.scheduler.Schedulers;
 public class RegionState<S, E> extends AbstractState<S, E> {
 
 	private RegionExecutionPolicy regionExecutionPolicy;
+	private Scheduler regionExecutionScheduler;
 
 	/**
 	 * Instantiates a new region state.
@@ -107,16 +117,7 @@ public class RegionState<S, E> extends AbstractState<S, E> {
 
 	@Override
 	public Flux<StateMachineEventResult<S, E>> sendEvent(Message<E> event) {
-		if(regionExecutionPolicy == RegionExecutionPolicy.PARALLEL) {
-			return Flux.fromIterable(getRegions())
-				.parallel()
-				.runOn(Schedulers.parallel())
-				.flatMap(r -> r.sendEvent(Mono.just(event)))
-				.sequential();
-		} else {
-			return Flux.fromIterable(getRegions())
-				.flatMap(r -> r.sendEvent(Mono.just(event)));
-		}
+		return executeRegions(getRegions(), r -> r.sendEvent(Mono.just(event)));
 	}
 
 	@Override
@@ -142,8 +143,7 @@ public class RegionState<S, E> extends AbstractState<S, E> {
 		Mono<Void> actions = Flux.fromIterable(getExitActions())
 			.flatMap(a -> executeAction(a, context))
 			.then();
-		Mono<Void> regionsThenActions = Flux.fromIterable(getRegions())
-			.flatMap(r -> r.stopReactively())
+		Mono<Void> regionsThenActions = executeRegions(getRegions(), r -> r.stopReactively())
 			.then(actions);
 		return super.exit(context)
 			.then(regionsThenActions);
@@ -151,21 +151,15 @@ public class RegionState<S, E> extends AbstractState<S, E> {
 
 	private Mono<Void> startOrEntry(StateContext<S, E> context) {
 		if (getPseudoState() != null && getPseudoState().getKind() == PseudoStateKind.INITIAL) {
-			if (regionExecutionPolicy == RegionExecutionPolicy.PARALLEL) {
-				return Flux.fromIterable(getRegions())
-					.filter(r -> !StateMachineUtils.containsAtleastOne(r.getStates(), context.getTargets()))
-					.parallel()
-					.runOn(Schedulers.parallel())
-					.flatMap(r -> r.startReactively())
-					.sequential()
-					.then();
-			} else {
-				return Flux.fromIterable(getRegions())
-					.filter(r -> !StateMachineUtils.containsAtleastOne(r.getStates(), context.getTargets()))
-					.flatMap(r -> r.startReactively())
-					.then();
-
-			}
+			return Mono.defer(() -> {
+				List<Region<S, E>> regions = new ArrayList<>();
+				for (Region<S, E> r : getRegions()) {
+					if (!StateMachineUtils.containsAtleastOne(r.getStates(), context.getTargets())) {
+						regions.add(r);
+					}
+				}
+				return executeRegions(regions, r -> r.startReactively()).then();
+			});
 		} else {
 			return Flux.fromIterable(getRegions())
 				.filter(r -> r.getState() != null)
@@ -220,6 +214,42 @@ public class RegionState<S, E> extends AbstractState<S, E> {
 		this.regionExecutionPolicy = regionExecutionPolicy;
 	}
 
+	/**
+	 * Sets the scheduler used to execute regions with
+	 * {@link RegionExecutionPolicy#PARALLEL}.
+	 *
+	 * @param regionExecutionScheduler the new region execution scheduler
+	 */
+	public void setRegionExecutionScheduler(Scheduler regionExecutionScheduler) {
+		this.regionExecutionScheduler = regionExecutionScheduler;
+	}
+
+	/**
+	 * Execute a function for all regions according to a region execution
+	 * policy.
+	 *
+	 * @param <T> the type of result
+	 * @param function the function to execute for a region
+	 * @return the results of all regions
+	 */
+	public <T> Flux<T> executeRegions(Function<Region<S, E>, ? extends Publisher<T>> function) {
+		return executeRegions(getRegions(), function);
+	}
+
+	private <T> Flux<T> executeRegions(Collection<Region<S, E>> regions,
+			Function<Region<S, E>, ? extends Publisher<T>> function) {
+		if (regionExecutionPolicy == RegionExecutionPolicy.PARALLEL && regions.size() > 1) {
+			return Flux.fromIterable(regions)
+				.parallel(regions.size())
+				.runOn(regionExecutionScheduler != null ? regionExecutionScheduler : Schedulers.parallel())
+				.flatMap(function)
+				.sequential();
+		} else {
+			return Flux.fromIterable(regions)
+				.flatMap(function);
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "RegionState [getIds()=" + getIds() + ", getClass()=" + getClass() + ", hashCode()=" + hashCode()
@@ -18,6 +18,7 @@ package org.springframework.statemachine.state;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
@@ -42,6 +43,7 @@ import reactor.core.publisher.Mono;
 public class StateMachineState<S, E> extends AbstractState<S, E> {
 
 	private final Collection<S> ids;
+	private volatile Supplier<Collection<S>> submachineStateIds;
 
 	/**
 	 * Instantiates a new state machine state.
@@ -116,10 +118,63 @@ public class StateMachineState<S, E> extends AbstractState<S, E> {
 		this.ids.add(id);
 	}
 
+	/**
+	 * Instantiates a new state machine state with a submachine which is
+	 * built lazily when state is entered or restored.
+	 *
+	 * @param id the state identifier
+	 * @param submachineSupplier the submachine supplier
+	 * @param deferred the deferred
+	 * @param entryActions the entry actions
+	 * @param exitActions the exit actions
+	 * @param pseudoState the pseudo state
+	 */
+	public StateMachineState(S id, Supplier<StateMachine<S, E>> submachineSupplier, Collection<E> deferred,
+			Collection<Function<StateContext<S, E>, Mono<Void>>> entryActions,
+			Collection<Function<StateContext<S, E>, Mono<Void>>> exitActions, PseudoState<S, E> pseudoState) {
+		super(id, deferred, entryActions, exitActions, pseudoState, submachineSupplier);
+		this.ids = new ArrayList<S>();
+		this.ids.add(id);
+	}
+
+	/**
+	 * Sets a supplier for all state identifiers a lazily built submachine
+	 * contains. Used to resolve if a submachine needs to be built when
+	 * restoring without building it.
+	 *
+	 * @param submachineStateIds the submachine state identifiers supplier
+	 */
+	public void setSubmachineStateIds(Supplier<Collection<S>> submachineStateIds) {
+		this.submachineStateIds = submachineStateIds;
+	}
+
+	/**
+	 * Checks if given state identifier is a state within a submachine. If a
+	 * submachine is not built and its state identifiers are not known, any
+	 * identifier is considered to be within a submachine.
+	 *
+	 * @param stateId the state identifier
+	 * @return true if state is within a submachine
+	 */
+	public boolean containsSubmachineState(S stateId) {
+		if (isSubmachineBuilt()) {
+			return getIds().contains(stateId);
+		}
+		Supplier<Collection<S>> supplier = submachineStateIds;
+		if (supplier == null) {
+			return true;
+		}
+		Collection<S> stateIds = supplier.get();
+		return stateIds == null || stateIds.contains(stateId);
+	}
+
 	@Override
 	public Collection<S> getIds() {
 
 		Collection<S> ret = new ArrayList<S>(ids);
+		if (!isSubmachineBuilt()) {
+			return ret;
+		}
 		State<S, E> state = getSubmachine().getState();
 		if (state != null) {
 			ret.addAll(state.getIds());
@@ -131,6 +186,9 @@ public class StateMachineState<S, E> extends AbstractState<S, E> {
 	public Collection<State<S, E>> getStates() {
 		ArrayList<State<S, E>> states = new ArrayList<State<S, E>>();
 		states.add(this);
+		if (!isSubmachineBuilt()) {
+			return states;
+		}
 		for (State<S, E> s : getSubmachine().getStates()) {
 			states.addAll(s.getStates());
 		}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2021 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -55,8 +55,10 @@ import org.springframework.statemachine.state.PseudoState;
 import org.springframework.statemachine.state.PseudoStateContext;
 import org.springframework.statemachine.state.PseudoStateKind;
 import org.springframework.statemachine.state.PseudoStateListener;
+import org.springframework.statemachine.state.RegionState;
 import org.springframework.statemachine.state.State;
 import org.springframework.statemachine.state.StateListenerAdapter;
+import org.springframework.statemachine.state.StateMachineState;
 import org.springframework.statemachine.support.StateMachineExecutor.MonoSinkStateMachineExecutorCallback;
 import org.springframework.statemachine.support.StateMachineExecutor.StateMachineExecutorTransit;
 import org.springframework.statemachine.transition.InitialTransition;
@@ -100,6 +102,10 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 
 	private TransitionConflictPolicy transitionConflictPolicy;
 
+	private int deferredEventCapacity;
+
+	private DeferredEventOverflowPolicy deferredEventOverflowPolicy;
+
 	private volatile State<S,E> currentState;
 
 	// using this to log last state when machine stops, as
@@ -294,8 +300,7 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 			});
 
 			if (state.isSubmachineState()) {
-				StateMachine<S, E> submachine = ((AbstractState<S, E>)state).getSubmachine();
-				submachine.addStateListener(new StateMachineListenerRelay());
+				((AbstractState<S, E>)state).doWithSubmachine(submachine -> submachine.addStateListener(new StateMachineListenerRelay()));
 			} else if (state.isOrthogonal()) {
 				Collection<Region<S, E>> regions = ((AbstractState<S, E>)state).getRegions();
 				for (Region<S, E> region : regions) {
@@ -311,6 +316,7 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 
 		ReactiveStateMachineExecutor<S, E> executor = new ReactiveStateMachineExecutor<S, E>(this, getRelayStateMachine(), transitions,
 				triggerToTransitionMap, triggerlessTransitions, initialTransition, initialEvent, transitionConflictPolicy);
+		executor.setDeferredEventCapacity(deferredEventCapacity, deferredEventOverflowPolicy);
 		if (getBeanFactory() != null) {
 			executor.setBeanFactory(getBeanFactory());
 		}
@@ -374,6 +380,12 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 						long duration) {
 					notifyActionMonitor(stateMachine, action, duration);
 				}
+
+				@Override
+				public void onCancel(StateMachine<S, E> stateMachine, Function<StateContext<S, E>, Mono<Void>> action,
+						long duration) {
+					notifyActionCancelledMonitor(stateMachine, action, duration);
+				}
 			});
 		}
 	}
@@ -413,8 +425,7 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 						StateMachine<S, E> submachine = ((AbstractState<S, E>)currentState).getSubmachine();
 						return submachine.startReactively();
 					} else if (currentState != null && currentState.isOrthogonal()) {
-						Collection<Region<S, E>> regions = ((AbstractState<S, E>)currentState).getRegions();
-						return Flux.fromIterable(regions).flatMap(r -> r.startReactively()).then();
+						return executeRegions(currentState, r -> r.startReactively()).then();
 					}
 					return Mono.empty();
 				}))
@@ -551,8 +562,9 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 				stateMachineAccess.accept(AbstractStateMachine.this);
 				for (State<S, E> state : states) {
 					if (state.isSubmachineState()) {
-						StateMachine<S, E> submachine = ((AbstractState<S, E>) state).getSubmachine();
-						submachine.getStateMachineAccessor().doWithAllRegions(stateMachineAccess);
+						// lazily built submachines get the function when those are built
+						((AbstractState<S, E>) state).doWithSubmachine(
+								submachine -> submachine.getStateMachineAccessor().doWithAllRegions(stateMachineAccess));
 					} else if (state.isOrthogonal()) {
 						Collection<Region<S, E>> regions = ((AbstractState<S, E>) state).getRegions();
 						for (Region<S, E> region : regions) {
@@ -567,7 +579,7 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 				List<StateMachineAccess<S, E>> list = new ArrayList<StateMachineAccess<S, E>>();
 				list.add(AbstractStateMachine.this);
 				for (State<S, E> state : states) {
-					if (state.isSubmachineState()) {
+					if (state.isSubmachineState() && ((AbstractState<S, E>) state).isSubmachineBuilt()) {
 						StateMachine<S, E> submachine = ((AbstractState<S, E>) state).getSubmachine();
 						if (submachine instanceof StateMachineAccess) {
 							list.add((StateMachineAccess<S, E>)submachine);
@@ -618,6 +630,19 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 		this.transitionConflictPolicy = transitionConflictPolicy;
 	}
 
+	/**
+	 * Sets the deferred event capacity and overflow policy. Capacity less than
+	 * one means unbounded deferred events.
+	 *
+	 * @param deferredEventCapacity the deferred event capacity
+	 * @param deferredEventOverflowPolicy the deferred event overflow policy
+	 */
+	public void setDeferredEventCapacity(int deferredEventCapacity,
+			DeferredEventOverflowPolicy deferredEventOverflowPolicy) {
+		this.deferredEventCapacity = deferredEventCapacity;
+		this.deferredEventOverflowPolicy = deferredEventOverflowPolicy;
+	}
+
 	private Flux<StateMachineEventResult<S, E>> handleEvent(Message<E> message) {
 		if (hasStateMachineError()) {
 			return Flux.just(StateMachineEventResult.<S, E>from(this, message, ResultType.DENIED));
@@ -645,6 +670,7 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 			if (cs != null) {
 				if (cs.shouldDefer(message)) {
 					stateMachineExecutor.queueDeferredEvent(message);
+					notifyEventDeferredMonitor(getRelayStateMachine(), message, stateMachineExecutor.getDeferredEventCount());
 					return Flux.just(StateMachineEventResult.<S, E>from(this, message, ResultType.DEFERRED));
 				}
 
@@ -734,6 +760,7 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 				log.debug("Request to reset state machine: stateMachine=[" + this + "] stateMachineContext=[" + stateMachineContext + "]");
 			}
 			setId(stateMachineContext.getId());
+			buildReferencedSubmachines(stateMachineContext);
 			S state = stateMachineContext.getState();
 			boolean stateSet = false;
 
@@ -763,8 +790,7 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 								.then();
 							mono = mono.then(resetMono);
 						}  else if (s.isOrthogonal() && stateMachineContext.getChilds() != null) {
-							Collection<Region<S, E>> regions = ((AbstractState<S, E>) s).getRegions();
-							Mono<Void> resetMono = Flux.fromIterable(regions).flatMap(region ->
+							Mono<Void> resetMono = executeRegions(s, region ->
 									Flux.fromIterable(stateMachineContext.getChilds())
 										.flatMap(child ->
 											((StateMachine<S, E>) region).getStateMachineAccessor().withRegion().resetStateMachineReactively(child)
@@ -783,8 +809,7 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 						break;
 					} else if (stateMachineContext.getChilds() != null && !stateMachineContext.getChilds().isEmpty()) {
 						if (s.isOrthogonal()) {
-							Collection<Region<S, E>> regions = ((AbstractState<S, E>) s).getRegions();
-							Mono<Void> resetMono = Flux.fromIterable(regions).flatMap(region ->
+							Mono<Void> resetMono = executeRegions(s, region ->
 									Flux.fromIterable(stateMachineContext.getChilds())
 										.flatMap(child -> {
 											if (ObjectUtils.nullSafeEquals(region.getId(), child.getId())) {
@@ -853,7 +878,9 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 					}
 
 					// setting history for 'submachines'
-					if (s.isSubmachineState()) {
+					if (s.isSubmachineState() && (((AbstractState<S, E>) s).isSubmachineBuilt()
+							|| (stateMachineContext.getHistoryStates() != null
+									&& stateMachineContext.getHistoryStates().get(s.getId()) != null))) {
 						StateMachine<S, E> submachine = ((AbstractState<S, E>) s).getSubmachine();
 						PseudoState<S, E> submachineHistory = ((AbstractStateMachine<S, E>) submachine).getHistoryState();
 						if (submachineHistory != null) {
@@ -892,6 +919,32 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 		}));
 	}
 
+	private void buildReferencedSubmachines(StateMachineContext<S, E> stateMachineContext) {
+		// lazily built submachines needs to exist before matching
+		// states as only those know their substates
+		for (State<S, E> s : states) {
+			if (s instanceof StateMachineState && !((StateMachineState<S, E>) s).isSubmachineBuilt()
+					&& isReferencedState((StateMachineState<S, E>) s, stateMachineContext)) {
+				((StateMachineState<S, E>) s).getSubmachine();
+			}
+		}
+	}
+
+	private boolean isReferencedState(StateMachineState<S, E> state, StateMachineContext<S, E> stateMachineContext) {
+		S id = stateMachineContext.getState();
+		if (id != null && !ObjectUtils.nullSafeEquals(id, state.getId()) && state.containsSubmachineState(id)) {
+			return true;
+		}
+		if (stateMachineContext.getChilds() != null) {
+			for (StateMachineContext<S, E> child : stateMachineContext.getChilds()) {
+				if (isReferencedState(state, child)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public void addStateMachineInterceptor(StateMachineInterceptor<S, E> interceptor) {
 		getStateMachineInterceptors().add(interceptor);
@@ -939,6 +992,21 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 		return mono;
 	}
 
+	/**
+	 * Execute a function for all regions of an orthogonal state according to
+	 * its region execution policy.
+	 *
+	 * @param state the orthogonal state
+	 * @param function the function to execute for a region
+	 * @return the completion of all regions
+	 */
+	private Flux<Void> executeRegions(State<S, E> state, Function<Region<S, E>, Mono<Void>> function) {
+		if (state instanceof RegionState) {
+			return ((RegionState<S, E>) state).executeRegions(function);
+		}
+		return Flux.fromIterable(((AbstractState<S, E>) state).getRegions()).flatMap(function);
+	}
+
 	protected StateMachineExecutor<S, E> getStateMachineExecutor() {
 		return stateMachineExecutor;
 	}
@@ -1477,7 +1545,7 @@ public abstract class AbstractStateMachine<S, E> extends StateMachineObjectSuppo
 
 	private static <S, E> boolean isDirectSubstate(State<S, E> left, State<S, E> right) {
 		// Checks if right hand side is a direct substate of a left hand side.
-		if (left != null && left.isSubmachineState()) {
+		if (left != null && left.isSubmachineState() && ((AbstractState<S, E>)left).isSubmachineBuilt()) {
 			StateMachine<S, E> submachine = ((AbstractState<S, E>)left).getSubmachine();
 			return submachine.getStates().contains(right);
 		} else {
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.support;
+
+/**
+ * Enumerations for possible policies when a bounded deferred event queue is
+ * full and a new event is about to be deferred.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public enum DeferredEventOverflowPolicy {
+
+	/**
+	 * Policy denying a new event, which is then reported as not accepted.
+	 */
+	DENY,
+
+	/**
+	 * Policy dropping an oldest deferred event to make room for a new event.
+	 */
+	DROP_OLDEST;
+}
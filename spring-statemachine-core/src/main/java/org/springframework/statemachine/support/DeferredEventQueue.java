@@ -0,0 +1,236 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.support;
+
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.messaging.Message;
+import org.springframework.statemachine.state.State;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Queue of deferred event messages indexed by an event. Messages are kept in
+ * a deferred order per event and an overall order is preserved with a
+ * sequence number.
+ * <p>
+ * Candidates are only resolved when an active state configuration has changed
+ * since last check or new messages were deferred, and only for events which
+ * a current state doesn't defer. Message which is not deferred but didn't
+ * cause a transition stays in a queue, it cannot transit before configuration
+ * changes.
+ * <p>
+ * Queue is unbounded by default. With a capacity a
+ * {@link DeferredEventOverflowPolicy} chooses if a new message is denied or
+ * an oldest message is dropped.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class DeferredEventQueue<S, E> extends AbstractCollection<Message<E>> {
+
+	private static final Log log = LogFactory.getLog(DeferredEventQueue.class);
+	private final Map<E, Deque<DeferredMessage<E>>> messages = new LinkedHashMap<>();
+	private int capacity = Integer.MAX_VALUE;
+	private DeferredEventOverflowPolicy overflowPolicy = DeferredEventOverflowPolicy.DENY;
+	private long sequence;
+	private int size;
+	private Collection<S> checkedIds;
+
+	/**
+	 * Sets the capacity and overflow policy. Capacity less than one means
+	 * unbounded queue.
+	 *
+	 * @param capacity the capacity
+	 * @param overflowPolicy the overflow policy
+	 */
+	public synchronized void setCapacity(int capacity, DeferredEventOverflowPolicy overflowPolicy) {
+		this.capacity = capacity > 0 ? capacity : Integer.MAX_VALUE;
+		this.overflowPolicy = overflowPolicy != null ? overflowPolicy : DeferredEventOverflowPolicy.DENY;
+	}
+
+	/**
+	 * Adds a message to a queue.
+	 *
+	 * @param message the message
+	 * @return true, if message was added, false if denied by overflow policy
+	 */
+	public synchronized boolean offer(Message<E> message) {
+		Assert.notNull(message, "Message must be set");
+		if (size >= capacity) {
+			if (overflowPolicy == DeferredEventOverflowPolicy.DROP_OLDEST) {
+				Message<E> dropped = pollOldest();
+				if (log.isDebugEnabled()) {
+					log.debug("Deferred event queue full, dropping message " + dropped);
+				}
+			} else {
+				return false;
+			}
+		}
+		Deque<DeferredMessage<E>> deque = messages.get(message.getPayload());
+		if (deque == null) {
+			deque = new ArrayDeque<>();
+			messages.put(message.getPayload(), deque);
+		}
+		deque.add(new DeferredMessage<E>(sequence++, message));
+		size++;
+		// new message needs a check against next configuration
+		checkedIds = null;
+		return true;
+	}
+
+	/**
+	 * Resolve messages which should be evaluated against a given state. Empty
+	 * list is returned if active configuration hasn't changed since last call.
+	 *
+	 * @param state the current state
+	 * @return the messages in deferred order
+	 */
+	public synchronized List<Message<E>> candidates(State<S, E> state) {
+		if (state == null || size == 0) {
+			return Collections.emptyList();
+		}
+		Collection<S> ids = state.getIds();
+		if (sameIds(checkedIds, ids)) {
+			return Collections.emptyList();
+		}
+		checkedIds = new ArrayList<>(ids);
+		List<DeferredMessage<E>> candidates = new ArrayList<>();
+		for (Deque<DeferredMessage<E>> deque : messages.values()) {
+			// deferring is decided by an event so first message stands for all
+			if (!state.shouldDefer(deque.getFirst().message)) {
+				candidates.addAll(deque);
+			}
+		}
+		if (candidates.isEmpty()) {
+			return Collections.emptyList();
+		}
+		candidates.sort((m1, m2) -> Long.compare(m1.sequence, m2.sequence));
+		List<Message<E>> ret = new ArrayList<>(candidates.size());
+		for (DeferredMessage<E> candidate : candidates) {
+			ret.add(candidate.message);
+		}
+		return ret;
+	}
+
+	@Override
+	public synchronized boolean remove(Object o) {
+		if (!(o instanceof Message)) {
+			return false;
+		}
+		Object payload = ((Message<?>) o).getPayload();
+		Deque<DeferredMessage<E>> deque = messages.get(payload);
+		if (deque == null) {
+			return false;
+		}
+		Iterator<DeferredMessage<E>> iterator = deque.iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().message == o) {
+				iterator.remove();
+				size--;
+				if (deque.isEmpty()) {
+					messages.remove(payload);
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+	@Override
+	public synchronized void clear() {
+		messages.clear();
+		size = 0;
+		checkedIds = null;
+	}
+
+	/**
+	 * Returns an iterator over a snapshot of messages in deferred order.
+	 */
+	@Override
+	public synchronized Iterator<Message<E>> iterator() {
+		List<DeferredMessage<E>> all = new ArrayList<>(size);
+		for (Deque<DeferredMessage<E>> deque : messages.values()) {
+			all.addAll(deque);
+		}
+		all.sort((m1, m2) -> Long.compare(m1.sequence, m2.sequence));
+		List<Message<E>> ret = new ArrayList<>(all.size());
+		for (DeferredMessage<E> m : all) {
+			ret.add(m.message);
+		}
+		return Collections.unmodifiableList(ret).iterator();
+	}
+
+	private static <S> boolean sameIds(Collection<S> ids1, Collection<S> ids2) {
+		if (ids1 == null || ids1.size() != ids2.size()) {
+			return false;
+		}
+		Iterator<S> iterator = ids2.iterator();
+		for (S id : ids1) {
+			if (!ObjectUtils.nullSafeEquals(id, iterator.next())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Message<E> pollOldest() {
+		Deque<DeferredMessage<E>> oldest = null;
+		for (Deque<DeferredMessage<E>> deque : messages.values()) {
+			if (oldest == null || deque.getFirst().sequence < oldest.getFirst().sequence) {
+				oldest = deque;
+			}
+		}
+		if (oldest == null) {
+			return null;
+		}
+		DeferredMessage<E> m = oldest.removeFirst();
+		size--;
+		if (oldest.isEmpty()) {
+			messages.remove(m.message.getPayload());
+		}
+		return m.message;
+	}
+
+	private static class DeferredMessage<E> {
+
+		final long sequence;
+		final Message<E> message;
+
+		DeferredMessage(long sequence, Message<E> message) {
+			this.sequence = sequence;
+			this.message = message;
+		}
+	}
+}
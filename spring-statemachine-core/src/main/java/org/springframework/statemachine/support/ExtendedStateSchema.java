@@ -0,0 +1,260 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * Schema of typed extended state variables used with a
+ * {@link TypedExtendedState}. Every variable gets a fixed {@link Slot} backed
+ * by a primitive array of its type.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class ExtendedStateSchema {
+
+	private final List<Slot> slots;
+	private final Map<Object, Slot> slotsByKey;
+	private final int[] typeCounts;
+
+	private ExtendedStateSchema(List<Slot> slots) {
+		this.slots = Collections.unmodifiableList(slots);
+		this.slotsByKey = new HashMap<Object, Slot>();
+		this.typeCounts = new int[VariableType.values().length];
+		for (Slot slot : slots) {
+			slotsByKey.put(slot.getKey(), slot);
+			typeCounts[slot.getType().ordinal()]++;
+		}
+	}
+
+	/**
+	 * Gets a new instance of a builder.
+	 *
+	 * @return the builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Gets a slot for a variable key.
+	 *
+	 * @param key the variable key
+	 * @return the slot or {@code null} if key is not typed
+	 */
+	public Slot getSlot(Object key) {
+		return slotsByKey.get(key);
+	}
+
+	/**
+	 * Gets all slots in declaration order.
+	 *
+	 * @return the slots
+	 */
+	public List<Slot> getSlots() {
+		return slots;
+	}
+
+	/**
+	 * Gets a number of variables of a given type.
+	 *
+	 * @param type the variable type
+	 * @return the number of variables
+	 */
+	public int getCount(VariableType type) {
+		return typeCounts[type.ordinal()];
+	}
+
+	@Override
+	public String toString() {
+		return "ExtendedStateSchema [slots=" + slots + "]";
+	}
+
+	/**
+	 * Types of a typed variable.
+	 */
+	public enum VariableType {
+
+		/** Variable backed by an {@code int}. */
+		INT(Integer.class),
+
+		/** Variable backed by a {@code long}. */
+		LONG(Long.class),
+
+		/** Variable backed by a {@code double}. */
+		DOUBLE(Double.class),
+
+		/** Variable backed by a {@code boolean}. */
+		BOOLEAN(Boolean.class);
+
+		private final Class<?> boxedType;
+
+		VariableType(Class<?> boxedType) {
+			this.boxedType = boxedType;
+		}
+
+		/**
+		 * Gets the boxed type used when variable is accessed as an object.
+		 *
+		 * @return the boxed type
+		 */
+		public Class<?> getBoxedType() {
+			return boxedType;
+		}
+	}
+
+	/**
+	 * Fixed position of a typed variable. Index is a position among slots
+	 * and type index a position within a primitive array of its type.
+	 */
+	public static final class Slot {
+
+		private final Object key;
+		private final VariableType type;
+		private final int index;
+		private final int typeIndex;
+
+		Slot(Object key, VariableType type, int index, int typeIndex) {
+			this.key = key;
+			this.type = type;
+			this.index = index;
+			this.typeIndex = typeIndex;
+		}
+
+		/**
+		 * Gets the variable key.
+		 *
+		 * @return the key
+		 */
+		public Object getKey() {
+			return key;
+		}
+
+		/**
+		 * Gets the variable type.
+		 *
+		 * @return the type
+		 */
+		public VariableType getType() {
+			return type;
+		}
+
+		/**
+		 * Gets the index among all slots.
+		 *
+		 * @return the index
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Gets the index among slots of a same type.
+		 *
+		 * @return the type index
+		 */
+		public int getTypeIndex() {
+			return typeIndex;
+		}
+
+		@Override
+		public String toString() {
+			return "Slot [key=" + key + ", type=" + type + "]";
+		}
+	}
+
+	/**
+	 * Builder for {@link ExtendedStateSchema}.
+	 */
+	public static class Builder {
+
+		private final List<Slot> slots = new ArrayList<Slot>();
+		private final int[] typeCounts = new int[VariableType.values().length];
+
+		/**
+		 * Add an {@code int} variable.
+		 *
+		 * @param key the variable key
+		 * @return the builder
+		 */
+		public Builder intVariable(Object key) {
+			return variable(key, VariableType.INT);
+		}
+
+		/**
+		 * Add a {@code long} variable.
+		 *
+		 * @param key the variable key
+		 * @return the builder
+		 */
+		public Builder longVariable(Object key) {
+			return variable(key, VariableType.LONG);
+		}
+
+		/**
+		 * Add a {@code double} variable.
+		 *
+		 * @param key the variable key
+		 * @return the builder
+		 */
+		public Builder doubleVariable(Object key) {
+			return variable(key, VariableType.DOUBLE);
+		}
+
+		/**
+		 * Add a {@code boolean} variable.
+		 *
+		 * @param key the variable key
+		 * @return the builder
+		 */
+		public Builder booleanVariable(Object key) {
+			return variable(key, VariableType.BOOLEAN);
+		}
+
+		/**
+		 * Add a variable of a given type.
+		 *
+		 * @param key the variable key
+		 * @param type the variable type
+		 * @return the builder
+		 */
+		public Builder variable(Object key, VariableType type) {
+			Assert.notNull(key, "Variable key must be set");
+			Assert.notNull(type, "Variable type must be set");
+			for (Slot slot : slots) {
+				Assert.isTrue(!slot.getKey().equals(key), "Variable '" + key + "' already defined");
+			}
+			slots.add(new Slot(key, type, slots.size(), typeCounts[type.ordinal()]++));
+			return this;
+		}
+
+		/**
+		 * Builds the extended state schema.
+		 *
+		 * @return the extended state schema
+		 */
+		public ExtendedStateSchema build() {
+			return new ExtendedStateSchema(new ArrayList<Slot>(slots));
+		}
+	}
+}
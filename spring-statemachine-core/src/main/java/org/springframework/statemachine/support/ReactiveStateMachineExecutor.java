@@ -1,5 +1,5 @@
 /*
- * Copyright 2019-2021 the original author or authors.
+ * Copyright 2019-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,9 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Map.Entry;
-import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -36,6 +34,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
+import org.springframework.statemachine.ExtendedState;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateContext.Stage;
 import org.springframework.statemachine.StateMachine;
@@ -84,7 +83,7 @@ public class ReactiveStateMachineExecutor<S, E> extends LifecycleObjectSupport i
 	private final Message<E> initialEvent;
 	private final TransitionComparator<S, E> transitionComparator;
 	private final TransitionConflictPolicy transitionConflictPolicy;
-	private final Queue<Message<E>> deferList = new ConcurrentLinkedQueue<Message<E>>();
+	private final DeferredEventQueue<S, E> deferList = new DeferredEventQueue<S, E>();
 	private final AtomicBoolean initialHandled = new AtomicBoolean(false);
 	private final StateMachineInterceptorList<S, E> interceptors = new StateMachineInterceptorList<S, E>();
 	private volatile Message<E> forwardedInitialEvent;
@@ -116,7 +115,7 @@ public class ReactiveStateMachineExecutor<S, E> extends LifecycleObjectSupport i
 	protected void onInit() throws Exception {
 		triggerSink = Sinks.many().multicast().onBackpressureBuffer(Queues.SMALL_BUFFER_SIZE, false);
 		// limit concurrency so that we get one by one handling
-		triggerFlux = triggerSink.asFlux().flatMap(trigger -> handleTrigger(trigger), 1);
+		triggerFlux = triggerSink.asFlux().flatMap(trigger -> withExtendedStateStep(handleTrigger(trigger)), 1);
 	}
 
 	@Override
@@ -160,7 +159,25 @@ public class ReactiveStateMachineExecutor<S, E> extends LifecycleObjectSupport i
 		if (log.isDebugEnabled()) {
 			log.debug("Deferring message " + message);
 		}
-		deferList.add(message);
+		if (!deferList.offer(message)) {
+			throw new StateMachineException("Deferred event queue is full, denying message " + message);
+		}
+	}
+
+	@Override
+	public int getDeferredEventCount() {
+		return deferList.size();
+	}
+
+	/**
+	 * Sets the deferred event queue capacity and overflow policy. Capacity
+	 * less than one means unbounded queue.
+	 *
+	 * @param capacity the capacity
+	 * @param overflowPolicy the overflow policy
+	 */
+	public void setDeferredEventCapacity(int capacity, DeferredEventOverflowPolicy overflowPolicy) {
+		deferList.setCapacity(capacity, overflowPolicy);
 	}
 
 	@Override
@@ -196,7 +213,12 @@ public class ReactiveStateMachineExecutor<S, E> extends LifecycleObjectSupport i
 
 	@Override
 	public Mono<Void> queueEvent(Mono<Message<E>> message, StateMachineExecutorCallback callback) {
-		Flux<Message<E>> messages = Flux.merge(message, Flux.fromIterable(deferList));
+		// deferred messages are resolved once a message has been emitted which
+		// is after it has been handled only if its trigger completed synchronously,
+		// otherwise candidates see an earlier configuration and those still
+		// deferred are picked up when a later event finds a changed one
+		Flux<Message<E>> messages = Flux.concat(message,
+				Flux.defer(() -> Flux.fromIterable(deferList.candidates(stateMachine.getState()))));
 
 		MonoSinkStateMachineExecutorCallback triggerCallback = new MonoSinkStateMachineExecutorCallback();
 		Mono<Void> triggerCallbackSink = Mono.create(triggerCallback);
@@ -242,6 +264,20 @@ public class ReactiveStateMachineExecutor<S, E> extends LifecycleObjectSupport i
 		});
 	}
 
+	private Mono<Void> withExtendedStateStep(Mono<Void> mono) {
+		// typed extended state coalesces change notifications over a
+		// run-to-completion step, cleanup eagerly to notify before completion
+		ExtendedState extendedState = stateMachine.getExtendedState();
+		if (extendedState instanceof TypedExtendedState) {
+			TypedExtendedState typedExtendedState = (TypedExtendedState) extendedState;
+			return Mono.using(() -> {
+				typedExtendedState.beginStep();
+				return typedExtendedState;
+			}, t -> mono, t -> t.endStep(), true);
+		}
+		return mono;
+	}
+
 	private Mono<Void> handleTrigger(TriggerQueueItem queueItem) {
 		return Mono.defer(() -> {
 			Mono<Void> ret = null;
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.support;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.statemachine.StateContext;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachineEventResult.ResultType;
+import org.springframework.statemachine.config.model.TransitionData;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Result of an evaluation done by {@link StatelessStateMachineEvaluator}.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class StateMachineEvaluationResult<S, E> {
+
+	private final StateMachineContext<S, E> context;
+	private final ResultType resultType;
+	private final TransitionData<S, E> transition;
+	private final List<S> exitedStates;
+	private final List<S> enteredStates;
+	private final List<Function<StateContext<S, E>, Mono<Void>>> actions;
+
+	/**
+	 * Instantiates a new state machine evaluation result.
+	 *
+	 * @param context the resulting context
+	 * @param resultType the result type
+	 * @param transition the selected transition
+	 * @param exitedStates the exited states
+	 * @param enteredStates the entered states
+	 * @param actions the executed actions
+	 */
+	public StateMachineEvaluationResult(StateMachineContext<S, E> context, ResultType resultType,
+			TransitionData<S, E> transition, List<S> exitedStates, List<S> enteredStates,
+			List<Function<StateContext<S, E>, Mono<Void>>> actions) {
+		this.context = context;
+		this.resultType = resultType;
+		this.transition = transition;
+		this.exitedStates = Collections.unmodifiableList(exitedStates);
+		this.enteredStates = Collections.unmodifiableList(enteredStates);
+		this.actions = Collections.unmodifiableList(actions);
+	}
+
+	/**
+	 * Gets the resulting context. If event was not accepted, this is the
+	 * context given to an evaluation.
+	 *
+	 * @return the resulting context
+	 */
+	public StateMachineContext<S, E> getContext() {
+		return context;
+	}
+
+	/**
+	 * Gets the result type.
+	 *
+	 * @return the result type
+	 */
+	public ResultType getResultType() {
+		return resultType;
+	}
+
+	/**
+	 * Gets the transition selected by an event, {@code null} if event
+	 * was not accepted or evaluation entered initial states.
+	 *
+	 * @return the selected transition
+	 */
+	public TransitionData<S, E> getTransition() {
+		return transition;
+	}
+
+	/**
+	 * Gets the exited states in an order those were exited.
+	 *
+	 * @return the exited states
+	 */
+	public List<S> getExitedStates() {
+		return exitedStates;
+	}
+
+	/**
+	 * Gets the entered states in an order those were entered.
+	 *
+	 * @return the entered states
+	 */
+	public List<S> getEnteredStates() {
+		return enteredStates;
+	}
+
+	/**
+	 * Gets the executed actions in an order those were executed.
+	 *
+	 * @return the executed actions
+	 */
+	public List<Function<StateContext<S, E>, Mono<Void>>> getActions() {
+		return actions;
+	}
+
+	@Override
+	public String toString() {
+		return "StateMachineEvaluationResult [state=" + (context != null ? context.getState() : null) + ", resultType="
+				+ resultType + ", exitedStates=" + exitedStates + ", enteredStates=" + enteredStates + "]";
+	}
+}
@@ -53,6 +53,15 @@ public interface StateMachineExecutor<S, E> extends StateMachineReactiveLifecycl
 	 */
 	void queueDeferredEvent(Message<E> message);
 
+	/**
+	 * Gets the number of currently deferred events.
+	 *
+	 * @return the number of deferred events
+	 */
+	default int getDeferredEventCount() {
+		return 0;
+	}
+
 	/**
 	 * Execute and check all triggerless transitions.
 	 *
@@ -158,6 +158,7 @@ public abstract class StateMachineObjectSupport<S, E> extends LifecycleObjectSup
 			stateMachineHandlerCallHelper.callOnStateEntry(stateContext.getStateMachine().getId(), stateContext);
 			stateListener.stateEntered(stateContext.getTarget());
 			stateListener.stateContext(stateContext);
+			notifyStateContextMonitor(stateContext);
 			if (contextEventsEnabled) {
 				StateMachineEventPublisher eventPublisher = getStateMachineEventPublisher();
 				if (eventPublisher != null) {
@@ -175,6 +176,7 @@ public abstract class StateMachineObjectSupport<S, E> extends LifecycleObjectSup
 			stateMachineHandlerCallHelper.callOnStateExit(stateContext.getStateMachine().getId(), stateContext);
 			stateListener.stateExited(stateContext.getSource());
 			stateListener.stateContext(stateContext);
+			notifyStateContextMonitor(stateContext);
 			if (contextEventsEnabled) {
 				StateMachineEventPublisher eventPublisher = getStateMachineEventPublisher();
 				if (eventPublisher != null) {
@@ -192,6 +194,7 @@ public abstract class StateMachineObjectSupport<S, E> extends LifecycleObjectSup
 			stateMachineHandlerCallHelper.callOnEventNotAccepted(stateContext.getStateMachine().getId(), stateContext);
 			stateListener.eventNotAccepted(stateContext.getMessage());
 			stateListener.stateContext(stateContext);
+			notifyStateContextMonitor(stateContext);
 			if (contextEventsEnabled) {
 				StateMachineEventPublisher eventPublisher = getStateMachineEventPublisher();
 				if (eventPublisher != null) {
@@ -277,6 +280,7 @@ public abstract class StateMachineObjectSupport<S, E> extends LifecycleObjectSup
 			stateMachineHandlerCallHelper.callOnStateMachineStop(stateContext.getStateMachine().getId(), stateContext);
 			stateListener.stateMachineStopped(stateContext.getStateMachine());
 			stateListener.stateContext(stateContext);
+			notifyStateContextMonitor(stateContext);
 			if (contextEventsEnabled) {
 				StateMachineEventPublisher eventPublisher = getStateMachineEventPublisher();
 				if (eventPublisher != null) {
@@ -339,6 +343,48 @@ public abstract class StateMachineObjectSupport<S, E> extends LifecycleObjectSup
 		}
 	}
 
+	protected void notifyActionCancelledMonitor(StateMachine<S, E> stateMachine,
+			Function<StateContext<S, E>, Mono<Void>> action, long duration) {
+		try {
+			stateMachineMonitor.actionCancelled(stateMachine, action, duration);
+		} catch (Exception e) {
+			log.warn("Error during notifyActionCancelledMonitor", e);
+		}
+	}
+
+	protected void notifyEventDeferredMonitor(StateMachine<S, E> stateMachine, Message<E> message,
+			int deferredEventCount) {
+		try {
+			stateMachineMonitor.eventDeferred(stateMachine, message, deferredEventCount);
+		} catch (Exception e) {
+			log.warn("Error during notifyEventDeferredMonitor", e);
+		}
+	}
+
+	private void notifyStateContextMonitor(StateContext<S, E> stateContext) {
+		try {
+			switch (stateContext.getStage()) {
+			case STATE_ENTRY:
+				stateMachineMonitor.stateEntered(stateContext.getStateMachine(), stateContext.getTarget());
+				break;
+			case STATE_EXIT:
+				stateMachineMonitor.stateExited(stateContext.getStateMachine(), stateContext.getSource());
+				break;
+			case EVENT_NOT_ACCEPTED:
+				stateMachineMonitor.eventNotAccepted(stateContext.getStateMachine(), stateContext.getSource(),
+						stateContext.getMessage());
+				break;
+			case STATEMACHINE_STOP:
+				stateMachineMonitor.stateMachineStopped(stateContext.getStateMachine());
+				break;
+			default:
+				break;
+			}
+		} catch (Exception e) {
+			log.warn("Error during notifyStateContextMonitor", e);
+		}
+	}
+
 	protected StateMachineInterceptorList<S, E> getStateMachineInterceptors() {
 		return interceptors;
 	}
@@ -413,6 +459,7 @@ public abstract class StateMachineObjectSupport<S, E> extends LifecycleObjectSup
 		@Override
 		public void stateContext(StateContext<S, E> stateContext) {
 			stateListener.stateContext(stateContext);
+			notifyStateContextMonitor(stateContext);
 		}
 	}
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.support;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.statemachine.config.model.StateMachineModel;
+import org.springframework.statemachine.config.model.StateMachineModelFactory;
+import org.springframework.statemachine.config.model.TransitionData;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Generates java source for a {@link StatelessStateMachineEvaluator} subclass
+ * having a fixed dispatch for a {@link StateMachineModel} using enum states
+ * and events.
+ * <p>
+ * Candidate transitions for every state and event pair are resolved when
+ * source is generated and dispatch becomes a nested {@code switch} over
+ * state and event ordinals returning lists held in final fields. Guards and
+ * actions are still taken from a model given to a generated class, which
+ * also verifies that model has a same topology it was generated from.
+ * <p>
+ * Generator can be run during a build, for example from a gradle
+ * {@code JavaExec} task, via {@link #main(String[])} with arguments
+ * {@code <model factory class> <state enum> <event enum> <generated class> <output directory>}
+ * where model factory is a {@link StateMachineModelFactory} having a
+ * default constructor.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class StateMachineSourceGenerator<S extends Enum<S>, E extends Enum<E>> {
+
+	private final StateMachineModel<S, E> stateMachineModel;
+	private final Class<S> stateType;
+	private final Class<E> eventType;
+
+	/**
+	 * Instantiates a new state machine source generator.
+	 *
+	 * @param stateMachineModel the state machine model
+	 * @param stateType the state enum type
+	 * @param eventType the event enum type
+	 */
+	public StateMachineSourceGenerator(StateMachineModel<S, E> stateMachineModel, Class<S> stateType, Class<E> eventType) {
+		Assert.notNull(stateMachineModel, "State machine model must be set");
+		Assert.notNull(stateType, "State type must be set");
+		Assert.notNull(eventType, "Event type must be set");
+		this.stateMachineModel = stateMachineModel;
+		this.stateType = stateType;
+		this.eventType = eventType;
+	}
+
+	/**
+	 * Generates a source for a given fully qualified class name.
+	 *
+	 * @param className the fully qualified class name
+	 * @return the generated source
+	 */
+	public String generate(String className) {
+		Assert.hasText(className, "Class name must be set");
+		// validates a model same way as generated class does at runtime
+		StatelessStateMachineEvaluator<S, E> evaluator = new StatelessStateMachineEvaluator<>(stateMachineModel);
+		List<TransitionData<S, E>> transitions = evaluator.getTriggeredTransitions();
+
+		// distinct candidate lists by transition indexes, each gets a field
+		Map<List<Integer>, Integer> fields = new LinkedHashMap<>();
+		Map<S, Map<E, Integer>> dispatch = new LinkedHashMap<>();
+		for (S state : stateType.getEnumConstants()) {
+			Map<E, Integer> events = new LinkedHashMap<>();
+			for (E event : eventType.getEnumConstants()) {
+				List<Integer> indexes = new ArrayList<>();
+				for (TransitionData<S, E> candidate : evaluator.getTransitionCandidates(state, event)) {
+					indexes.add(indexOf(transitions, candidate));
+				}
+				if (!indexes.isEmpty()) {
+					Integer field = fields.get(indexes);
+					if (field == null) {
+						field = fields.size();
+						fields.put(indexes, field);
+					}
+					events.put(event, field);
+				}
+			}
+			if (!events.isEmpty()) {
+				dispatch.put(state, events);
+			}
+		}
+
+		String packageName = ClassUtils.getPackageName(className);
+		String simpleName = ClassUtils.getShortName(className);
+		String s = stateType.getCanonicalName();
+		String e = eventType.getCanonicalName();
+		String transitionType = "TransitionData<" + s + ", " + e + ">";
+
+		StringBuilder buf = new StringBuilder();
+		buf.append("/*\n * Generated by ").append(getClass().getSimpleName()).append(", do not edit.\n */\n");
+		if (StringUtils.hasText(packageName)) {
+			buf.append("package ").append(packageName).append(";\n\n");
+		}
+		buf.append("import java.util.Arrays;\n");
+		buf.append("import java.util.Collections;\n");
+		buf.append("import java.util.List;\n\n");
+		buf.append("import org.springframework.statemachine.config.model.StateMachineModel;\n");
+		buf.append("import org.springframework.statemachine.config.model.TransitionData;\n");
+		buf.append("import org.springframework.statemachine.support.StatelessStateMachineEvaluator;\n\n");
+		buf.append("public class ").append(simpleName).append(" extends StatelessStateMachineEvaluator<")
+				.append(s).append(", ").append(e).append("> {\n\n");
+		for (Integer field : fields.values()) {
+			buf.append("\tprivate final List<").append(transitionType).append("> c").append(field).append(";\n");
+		}
+		if (!fields.isEmpty()) {
+			buf.append("\n");
+		}
+
+		buf.append("\tpublic ").append(simpleName).append("(StateMachineModel<").append(s).append(", ").append(e)
+				.append("> stateMachineModel) {\n");
+		buf.append("\t\tsuper(stateMachineModel);\n");
+		for (int i = 0; i < transitions.size(); i++) {
+			TransitionData<S, E> t = transitions.get(i);
+			buf.append("\t\t").append(transitionType).append(" t").append(i).append(" = getTriggeredTransition(")
+					.append(i).append(", ").append(transitions.size()).append(", ")
+					.append(literal(s, t.getSource())).append(", ").append(literal(s, t.getTarget())).append(", ")
+					.append(literal(e, t.getEvent())).append(");\n");
+		}
+		for (Map.Entry<List<Integer>, Integer> entry : fields.entrySet()) {
+			buf.append("\t\tc").append(entry.getValue()).append(" = Collections.unmodifiableList(Arrays.asList(");
+			for (int i = 0; i < entry.getKey().size(); i++) {
+				buf.append(i > 0 ? ", " : "").append("t").append(entry.getKey().get(i));
+			}
+			buf.append("));\n");
+		}
+		buf.append("\t}\n\n");
+
+		buf.append("\t@Override\n");
+		buf.append("\tprotected List<").append(transitionType).append("> getTransitionCandidates(")
+				.append(s).append(" leaf, ").append(e).append(" event) {\n");
+		buf.append("\t\tswitch (leaf.ordinal()) {\n");
+		for (Map.Entry<S, Map<E, Integer>> state : dispatch.entrySet()) {
+			buf.append("\t\tcase ").append(state.getKey().ordinal()).append(": // ").append(state.getKey().name()).append("\n");
+			buf.append("\t\t\tswitch (event.ordinal()) {\n");
+			for (Map.Entry<E, Integer> event : state.getValue().entrySet()) {
+				buf.append("\t\t\tcase ").append(event.getKey().ordinal()).append(": // ").append(event.getKey().name())
+						.append("\n");
+				buf.append("\t\t\t\treturn c").append(event.getValue()).append(";\n");
+			}
+			buf.append("\t\t\tdefault:\n");
+			buf.append("\t\t\t\treturn Collections.emptyList();\n");
+			buf.append("\t\t\t}\n");
+		}
+		buf.append("\t\tdefault:\n");
+		buf.append("\t\t\treturn Collections.emptyList();\n");
+		buf.append("\t\t}\n");
+		buf.append("\t}\n");
+		buf.append("}\n");
+		return buf.toString();
+	}
+
+	/**
+	 * Generates a source file for a given fully qualified class name under
+	 * an output directory using package directories.
+	 *
+	 * @param className the fully qualified class name
+	 * @param outputDirectory the output directory
+	 * @return the path to a generated file
+	 * @throws IOException if file cannot be written
+	 */
+	public Path generate(String className, Path outputDirectory) throws IOException {
+		Path file = outputDirectory.resolve(ClassUtils.convertClassNameToResourcePath(className) + ".java");
+		Files.createDirectories(file.getParent());
+		Files.write(file, generate(className).getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	/**
+	 * Generates a source file from a {@link StateMachineModelFactory}.
+	 *
+	 * @param args the model factory class, state enum, event enum, generated class and output directory
+	 * @throws Exception if generation fails
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static void main(String[] args) throws Exception {
+		if (args.length != 5) {
+			throw new IllegalArgumentException(
+					"Usage: <model factory class> <state enum> <event enum> <generated class> <output directory>");
+		}
+		ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+		StateMachineModelFactory factory = (StateMachineModelFactory) BeanUtils
+				.instantiateClass(ClassUtils.forName(args[0], classLoader));
+		Class stateType = ClassUtils.forName(args[1], classLoader);
+		Class eventType = ClassUtils.forName(args[2], classLoader);
+		new StateMachineSourceGenerator(factory.build(), stateType, eventType).generate(args[3], Paths.get(args[4]));
+	}
+
+	private static int indexOf(List<?> list, Object item) {
+		// transitions don't implement equals, use identity
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) == item) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("Transition not found from a model");
+	}
+
+	private static String literal(String type, Enum<?> value) {
+		return value != null ? type + "." + value.name() : "null";
+	}
+}
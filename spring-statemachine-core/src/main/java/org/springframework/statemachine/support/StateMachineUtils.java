@@ -20,6 +20,7 @@ import java.util.Collection;
 import java.util.Optional;
 import java.util.function.Function;
 
+import org.springframework.statemachine.ExtendedState;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateMachineMessageHeaders;
 import org.springframework.statemachine.StateMachineSystemConstants;
@@ -213,4 +214,18 @@ public abstract class StateMachineUtils {
 			})
 			.then();
 	}
+
+	/**
+	 * Creates an empty {@link ExtendedState} of a same kind as a given one, keeping
+	 * a schema of a {@link TypedExtendedState}.
+	 *
+	 * @param extendedState the extended state
+	 * @return the new extended state
+	 */
+	public static ExtendedState newExtendedState(ExtendedState extendedState) {
+		if (extendedState instanceof TypedExtendedState) {
+			return new TypedExtendedState(((TypedExtendedState) extendedState).getSchema());
+		}
+		return new DefaultExtendedState();
+	}
 }
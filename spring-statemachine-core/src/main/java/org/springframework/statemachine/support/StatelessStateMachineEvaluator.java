@@ -0,0 +1,519 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Function;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.ExtendedState;
+import org.springframework.statemachine.StateContext;
+import org.springframework.statemachine.StateContext.Stage;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachineEventResult.ResultType;
+import org.springframework.statemachine.action.Action;
+import org.springframework.statemachine.action.Actions;
+import org.springframework.statemachine.config.model.ChoiceData;
+import org.springframework.statemachine.config.model.JunctionData;
+import org.springframework.statemachine.config.model.MalformedConfigurationException;
+import org.springframework.statemachine.config.model.StateData;
+import org.springframework.statemachine.config.model.StateMachineModel;
+import org.springframework.statemachine.config.model.TransitionData;
+import org.springframework.statemachine.guard.Guard;
+import org.springframework.statemachine.state.PseudoStateKind;
+import org.springframework.statemachine.transition.TransitionKind;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Thread safe evaluator which processes events against a {@link StateMachineContext}
+ * using a {@link StateMachineModel} without building a state machine instance.
+ * <p>
+ * Evaluation takes a context and an event and returns a new context together
+ * with exited and entered states and executed actions. There is no lifecycle,
+ * listeners or interceptors and nothing is kept between evaluations which makes
+ * this suitable for workloads which only read a context, process an event and
+ * write a context back.
+ * <p>
+ * Supported model elements are flat and hierarchical states using parents,
+ * external, local and internal transitions triggered by an event, guards,
+ * transition, entry, exit and initial actions and choice and junction pseudo
+ * states. Orthogonal regions, submachine references, history, fork, join,
+ * entry and exit points are rejected when evaluator is created. Timers and
+ * state do actions are not run and deferred events are not accepted as there
+ * is no queue to keep those. Guards and actions are called with a
+ * {@link StateContext} which doesn't have a state machine, transition or
+ * source and target states.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class StatelessStateMachineEvaluator<S, E> {
+
+	private final Map<S, StateData<S, E>> states = new HashMap<>();
+	private final Map<Object, S> initials = new HashMap<>();
+	private final Map<S, List<TransitionData<S, E>>> transitions = new HashMap<>();
+	private final List<TransitionData<S, E>> triggeredTransitions = new ArrayList<>();
+	private final Map<S, List<Branch<S, E>>> branches = new HashMap<>();
+
+	/**
+	 * Instantiates a new stateless state machine evaluator.
+	 *
+	 * @param stateMachineModel the state machine model
+	 */
+	public StatelessStateMachineEvaluator(StateMachineModel<S, E> stateMachineModel) {
+		Assert.notNull(stateMachineModel, "State machine model must be set");
+		Assert.notNull(stateMachineModel.getStatesData(), "States data must be set");
+		Assert.notNull(stateMachineModel.getTransitionsData(), "Transitions data must be set");
+		buildStates(stateMachineModel);
+		buildTransitions(stateMachineModel);
+	}
+
+	/**
+	 * Enters initial states and returns a context for a new machine.
+	 *
+	 * @param machineId the machine id
+	 * @return a mono for an evaluation result
+	 */
+	public Mono<StateMachineEvaluationResult<S, E>> start(String machineId) {
+		return start(machineId, true);
+	}
+
+	/**
+	 * Evaluates an event against a given context.
+	 *
+	 * @param context the state machine context
+	 * @param event the event
+	 * @return a mono for an evaluation result
+	 */
+	public Mono<StateMachineEvaluationResult<S, E>> evaluate(StateMachineContext<S, E> context, E event) {
+		Assert.notNull(event, "Event must be set");
+		return evaluate(context, MessageBuilder.withPayload(event).build());
+	}
+
+	/**
+	 * Evaluates an event message against a given context. Given context is
+	 * never modified and extended state variables are copied for actions
+	 * to work on.
+	 *
+	 * @param context the state machine context
+	 * @param message the event message
+	 * @return a mono for an evaluation result
+	 */
+	public Mono<StateMachineEvaluationResult<S, E>> evaluate(StateMachineContext<S, E> context, Message<E> message) {
+		return evaluate(context, message, true);
+	}
+
+	/**
+	 * Replays events on top of a given context without running any actions.
+	 * Only guards are evaluated to resolve transitions, thus extended state
+	 * changes done by actions are not reproduced and replayed context keeps
+	 * extended state of a given context. Denied events are skipped.
+	 *
+	 * @param context the state machine context, {@code null} to start from initial states
+	 * @param machineId the machine id used when starting from initial states
+	 * @param messages the event messages
+	 * @return a mono for a replayed context
+	 */
+	public Mono<StateMachineContext<S, E>> replay(StateMachineContext<S, E> context, String machineId,
+			List<Message<E>> messages) {
+		Mono<StateMachineContext<S, E>> initial = context != null ? Mono.just(context)
+				: start(machineId, false).map(r -> r.getContext());
+		return Flux.fromIterable(messages)
+				.reduceWith(() -> initial, (mono, message) -> mono
+						.flatMap(c -> evaluate(c, message, false))
+						.map(r -> r.getContext()))
+				.flatMap(mono -> mono);
+	}
+
+	private Mono<StateMachineEvaluationResult<S, E>> start(String machineId, boolean runActions) {
+		return Mono.defer(() -> {
+			Evaluation evaluation = new Evaluation(null, new DefaultExtendedState(), runActions);
+			return enterInitial(evaluation, null)
+					.then(Mono.fromSupplier(() -> evaluation.result(ResultType.ACCEPTED, null, null, machineId)));
+		});
+	}
+
+	private Mono<StateMachineEvaluationResult<S, E>> evaluate(StateMachineContext<S, E> context, Message<E> message,
+			boolean runActions) {
+		Assert.notNull(context, "Context must be set");
+		Assert.notNull(message, "Message must be set");
+		return Mono.defer(() -> {
+			S leaf = getDeepState(context);
+			if (leaf == null || !states.containsKey(leaf)) {
+				return Mono.error(new IllegalArgumentException("Context state " + leaf + " is not known by a model"));
+			}
+			ExtendedState extendedState = new DefaultExtendedState();
+			if (context.getExtendedState() != null) {
+				extendedState.getVariables().putAll(context.getExtendedState().getVariables());
+			}
+			Evaluation evaluation = new Evaluation(message, extendedState, runActions);
+			evaluation.leaf = leaf;
+			return findTransition(evaluation, leaf)
+					.flatMap(t -> transit(evaluation, t.getSource(), t.getTarget(), t.getKind(), t.getActions())
+							.then(Mono.fromSupplier(() -> evaluation.result(ResultType.ACCEPTED, t,
+									context.getHistoryStates(), context.getId()))))
+					.switchIfEmpty(Mono.fromSupplier(() -> new StateMachineEvaluationResult<S, E>(context,
+							ResultType.DENIED, null, Collections.<S>emptyList(), Collections.<S>emptyList(),
+							Collections.<Function<StateContext<S, E>, Mono<Void>>>emptyList())));
+		});
+	}
+
+	private void buildStates(StateMachineModel<S, E> stateMachineModel) {
+		for (StateData<S, E> stateData : stateMachineModel.getStatesData().getStateData()) {
+			PseudoStateKind kind = stateData.getPseudoStateKind();
+			if (kind != null && kind != PseudoStateKind.INITIAL && kind != PseudoStateKind.END
+					&& kind != PseudoStateKind.CHOICE && kind != PseudoStateKind.JUNCTION) {
+				throw new MalformedConfigurationException("Pseudo state " + kind + " is not supported by evaluator");
+			}
+			if (stateData.getSubmachine() != null || stateData.getSubmachineFactory() != null) {
+				throw new MalformedConfigurationException("Submachine references are not supported by evaluator");
+			}
+			states.put(stateData.getState(), stateData);
+			if (stateData.isInitial()) {
+				S existing = initials.put(stateData.getParent(), stateData.getState());
+				if (existing != null && !ObjectUtils.nullSafeEquals(existing, stateData.getState())) {
+					throw new MalformedConfigurationException("Orthogonal regions are not supported by evaluator");
+				}
+			}
+		}
+	}
+
+	private void buildTransitions(StateMachineModel<S, E> stateMachineModel) {
+		for (TransitionData<S, E> transitionData : stateMachineModel.getTransitionsData().getTransitions()) {
+			if (transitionData.getEvent() == null) {
+				continue;
+			}
+			triggeredTransitions.add(transitionData);
+			List<TransitionData<S, E>> list = transitions.get(transitionData.getSource());
+			if (list == null) {
+				list = new ArrayList<>();
+				transitions.put(transitionData.getSource(), list);
+			}
+			list.add(transitionData);
+		}
+		Map<S, List<ChoiceData<S, E>>> choices = stateMachineModel.getTransitionsData().getChoices();
+		if (choices != null) {
+			for (Entry<S, List<ChoiceData<S, E>>> entry : choices.entrySet()) {
+				List<Branch<S, E>> list = new ArrayList<>();
+				for (ChoiceData<S, E> data : entry.getValue()) {
+					list.add(new Branch<S, E>(data.getTarget(), data.getGuard(), data.getActions()));
+				}
+				branches.put(entry.getKey(), list);
+			}
+		}
+		Map<S, List<JunctionData<S, E>>> junctions = stateMachineModel.getTransitionsData().getJunctions();
+		if (junctions != null) {
+			for (Entry<S, List<JunctionData<S, E>>> entry : junctions.entrySet()) {
+				List<Branch<S, E>> list = new ArrayList<>();
+				for (JunctionData<S, E> data : entry.getValue()) {
+					list.add(new Branch<S, E>(data.getTarget(), data.getGuard(), data.getActions()));
+				}
+				branches.put(entry.getKey(), list);
+			}
+		}
+	}
+
+	/**
+	 * Gets transitions in a model which are triggered by an event, in
+	 * declaration order.
+	 *
+	 * @return the triggered transitions
+	 */
+	protected final List<TransitionData<S, E>> getTriggeredTransitions() {
+		return triggeredTransitions;
+	}
+
+	/**
+	 * Gets a triggered transition with a given index and verifies that it
+	 * has an expected source, target and event. Used by generated evaluators
+	 * to detect a model which has been changed after code was generated.
+	 *
+	 * @param index the index in triggered transitions
+	 * @param count the expected count of triggered transitions
+	 * @param source the expected source
+	 * @param target the expected target
+	 * @param event the expected event
+	 * @return the triggered transition
+	 * @see StateMachineSourceGenerator
+	 */
+	protected final TransitionData<S, E> getTriggeredTransition(int index, int count, S source, S target, E event) {
+		if (triggeredTransitions.size() != count) {
+			throw new MalformedConfigurationException("Expected " + count + " triggered transitions but model has "
+					+ triggeredTransitions.size());
+		}
+		TransitionData<S, E> transitionData = triggeredTransitions.get(index);
+		if (!ObjectUtils.nullSafeEquals(transitionData.getSource(), source)
+				|| !ObjectUtils.nullSafeEquals(transitionData.getTarget(), target)
+				|| !ObjectUtils.nullSafeEquals(transitionData.getEvent(), event)) {
+			throw new MalformedConfigurationException("Transition " + index + " doesn't match a model, expected "
+					+ source + "->" + target + " on " + event);
+		}
+		return transitionData;
+	}
+
+	/**
+	 * Gets transitions which may be taken by an event in a given leaf state
+	 * before guards are evaluated. Innermost state has a priority and then
+	 * declaration order.
+	 *
+	 * @param leaf the leaf state
+	 * @param event the event
+	 * @return the candidate transitions
+	 */
+	protected List<TransitionData<S, E>> getTransitionCandidates(S leaf, E event) {
+		List<TransitionData<S, E>> candidates = new ArrayList<>();
+		for (S state = leaf; state != null; state = getParent(state)) {
+			List<TransitionData<S, E>> list = transitions.get(state);
+			if (list != null) {
+				for (TransitionData<S, E> transitionData : list) {
+					if (ObjectUtils.nullSafeEquals(transitionData.getEvent(), event)) {
+						candidates.add(transitionData);
+					}
+				}
+			}
+		}
+		return candidates;
+	}
+
+	private Mono<TransitionData<S, E>> findTransition(Evaluation evaluation, S leaf) {
+		List<TransitionData<S, E>> candidates = getTransitionCandidates(leaf, evaluation.message.getPayload());
+		return Flux.fromIterable(candidates)
+				.concatMap(t -> {
+					if (t.getGuard() == null) {
+						return Mono.just(t);
+					}
+					return t.getGuard().apply(evaluation.stateContext(Stage.TRANSITION))
+							.defaultIfEmpty(false)
+							.filter(b -> b)
+							.map(b -> t);
+				})
+				.next();
+	}
+
+	private Mono<Void> transit(Evaluation evaluation, S source, S target, TransitionKind kind,
+			Collection<Function<StateContext<S, E>, Mono<Void>>> actions) {
+		if (kind == TransitionKind.INTERNAL) {
+			return evaluation.run(actions, Stage.TRANSITION);
+		}
+		S scope = getScope(source, target, kind);
+		return exitTo(evaluation, scope)
+				.then(evaluation.run(actions, Stage.TRANSITION))
+				.then(enter(evaluation, scope, target));
+	}
+
+	private Mono<Void> exitTo(Evaluation evaluation, S scope) {
+		return Mono.defer(() -> {
+			S leaf = evaluation.leaf;
+			if (leaf == null || ObjectUtils.nullSafeEquals(leaf, scope)) {
+				return Mono.empty();
+			}
+			return evaluation.run(states.get(leaf).getExitActions(), Stage.STATE_EXIT)
+					.then(Mono.fromRunnable(() -> {
+						evaluation.exited.add(leaf);
+						evaluation.leaf = getParent(leaf);
+					}))
+					.then(exitTo(evaluation, scope));
+		});
+	}
+
+	private Mono<Void> enter(Evaluation evaluation, S scope, S target) {
+		List<S> path = new ArrayList<>();
+		for (S state = target; state != null && !ObjectUtils.nullSafeEquals(state, scope); state = getParent(state)) {
+			path.add(0, state);
+		}
+		return Flux.fromIterable(path)
+				.concatMap(state -> {
+					PseudoStateKind kind = states.get(state).getPseudoStateKind();
+					if (kind == PseudoStateKind.CHOICE || kind == PseudoStateKind.JUNCTION) {
+						// transient, continue from a chosen branch
+						return branch(evaluation, state);
+					}
+					return enterState(evaluation, state);
+				})
+				.then(Mono.defer(() -> {
+					StateData<S, E> stateData = states.get(target);
+					PseudoStateKind kind = stateData.getPseudoStateKind();
+					if (kind == PseudoStateKind.CHOICE || kind == PseudoStateKind.JUNCTION) {
+						return Mono.empty();
+					}
+					return enterInitial(evaluation, target);
+				}));
+	}
+
+	private Mono<Void> enterState(Evaluation evaluation, S state) {
+		return evaluation.run(states.get(state).getEntryActions(), Stage.STATE_ENTRY)
+				.then(Mono.fromRunnable(() -> {
+					evaluation.entered.add(state);
+					evaluation.leaf = state;
+				}));
+	}
+
+	private Mono<Void> enterInitial(Evaluation evaluation, S parent) {
+		return Mono.defer(() -> {
+			S initial = initials.get(parent);
+			if (initial == null) {
+				return Mono.empty();
+			}
+			Action<S, E> initialAction = states.get(initial).getInitialAction();
+			Mono<Void> mono = initialAction != null
+					? evaluation.run(Collections.singletonList(Actions.from(initialAction)), Stage.TRANSITION)
+					: Mono.empty();
+			return mono
+					.then(enterState(evaluation, initial))
+					.then(enterInitial(evaluation, initial));
+		});
+	}
+
+	private Mono<Void> branch(Evaluation evaluation, S pseudoState) {
+		List<Branch<S, E>> list = branches.get(pseudoState);
+		if (list == null) {
+			return Mono.error(new IllegalStateException("No branches defined for " + pseudoState));
+		}
+		return Mono.defer(() -> {
+			StateContext<S, E> stateContext = evaluation.stateContext(Stage.TRANSITION);
+			for (Branch<S, E> branch : list) {
+				if (branch.guard == null || branch.guard.evaluate(stateContext)) {
+					return transit(evaluation, pseudoState, branch.target, TransitionKind.EXTERNAL, branch.actions);
+				}
+			}
+			return Mono.error(new IllegalStateException("No branch matched for " + pseudoState));
+		});
+	}
+
+	private S getScope(S source, S target, TransitionKind kind) {
+		if (kind == TransitionKind.LOCAL) {
+			if (isAncestor(source, target)) {
+				return source;
+			} else if (isAncestor(target, source)) {
+				return target;
+			}
+		}
+		// lowest state containing both source and target
+		S scope = getParent(source);
+		while (scope != null && !isAncestor(scope, target)) {
+			scope = getParent(scope);
+		}
+		return scope;
+	}
+
+	private boolean isAncestor(S ancestor, S state) {
+		for (S parent = getParent(state); parent != null; parent = getParent(parent)) {
+			if (ObjectUtils.nullSafeEquals(parent, ancestor)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	private S getParent(S state) {
+		StateData<S, E> stateData = states.get(state);
+		return stateData != null ? (S) stateData.getParent() : null;
+	}
+
+	private S getDeepState(StateMachineContext<S, E> context) {
+		List<StateMachineContext<S, E>> childs = context.getChilds();
+		if (childs != null && childs.size() == 1 && childs.get(0).getState() != null) {
+			return getDeepState(childs.get(0));
+		}
+		return context.getState();
+	}
+
+	/**
+	 * Keeps state of a single evaluation.
+	 */
+	private class Evaluation {
+
+		final Message<E> message;
+		final ExtendedState extendedState;
+		final List<S> exited = new ArrayList<>();
+		final List<S> entered = new ArrayList<>();
+		final List<Function<StateContext<S, E>, Mono<Void>>> actions = new ArrayList<>();
+		final boolean runActions;
+		S leaf;
+
+		Evaluation(Message<E> message, ExtendedState extendedState, boolean runActions) {
+			this.message = message;
+			this.extendedState = extendedState;
+			this.runActions = runActions;
+		}
+
+		StateContext<S, E> stateContext(Stage stage) {
+			return new DefaultStateContext<S, E>(stage, message, message != null ? message.getHeaders() : null,
+					extendedState, null, null, null, null, null);
+		}
+
+		Mono<Void> run(Collection<Function<StateContext<S, E>, Mono<Void>>> functions, Stage stage) {
+			if (!runActions || functions == null || functions.isEmpty()) {
+				return Mono.empty();
+			}
+			return Flux.fromIterable(functions)
+					.concatMap(f -> {
+						actions.add(f);
+						return f.apply(stateContext(stage));
+					})
+					.then();
+		}
+
+		StateMachineEvaluationResult<S, E> result(ResultType resultType, TransitionData<S, E> transition,
+				Map<S, S> historyStates, String id) {
+			// same layout AbstractStateMachinePersister builds for submachine states, a
+			// context per hierarchy level having the state of its submachine and a child
+			// context for it, so that a reset restores the substates
+			List<S> path = new ArrayList<>();
+			for (S state = leaf; state != null; state = getParent(state)) {
+				path.add(0, state);
+			}
+			List<StateMachineContext<S, E>> childs = new ArrayList<>();
+			for (int i = path.size() - 1; i > 0; i--) {
+				StateMachineContext<S, E> child = new DefaultStateMachineContext<S, E>(childs,
+						path.get(Math.min(i + 1, path.size() - 1)), null, null, extendedState);
+				childs = new ArrayList<>();
+				childs.add(child);
+			}
+			StateMachineContext<S, E> context = new DefaultStateMachineContext<S, E>(childs,
+					path.size() > 1 ? path.get(1) : leaf, message != null ? message.getPayload() : null,
+					message != null ? message.getHeaders() : null, extendedState, historyStates, id);
+			return new StateMachineEvaluationResult<S, E>(context, resultType, transition, exited, entered, actions);
+		}
+	}
+
+	private static class Branch<S, E> {
+
+		final S target;
+		final Guard<S, E> guard;
+		final Collection<Function<StateContext<S, E>, Mono<Void>>> actions;
+
+		Branch(S target, Guard<S, E> guard, Collection<Action<S, E>> actions) {
+			this.target = target;
+			this.guard = guard;
+			this.actions = actions != null ? Actions.from(actions) : null;
+		}
+	}
+}
@@ -0,0 +1,807 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.support;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.statemachine.ExtendedState;
+import org.springframework.statemachine.support.ExtendedStateSchema.Slot;
+import org.springframework.statemachine.support.ExtendedStateSchema.VariableType;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ExtendedState} keeping variables defined in an
+ * {@link ExtendedStateSchema} in primitive arrays. Typed variables can be
+ * accessed without boxing using a {@link Slot} or a key, while all variables,
+ * typed or not, are still available from {@link #getVariables()}. Keys not
+ * known to a schema are kept in a map similarly to a
+ * {@link DefaultExtendedState}.
+ * <p>
+ * Changes done between {@link #beginStep()} and {@link #endStep()} are
+ * coalesced and a listener is notified once per changed variable with its
+ * latest value when step ends. A state machine executor wraps each
+ * run-to-completion step this way. As root, region and submachine executors
+ * share an extended state, and parallel regions may execute concurrently,
+ * primitive slots and step bookkeeping are guarded by the same lock, making
+ * increments atomic, while listeners are notified outside of it.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class TypedExtendedState implements ExtendedState {
+
+	private final ExtendedStateSchema schema;
+	private final int[] ints;
+	private final long[] longs;
+	private final double[] doubles;
+	private final boolean[] booleans;
+	private final boolean[] present;
+	private final boolean[] dirty;
+	private final Map<Object, Object> untyped = new ConcurrentHashMap<Object, Object>();
+	private final Map<Object, Object> pending = new LinkedHashMap<Object, Object>();
+	private final Map<Object, Object> variables = new Variables();
+	private final Object stepLock = new Object();
+	private volatile ExtendedStateChangeListener listener;
+	private int stepDepth;
+	private boolean changes;
+
+	/**
+	 * Instantiates a new typed extended state.
+	 *
+	 * @param schema the extended state schema
+	 */
+	public TypedExtendedState(ExtendedStateSchema schema) {
+		Assert.notNull(schema, "Extended state schema must be set");
+		this.schema = schema;
+		this.ints = new int[schema.getCount(VariableType.INT)];
+		this.longs = new long[schema.getCount(VariableType.LONG)];
+		this.doubles = new double[schema.getCount(VariableType.DOUBLE)];
+		this.booleans = new boolean[schema.getCount(VariableType.BOOLEAN)];
+		this.present = new boolean[schema.getSlots().size()];
+		this.dirty = new boolean[schema.getSlots().size()];
+	}
+
+	@Override
+	public Map<Object, Object> getVariables() {
+		return variables;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T get(Object key, Class<T> type) {
+		Object value = variables.get(key);
+		if (value == null) {
+			return null;
+		}
+		if (!type.isAssignableFrom(value.getClass())) {
+			throw new IllegalArgumentException("Incorrect type specified for variable '" +
+					key + "'. Expected [" + type + "] but actual type is [" + value.getClass() + "]");
+		}
+		return (T) value;
+	}
+
+	@Override
+	public void setExtendedStateChangeListener(ExtendedStateChangeListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Gets the extended state schema.
+	 *
+	 * @return the extended state schema
+	 */
+	public ExtendedStateSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Checks if a typed variable has a value.
+	 *
+	 * @param slot the slot
+	 * @return true, if variable has a value
+	 */
+	public boolean isSet(Slot slot) {
+		synchronized (stepLock) {
+			return present[slot.getIndex()];
+		}
+	}
+
+	/**
+	 * Gets an {@code int} variable.
+	 *
+	 * @param key the variable key
+	 * @return the value
+	 */
+	public int getInt(Object key) {
+		return getInt(slot(key, VariableType.INT));
+	}
+
+	/**
+	 * Gets an {@code int} variable.
+	 *
+	 * @param slot the slot
+	 * @return the value
+	 */
+	public int getInt(Slot slot) {
+		checkType(slot, VariableType.INT);
+		synchronized (stepLock) {
+			return ints[slot.getTypeIndex()];
+		}
+	}
+
+	/**
+	 * Sets an {@code int} variable.
+	 *
+	 * @param key the variable key
+	 * @param value the value
+	 */
+	public void setInt(Object key, int value) {
+		setInt(slot(key, VariableType.INT), value);
+	}
+
+	/**
+	 * Sets an {@code int} variable.
+	 *
+	 * @param slot the slot
+	 * @param value the value
+	 */
+	public void setInt(Slot slot, int value) {
+		checkType(slot, VariableType.INT);
+		boolean notify;
+		synchronized (stepLock) {
+			notify = writeInt(slot, value);
+		}
+		if (notify) {
+			notifyChanged(slot.getKey(), value);
+		}
+	}
+
+	/**
+	 * Increments an {@code int} variable.
+	 *
+	 * @param key the variable key
+	 * @param delta the delta
+	 * @return the new value
+	 */
+	public int incrementInt(Object key, int delta) {
+		return incrementInt(slot(key, VariableType.INT), delta);
+	}
+
+	/**
+	 * Increments an {@code int} variable.
+	 *
+	 * @param slot the slot
+	 * @param delta the delta
+	 * @return the new value
+	 */
+	public int incrementInt(Slot slot, int delta) {
+		checkType(slot, VariableType.INT);
+		int value;
+		boolean notify;
+		synchronized (stepLock) {
+			value = ints[slot.getTypeIndex()] + delta;
+			notify = writeInt(slot, value);
+		}
+		if (notify) {
+			notifyChanged(slot.getKey(), value);
+		}
+		return value;
+	}
+
+	/**
+	 * Gets a {@code long} variable.
+	 *
+	 * @param key the variable key
+	 * @return the value
+	 */
+	public long getLong(Object key) {
+		return getLong(slot(key, VariableType.LONG));
+	}
+
+	/**
+	 * Gets a {@code long} variable.
+	 *
+	 * @param slot the slot
+	 * @return the value
+	 */
+	public long getLong(Slot slot) {
+		checkType(slot, VariableType.LONG);
+		synchronized (stepLock) {
+			return longs[slot.getTypeIndex()];
+		}
+	}
+
+	/**
+	 * Sets a {@code long} variable.
+	 *
+	 * @param key the variable key
+	 * @param value the value
+	 */
+	public void setLong(Object key, long value) {
+		setLong(slot(key, VariableType.LONG), value);
+	}
+
+	/**
+	 * Sets a {@code long} variable.
+	 *
+	 * @param slot the slot
+	 * @param value the value
+	 */
+	public void setLong(Slot slot, long value) {
+		checkType(slot, VariableType.LONG);
+		boolean notify;
+		synchronized (stepLock) {
+			notify = writeLong(slot, value);
+		}
+		if (notify) {
+			notifyChanged(slot.getKey(), value);
+		}
+	}
+
+	/**
+	 * Increments a {@code long} variable.
+	 *
+	 * @param key the variable key
+	 * @param delta the delta
+	 * @return the new value
+	 */
+	public long incrementLong(Object key, long delta) {
+		return incrementLong(slot(key, VariableType.LONG), delta);
+	}
+
+	/**
+	 * Increments a {@code long} variable.
+	 *
+	 * @param slot the slot
+	 * @param delta the delta
+	 * @return the new value
+	 */
+	public long incrementLong(Slot slot, long delta) {
+		checkType(slot, VariableType.LONG);
+		long value;
+		boolean notify;
+		synchronized (stepLock) {
+			value = longs[slot.getTypeIndex()] + delta;
+			notify = writeLong(slot, value);
+		}
+		if (notify) {
+			notifyChanged(slot.getKey(), value);
+		}
+		return value;
+	}
+
+	/**
+	 * Gets a {@code double} variable.
+	 *
+	 * @param key the variable key
+	 * @return the value
+	 */
+	public double getDouble(Object key) {
+		return getDouble(slot(key, VariableType.DOUBLE));
+	}
+
+	/**
+	 * Gets a {@code double} variable.
+	 *
+	 * @param slot the slot
+	 * @return the value
+	 */
+	public double getDouble(Slot slot) {
+		checkType(slot, VariableType.DOUBLE);
+		synchronized (stepLock) {
+			return doubles[slot.getTypeIndex()];
+		}
+	}
+
+	/**
+	 * Sets a {@code double} variable.
+	 *
+	 * @param key the variable key
+	 * @param value the value
+	 */
+	public void setDouble(Object key, double value) {
+		setDouble(slot(key, VariableType.DOUBLE), value);
+	}
+
+	/**
+	 * Sets a {@code double} variable.
+	 *
+	 * @param slot the slot
+	 * @param value the value
+	 */
+	public void setDouble(Slot slot, double value) {
+		checkType(slot, VariableType.DOUBLE);
+		boolean notify;
+		synchronized (stepLock) {
+			notify = writeDouble(slot, value);
+		}
+		if (notify) {
+			notifyChanged(slot.getKey(), value);
+		}
+	}
+
+	/**
+	 * Gets a {@code boolean} variable.
+	 *
+	 * @param key the variable key
+	 * @return the value
+	 */
+	public boolean getBoolean(Object key) {
+		return getBoolean(slot(key, VariableType.BOOLEAN));
+	}
+
+	/**
+	 * Gets a {@code boolean} variable.
+	 *
+	 * @param slot the slot
+	 * @return the value
+	 */
+	public boolean getBoolean(Slot slot) {
+		checkType(slot, VariableType.BOOLEAN);
+		synchronized (stepLock) {
+			return booleans[slot.getTypeIndex()];
+		}
+	}
+
+	/**
+	 * Sets a {@code boolean} variable.
+	 *
+	 * @param key the variable key
+	 * @param value the value
+	 */
+	public void setBoolean(Object key, boolean value) {
+		setBoolean(slot(key, VariableType.BOOLEAN), value);
+	}
+
+	/**
+	 * Sets a {@code boolean} variable.
+	 *
+	 * @param slot the slot
+	 * @param value the value
+	 */
+	public void setBoolean(Slot slot, boolean value) {
+		checkType(slot, VariableType.BOOLEAN);
+		boolean notify;
+		synchronized (stepLock) {
+			notify = writeBoolean(slot, value);
+		}
+		if (notify) {
+			notifyChanged(slot.getKey(), value);
+		}
+	}
+
+	/**
+	 * Begins a step where changes are coalesced. Steps can be nested and
+	 * changes are notified when outermost step ends.
+	 */
+	public void beginStep() {
+		synchronized (stepLock) {
+			stepDepth++;
+		}
+	}
+
+	/**
+	 * Ends a step and notifies coalesced changes if outermost step ended.
+	 */
+	public void endStep() {
+		List<Entry<Object, Object>> entries;
+		synchronized (stepLock) {
+			if (stepDepth == 0 || --stepDepth > 0 || !changes) {
+				return;
+			}
+			changes = false;
+			entries = new ArrayList<Entry<Object, Object>>();
+			for (Slot slot : schema.getSlots()) {
+				if (dirty[slot.getIndex()]) {
+					dirty[slot.getIndex()] = false;
+					entries.add(new AbstractMap.SimpleImmutableEntry<Object, Object>(slot.getKey(), getValue(slot)));
+				}
+			}
+			entries.addAll(pending.entrySet());
+			pending.clear();
+		}
+		ExtendedStateChangeListener l = listener;
+		if (l != null) {
+			for (Entry<Object, Object> entry : entries) {
+				l.changed(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return variables.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		return variables.equals(((TypedExtendedState) obj).variables);
+	}
+
+	@Override
+	public String toString() {
+		return "TypedExtendedState [variables=" + variables + "]";
+	}
+
+	private Slot slot(Object key, VariableType type) {
+		Slot slot = schema.getSlot(key);
+		if (slot == null || slot.getType() != type) {
+			throw new IllegalArgumentException("Variable '" + key + "' is not a typed " + type + " variable");
+		}
+		return slot;
+	}
+
+	private static void checkType(Slot slot, VariableType type) {
+		if (slot.getType() != type) {
+			throw new IllegalArgumentException("Variable '" + slot.getKey() + "' is not a typed " + type + " variable");
+		}
+	}
+
+	// write helpers are called holding a step lock and tell if a listener
+	// needs to be notified right away as no step is in progress
+	private boolean writeInt(Slot slot, int value) {
+		int i = slot.getTypeIndex();
+		if (present[slot.getIndex()] && !(ints[i] != value)) {
+			return false;
+		}
+		ints[i] = value;
+		present[slot.getIndex()] = true;
+		return slotChanged(slot);
+	}
+
+	private boolean writeLong(Slot slot, long value) {
+		int i = slot.getTypeIndex();
+		if (present[slot.getIndex()] && !(longs[i] != value)) {
+			return false;
+		}
+		longs[i] = value;
+		present[slot.getIndex()] = true;
+		return slotChanged(slot);
+	}
+
+	private boolean writeDouble(Slot slot, double value) {
+		int i = slot.getTypeIndex();
+		if (present[slot.getIndex()] && !(Double.compare(doubles[i], value) != 0)) {
+			return false;
+		}
+		doubles[i] = value;
+		present[slot.getIndex()] = true;
+		return slotChanged(slot);
+	}
+
+	private boolean writeBoolean(Slot slot, boolean value) {
+		int i = slot.getTypeIndex();
+		if (present[slot.getIndex()] && !(booleans[i] != value)) {
+			return false;
+		}
+		booleans[i] = value;
+		present[slot.getIndex()] = true;
+		return slotChanged(slot);
+	}
+
+	private boolean slotChanged(Slot slot) {
+		if (stepDepth > 0) {
+			dirty[slot.getIndex()] = true;
+			changes = true;
+			return false;
+		}
+		return true;
+	}
+
+	private void notifyChanged(Object key, Object value) {
+		ExtendedStateChangeListener l = listener;
+		if (l != null) {
+			l.changed(key, value);
+		}
+	}
+
+	private void untypedChanged(Object key, Object value) {
+		synchronized (stepLock) {
+			if (stepDepth > 0) {
+				pending.put(key, value);
+				changes = true;
+				return;
+			}
+		}
+		notifyChanged(key, value);
+	}
+
+	private Object getValue(Slot slot) {
+		synchronized (stepLock) {
+			if (!present[slot.getIndex()]) {
+				return null;
+			}
+			int i = slot.getTypeIndex();
+			switch (slot.getType()) {
+			case INT:
+				return ints[i];
+			case LONG:
+				return longs[i];
+			case DOUBLE:
+				return doubles[i];
+			default:
+				return booleans[i];
+			}
+		}
+	}
+
+	private Object setValue(Slot slot, Object value, boolean notify) {
+		if (value == null) {
+			throw new NullPointerException("Variable '" + slot.getKey() + "' cannot be null");
+		}
+		if (slot.getType() == VariableType.BOOLEAN ? !(value instanceof Boolean) : !(value instanceof Number)) {
+			throw incorrectType(slot, value);
+		}
+		Object old;
+		Object current = null;
+		synchronized (stepLock) {
+			old = getValue(slot);
+			int i = slot.getTypeIndex();
+			boolean changed = !present[slot.getIndex()];
+			if (slot.getType() == VariableType.BOOLEAN) {
+				changed |= booleans[i] != (Boolean) value;
+				booleans[i] = (Boolean) value;
+			} else {
+				Number number = (Number) value;
+				if (slot.getType() == VariableType.INT) {
+					changed |= ints[i] != number.intValue();
+					ints[i] = number.intValue();
+				} else if (slot.getType() == VariableType.LONG) {
+					changed |= longs[i] != number.longValue();
+					longs[i] = number.longValue();
+				} else {
+					changed |= Double.compare(doubles[i], number.doubleValue()) != 0;
+					doubles[i] = number.doubleValue();
+				}
+			}
+			present[slot.getIndex()] = true;
+			if (notify && changed && slotChanged(slot)) {
+				current = getValue(slot);
+			}
+		}
+		if (current != null) {
+			notifyChanged(slot.getKey(), current);
+		}
+		return old;
+	}
+
+	private static IllegalArgumentException incorrectType(Slot slot, Object value) {
+		return new IllegalArgumentException("Incorrect type for variable '" + slot.getKey() + "'. Expected ["
+				+ slot.getType().getBoxedType() + "] but actual type is [" + value.getClass() + "]");
+	}
+
+	/**
+	 * Map view over typed slots and untyped variables. Similarly to an
+	 * {@link ObservableMap} only put and remove notify changes.
+	 */
+	private class Variables extends AbstractMap<Object, Object> {
+
+		@Override
+		public Object get(Object key) {
+			Slot slot = schema.getSlot(key);
+			return slot != null ? getValue(slot) : untyped.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			Slot slot = schema.getSlot(key);
+			return slot != null ? isSet(slot) : untyped.containsKey(key);
+		}
+
+		@Override
+		public Object put(Object key, Object value) {
+			Slot slot = schema.getSlot(key);
+			if (slot != null) {
+				return setValue(slot, value, true);
+			}
+			Object old = untyped.put(key, value);
+			if (old == null || !value.equals(old)) {
+				untypedChanged(key, value);
+			}
+			return old;
+		}
+
+		@Override
+		public void putAll(Map<? extends Object, ? extends Object> m) {
+			for (Entry<? extends Object, ? extends Object> entry : m.entrySet()) {
+				Slot slot = schema.getSlot(entry.getKey());
+				if (slot != null) {
+					setValue(slot, entry.getValue(), false);
+				} else {
+					untyped.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+
+		@Override
+		public Object remove(Object key) {
+			Slot slot = schema.getSlot(key);
+			if (slot != null) {
+				Object old;
+				boolean notify = false;
+				synchronized (stepLock) {
+					old = getValue(slot);
+					if (old != null) {
+						present[slot.getIndex()] = false;
+						notify = slotChanged(slot);
+					}
+				}
+				if (notify) {
+					notifyChanged(slot.getKey(), null);
+				}
+				return old;
+			}
+			Object old = untyped.remove(key);
+			if (old != null) {
+				untypedChanged(key, old);
+			}
+			return old;
+		}
+
+		@Override
+		public void clear() {
+			synchronized (stepLock) {
+				for (int i = 0; i < present.length; i++) {
+					present[i] = false;
+				}
+			}
+			untyped.clear();
+		}
+
+		@Override
+		public int size() {
+			int size = untyped.size();
+			synchronized (stepLock) {
+				for (boolean p : present) {
+					if (p) {
+						size++;
+					}
+				}
+			}
+			return size;
+		}
+
+		@Override
+		public Set<Entry<Object, Object>> entrySet() {
+			return new AbstractSet<Entry<Object, Object>>() {
+
+				@Override
+				public Iterator<Entry<Object, Object>> iterator() {
+					return new VariablesIterator();
+				}
+
+				@Override
+				public int size() {
+					return Variables.this.size();
+				}
+			};
+		}
+	}
+
+	/**
+	 * Iterates set typed slots in schema order followed by untyped variables.
+	 */
+	private class VariablesIterator implements Iterator<Entry<Object, Object>> {
+
+		private final List<Slot> slots = schema.getSlots();
+		private final Iterator<Entry<Object, Object>> untypedIterator = untyped.entrySet().iterator();
+		private int next = -1;
+		private Object lastKey;
+
+		VariablesIterator() {
+			advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < slots.size() || untypedIterator.hasNext();
+		}
+
+		@Override
+		public Entry<Object, Object> next() {
+			if (next < slots.size()) {
+				Slot slot = slots.get(next);
+				advance();
+				lastKey = slot.getKey();
+				return new SlotEntry(slot);
+			}
+			if (!untypedIterator.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Entry<Object, Object> entry = untypedIterator.next();
+			lastKey = entry.getKey();
+			return entry;
+		}
+
+		@Override
+		public void remove() {
+			if (lastKey == null) {
+				throw new IllegalStateException();
+			}
+			variables.remove(lastKey);
+			lastKey = null;
+		}
+
+		private void advance() {
+			next++;
+			while (next < slots.size() && !isSet(slots.get(next))) {
+				next++;
+			}
+		}
+	}
+
+	private class SlotEntry implements Entry<Object, Object> {
+
+		private final Slot slot;
+
+		SlotEntry(Slot slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		public Object getKey() {
+			return slot.getKey();
+		}
+
+		@Override
+		public Object getValue() {
+			return TypedExtendedState.this.getValue(slot);
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			return TypedExtendedState.this.setValue(slot, value, true);
+		}
+
+		@Override
+		public int hashCode() {
+			Object value = getValue();
+			return slot.getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> other = (Entry<?, ?>) obj;
+			Object value = getValue();
+			return slot.getKey().equals(other.getKey())
+					&& (value == null ? other.getValue() == null : value.equals(other.getValue()));
+		}
+
+		@Override
+		public String toString() {
+			return slot.getKey() + "=" + getValue();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2020 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,12 +33,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachineEventResult.ResultType;
 import org.springframework.statemachine.config.EnableStateMachine;
 import org.springframework.statemachine.config.StateMachineConfigurerAdapter;
+import org.springframework.statemachine.config.builders.StateMachineConfigurationConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
 import org.springframework.statemachine.listener.StateMachineListenerAdapter;
 import org.springframework.statemachine.state.State;
+import org.springframework.statemachine.support.DeferredEventOverflowPolicy;
+
+import reactor.core.publisher.Mono;
 
 public class EventDeferTests extends AbstractStateMachineTests {
 
@@ -290,6 +296,28 @@ public class EventDeferTests extends AbstractStateMachineTests {
 		assertThat(machine.getState().getIds()).containsOnly("S2");
 	}
 
+	@Test
+	public void testDeferCapacityDenied() throws Exception {
+		context.register(Config6.class);
+		context.refresh();
+		StateMachine<String, String> machine = resolveMachine(context);
+		doStartAndAssert(machine);
+
+		StateMachineEventResult<String, String> result = machine
+				.sendEvent(Mono.just(MessageBuilder.withPayload("E2").build())).blockLast();
+		assertThat(result.getResultType()).isEqualTo(ResultType.DEFERRED);
+		result = machine.sendEvent(Mono.just(MessageBuilder.withPayload("E2").build())).blockLast();
+		assertThat(result.getResultType()).isEqualTo(ResultType.DENIED);
+
+		Object executor = TestUtils.readField("stateMachineExecutor", machine);
+		Collection<?> readField = TestUtils.readField("deferList", executor);
+		assertThat(readField).hasSize(1);
+
+		doSendEventAndConsumeAll(machine, "E1");
+		assertThat(machine.getState().getIds()).containsOnly("S1");
+		assertThat(readField).isEmpty();
+	}
+
 	@Configuration
 	@EnableStateMachine
 	static class Config1 extends StateMachineConfigurerAdapter<String, String> {
@@ -544,6 +572,18 @@ public class EventDeferTests extends AbstractStateMachineTests {
 		}
 	}
 
+	@Configuration
+	@EnableStateMachine
+	static class Config6 extends Config5 {
+
+		@Override
+		public void configure(StateMachineConfigurationConfigurer<String, String> config) throws Exception {
+			config
+				.withConfiguration()
+					.deferredEventCapacity(1, DeferredEventOverflowPolicy.DENY);
+		}
+	}
+
 	static class TestListener extends StateMachineListenerAdapter<String, String> {
 
 		volatile CountDownLatch stateChangedLatch = new CountDownLatch(1);
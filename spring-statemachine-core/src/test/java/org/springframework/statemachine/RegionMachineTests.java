@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2020 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -29,6 +31,7 @@ import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.statemachine.action.Action;
 import org.springframework.statemachine.action.Actions;
 import org.springframework.statemachine.config.EnableStateMachine;
 import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter;
@@ -49,6 +52,8 @@ import org.springframework.statemachine.transition.Transition;
 import org.springframework.statemachine.trigger.EventTrigger;
 
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Statemachine tests using regions.
@@ -347,6 +352,33 @@ public class RegionMachineTests extends AbstractStateMachineTests {
 		assertThat(Math.abs(action1.now-action2.now)).isLessThan(1999l);
 	}
 
+	@Test
+	public void testParallelRegionExecutionWithScheduler() throws Exception {
+		context.register(Config5.class);
+		context.refresh();
+		@SuppressWarnings("unchecked")
+		ObjectStateMachine<TestStates,TestEvents> machine =
+				context.getBean(StateMachineSystemConstants.DEFAULT_ID_STATEMACHINE, ObjectStateMachine.class);
+		Config5 config = context.getBean(Config5.class);
+		TestStateMachineListener listener = context.getBean(TestStateMachineListener.class);
+		machine.addStateListener(listener);
+		machine.start();
+		assertThat(listener.stateMachineStartedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(machine.getState().getIds()).containsOnly(TestStates.S10, TestStates.S20);
+
+		// region entry actions were executed on a configured scheduler
+		assertThat(config.threads).hasSize(2);
+		assertThat(config.threads).allMatch(name -> name.startsWith("regions"));
+
+		listener.reset(2, 0);
+		machine.sendEvent(TestEvents.E1);
+		assertThat(listener.stateChangedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(machine.getState().getIds()).containsOnly(TestStates.S11, TestStates.S21);
+		assertThat(config.threads).hasSize(4);
+		assertThat(config.threads).allMatch(name -> name.startsWith("regions"));
+		config.scheduler.dispose();
+	}
+
 	@Configuration
 	@EnableStateMachine
 	static class Config1 extends EnumStateMachineConfigurerAdapter<TestStates, TestEvents> {
@@ -560,4 +592,57 @@ public class RegionMachineTests extends AbstractStateMachineTests {
 
 	}
 
+	@Configuration
+	@EnableStateMachine
+	static class Config5 extends EnumStateMachineConfigurerAdapter<TestStates, TestEvents> {
+
+		final Scheduler scheduler = Schedulers.newParallel("regions", 2);
+		final List<String> threads = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void configure(StateMachineConfigurationConfigurer<TestStates, TestEvents> config) throws Exception {
+			config
+				.withConfiguration()
+					.regionExecutionPolicy(RegionExecutionPolicy.PARALLEL)
+					.regionExecutionScheduler(scheduler);
+		}
+
+		@Override
+		public void configure(StateMachineStateConfigurer<TestStates, TestEvents> states) throws Exception {
+			states
+				.withStates()
+					.initial(TestStates.S10)
+					.state(TestStates.S10, threadAction(), null)
+					.state(TestStates.S11, threadAction(), null)
+					.and()
+				.withStates()
+					.initial(TestStates.S20)
+					.state(TestStates.S20, threadAction(), null)
+					.state(TestStates.S21, threadAction(), null);
+		}
+
+		@Override
+		public void configure(StateMachineTransitionConfigurer<TestStates, TestEvents> transitions) throws Exception {
+			transitions
+				.withExternal()
+					.source(TestStates.S10)
+					.target(TestStates.S11)
+					.event(TestEvents.E1)
+					.and()
+				.withExternal()
+					.source(TestStates.S20)
+					.target(TestStates.S21)
+					.event(TestEvents.E1);
+		}
+
+		@Bean
+		public TestStateMachineListener testStateMachineListener() {
+			return new TestStateMachineListener();
+		}
+
+		private Action<TestStates, TestEvents> threadAction() {
+			return context -> threads.add(Thread.currentThread().getName());
+		}
+	}
+
 }
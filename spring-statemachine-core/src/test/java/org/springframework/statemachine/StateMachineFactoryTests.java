@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2020 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import static org.springframework.statemachine.TestUtils.resolveFactory;
 import java.util.EnumSet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.context.SmartLifecycle;
@@ -35,6 +36,8 @@ import org.springframework.statemachine.config.builders.StateMachineConfigBuilde
 import org.springframework.statemachine.config.builders.StateMachineConfigurationConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
+import org.springframework.statemachine.config.model.StateMachineModel;
+import org.springframework.statemachine.config.model.verifier.DefaultStateMachineModelVerifier;
 import org.springframework.statemachine.listener.StateMachineListenerAdapter;
 import org.springframework.statemachine.state.State;
 
@@ -146,6 +149,18 @@ public class StateMachineFactoryTests extends AbstractStateMachineTests {
 		assertThat(machine.getState().getIds()).containsExactly(TestStates.S2);
 	}
 
+	@Test
+	public void testModelVerifiedOnce() {
+		context.register(Config7.class);
+		context.refresh();
+
+		StateMachineFactory<TestStates, TestEvents> stateMachineFactory = resolveFactory(context);
+		stateMachineFactory.getStateMachine();
+		stateMachineFactory.getStateMachine();
+		stateMachineFactory.getStateMachine("machine3");
+		assertThat(Config7.verifier.count.get()).isEqualTo(1);
+	}
+
 	@Configuration
 	@EnableStateMachineFactory
 	static class Config1 extends EnumStateMachineConfigurerAdapter<TestStates, TestEvents> {
@@ -307,6 +322,48 @@ public class StateMachineFactoryTests extends AbstractStateMachineTests {
 		}
 	}
 
+	@Configuration
+	@EnableStateMachineFactory
+	static class Config7 extends EnumStateMachineConfigurerAdapter<TestStates, TestEvents> {
+
+		static final CountingVerifier verifier = new CountingVerifier();
+
+		@Override
+		public void configure(StateMachineConfigurationConfigurer<TestStates, TestEvents> config) throws Exception {
+			config
+				.withVerifier()
+					.verifier(verifier);
+		}
+
+		@Override
+		public void configure(StateMachineStateConfigurer<TestStates, TestEvents> states) throws Exception {
+			states
+				.withStates()
+					.initial(TestStates.S1)
+					.state(TestStates.S2);
+		}
+
+		@Override
+		public void configure(StateMachineTransitionConfigurer<TestStates, TestEvents> transitions) throws Exception {
+			transitions
+				.withExternal()
+					.source(TestStates.S1)
+					.target(TestStates.S2)
+					.event(TestEvents.E1);
+		}
+	}
+
+	static class CountingVerifier extends DefaultStateMachineModelVerifier<TestStates, TestEvents> {
+
+		final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public void verify(StateMachineModel<TestStates, TestEvents> model) {
+			count.incrementAndGet();
+			super.verify(model);
+		}
+	}
+
 	static class TestStateMachineListener extends StateMachineListenerAdapter<TestStates, TestEvents> {
 
 		CountDownLatch latch = new CountDownLatch(1);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2020 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,7 +20,9 @@ import static org.springframework.statemachine.TestUtils.doSendEventAndConsumeAl
 import static org.springframework.statemachine.TestUtils.doStartAndAssert;
 import static org.springframework.statemachine.TestUtils.resolveMachine;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
@@ -29,6 +31,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.statemachine.AbstractStateMachineTests;
+import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.StateMachineMessageHeaders;
 import org.springframework.statemachine.config.EnableStateMachine;
@@ -36,6 +39,9 @@ import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter
 import org.springframework.statemachine.config.builders.StateMachineConfigurationConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
+import org.springframework.statemachine.monitor.AbstractStateMachineMonitor;
+
+import reactor.core.publisher.Mono;
 
 public class StateDoActivityActionTests extends AbstractStateMachineTests {
 
@@ -306,6 +312,25 @@ public class StateDoActivityActionTests extends AbstractStateMachineTests {
 		assertThat(testActionS2.interruptedLatch.await(2, TimeUnit.SECONDS)).isFalse();
 	}
 
+	@Test
+	public void testStateDoActionCancelledAsyncWithConfigTimeout() throws Exception {
+		context.register(Config7.class);
+		context.refresh();
+		TestSleepAction testActionS2 = context.getBean("testActionS2", TestSleepAction.class);
+		TestCancelMonitor monitor = context.getBean(TestCancelMonitor.class);
+		StateMachine<TestStates, TestEvents> machine = resolveMachine(context);
+		doStartAndAssert(machine);
+
+		doSendEventAndConsumeAll(machine, TestEvents.E1);
+		assertThat(testActionS2.onExecuteStartLatch.await(2, TimeUnit.SECONDS)).isTrue();
+		long now = System.currentTimeMillis();
+		doSendEventAndConsumeAll(machine, TestEvents.E2);
+		assertThat(System.currentTimeMillis() - now).isLessThan(1000);
+		assertThat(machine.getState().getIds()).containsOnly(TestStates.S3);
+		assertThat(testActionS2.interruptedLatch.await(4, TimeUnit.SECONDS)).isTrue();
+		assertThat(monitor.cancelledLatch.await(2, TimeUnit.SECONDS)).isTrue();
+	}
+
 	@Configuration
 	@EnableStateMachine
 	static class Config4 extends EnumStateMachineConfigurerAdapter<TestStates, TestEvents> {
@@ -427,6 +452,66 @@ public class StateDoActivityActionTests extends AbstractStateMachineTests {
 		}
 	}
 
+	@Configuration
+	@EnableStateMachine
+	static class Config7 extends EnumStateMachineConfigurerAdapter<TestStates, TestEvents> {
+
+		@Override
+		public void configure(StateMachineConfigurationConfigurer<TestStates, TestEvents> config) throws Exception {
+			config
+				.withConfiguration()
+					.stateDoActionPolicy(StateDoActionPolicy.TIMEOUT_CANCEL_ASYNC)
+					.stateDoActionPolicyTimeout(2, TimeUnit.SECONDS)
+					.and()
+				.withMonitoring()
+					.monitor(testCancelMonitor());
+		}
+
+		@Override
+		public void configure(StateMachineStateConfigurer<TestStates, TestEvents> states) throws Exception {
+			states
+				.withStates()
+					.initial(TestStates.S1)
+					.state(TestStates.S2, testActionS2())
+					.state(TestStates.S3);
+		}
+
+		@Override
+		public void configure(StateMachineTransitionConfigurer<TestStates, TestEvents> transitions) throws Exception {
+			transitions
+				.withExternal()
+					.source(TestStates.S1)
+					.target(TestStates.S2)
+					.event(TestEvents.E1)
+					.and()
+				.withExternal()
+					.source(TestStates.S2)
+					.target(TestStates.S3)
+					.event(TestEvents.E2);
+		}
+
+		@Bean
+		public TestSleepAction testActionS2() {
+			return new TestSleepAction(10000);
+		}
+
+		@Bean
+		public TestCancelMonitor testCancelMonitor() {
+			return new TestCancelMonitor();
+		}
+	}
+
+	static class TestCancelMonitor extends AbstractStateMachineMonitor<TestStates, TestEvents> {
+
+		final CountDownLatch cancelledLatch = new CountDownLatch(1);
+
+		@Override
+		public void actionCancelled(StateMachine<TestStates, TestEvents> stateMachine,
+				Function<StateContext<TestStates, TestEvents>, Mono<Void>> action, long duration) {
+			cancelledLatch.countDown();
+		}
+	}
+
 	@Override
 	protected AnnotationConfigApplicationContext buildContext() {
 		return new AnnotationConfigApplicationContext();
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.ensemble;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.statemachine.AbstractStateMachineTests;
+import org.springframework.statemachine.StateMachine;
+
+public class LocalStateMachineEnsembleTests extends AbstractStateMachineTests {
+
+	@Override
+	protected AnnotationConfigApplicationContext buildContext() {
+		return new AnnotationConfigApplicationContext();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testMachinesShareState() {
+		context.register(DistributedStateMachineTests.Config1.class, DistributedStateMachineTests.Config2.class);
+		context.refresh();
+		StateMachine<String, String> machine1 = context.getBean("sm1", StateMachine.class);
+		StateMachine<String, String> machine2 = context.getBean("sm2", StateMachine.class);
+
+		LocalStateMachineEnsemble<String, String> ensemble = new LocalStateMachineEnsemble<String, String>();
+		DistributedStateMachine<String, String> machine1s = new DistributedStateMachine<String, String>(ensemble, machine1);
+		DistributedStateMachine<String, String> machine2s = new DistributedStateMachine<String, String>(ensemble, machine2);
+		machine1s.afterPropertiesSet();
+		machine2s.afterPropertiesSet();
+		machine1s.start();
+		machine2s.start();
+
+		assertThat(ensemble.getLeader()).isSameAs(machine1s);
+
+		machine1s.sendEvent("E1");
+		assertThat(machine1.getState().getIds()).containsOnly("S1");
+		assertThat(machine2.getState().getIds()).containsOnly("S1");
+		assertThat(ensemble.getState().getState()).isEqualTo("S1");
+
+		machine2s.stop();
+		machine1s.stop();
+		assertThat(ensemble.getLeader()).isNull();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testLeaderMovesOnLeave() {
+		context.register(DistributedStateMachineTests.Config1.class, DistributedStateMachineTests.Config2.class);
+		context.refresh();
+		StateMachine<String, String> machine1 = context.getBean("sm1", StateMachine.class);
+		StateMachine<String, String> machine2 = context.getBean("sm2", StateMachine.class);
+
+		LocalStateMachineEnsemble<String, String> ensemble = new LocalStateMachineEnsemble<String, String>();
+		ensemble.join(machine1);
+		ensemble.join(machine2);
+		assertThat(ensemble.getLeader()).isSameAs(machine1);
+
+		ensemble.leave(machine1);
+		assertThat(ensemble.getLeader()).isSameAs(machine2);
+	}
+}
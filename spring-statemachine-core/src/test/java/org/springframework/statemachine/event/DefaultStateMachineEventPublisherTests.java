@@ -0,0 +1,191 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link DefaultStateMachineEventPublisher}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class DefaultStateMachineEventPublisherTests {
+
+	@Test
+	public void testSyncPublishing() {
+		List<Object> events = new CopyOnWriteArrayList<>();
+		List<Thread> threads = new CopyOnWriteArrayList<>();
+		DefaultStateMachineEventPublisher publisher = new DefaultStateMachineEventPublisher(event -> {
+			events.add(event);
+			threads.add(Thread.currentThread());
+		});
+		publisher.publishExtendedStateChanged(this, "key", "value");
+		assertThat(events).hasSize(1);
+		assertThat(threads).containsExactly(Thread.currentThread());
+	}
+
+	@Test
+	public void testEventTypes() {
+		List<Object> events = new CopyOnWriteArrayList<>();
+		DefaultStateMachineEventPublisher publisher = new DefaultStateMachineEventPublisher(event -> events.add(event));
+		publisher.setEventTypes(OnExtendedStateChanged.class);
+		publisher.publishStateEntered(this, null);
+		publisher.publishExtendedStateChanged(this, "key", "value");
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0)).isInstanceOf(OnExtendedStateChanged.class);
+
+		publisher.setEventTypes();
+		publisher.publishStateEntered(this, null);
+		assertThat(events).hasSize(2);
+	}
+
+	@Test
+	public void testAsyncPublishing() throws Exception {
+		List<Object> events = new CopyOnWriteArrayList<>();
+		List<Thread> threads = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(10);
+		DefaultStateMachineEventPublisher publisher = new DefaultStateMachineEventPublisher(event -> {
+			events.add(event);
+			threads.add(Thread.currentThread());
+			latch.countDown();
+		});
+		publisher.setAsyncPublishing(100, 4, EventPublishingOverflowPolicy.BLOCK);
+		for (int i = 0; i < 10; i++) {
+			publisher.publishExtendedStateChanged(this, "key", i);
+		}
+		assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(events).hasSize(10);
+		for (int i = 0; i < 10; i++) {
+			assertThat(((OnExtendedStateChanged) events.get(i)).getValue()).isEqualTo(i);
+		}
+		assertThat(threads).doesNotContain(Thread.currentThread());
+		publisher.destroy();
+	}
+
+	@Test
+	public void testAsyncDropNewest() throws Exception {
+		List<Object> events = new CopyOnWriteArrayList<>();
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		DefaultStateMachineEventPublisher publisher = new DefaultStateMachineEventPublisher(event -> {
+			blocked.countDown();
+			try {
+				release.await(2, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+			}
+			events.add(event);
+		});
+		publisher.setAsyncPublishing(2, 1, EventPublishingOverflowPolicy.DROP_NEWEST);
+		publisher.publishExtendedStateChanged(this, "key", 0);
+		assertThat(blocked.await(2, TimeUnit.SECONDS)).isTrue();
+		for (int i = 1; i < 5; i++) {
+			publisher.publishExtendedStateChanged(this, "key", i);
+		}
+		assertThat(publisher.getDroppedEventCount()).isEqualTo(2);
+		release.countDown();
+		publisher.destroy();
+		assertThat(events).hasSize(3);
+	}
+
+	@Test
+	public void testStopDrainsQueue() throws Exception {
+		List<Object> events = new CopyOnWriteArrayList<>();
+		List<Boolean> interrupted = new CopyOnWriteArrayList<>();
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		DefaultStateMachineEventPublisher publisher = new DefaultStateMachineEventPublisher(event -> {
+			blocked.countDown();
+			try {
+				release.await(2, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				interrupted.add(true);
+			}
+			events.add(event);
+		});
+		publisher.setAsyncPublishing(10, 2, EventPublishingOverflowPolicy.DROP_NEWEST);
+		for (int i = 0; i < 5; i++) {
+			publisher.publishExtendedStateChanged(this, "key", i);
+		}
+		assertThat(blocked.await(2, TimeUnit.SECONDS)).isTrue();
+		Thread stopper = new Thread(() -> {
+			try {
+				publisher.destroy();
+			} catch (Exception e) {
+			}
+		});
+		stopper.start();
+		release.countDown();
+		stopper.join(TimeUnit.SECONDS.toMillis(5));
+
+		assertThat(stopper.isAlive()).isFalse();
+		assertThat(interrupted).isEmpty();
+		assertThat(events).hasSize(5);
+		for (int i = 0; i < 5; i++) {
+			assertThat(((OnExtendedStateChanged) events.get(i)).getValue()).isEqualTo(i);
+		}
+	}
+
+	@Test
+	public void testBlockedPublisherPublishesAfterStop() throws Exception {
+		List<Object> events = new CopyOnWriteArrayList<>();
+		List<Thread> threads = new CopyOnWriteArrayList<>();
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		DefaultStateMachineEventPublisher publisher = new DefaultStateMachineEventPublisher(event -> {
+			if (((OnExtendedStateChanged) event).getValue().equals(0)) {
+				blocked.countDown();
+				try {
+					release.await(2, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+				}
+			}
+			events.add(event);
+			threads.add(Thread.currentThread());
+		});
+		publisher.setAsyncPublishing(1, 1, EventPublishingOverflowPolicy.BLOCK);
+		publisher.publishExtendedStateChanged(this, "key", 0);
+		assertThat(blocked.await(2, TimeUnit.SECONDS)).isTrue();
+		publisher.publishExtendedStateChanged(this, "key", 1);
+
+		Thread producer = new Thread(() -> publisher.publishExtendedStateChanged(this, "key", 2));
+		producer.start();
+		Thread stopper = new Thread(() -> {
+			try {
+				publisher.destroy();
+			} catch (Exception e) {
+			}
+		});
+		stopper.start();
+
+		producer.join(TimeUnit.SECONDS.toMillis(2));
+		assertThat(producer.isAlive()).isFalse();
+		release.countDown();
+		stopper.join(TimeUnit.SECONDS.toMillis(5));
+
+		assertThat(events).hasSize(3);
+		assertThat(((OnExtendedStateChanged) events.get(0)).getValue()).isEqualTo(2);
+		assertThat(threads.get(0)).isSameAs(producer);
+		assertThat(publisher.getDroppedEventCount()).isZero();
+	}
+}
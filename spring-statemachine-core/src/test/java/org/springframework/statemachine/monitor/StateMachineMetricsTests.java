@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.monitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.statemachine.TestUtils.doSendEventAndConsumeAll;
+import static org.springframework.statemachine.TestUtils.doSendEventAndConsumeResultAsDenied;
+import static org.springframework.statemachine.TestUtils.doStartAndAssert;
+import static org.springframework.statemachine.TestUtils.doStopAndAssert;
+import static org.springframework.statemachine.TestUtils.resolveFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.AbstractStateMachineTests;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.EnableStateMachineFactory;
+import org.springframework.statemachine.config.StateMachineBuilder;
+import org.springframework.statemachine.config.StateMachineBuilder.Builder;
+import org.springframework.statemachine.config.StateMachineConfigurerAdapter;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.config.builders.StateMachineConfigurationConfigurer;
+import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
+import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
+import org.springframework.statemachine.monitor.StateMachineMetrics.DeniedEventMetrics;
+import org.springframework.statemachine.monitor.StateMachineMetrics.StateMetrics;
+import org.springframework.statemachine.state.ObjectState;
+
+/**
+ * Tests for {@link StateMachineMetrics}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class StateMachineMetricsTests extends AbstractStateMachineTests {
+
+	@Override
+	protected AnnotationConfigApplicationContext buildContext() {
+		return new AnnotationConfigApplicationContext();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testMetricsAggregatedOverMachines() throws Exception {
+		context.register(Config1.class);
+		context.refresh();
+		StateMachineFactory<String, String> factory = resolveFactory(context);
+		StateMachineMetrics<String, String> metrics = context.getBean(StateMachineMetrics.class);
+
+		StateMachine<String, String> machine1 = factory.getStateMachine();
+		StateMachine<String, String> machine2 = factory.getStateMachine();
+		doStartAndAssert(machine1);
+		doStartAndAssert(machine2);
+		assertThat(metrics.getStateMetrics("S1").getOccupancy()).isEqualTo(2);
+
+		doSendEventAndConsumeAll(machine1, "E1");
+		assertThat(metrics.getStateMetrics("S1").getOccupancy()).isEqualTo(1);
+		assertThat(metrics.getStateMetrics("S1").getEntryCount()).isEqualTo(2);
+		assertThat(metrics.getStateMetrics("S1").getDwellCount()).isEqualTo(1);
+		assertThat(metrics.getStateMetrics("S2").getOccupancy()).isEqualTo(1);
+
+		doSendEventAndConsumeAll(machine1, "E3");
+		assertThat(metrics.getDeferredEventCount()).isEqualTo(1);
+		assertThat(metrics.getMaxDeferredEventCount()).isEqualTo(1);
+
+		doSendEventAndConsumeResultAsDenied(machine2, "E2");
+		assertThat(metrics.getDeniedEventMetrics()).hasSize(1);
+		DeniedEventMetrics denied = metrics.getDeniedEventMetrics().iterator().next();
+		assertThat(denied.getState()).isEqualTo("S1");
+		assertThat(denied.getEvent()).isEqualTo("E2");
+		assertThat(denied.getCount()).isEqualTo(1);
+
+		doStopAndAssert(machine1);
+		assertThat(metrics.getStateMetrics("S2").getOccupancy()).isEqualTo(0);
+	}
+
+	@Test
+	public void testOccupancyReleasedWhenMachineCollected() throws Exception {
+		StateMachineMetrics<String, String> metrics = new StateMachineMetrics<>();
+		enterWithDroppedMachine(metrics);
+		assertThat(metrics.getStateMetrics("S1").getOccupancy()).isEqualTo(1);
+
+		await().untilAsserted(() -> {
+			System.gc();
+			assertThat(metrics.getStateMetrics("S1").getOccupancy()).isEqualTo(0);
+		});
+		assertThat(metrics.getStateMetrics("S1").getEntryCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testBoundedStates() {
+		StateMachineMetrics<String, String> metrics = new StateMachineMetrics<>(1, 1);
+		metrics.eventNotAccepted(null, new ObjectState<>("S1"), MessageBuilder.withPayload("E1").build());
+		metrics.eventNotAccepted(null, new ObjectState<>("S2"), MessageBuilder.withPayload("E2").build());
+		assertThat(metrics.getStateMetrics()).extracting(StateMetrics::getState)
+				.containsExactlyInAnyOrder("S1", StateMachineMetrics.OTHER);
+		assertThat(metrics.getDeniedEventMetrics()).hasSize(2);
+		assertThat(metrics.getDeniedEventMetrics()).extracting(DeniedEventMetrics::getEvent)
+				.containsExactlyInAnyOrder("E1", StateMachineMetrics.OTHER);
+	}
+
+	private static void enterWithDroppedMachine(StateMachineMetrics<String, String> metrics) throws Exception {
+		Builder<String, String> builder = StateMachineBuilder.builder();
+		builder.configureConfiguration()
+			.withConfiguration()
+				.autoStartup(false);
+		builder.configureStates()
+			.withStates()
+				.initial("S1");
+		metrics.stateEntered(builder.build(), new ObjectState<>("S1"));
+	}
+
+	@Configuration
+	@EnableStateMachineFactory
+	static class Config1 extends StateMachineConfigurerAdapter<String, String> {
+
+		@Override
+		public void configure(StateMachineConfigurationConfigurer<String, String> config) throws Exception {
+			config
+				.withMonitoring()
+					.monitor(stateMachineMetrics());
+		}
+
+		@Override
+		public void configure(StateMachineStateConfigurer<String, String> states) throws Exception {
+			states
+				.withStates()
+					.initial("S1")
+					.state("S2", "E3");
+		}
+
+		@Override
+		public void configure(StateMachineTransitionConfigurer<String, String> transitions) throws Exception {
+			transitions
+				.withExternal()
+					.source("S1").target("S2").event("E1")
+					.and()
+				.withExternal()
+					.source("S2").target("S1").event("E2");
+		}
+
+		@Bean
+		public StateMachineMetrics<String, String> stateMachineMetrics() {
+			return new StateMachineMetrics<>();
+		}
+	}
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.persist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachineEventResult.ResultType;
+import org.springframework.statemachine.config.ObjectStateMachineFactory;
+import org.springframework.statemachine.config.model.ConfigurationData;
+import org.springframework.statemachine.config.model.DefaultStateMachineModel;
+import org.springframework.statemachine.config.model.StateData;
+import org.springframework.statemachine.config.model.StateMachineModel;
+import org.springframework.statemachine.config.model.StatesData;
+import org.springframework.statemachine.config.model.TransitionData;
+import org.springframework.statemachine.config.model.TransitionsData;
+import org.springframework.statemachine.service.StateMachineSerialisationService;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+import org.springframework.statemachine.support.StatelessStateMachineEvaluator;
+
+public class EventSourcedStateMachinePersisterTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testRestoreFromSnapshot() throws Exception {
+		StateMachineModel<String, String> model = model();
+		FileStateMachineJournal<String, String> journal = new FileStateMachineJournal<>(tempDir, new TestSerialisationService());
+		EventSourcedStateMachinePersister<String, String> persister =
+				new EventSourcedStateMachinePersister<>(journal, new StatelessStateMachineEvaluator<>(model));
+		persister.setSnapshotInterval(2);
+
+		StateMachine<String, String> machine = machine(model);
+		assertThat(send(persister, machine, "E1")).isEqualTo(ResultType.ACCEPTED);
+		assertThat(send(persister, machine, "E3")).isEqualTo(ResultType.DENIED);
+		assertThat(send(persister, machine, "E2")).isEqualTo(ResultType.ACCEPTED);
+		assertThat(journal.getLastSequence("m1")).isEqualTo(2);
+		assertThat(journal.readSnapshot("m1").getSequence()).isEqualTo(2);
+
+		StateMachine<String, String> restored = persister.restore(machine(model), "m1");
+		assertThat(restored.getState().getId()).isEqualTo("S3");
+	}
+
+	@Test
+	public void testRestoreReplaysTail() throws Exception {
+		StateMachineModel<String, String> model = model();
+		FileStateMachineJournal<String, String> journal = new FileStateMachineJournal<>(tempDir, new TestSerialisationService());
+		EventSourcedStateMachinePersister<String, String> persister =
+				new EventSourcedStateMachinePersister<>(journal, new StatelessStateMachineEvaluator<>(model));
+
+		StateMachine<String, String> machine = machine(model);
+		send(persister, machine, "E1");
+		assertThat(journal.readSnapshot("m1")).isNull();
+		assertThat(journal.read("m1", 0)).hasSize(1);
+		assertThat(journal.read("m1", 0).get(0).getMessage().getPayload()).isEqualTo("E1");
+
+		StateMachine<String, String> restored = persister.restore(machine(model), "m1");
+		assertThat(restored.getState().getId()).isEqualTo("S2");
+	}
+
+	@Test
+	public void testRestoreReplaysIntoSubstate() throws Exception {
+		StateMachineModel<String, String> model = hierarchicalModel();
+		FileStateMachineJournal<String, String> journal = new FileStateMachineJournal<>(tempDir, new TestSerialisationService());
+		EventSourcedStateMachinePersister<String, String> persister =
+				new EventSourcedStateMachinePersister<>(journal, new StatelessStateMachineEvaluator<>(model));
+
+		StateMachine<String, String> machine = machine(model);
+		send(persister, machine, "E1");
+		send(persister, machine, "E2");
+		assertThat(machine.getState().getIds()).containsExactly("S2", "S22");
+
+		StateMachine<String, String> restored = persister.restore(machine(model), "m1");
+		assertThat(restored.getState().getIds()).containsExactly("S2", "S22");
+	}
+
+	@Test
+	public void testSnapshotAtAppendedSequence() throws Exception {
+		StateMachineModel<String, String> model = model();
+		// simulate an entry appended concurrently after our own append
+		FileStateMachineJournal<String, String> journal = new FileStateMachineJournal<String, String>(tempDir,
+				new TestSerialisationService()) {
+
+			@Override
+			public long append(String machineId, Message<String> message) throws Exception {
+				long sequence = super.append(machineId, message);
+				if (sequence == 1) {
+					super.append(machineId, MessageBuilder.withPayload("E2").build());
+				}
+				return sequence;
+			}
+		};
+		EventSourcedStateMachinePersister<String, String> persister =
+				new EventSourcedStateMachinePersister<>(journal, new StatelessStateMachineEvaluator<>(model));
+		persister.setSnapshotInterval(1);
+
+		StateMachine<String, String> machine = machine(model);
+		send(persister, machine, "E1");
+		assertThat(journal.readSnapshot("m1").getSequence()).isEqualTo(1);
+		assertThat(journal.readSnapshot("m1").getContext().getState()).isEqualTo("S2");
+	}
+
+	@Test
+	public void testConcurrentSendsSnapshotTheirOwnSequence() throws Exception {
+		StateMachineModel<String, String> model = model();
+		CountDownLatch appending = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		Map<Long, String> snapshots = new ConcurrentHashMap<>();
+		FileStateMachineJournal<String, String> journal = new FileStateMachineJournal<String, String>(tempDir,
+				new TestSerialisationService()) {
+
+			@Override
+			public long append(String machineId, Message<String> message) throws Exception {
+				long sequence = super.append(machineId, message);
+				if (sequence == 1) {
+					appending.countDown();
+					proceed.await(10, TimeUnit.SECONDS);
+				}
+				return sequence;
+			}
+
+			@Override
+			public void writeSnapshot(String machineId, long sequence, StateMachineContext<String, String> context)
+					throws Exception {
+				snapshots.put(sequence, context.getState());
+				super.writeSnapshot(machineId, sequence, context);
+			}
+		};
+		EventSourcedStateMachinePersister<String, String> persister =
+				new EventSourcedStateMachinePersister<>(journal, new StatelessStateMachineEvaluator<>(model));
+		persister.setSnapshotInterval(1);
+
+		StateMachine<String, String> machine = machine(model);
+		Thread first = new Thread(() -> send(persister, machine, "E1"));
+		first.start();
+		assertThat(appending.await(10, TimeUnit.SECONDS)).isTrue();
+		Thread second = new Thread(() -> send(persister, machine, "E2"));
+		second.start();
+		// second send must wait instead of moving machine forward
+		Thread.sleep(200);
+		assertThat(machine.getState().getId()).isEqualTo("S2");
+		proceed.countDown();
+		first.join(10000);
+		second.join(10000);
+
+		assertThat(snapshots).containsEntry(1l, "S2").containsEntry(2l, "S3");
+		assertThat(journal.read("m1", 1)).extracting(entry -> entry.getMessage().getPayload()).containsExactly("E2");
+	}
+
+	@Test
+	public void testJournalRolledAtSnapshot() throws Exception {
+		FileStateMachineJournal<String, String> journal = new FileStateMachineJournal<>(tempDir, new TestSerialisationService());
+		journal.append("m1", MessageBuilder.withPayload("E1").build());
+		journal.append("m1", MessageBuilder.withPayload("E2").build());
+		journal.writeSnapshot("m1", 2, new DefaultStateMachineContext<String, String>("S3", null, null, null));
+		assertThat(journal.read("m1", 0)).isEmpty();
+		assertThat(journal.append("m1", MessageBuilder.withPayload("E3").build())).isEqualTo(3);
+		assertThat(journal.read("m1", 0)).extracting(entry -> entry.getSequence()).containsExactly(3l);
+
+		// older snapshot doesn't replace a newer one
+		journal.writeSnapshot("m1", 1, new DefaultStateMachineContext<String, String>("S2", null, null, null));
+		assertThat(journal.readSnapshot("m1").getSequence()).isEqualTo(2);
+
+		journal.writeSnapshot("m1", 3, new DefaultStateMachineContext<String, String>("S3", null, null, null));
+		journal = new FileStateMachineJournal<>(tempDir, new TestSerialisationService());
+		assertThat(journal.getLastSequence("m1")).isEqualTo(3);
+		assertThat(journal.append("m1", MessageBuilder.withPayload("E4").build())).isEqualTo(4);
+	}
+
+	@Test
+	public void testJournalSurvivesReopen() throws Exception {
+		FileStateMachineJournal<String, String> journal = new FileStateMachineJournal<>(tempDir, new TestSerialisationService());
+		journal.append("m1", MessageBuilder.withPayload("E1").build());
+		journal.append("m1", MessageBuilder.withPayload("E2").build());
+
+		journal = new FileStateMachineJournal<>(tempDir, new TestSerialisationService());
+		assertThat(journal.getLastSequence("m1")).isEqualTo(2);
+		assertThat(journal.read("m1", 1)).hasSize(1);
+		assertThat(journal.append("m1", MessageBuilder.withPayload("E3").build())).isEqualTo(3);
+	}
+
+	private static ResultType send(EventSourcedStateMachinePersister<String, String> persister,
+			StateMachine<String, String> machine, String event) {
+		Message<String> message = MessageBuilder.withPayload(event).build();
+		return persister.sendEvent(machine, "m1", message).blockLast().getResultType();
+	}
+
+	private static StateMachine<String, String> machine(StateMachineModel<String, String> model) {
+		StateMachine<String, String> machine = new ObjectStateMachineFactory<>(model).getStateMachine();
+		machine.startReactively().block();
+		return machine;
+	}
+
+	private static StateMachineModel<String, String> model() {
+		Collection<StateData<String, String>> stateData = new ArrayList<>();
+		stateData.add(new StateData<String, String>("S1", true));
+		stateData.add(new StateData<String, String>("S2"));
+		stateData.add(new StateData<String, String>("S3"));
+		Collection<TransitionData<String, String>> transitionData = new ArrayList<>();
+		transitionData.add(new TransitionData<String, String>("S1", "S2", "E1"));
+		transitionData.add(new TransitionData<String, String>("S2", "S3", "E2"));
+		return new DefaultStateMachineModel<>(new ConfigurationData<>(), new StatesData<>(stateData),
+				new TransitionsData<>(transitionData));
+	}
+
+	private static StateMachineModel<String, String> hierarchicalModel() {
+		Collection<StateData<String, String>> stateData = new ArrayList<>();
+		stateData.add(new StateData<String, String>("S1", true));
+		stateData.add(new StateData<String, String>("S2"));
+		stateData.add(new StateData<String, String>("S2", null, "S21", true));
+		stateData.add(new StateData<String, String>("S2", null, "S22", false));
+		Collection<TransitionData<String, String>> transitionData = new ArrayList<>();
+		transitionData.add(new TransitionData<String, String>("S1", "S2", "E1"));
+		transitionData.add(new TransitionData<String, String>("S21", "S22", "E2"));
+		return new DefaultStateMachineModel<>(new ConfigurationData<>(), new StatesData<>(stateData),
+				new TransitionsData<>(transitionData));
+	}
+
+	/**
+	 * Keeps contexts in memory and uses their index as serialised form.
+	 */
+	private static class TestSerialisationService implements StateMachineSerialisationService<String, String> {
+
+		private static final List<StateMachineContext<String, String>> contexts = new CopyOnWriteArrayList<>();
+
+		@Override
+		public byte[] serialiseStateMachineContext(StateMachineContext<String, String> context) throws Exception {
+			contexts.add(context);
+			return ByteBuffer.allocate(4).putInt(contexts.size() - 1).array();
+		}
+
+		@Override
+		public StateMachineContext<String, String> deserialiseStateMachineContext(byte[] data) throws Exception {
+			return contexts.get(ByteBuffer.wrap(data).getInt());
+		}
+	}
+}
@@ -31,6 +31,7 @@ import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateContext.Stage;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.annotation.EventHeaders;
+import org.springframework.statemachine.annotation.ExtendedStateVariable;
 import org.springframework.statemachine.annotation.OnTransition;
 import org.springframework.statemachine.state.State;
 import org.springframework.statemachine.support.DefaultExtendedState;
@@ -70,6 +71,38 @@ public class MethodParameterTests {
 		handler.handle(runtime);
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExtendedStateVariableConversion() {
+		Bean2 bean2 = new Bean2();
+		Method method = ReflectionUtils.findMethod(Bean2.class, "onTransition", Integer.class, Long.class);
+		OnTransition annotation = AnnotationUtils.findAnnotation(method, OnTransition.class);
+		StateMachineHandler<OnTransition, String, String> handler = new StateMachineHandler<OnTransition, String, String>(Bean2.class,
+				bean2, method, annotation, annotation);
+
+		Message<String> message = MessageBuilder.withPayload("S").build();
+		ExtendedState extendedState = new DefaultExtendedState();
+		extendedState.getVariables().put("count", 1);
+		extendedState.getVariables().put("amount", 2L);
+		StateMachineRuntime<String, String> runtime = new StateMachineRuntime<String, String>() {
+			@Override
+			public StateContext<String, String> getStateContext() {
+				return new DefaultStateContext<String, String>(Stage.TRANSITION, message, message.getHeaders(), extendedState,
+						mock(Transition.class), mock(StateMachine.class), null, null, null);
+			}
+		};
+
+		// direct invocation with matching types
+		handler.handle(runtime);
+		assertThat(bean2.count).isEqualTo(1);
+		assertThat(bean2.amount).isEqualTo(2L);
+
+		// integer to long needs a conversion
+		extendedState.getVariables().put("amount", 3);
+		handler.handle(runtime);
+		assertThat(bean2.amount).isEqualTo(3L);
+	}
+
 	public static class Bean1 {
 
 		@OnTransition
@@ -85,4 +118,17 @@ public class MethodParameterTests {
 
 	}
 
+	public static class Bean2 {
+
+		Integer count;
+		Long amount;
+
+		@OnTransition
+		public void onTransition(@ExtendedStateVariable("count") Integer count, @ExtendedStateVariable("amount") Long amount) {
+			this.count = count;
+			this.amount = amount;
+		}
+
+	}
+
 }
@@ -17,7 +17,12 @@ package org.springframework.statemachine.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.context.Lifecycle;
@@ -25,6 +30,8 @@ import org.springframework.context.annotation.AnnotationConfigApplicationContext
 import org.springframework.context.annotation.Configuration;
 import org.springframework.statemachine.AbstractStateMachineTests;
 import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachinePersist;
 import org.springframework.statemachine.StateMachineSystemConstants;
 import org.springframework.statemachine.TestUtils;
 import org.springframework.statemachine.config.EnableStateMachineFactory;
@@ -32,6 +39,8 @@ import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter
 import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
 
 /**
  * Tests for {@link DefaultStateMachineService}.
@@ -117,6 +126,61 @@ public class DefaultStateMachineServiceTests extends AbstractStateMachineTests {
 		assertThat(machines).isEmpty();
 	}
 
+	@Test
+	public void testPrefetch() throws Exception {
+		context.register(Config1.class);
+		context.refresh();
+		StateMachineFactory<TestStates, TestEvents> stateMachineFactory =
+				context.getBean(StateMachineSystemConstants.DEFAULT_ID_STATEMACHINEFACTORY, StateMachineFactory.class);
+
+		BatchPersist persist = new BatchPersist();
+		List<String> machineIds = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			machineIds.add("m" + i);
+			if (i % 2 == 0) {
+				persist.contexts.put("m" + i, new DefaultStateMachineContext<TestStates, TestEvents>(TestStates.S2, null,
+						null, new DefaultExtendedState()));
+			}
+		}
+		DefaultStateMachineService<TestStates, TestEvents> service = new DefaultStateMachineService<>(stateMachineFactory, persist);
+		service.setPrefetchBatchSize(3);
+		StateMachine<TestStates,TestEvents> machine0 = service.acquireStateMachine("m0", false);
+		service.prefetchStateMachines(machineIds, true);
+
+		assertThat(persist.batches).hasSize(3);
+		assertThat(persist.batches).allMatch(batch -> batch.size() <= 3);
+		assertThat(service.acquireStateMachine("m0")).isSameAs(machine0);
+		for (int i = 0; i < 10; i++) {
+			assertThat(service.hasStateMachine("m" + i)).isTrue();
+			assertThat(service.acquireStateMachine("m" + i).getState().getId())
+					.isEqualTo(i % 2 == 0 ? TestStates.S2 : TestStates.S1);
+		}
+		service.destroy();
+	}
+
+	private static class BatchPersist implements StateMachinePersist<TestStates, TestEvents, String> {
+
+		final Map<String, StateMachineContext<TestStates, TestEvents>> contexts = new HashMap<>();
+		final List<Collection<String>> batches = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void write(StateMachineContext<TestStates, TestEvents> context, String contextObj) throws Exception {
+			contexts.put(contextObj, context);
+		}
+
+		@Override
+		public StateMachineContext<TestStates, TestEvents> read(String contextObj) throws Exception {
+			return contexts.get(contextObj);
+		}
+
+		@Override
+		public Map<String, StateMachineContext<TestStates, TestEvents>> readAll(Collection<String> contextObjs)
+				throws Exception {
+			batches.add(contextObjs);
+			return StateMachinePersist.super.readAll(contextObjs);
+		}
+	}
+
 	@Configuration
 	@EnableStateMachineFactory
 	static class Config1 extends EnumStateMachineConfigurerAdapter<TestStates, TestEvents> {
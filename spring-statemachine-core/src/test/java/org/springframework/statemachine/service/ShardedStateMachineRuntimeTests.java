@@ -0,0 +1,245 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.statemachine.AbstractStateMachineTests;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineEventResult;
+import org.springframework.statemachine.StateMachineEventResult.ResultType;
+import org.springframework.statemachine.StateMachineException;
+import org.springframework.statemachine.StateMachineSystemConstants;
+import org.springframework.statemachine.config.EnableStateMachineFactory;
+import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
+import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for {@link ShardedStateMachineRuntime}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+@SuppressWarnings("unchecked")
+public class ShardedStateMachineRuntimeTests extends AbstractStateMachineTests {
+
+	@Override
+	protected AnnotationConfigApplicationContext buildContext() {
+		return new AnnotationConfigApplicationContext();
+	}
+
+	@Test
+	public void testEventsProcessedInOrderPerMachine() {
+		context.register(Config1.class);
+		context.refresh();
+		StateMachineFactory<TestStates, TestEvents> stateMachineFactory =
+				context.getBean(StateMachineSystemConstants.DEFAULT_ID_STATEMACHINEFACTORY, StateMachineFactory.class);
+		DefaultStateMachineService<TestStates, TestEvents> service = new DefaultStateMachineService<>(stateMachineFactory);
+		ShardedStateMachineRuntime<TestStates, TestEvents> runtime = new ShardedStateMachineRuntime<>(service, 2);
+		runtime.afterPropertiesSet();
+		runtime.start();
+
+		List<Mono<List<StateMachineEventResult<TestStates, TestEvents>>>> results = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			results.add(runtime.sendEvent("m" + i, TestEvents.E1));
+			results.add(runtime.sendEvent("m" + i, TestEvents.E2));
+			results.add(runtime.sendEvent("m" + i, TestEvents.E1));
+		}
+		List<List<StateMachineEventResult<TestStates, TestEvents>>> all =
+				Flux.mergeSequential(results).collectList().block(Duration.ofSeconds(10));
+
+		for (int i = 0; i < 20; i++) {
+			assertThat(all.get(i * 3).get(0).getResultType()).isEqualTo(ResultType.ACCEPTED);
+			assertThat(all.get(i * 3 + 1).get(0).getResultType()).isEqualTo(ResultType.ACCEPTED);
+			assertThat(all.get(i * 3 + 2).get(0).getResultType()).isEqualTo(ResultType.DENIED);
+			assertThat(service.acquireStateMachine("m" + i).getState().getId()).isEqualTo(TestStates.S3);
+			assertThat(runtime.getMailboxDepth("m" + i)).isZero();
+		}
+		assertThat(runtime.getShardMetrics()).hasSize(2);
+		runtime.stop();
+	}
+
+	@Test
+	public void testRelease() {
+		context.register(Config1.class);
+		context.refresh();
+		StateMachineFactory<TestStates, TestEvents> stateMachineFactory =
+				context.getBean(StateMachineSystemConstants.DEFAULT_ID_STATEMACHINEFACTORY, StateMachineFactory.class);
+		DefaultStateMachineService<TestStates, TestEvents> service = new DefaultStateMachineService<>(stateMachineFactory);
+		ShardedStateMachineRuntime<TestStates, TestEvents> runtime = new ShardedStateMachineRuntime<>(service, 1);
+		runtime.setWorkStealing(false);
+		runtime.afterPropertiesSet();
+		runtime.start();
+
+		runtime.sendEvent("m1", TestEvents.E1).block(Duration.ofSeconds(10));
+		assertThat(service.hasStateMachine("m1")).isTrue();
+		runtime.releaseStateMachine("m1").block(Duration.ofSeconds(10));
+		assertThat(service.hasStateMachine("m1")).isFalse();
+		runtime.stop();
+	}
+
+	@Test
+	public void testMachineAcquiredOncePerMailbox() {
+		context.register(Config1.class);
+		context.refresh();
+		StateMachineFactory<TestStates, TestEvents> stateMachineFactory =
+				context.getBean(StateMachineSystemConstants.DEFAULT_ID_STATEMACHINEFACTORY, StateMachineFactory.class);
+		AtomicInteger acquires = new AtomicInteger();
+		DefaultStateMachineService<TestStates, TestEvents> service = new DefaultStateMachineService<TestStates, TestEvents>(
+				stateMachineFactory) {
+
+			@Override
+			public StateMachine<TestStates, TestEvents> acquireStateMachine(String machineId) {
+				acquires.incrementAndGet();
+				return super.acquireStateMachine(machineId);
+			}
+		};
+		ShardedStateMachineRuntime<TestStates, TestEvents> runtime = new ShardedStateMachineRuntime<>(service, 1);
+		runtime.setWorkStealing(false);
+		runtime.afterPropertiesSet();
+		runtime.start();
+
+		runtime.sendEvent("m1", TestEvents.E1).block(Duration.ofSeconds(10));
+		runtime.sendEvent("m1", TestEvents.E2).block(Duration.ofSeconds(10));
+		runtime.sendEvent("m1", TestEvents.E1).block(Duration.ofSeconds(10));
+		assertThat(acquires.get()).isEqualTo(1);
+
+		runtime.releaseStateMachine("m1").block(Duration.ofSeconds(10));
+		assertThat(service.hasStateMachine("m1")).isFalse();
+		runtime.sendEvent("m1", TestEvents.E1).block(Duration.ofSeconds(10));
+		assertThat(acquires.get()).isEqualTo(2);
+		assertThat(service.hasStateMachine("m1")).isTrue();
+		runtime.stop();
+	}
+
+	@Test
+	public void testStopReleasesMachines() {
+		context.register(Config1.class);
+		context.refresh();
+		StateMachineFactory<TestStates, TestEvents> stateMachineFactory =
+				context.getBean(StateMachineSystemConstants.DEFAULT_ID_STATEMACHINEFACTORY, StateMachineFactory.class);
+		DefaultStateMachineService<TestStates, TestEvents> service = new DefaultStateMachineService<>(stateMachineFactory);
+		ShardedStateMachineRuntime<TestStates, TestEvents> runtime = new ShardedStateMachineRuntime<>(service, 2);
+		runtime.afterPropertiesSet();
+		runtime.start();
+
+		runtime.sendEvent("m1", TestEvents.E1).block(Duration.ofSeconds(10));
+		runtime.sendEvent("m2", TestEvents.E1).block(Duration.ofSeconds(10));
+		assertThat(service.hasStateMachine("m1")).isTrue();
+		assertThat(service.hasStateMachine("m2")).isTrue();
+		runtime.stop();
+
+		assertThat(service.hasStateMachine("m1")).isFalse();
+		assertThat(service.hasStateMachine("m2")).isFalse();
+		assertThatThrownBy(() -> runtime.sendEvent("m1", TestEvents.E2).block(Duration.ofSeconds(10)))
+				.isInstanceOf(StateMachineException.class);
+	}
+
+	@Test
+	public void testStopCompletesMailboxes() throws Exception {
+		context.register(Config1.class);
+		context.refresh();
+		StateMachineFactory<TestStates, TestEvents> stateMachineFactory =
+				context.getBean(StateMachineSystemConstants.DEFAULT_ID_STATEMACHINEFACTORY, StateMachineFactory.class);
+		CountDownLatch acquiring = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		DefaultStateMachineService<TestStates, TestEvents> service = new DefaultStateMachineService<TestStates, TestEvents>(
+				stateMachineFactory) {
+
+			@Override
+			public StateMachine<TestStates, TestEvents> acquireStateMachine(String machineId) {
+				if (machineId.equals("m1")) {
+					acquiring.countDown();
+					try {
+						proceed.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.acquireStateMachine(machineId);
+			}
+		};
+		ShardedStateMachineRuntime<TestStates, TestEvents> runtime = new ShardedStateMachineRuntime<>(service, 1);
+		runtime.setWorkStealing(false);
+		runtime.afterPropertiesSet();
+		runtime.start();
+
+		CompletableFuture<List<StateMachineEventResult<TestStates, TestEvents>>> first =
+				runtime.sendEvent("m1", TestEvents.E1).toFuture();
+		assertThat(acquiring.await(10, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<List<StateMachineEventResult<TestStates, TestEvents>>> second =
+				runtime.sendEvent("m2", TestEvents.E1).toFuture();
+		assertThat(runtime.getMailboxDepth("m2")).isEqualTo(1);
+
+		Thread stopper = new Thread(() -> runtime.stop());
+		stopper.start();
+		proceed.countDown();
+		stopper.join(10000);
+
+		// event in progress completes normally, waiting one is either
+		// processed or failed but never left hanging
+		assertThat(first.get(10, TimeUnit.SECONDS).get(0).getResultType()).isEqualTo(ResultType.ACCEPTED);
+		second.handle((results, e) -> results).get(10, TimeUnit.SECONDS);
+		assertThat(second).isDone();
+		assertThat(runtime.getMailboxDepth("m2")).isZero();
+		assertThat(service.hasStateMachine("m1")).isFalse();
+	}
+
+	@Configuration
+	@EnableStateMachineFactory
+	static class Config1 extends EnumStateMachineConfigurerAdapter<TestStates, TestEvents> {
+
+		@Override
+		public void configure(StateMachineStateConfigurer<TestStates, TestEvents> states) throws Exception {
+			states
+				.withStates()
+					.initial(TestStates.S1)
+					.state(TestStates.S2)
+					.state(TestStates.S3);
+		}
+
+		@Override
+		public void configure(StateMachineTransitionConfigurer<TestStates, TestEvents> transitions) throws Exception {
+			transitions
+				.withExternal()
+					.source(TestStates.S1)
+					.target(TestStates.S2)
+					.event(TestEvents.E1)
+					.and()
+				.withExternal()
+					.source(TestStates.S2)
+					.target(TestStates.S3)
+					.event(TestEvents.E2);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2020 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 package org.springframework.statemachine.state;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.statemachine.TestUtils.doSendEventAndConsumeAll;
+import static org.springframework.statemachine.TestUtils.doStartAndAssert;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
@@ -35,9 +37,11 @@ import org.springframework.statemachine.StateMachineSystemConstants;
 import org.springframework.statemachine.action.Action;
 import org.springframework.statemachine.config.EnableStateMachine;
 import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter;
+import org.springframework.statemachine.config.builders.StateMachineConfigurationConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
 import org.springframework.statemachine.guard.Guard;
+import org.springframework.statemachine.guard.GuardEvaluationPolicy;
 import org.springframework.statemachine.listener.StateMachineListenerAdapter;
 import org.springframework.util.ObjectUtils;
 
@@ -194,6 +198,20 @@ public class ChoiceStateTests extends AbstractStateMachineTests {
 		assertThat(machine.getState().getIds()).containsExactly(TestStates.S33);
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testConcurrentGuardEvaluation() {
+		context.register(Config5.class);
+		context.refresh();
+		ObjectStateMachine<TestStates,TestEvents> machine =
+				context.getBean(StateMachineSystemConstants.DEFAULT_ID_STATEMACHINE, ObjectStateMachine.class);
+		doStartAndAssert(machine);
+		doSendEventAndConsumeAll(machine, TestEvents.E1);
+
+		// first guard times out, second one wins over a faster third one
+		assertThat(machine.getState().getIds()).containsExactly(TestStates.S31);
+	}
+
 	@Configuration
 	@EnableStateMachine
 	static class Config1 extends EnumStateMachineConfigurerAdapter<TestStates, TestEvents> {
@@ -429,6 +447,44 @@ public class ChoiceStateTests extends AbstractStateMachineTests {
 		}
 	}
 
+	@Configuration
+	@EnableStateMachine
+	static class Config5 extends EnumStateMachineConfigurerAdapter<TestStates, TestEvents> {
+
+		@Override
+		public void configure(StateMachineConfigurationConfigurer<TestStates, TestEvents> config) throws Exception {
+			config
+				.withConfiguration()
+					.guardEvaluationPolicy(GuardEvaluationPolicy.CONCURRENT)
+					.guardEvaluationPolicyTimeout(500, TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public void configure(StateMachineStateConfigurer<TestStates, TestEvents> states) throws Exception {
+			states
+				.withStates()
+					.initial(TestStates.SI)
+					.states(EnumSet.allOf(TestStates.class))
+					.choice(TestStates.S3);
+		}
+
+		@Override
+		public void configure(StateMachineTransitionConfigurer<TestStates, TestEvents> transitions) throws Exception {
+			transitions
+				.withExternal()
+					.source(TestStates.SI)
+					.target(TestStates.S3)
+					.event(TestEvents.E1)
+					.and()
+				.withChoice()
+					.source(TestStates.S3)
+					.first(TestStates.S30, new SleepingGuard(2000))
+					.then(TestStates.S31, new SleepingGuard(200))
+					.then(TestStates.S32, new SleepingGuard(0))
+					.last(TestStates.S33);
+		}
+	}
+
 	private static class TestStateEntryExitListener extends StateMachineListenerAdapter<TestStates, TestEvents> {
 
 		List<State<TestStates, TestEvents>> entered = new ArrayList<>();
@@ -464,6 +520,26 @@ public class ChoiceStateTests extends AbstractStateMachineTests {
 		}
 	}
 
+	private static class SleepingGuard implements Guard<TestStates, TestEvents> {
+
+		private final long sleep;
+
+		public SleepingGuard(long sleep) {
+			this.sleep = sleep;
+		}
+
+		@Override
+		public boolean evaluate(StateContext<TestStates, TestEvents> context) {
+			try {
+				Thread.sleep(sleep);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			return true;
+		}
+	}
+
 	private static class LatchAction implements Action<TestStates, TestEvents> {
 		CountDownLatch latch = new CountDownLatch(1);
 
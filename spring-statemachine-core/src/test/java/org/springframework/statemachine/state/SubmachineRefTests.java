@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2020 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,19 +21,37 @@ import static org.springframework.statemachine.TestUtils.doStartAndAssert;
 import static org.springframework.statemachine.TestUtils.resolveFactory;
 import static org.springframework.statemachine.TestUtils.resolveMachine;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.statemachine.AbstractStateMachineTests;
 import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachinePersist;
 import org.springframework.statemachine.config.EnableStateMachine;
 import org.springframework.statemachine.config.EnableStateMachineFactory;
 import org.springframework.statemachine.config.StateMachineConfigurerAdapter;
 import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.config.builders.StateMachineConfigurationConfigurer;
+import org.springframework.statemachine.config.builders.StateMachineModelConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
+import org.springframework.statemachine.config.model.DefaultStateMachineModel;
+import org.springframework.statemachine.config.model.StateData;
+import org.springframework.statemachine.config.model.StateMachineModel;
+import org.springframework.statemachine.config.model.StateMachineModelFactory;
+import org.springframework.statemachine.config.model.StatesData;
+import org.springframework.statemachine.config.model.TransitionData;
+import org.springframework.statemachine.config.model.TransitionsData;
+import org.springframework.statemachine.persist.DefaultStateMachinePersister;
 
 /**
  * Tests for submachine references.
@@ -76,6 +94,82 @@ public class SubmachineRefTests extends AbstractStateMachineTests {
 		assertThat(machine.getState().getIds()).containsOnly("S2", "S21", "S31");
 	}
 
+	@Test
+	public void testLazySubmachineRefWithFactory() throws Exception {
+		context.register(Config4.class, Config5.class);
+		context.refresh();
+		StateMachineFactory<String, String> factory = resolveFactory(context);
+		StateMachine<String, String> machine = factory.getStateMachine();
+		StateMachineState<String, String> s2 = findState(machine, "S2");
+		assertThat(s2.isSubmachineState()).isTrue();
+		assertThat(s2.isSubmachineBuilt()).isFalse();
+		doStartAndAssert(machine);
+		assertThat(machine.getState().getIds()).containsOnly("S1");
+		assertThat(s2.isSubmachineBuilt()).isFalse();
+		doSendEventAndConsumeAll(machine, "E1");
+		assertThat(s2.isSubmachineBuilt()).isTrue();
+		assertThat(machine.getState().getIds()).containsOnly("S2", "S20");
+		doSendEventAndConsumeAll(machine, "E2");
+		assertThat(machine.getState().getIds()).containsOnly("S2", "S21", "S30");
+		doSendEventAndConsumeAll(machine, "E3");
+		assertThat(machine.getState().getIds()).containsOnly("S2", "S21", "S31");
+	}
+
+	@Test
+	public void testLazySubmachineRefRestore() throws Exception {
+		context.register(Config4.class, Config5.class);
+		context.refresh();
+		StateMachineFactory<String, String> factory = resolveFactory(context);
+		DefaultStateMachinePersister<String, String, String> persister =
+				new DefaultStateMachinePersister<>(new InMemoryStateMachinePersist());
+
+		StateMachine<String, String> machine = factory.getStateMachine();
+		doStartAndAssert(machine);
+		persister.persist(machine, "xxx");
+		StateMachine<String, String> restored = persister.restore(factory.getStateMachine(), "xxx");
+		assertThat(restored.getState().getIds()).containsOnly("S1");
+		assertThat(findState(restored, "S2").isSubmachineBuilt()).isFalse();
+
+		doSendEventAndConsumeAll(machine, "E1");
+		doSendEventAndConsumeAll(machine, "E2");
+		doSendEventAndConsumeAll(machine, "E3");
+		persister.persist(machine, "xxx");
+		restored = persister.restore(factory.getStateMachine(), "xxx");
+		assertThat(findState(restored, "S2").isSubmachineBuilt()).isTrue();
+		assertThat(restored.getState().getIds()).containsOnly("S2", "S21", "S31");
+	}
+
+	@Test
+	public void testLazySubmachineStateIdsMemoized() throws Exception {
+		context.register(Config6.class, Config5.class);
+		context.refresh();
+		StateMachineFactory<String, String> factory = resolveFactory(context);
+		CountingModelFactory modelFactory = context.getBean(CountingModelFactory.class);
+
+		StateMachineState<String, String> s2 = findState(factory.getStateMachine("m1"), "S2");
+		int builds = modelFactory.builds.get();
+		assertThat(s2.containsSubmachineState("S21")).isTrue();
+		assertThat(s2.containsSubmachineState("S1")).isFalse();
+		assertThat(modelFactory.builds.get()).isEqualTo(builds + 1);
+
+		s2 = findState(factory.getStateMachine("m1"), "S2");
+		assertThat(s2.containsSubmachineState("S20")).isTrue();
+		assertThat(modelFactory.builds.get()).isEqualTo(builds + 1);
+
+		s2 = findState(factory.getStateMachine("m2"), "S2");
+		assertThat(s2.containsSubmachineState("S20")).isTrue();
+		assertThat(modelFactory.builds.get()).isEqualTo(builds + 2);
+	}
+
+	private static StateMachineState<String, String> findState(StateMachine<String, String> machine, String id) {
+		for (State<String, String> state : machine.getStates()) {
+			if (state.getId().equals(id)) {
+				return (StateMachineState<String, String>) state;
+			}
+		}
+		return null;
+	}
+
 	@Configuration
 	@EnableStateMachine
 	static class Config1 extends StateMachineConfigurerAdapter<String, String> {
@@ -182,6 +276,91 @@ public class SubmachineRefTests extends AbstractStateMachineTests {
 
 	}
 
+	@Configuration
+	@EnableStateMachineFactory
+	static class Config5 extends StateMachineConfigurerAdapter<String, String> {
+
+		@Autowired
+		@Qualifier("subStateMachineFactory")
+		private StateMachineFactory<String, String> subStateMachineFactory;
+
+		@Override
+		public void configure(StateMachineConfigurationConfigurer<String, String> config) throws Exception {
+			config
+				.withConfiguration()
+					.lazySubmachines(true);
+		}
+
+		@Override
+		public void configure(StateMachineStateConfigurer<String, String> states) throws Exception {
+			states
+				.withStates()
+					.initial("S1")
+					.state("S2", subStateMachineFactory);
+		}
+
+		@Override
+		public void configure(StateMachineTransitionConfigurer<String, String> transitions) throws Exception {
+			transitions
+				.withExternal()
+					.source("S1").target("S2").event("E1");
+		}
+
+	}
+
+	@Configuration
+	@EnableStateMachineFactory(name = "subStateMachineFactory")
+	static class Config6 extends StateMachineConfigurerAdapter<String, String> {
+
+		@Override
+		public void configure(StateMachineModelConfigurer<String, String> model) throws Exception {
+			model
+				.withModel()
+					.factory(modelFactory());
+		}
+
+		@Bean
+		public CountingModelFactory modelFactory() {
+			return new CountingModelFactory();
+		}
+	}
+
+	static class CountingModelFactory implements StateMachineModelFactory<String, String> {
+
+		final AtomicInteger builds = new AtomicInteger();
+
+		@Override
+		public StateMachineModel<String, String> build() {
+			return build(null);
+		}
+
+		@Override
+		public StateMachineModel<String, String> build(String machineId) {
+			builds.incrementAndGet();
+			Collection<StateData<String, String>> stateData = new ArrayList<>();
+			stateData.add(new StateData<String, String>("S20", true));
+			stateData.add(new StateData<String, String>("S21"));
+			Collection<TransitionData<String, String>> transitionData = new ArrayList<>();
+			transitionData.add(new TransitionData<String, String>("S20", "S21", "E2"));
+			return new DefaultStateMachineModel<>(null, new StatesData<>(stateData), new TransitionsData<>(transitionData));
+		}
+	}
+
+	static class InMemoryStateMachinePersist implements StateMachinePersist<String, String, String> {
+
+		private final HashMap<String, StateMachineContext<String, String>> contexts = new HashMap<>();
+
+		@Override
+		public void write(StateMachineContext<String, String> context, String contextObj) throws Exception {
+			contexts.put(contextObj, context);
+		}
+
+		@Override
+		public StateMachineContext<String, String> read(String contextObj) throws Exception {
+			return contexts.get(contextObj);
+		}
+	}
+
 	@Override
 	protected AnnotationConfigApplicationContext buildContext() {
 		return new AnnotationConfigApplicationContext();
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.state.ObjectState;
+import org.springframework.statemachine.state.State;
+
+/**
+ * Tests for {@link DeferredEventQueue}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class DeferredEventQueueTests {
+
+	@Test
+	public void testCandidatesOnlyWhenNotDeferred() {
+		State<String, String> s1 = new ObjectState<String, String>("S1", Arrays.asList("E1", "E2"));
+		State<String, String> s2 = new ObjectState<String, String>("S2", Arrays.asList("E2"));
+		DeferredEventQueue<String, String> queue = new DeferredEventQueue<>();
+		Message<String> m1 = MessageBuilder.withPayload("E1").build();
+		Message<String> m2 = MessageBuilder.withPayload("E2").build();
+		Message<String> m3 = MessageBuilder.withPayload("E1").build();
+		queue.offer(m1);
+		queue.offer(m2);
+		queue.offer(m3);
+		assertThat(queue).containsExactly(m1, m2, m3);
+
+		assertThat(queue.candidates(s1)).isEmpty();
+		List<Message<String>> candidates = queue.candidates(s2);
+		assertThat(candidates).containsExactly(m1, m3);
+
+		// configuration not changed
+		assertThat(queue.candidates(s2)).isEmpty();
+
+		assertThat(queue.remove(m1)).isTrue();
+		assertThat(queue.remove(MessageBuilder.withPayload("E1").build())).isFalse();
+		assertThat(queue).containsExactly(m2, m3);
+	}
+
+	@Test
+	public void testNewMessageCausesCheck() {
+		State<String, String> s2 = new ObjectState<String, String>("S2", Arrays.asList("E2"));
+		DeferredEventQueue<String, String> queue = new DeferredEventQueue<>();
+		Message<String> m1 = MessageBuilder.withPayload("E1").build();
+		queue.offer(m1);
+		assertThat(queue.candidates(s2)).containsExactly(m1);
+		assertThat(queue.candidates(s2)).isEmpty();
+
+		Message<String> m2 = MessageBuilder.withPayload("E1").build();
+		queue.offer(m2);
+		assertThat(queue.candidates(s2)).containsExactly(m1, m2);
+	}
+
+	@Test
+	public void testCapacityDeny() {
+		DeferredEventQueue<String, String> queue = new DeferredEventQueue<>();
+		queue.setCapacity(2, DeferredEventOverflowPolicy.DENY);
+		Message<String> m1 = MessageBuilder.withPayload("E1").build();
+		Message<String> m2 = MessageBuilder.withPayload("E2").build();
+		Message<String> m3 = MessageBuilder.withPayload("E1").build();
+		assertThat(queue.offer(m1)).isTrue();
+		assertThat(queue.offer(m2)).isTrue();
+		assertThat(queue.offer(m3)).isFalse();
+		assertThat(queue).containsExactly(m1, m2);
+	}
+
+	@Test
+	public void testCapacityDropOldest() {
+		DeferredEventQueue<String, String> queue = new DeferredEventQueue<>();
+		queue.setCapacity(2, DeferredEventOverflowPolicy.DROP_OLDEST);
+		Message<String> m1 = MessageBuilder.withPayload("E1").build();
+		Message<String> m2 = MessageBuilder.withPayload("E2").build();
+		Message<String> m3 = MessageBuilder.withPayload("E1").build();
+		assertThat(queue.offer(m1)).isTrue();
+		assertThat(queue.offer(m2)).isTrue();
+		assertThat(queue.offer(m3)).isTrue();
+		assertThat(queue).hasSize(2);
+		assertThat(queue).containsExactly(m2, m3);
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.statemachine.StateMachineEventResult.ResultType;
+import org.springframework.statemachine.config.model.ConfigurationData;
+import org.springframework.statemachine.config.model.DefaultStateMachineModel;
+import org.springframework.statemachine.config.model.MalformedConfigurationException;
+import org.springframework.statemachine.config.model.StateData;
+import org.springframework.statemachine.config.model.StateMachineModel;
+import org.springframework.statemachine.config.model.StatesData;
+import org.springframework.statemachine.config.model.TransitionData;
+import org.springframework.statemachine.config.model.TransitionsData;
+
+public class StateMachineSourceGeneratorTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testGeneratedSource() {
+		StateMachineSourceGenerator<States, Events> generator =
+				new StateMachineSourceGenerator<>(model(false), States.class, Events.class);
+		String source = generator.generate("demo.GeneratedEvaluator");
+
+		assertThat(source).contains("package demo;");
+		assertThat(source).contains("public class GeneratedEvaluator extends StatelessStateMachineEvaluator<");
+		assertThat(source).contains("switch (leaf.ordinal())");
+		assertThat(source).contains("case 1: // S2");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testGeneratedEvaluator() throws Exception {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assumeTrue(compiler != null);
+		StateMachineSourceGenerator<States, Events> generator =
+				new StateMachineSourceGenerator<>(model(false), States.class, Events.class);
+		Path file = generator.generate("demo.GeneratedEvaluator", tempDir);
+		int status = compiler.run(null, null, null, "-classpath", System.getProperty("java.class.path"),
+				"-d", tempDir.toString(), file.toString());
+		assertThat(status).isEqualTo(0);
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { tempDir.toUri().toURL() },
+				getClass().getClassLoader())) {
+			Class<?> clazz = classLoader.loadClass("demo.GeneratedEvaluator");
+			StatelessStateMachineEvaluator<States, Events> evaluator = (StatelessStateMachineEvaluator<States, Events>) clazz
+					.getConstructor(StateMachineModel.class).newInstance(model(false));
+
+			StateMachineEvaluationResult<States, Events> result = evaluator.start("m1")
+					.flatMap(r -> evaluator.evaluate(r.getContext(), Events.E1)).block();
+			assertThat(result.getResultType()).isEqualTo(ResultType.ACCEPTED);
+			assertThat(result.getContext().getState()).isEqualTo(States.S21);
+
+			result = evaluator.evaluate(result.getContext(), Events.E2).block();
+			assertThat(result.getContext().getState()).isEqualTo(States.S1);
+			assertThat(result.getExitedStates()).containsExactly(States.S21, States.S2);
+
+			result = evaluator.evaluate(result.getContext(), Events.E2).block();
+			assertThat(result.getResultType()).isEqualTo(ResultType.DENIED);
+
+			assertThatThrownBy(() -> clazz.getConstructor(StateMachineModel.class).newInstance(model(true)))
+					.isInstanceOf(InvocationTargetException.class)
+					.hasCauseInstanceOf(MalformedConfigurationException.class);
+		}
+	}
+
+	private static StateMachineModel<States, Events> model(boolean changed) {
+		Collection<StateData<States, Events>> stateData = new ArrayList<>();
+		stateData.add(new StateData<States, Events>(null, null, States.S1, true));
+		stateData.add(new StateData<States, Events>(null, null, States.S2, false));
+		stateData.add(new StateData<States, Events>(States.S2, null, States.S21, true));
+		Collection<TransitionData<States, Events>> transitions = new ArrayList<>();
+		transitions.add(new TransitionData<States, Events>(States.S1, States.S2, Events.E1));
+		transitions.add(new TransitionData<States, Events>(States.S2, changed ? States.S2 : States.S1, Events.E2));
+		return new DefaultStateMachineModel<>(new ConfigurationData<>(), new StatesData<>(stateData),
+				new TransitionsData<>(transitions));
+	}
+
+	public enum States {
+		S1, S2, S21
+	}
+
+	public enum Events {
+		E1, E2
+	}
+}
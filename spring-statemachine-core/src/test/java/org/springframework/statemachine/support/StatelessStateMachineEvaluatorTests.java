@@ -0,0 +1,217 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.statemachine.StateContext;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachineEventResult.ResultType;
+import org.springframework.statemachine.StateMachinePersist;
+import org.springframework.statemachine.config.ObjectStateMachineFactory;
+import org.springframework.statemachine.action.Actions;
+import org.springframework.statemachine.config.model.ChoiceData;
+import org.springframework.statemachine.config.model.ConfigurationData;
+import org.springframework.statemachine.config.model.DefaultStateMachineModel;
+import org.springframework.statemachine.config.model.JunctionData;
+import org.springframework.statemachine.config.model.MalformedConfigurationException;
+import org.springframework.statemachine.config.model.StateData;
+import org.springframework.statemachine.config.model.StateMachineModel;
+import org.springframework.statemachine.config.model.StatesData;
+import org.springframework.statemachine.config.model.TransitionData;
+import org.springframework.statemachine.config.model.TransitionsData;
+import org.springframework.statemachine.guard.Guards;
+import org.springframework.statemachine.persist.DefaultStateMachinePersister;
+import org.springframework.statemachine.persist.StateMachinePersister;
+import org.springframework.statemachine.state.PseudoStateKind;
+import org.springframework.statemachine.transition.TransitionKind;
+
+import reactor.core.publisher.Mono;
+
+public class StatelessStateMachineEvaluatorTests {
+
+	private final List<String> log = Collections.synchronizedList(new ArrayList<>());
+
+	@Test
+	public void testStartEntersInitialStates() {
+		StatelessStateMachineEvaluator<String, String> evaluator = new StatelessStateMachineEvaluator<>(model());
+
+		StateMachineEvaluationResult<String, String> result = evaluator.start("machine1").block();
+		assertThat(result.getResultType()).isEqualTo(ResultType.ACCEPTED);
+		assertThat(result.getContext().getState()).isEqualTo("S1");
+		assertThat(result.getContext().getId()).isEqualTo("machine1");
+		assertThat(result.getEnteredStates()).containsExactly("S1");
+		assertThat(log).containsExactly("enterS1");
+	}
+
+	@Test
+	public void testTransitionIntoComposite() {
+		StatelessStateMachineEvaluator<String, String> evaluator = new StatelessStateMachineEvaluator<>(model());
+
+		StateMachineEvaluationResult<String, String> result = evaluator.evaluate(context("S1"), "E1").block();
+		assertThat(result.getResultType()).isEqualTo(ResultType.ACCEPTED);
+		assertThat(result.getContext().getState()).isEqualTo("S21");
+		assertThat(result.getContext().getEvent()).isEqualTo("E1");
+		assertThat(result.getContext().getId()).isEqualTo("machine1");
+		assertThat(result.getExitedStates()).containsExactly("S1");
+		assertThat(result.getEnteredStates()).containsExactly("S2", "S21");
+		assertThat(result.getActions()).hasSize(4);
+		assertThat(log).containsExactly("exitS1", "t1", "enterS2", "enterS21");
+	}
+
+	@Test
+	public void testParentTransitionFromSubstate() {
+		StatelessStateMachineEvaluator<String, String> evaluator = new StatelessStateMachineEvaluator<>(model());
+
+		StateMachineEvaluationResult<String, String> result = evaluator.evaluate(context("S22"), "E3").block();
+		assertThat(result.getContext().getState()).isEqualTo("S1");
+		assertThat(result.getExitedStates()).containsExactly("S22", "S2");
+		assertThat(result.getEnteredStates()).containsExactly("S1");
+	}
+
+	@Test
+	public void testSiblingTransitionKeepsParent() {
+		StatelessStateMachineEvaluator<String, String> evaluator = new StatelessStateMachineEvaluator<>(model());
+
+		StateMachineEvaluationResult<String, String> result = evaluator.evaluate(context("S21"), "E2").block();
+		assertThat(result.getContext().getState()).isEqualTo("S22");
+		assertThat(result.getExitedStates()).containsExactly("S21");
+		assertThat(result.getEnteredStates()).containsExactly("S22");
+	}
+
+	@Test
+	public void testRestoreMachineFromSubstateResult() throws Exception {
+		StatelessStateMachineEvaluator<String, String> evaluator = new StatelessStateMachineEvaluator<>(model());
+
+		StateMachineEvaluationResult<String, String> result = evaluator.evaluate(context("S21"), "E2").block();
+		StateMachineContext<String, String> restored = result.getContext();
+		assertThat(restored.getChilds()).hasSize(1);
+		assertThat(restored.getChilds().get(0).getState()).isEqualTo("S22");
+
+		StateMachine<String, String> stateMachine = new ObjectStateMachineFactory<>(model()).getStateMachine();
+		StateMachinePersister<String, String, String> persister = new DefaultStateMachinePersister<>(
+				new StateMachinePersist<String, String, String>() {
+
+					@Override
+					public void write(StateMachineContext<String, String> context, String contextObj) {
+					}
+
+					@Override
+					public StateMachineContext<String, String> read(String contextObj) {
+						return restored;
+					}
+				});
+		persister.restore(stateMachine, "machine1");
+		assertThat(stateMachine.getState().getIds()).containsExactly("S2", "S22");
+	}
+
+	@Test
+	public void testDenied() {
+		StatelessStateMachineEvaluator<String, String> evaluator = new StatelessStateMachineEvaluator<>(model());
+		StateMachineContext<String, String> context = context("S1");
+
+		StateMachineEvaluationResult<String, String> result = evaluator.evaluate(context, "E2").block();
+		assertThat(result.getResultType()).isEqualTo(ResultType.DENIED);
+		assertThat(result.getContext()).isSameAs(context);
+		assertThat(log).isEmpty();
+	}
+
+	@Test
+	public void testChoiceAndGuardUseExtendedState() {
+		StatelessStateMachineEvaluator<String, String> evaluator = new StatelessStateMachineEvaluator<>(model());
+		StateMachineContext<String, String> context = context("S1");
+
+		StateMachineEvaluationResult<String, String> result = evaluator.evaluate(context, "E4").block();
+		assertThat(result.getContext().getState()).isEqualTo("S1");
+		assertThat(result.getExitedStates()).containsExactly("S1");
+		assertThat(result.getEnteredStates()).containsExactly("S1");
+
+		context.getExtendedState().getVariables().put("go", true);
+		result = evaluator.evaluate(context, "E4").block();
+		assertThat(result.getContext().getState()).isEqualTo("S22");
+		assertThat(result.getEnteredStates()).containsExactly("S2", "S22");
+		assertThat(result.getContext().getExtendedState().getVariables()).containsEntry("choice", "S22");
+		assertThat(context.getExtendedState().getVariables()).doesNotContainKey("choice");
+	}
+
+	@Test
+	public void testRegionsRejected() {
+		Collection<StateData<String, String>> stateData = new ArrayList<>();
+		stateData.add(new StateData<String, String>("S1", "R1", "S11", true));
+		stateData.add(new StateData<String, String>("S1", "R2", "S12", true));
+		stateData.add(new StateData<String, String>(null, null, "S1", true));
+		StateMachineModel<String, String> model = new DefaultStateMachineModel<>(new ConfigurationData<>(),
+				new StatesData<>(stateData), new TransitionsData<>(new ArrayList<>()));
+
+		assertThatThrownBy(() -> new StatelessStateMachineEvaluator<>(model))
+				.isInstanceOf(MalformedConfigurationException.class);
+	}
+
+	private static StateMachineContext<String, String> context(String state) {
+		return new DefaultStateMachineContext<String, String>(state, null, null, new DefaultExtendedState(),
+				null, "machine1");
+	}
+
+	private StateMachineModel<String, String> model() {
+		Collection<StateData<String, String>> stateData = new ArrayList<>();
+		stateData.add(new StateData<String, String>(null, null, "S1", null, logging("enterS1"), logging("exitS1"), true));
+		stateData.add(new StateData<String, String>(null, null, "S2", null, logging("enterS2"), logging("exitS2")));
+		stateData.add(new StateData<String, String>("S2", null, "S21", null, logging("enterS21"), logging("exitS21"), true));
+		stateData.add(new StateData<String, String>("S2", null, "S22", null, logging("enterS22"), logging("exitS22")));
+		StateData<String, String> choice = new StateData<String, String>(null, null, "C1", false);
+		choice.setPseudoStateKind(PseudoStateKind.CHOICE);
+		stateData.add(choice);
+
+		Collection<TransitionData<String, String>> transitions = new ArrayList<>();
+		transitions.add(new TransitionData<String, String>("S1", "S2", null, "E1", null, null, logging("t1"), null,
+				TransitionKind.EXTERNAL, null, null));
+		transitions.add(new TransitionData<String, String>("S21", "S22", null, "E2", null, null, null, null,
+				TransitionKind.EXTERNAL, null, null));
+		transitions.add(new TransitionData<String, String>("S2", "S1", null, "E3", null, null, null,
+				Guards.from(context -> true), TransitionKind.EXTERNAL, null, null));
+		transitions.add(new TransitionData<String, String>("S2", "S21", null, "E3", null, null, null, null,
+				TransitionKind.LOCAL, null, null));
+		transitions.add(new TransitionData<String, String>("S1", "C1", null, "E4", null, null, null, null,
+				TransitionKind.EXTERNAL, null, null));
+
+		Map<String, List<ChoiceData<String, String>>> choices = new HashMap<>();
+		choices.put("C1", Arrays.asList(
+				new ChoiceData<String, String>("C1", "S22",
+						context -> context.getExtendedState().get("go", Boolean.class) != null,
+						Collections.singletonList(context -> context.getExtendedState().getVariables().put("choice", "S22"))),
+				new ChoiceData<String, String>("C1", "S1", null)));
+
+		TransitionsData<String, String> transitionsData = new TransitionsData<>(transitions, choices,
+				new HashMap<String, List<JunctionData<String, String>>>(), new HashMap<>(), new HashMap<>(), null, null, null);
+		return new DefaultStateMachineModel<>(new ConfigurationData<>(), new StatesData<>(stateData), transitionsData);
+	}
+
+	private Collection<Function<StateContext<String, String>, Mono<Void>>> logging(String name) {
+		return Collections.singletonList(Actions.from(context -> log.add(name)));
+	}
+}
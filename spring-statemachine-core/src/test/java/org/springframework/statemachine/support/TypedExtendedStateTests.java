@@ -0,0 +1,267 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.statemachine.TestUtils.doSendEventAndConsumeAll;
+import static org.springframework.statemachine.TestUtils.doStartAndAssert;
+import static org.springframework.statemachine.TestUtils.resolveMachine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.statemachine.AbstractStateMachineTests;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.EnableStateMachine;
+import org.springframework.statemachine.config.StateMachineConfigurerAdapter;
+import org.springframework.statemachine.config.builders.StateMachineConfigurationConfigurer;
+import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
+import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
+import org.springframework.statemachine.listener.StateMachineListenerAdapter;
+import org.springframework.statemachine.support.ExtendedStateSchema.Slot;
+
+/**
+ * Tests for {@link TypedExtendedState}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class TypedExtendedStateTests extends AbstractStateMachineTests {
+
+	private static final ExtendedStateSchema SCHEMA = ExtendedStateSchema.builder()
+			.intVariable("count")
+			.longVariable("amount")
+			.doubleVariable("rate")
+			.booleanVariable("flag")
+			.build();
+
+	@Override
+	protected AnnotationConfigApplicationContext buildContext() {
+		return new AnnotationConfigApplicationContext();
+	}
+
+	@Test
+	public void testTypedAndUntypedAccess() {
+		TypedExtendedState extendedState = new TypedExtendedState(SCHEMA);
+		Slot count = SCHEMA.getSlot("count");
+		assertThat(extendedState.isSet(count)).isFalse();
+		assertThat(extendedState.getVariables()).isEmpty();
+
+		extendedState.setInt(count, 1);
+		assertThat(extendedState.incrementInt(count, 2)).isEqualTo(3);
+		assertThat(extendedState.incrementLong("amount", 10L)).isEqualTo(10L);
+		extendedState.setDouble("rate", 0.5d);
+		extendedState.getVariables().put("flag", true);
+		extendedState.getVariables().put("name", "value");
+
+		assertThat(extendedState.getVariables().get("count")).isEqualTo(3);
+		assertThat(extendedState.get("amount", Long.class)).isEqualTo(10L);
+		assertThat(extendedState.getDouble("rate")).isEqualTo(0.5d);
+		assertThat(extendedState.getBoolean("flag")).isTrue();
+		assertThat(extendedState.get("name", String.class)).isEqualTo("value");
+
+		Map<Object, Object> expected = new HashMap<>();
+		expected.put("count", 3);
+		expected.put("amount", 10L);
+		expected.put("rate", 0.5d);
+		expected.put("flag", true);
+		expected.put("name", "value");
+		assertThat(extendedState.getVariables()).isEqualTo(expected);
+
+		extendedState.getVariables().remove("count");
+		assertThat(extendedState.isSet(count)).isFalse();
+		assertThat(extendedState.getVariables()).hasSize(4);
+
+		extendedState.getVariables().clear();
+		assertThat(extendedState.getVariables()).isEmpty();
+	}
+
+	@Test
+	public void testIncorrectTypes() {
+		TypedExtendedState extendedState = new TypedExtendedState(SCHEMA);
+		assertThatThrownBy(() -> extendedState.getVariables().put("count", "one"))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> extendedState.setInt("amount", 1))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> extendedState.getInt("name"))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ExtendedStateSchema.builder().intVariable("count").longVariable("count"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testCoalescedNotifications() {
+		TypedExtendedState extendedState = new TypedExtendedState(SCHEMA);
+		List<Object[]> changes = new ArrayList<>();
+		extendedState.setExtendedStateChangeListener((key, value) -> changes.add(new Object[] { key, value }));
+
+		extendedState.setInt("count", 1);
+		assertThat(changes).hasSize(1);
+		changes.clear();
+
+		extendedState.beginStep();
+		extendedState.incrementInt("count", 1);
+		extendedState.incrementInt("count", 1);
+		extendedState.getVariables().put("name", "value1");
+		extendedState.getVariables().put("name", "value2");
+		assertThat(changes).isEmpty();
+		extendedState.endStep();
+
+		assertThat(changes).hasSize(2);
+		assertThat(changes.get(0)).containsExactly("count", 3);
+		assertThat(changes.get(1)).containsExactly("name", "value2");
+
+		changes.clear();
+		extendedState.beginStep();
+		extendedState.setInt("count", 3);
+		extendedState.endStep();
+		assertThat(changes).isEmpty();
+	}
+
+	@Test
+	public void testConcurrentSteps() throws Exception {
+		TypedExtendedState extendedState = new TypedExtendedState(SCHEMA);
+		List<Object> keys = Collections.synchronizedList(new ArrayList<>());
+		extendedState.setExtendedStateChangeListener((key, value) -> keys.add(key));
+
+		extendedState.beginStep();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				int thread = i;
+				futures.add(executor.submit(() -> {
+					for (int j = 0; j < 1000; j++) {
+						extendedState.beginStep();
+						extendedState.getVariables().put("key" + thread + "-" + j, j);
+						extendedState.endStep();
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(keys).isEmpty();
+		extendedState.endStep();
+
+		assertThat(keys).hasSize(4000).doesNotHaveDuplicates();
+	}
+
+	@Test
+	public void testConcurrentIncrements() throws Exception {
+		TypedExtendedState extendedState = new TypedExtendedState(SCHEMA);
+		Slot count = SCHEMA.getSlot("count");
+		Slot amount = SCHEMA.getSlot("amount");
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				futures.add(executor.submit(() -> {
+					for (int j = 0; j < 1000; j++) {
+						extendedState.beginStep();
+						extendedState.incrementInt(count, 1);
+						extendedState.incrementLong(amount, 2);
+						extendedState.endStep();
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(extendedState.getInt(count)).isEqualTo(4000);
+		assertThat(extendedState.getLong(amount)).isEqualTo(8000L);
+	}
+
+	@Test
+	public void testSchemaFromConfig() throws Exception {
+		context.register(Config1.class);
+		context.refresh();
+		StateMachine<String, String> machine = resolveMachine(context);
+		TestListener listener = new TestListener();
+		machine.addStateListener(listener);
+		doStartAndAssert(machine);
+		assertThat(machine.getExtendedState()).isInstanceOf(TypedExtendedState.class);
+
+		doSendEventAndConsumeAll(machine, "E1");
+		assertThat(machine.getState().getIds()).containsExactly("S2");
+		assertThat(machine.getExtendedState().getVariables().get("count")).isEqualTo(3);
+		assertThat(listener.changes).hasSize(1);
+		assertThat(listener.changes.get(0)).containsExactly("count", 3);
+	}
+
+	@Configuration
+	@EnableStateMachine
+	static class Config1 extends StateMachineConfigurerAdapter<String, String> {
+
+		@Override
+		public void configure(StateMachineConfigurationConfigurer<String, String> config) throws Exception {
+			config
+				.withConfiguration()
+					.extendedStateSchema(SCHEMA);
+		}
+
+		@Override
+		public void configure(StateMachineStateConfigurer<String, String> states) throws Exception {
+			states
+				.withStates()
+					.initial("S1")
+					.state("S2");
+		}
+
+		@Override
+		public void configure(StateMachineTransitionConfigurer<String, String> transitions) throws Exception {
+			transitions
+				.withExternal()
+					.source("S1").target("S2")
+					.event("E1")
+					.action(context -> {
+						TypedExtendedState extendedState = (TypedExtendedState) context.getExtendedState();
+						for (int i = 0; i < 3; i++) {
+							extendedState.incrementInt("count", 1);
+						}
+					});
+		}
+	}
+
+	private static class TestListener extends StateMachineListenerAdapter<String, String> {
+
+		final List<Object[]> changes = new ArrayList<>();
+
+		@Override
+		public void extendedStateChanged(Object key, Object value) {
+			changes.add(new Object[] { key, value });
+		}
+	}
+}
@@ -15,6 +15,9 @@
  */
 package org.springframework.statemachine.data.jpa;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.springframework.statemachine.StateMachineContext;
 import org.springframework.statemachine.persist.AbstractPersistingStateMachineInterceptor;
 import org.springframework.statemachine.persist.StateMachineRuntimePersister;
@@ -69,4 +72,16 @@ public class JpaPersistingStateMachineInterceptor<S, E, T> extends AbstractPersi
 	public StateMachineContext<S, E> read(Object contextObj) throws Exception {
 		return persist.read(contextObj);
 	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void writeAll(Map<T, StateMachineContext<S, E>> contexts) throws Exception {
+		persist.writeAll((Map<Object, StateMachineContext<S, E>>) (Map<?, ?>) contexts);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Map<T, StateMachineContext<S, E>> readAll(Collection<T> contextObjs) throws Exception {
+		return (Map<T, StateMachineContext<S, E>>) (Map<?, ?>) persist.readAll((Collection<Object>) (Collection<?>) contextObjs);
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2020 the original author or authors.
+ * Copyright 2017-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,10 +15,18 @@
  */
 package org.springframework.statemachine.data.jpa;
 
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
 import javax.persistence.Lob;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.persistence.Column;
 
 import org.springframework.statemachine.data.RepositoryStateMachine;
@@ -28,12 +36,17 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
 /**
  * A {@link RepositoryStateMachine} interface for JPA used for states machines.
+ * <p>
+ * Entity is versioned and a write with a stale version fails. Entities
+ * written through {@link JpaRepositoryStateMachinePersist} get versions
+ * from earlier reads and writes, other writes need to carry a version of
+ * an existing row.
  *
  * @author Janne Valkealahti
  *
  */
 @Entity
-@Table(name = "state_machine")
+@Table(name = "state_machine", indexes = @Index(name = "state_machine_state_idx", columnList = "state"))
 @JsonIdentityInfo(generator=ObjectIdGenerators.IntSequenceGenerator.class)
 public class JpaRepositoryStateMachine extends RepositoryStateMachine {
 
@@ -44,10 +57,29 @@ public class JpaRepositoryStateMachine extends RepositoryStateMachine {
 	@Column(name = "state")
 	private String state;
 
+	@Version
+	@Column(name = "version")
+	private Long version;
+
 	@Lob
 	@Column(name = "state_machine_context", length = 10240)
 	private byte[] stateMachineContext;
 
+	@Column(name = "context_compressed")
+	private Boolean contextCompressed;
+
+	@ElementCollection
+	@CollectionTable(name = "state_machine_active_state", joinColumns = @JoinColumn(name = "machine_id"),
+			indexes = @Index(name = "state_machine_active_state_idx", columnList = "active_state"))
+	@Column(name = "active_state")
+	private Set<String> activeStates = new HashSet<>();
+
+	@ElementCollection
+	@CollectionTable(name = "state_machine_variable", joinColumns = @JoinColumn(name = "machine_id"),
+			indexes = @Index(name = "state_machine_variable_idx", columnList = "indexed_variable"))
+	@Column(name = "indexed_variable")
+	private Set<String> indexedVariables = new HashSet<>();
+
 	@Override
 	public String getMachineId() {
 		return machineId;
@@ -66,6 +98,14 @@ public class JpaRepositoryStateMachine extends RepositoryStateMachine {
 		this.state = state;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	@Override
 	public byte[] getStateMachineContext() {
 		return stateMachineContext;
@@ -75,4 +115,36 @@ public class JpaRepositoryStateMachine extends RepositoryStateMachine {
 		this.stateMachineContext = stateMachineContext;
 	}
 
+	/**
+	 * Checks if a state machine context is compressed. Rows written before
+	 * compression was introduced are never compressed.
+	 *
+	 * @return true, if context is compressed
+	 */
+	public boolean isContextCompressed() {
+		return Boolean.TRUE.equals(contextCompressed);
+	}
+
+	public void setContextCompressed(boolean contextCompressed) {
+		this.contextCompressed = contextCompressed;
+	}
+
+	@Override
+	public Set<String> getActiveStates() {
+		return activeStates;
+	}
+
+	public void setActiveStates(Set<String> activeStates) {
+		this.activeStates = activeStates;
+	}
+
+	@Override
+	public Set<String> getIndexedVariables() {
+		return indexedVariables;
+	}
+
+	public void setIndexedVariables(Set<String> indexedVariables) {
+		this.indexedVariables = indexedVariables;
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2019 the original author or authors.
+ * Copyright 2017-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,13 +15,39 @@
  */
 package org.springframework.statemachine.data.jpa;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.statemachine.StateMachineContext;
 import org.springframework.statemachine.data.RepositoryStateMachinePersist;
 import org.springframework.statemachine.data.StateMachineRepository;
 import org.springframework.statemachine.service.StateMachineSerialisationService;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StreamUtils;
 
 /**
  * {@code JPA} based implementation of a {@link RepositoryStateMachinePersist}.
+ * <p>
+ * Contexts are written with {@link JpaStateMachineRepositoryCustom} without
+ * loading existing rows. Versions seen when reading and writing are kept
+ * for a bounded number of recently used machines and used to update a row
+ * only if it hasn't changed since, active states and indexed variables are
+ * skipped if known to be unchanged. For other machines a current version is
+ * read before a write. Optionally serialised contexts are compressed and
+ * marked as such in a row.
  *
  * @author Janne Valkealahti
  *
@@ -30,7 +56,10 @@ import org.springframework.statemachine.service.StateMachineSerialisationService
  */
 public class JpaRepositoryStateMachinePersist<S, E> extends RepositoryStateMachinePersist<JpaRepositoryStateMachine, S, E> {
 
+	private static final int DEFAULT_CACHE_SIZE = 10000;
 	private final JpaStateMachineRepository jpaStateMachineRepository;
+	private final Map<String, WrittenMachine> writtenMachines;
+	private boolean compressContext;
 
 	/**
 	 * Instantiates a new jpa repository state machine persist.
@@ -38,8 +67,19 @@ public class JpaRepositoryStateMachinePersist<S, E> extends RepositoryStateMachi
 	 * @param jpaStateMachineRepository the jpa state machine repository
 	 */
 	public JpaRepositoryStateMachinePersist(JpaStateMachineRepository jpaStateMachineRepository) {
+		this(jpaStateMachineRepository, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Instantiates a new jpa repository state machine persist.
+	 *
+	 * @param jpaStateMachineRepository the jpa state machine repository
+	 * @param cacheSize how many last seen machine versions are kept
+	 */
+	public JpaRepositoryStateMachinePersist(JpaStateMachineRepository jpaStateMachineRepository, int cacheSize) {
 		super();
 		this.jpaStateMachineRepository = jpaStateMachineRepository;
+		this.writtenMachines = writtenMachines(cacheSize);
 	}
 
 	/**
@@ -50,8 +90,31 @@ public class JpaRepositoryStateMachinePersist<S, E> extends RepositoryStateMachi
 	 */
 	public JpaRepositoryStateMachinePersist(JpaStateMachineRepository jpaStateMachineRepository,
 			StateMachineSerialisationService<S, E> serialisationService) {
+		this(jpaStateMachineRepository, serialisationService, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Instantiates a new jpa repository state machine persist.
+	 *
+	 * @param jpaStateMachineRepository the jpa state machine repository
+	 * @param serialisationService the serialisation service
+	 * @param cacheSize how many last seen machine versions are kept
+	 */
+	public JpaRepositoryStateMachinePersist(JpaStateMachineRepository jpaStateMachineRepository,
+			StateMachineSerialisationService<S, E> serialisationService, int cacheSize) {
 		super(serialisationService);
 		this.jpaStateMachineRepository = jpaStateMachineRepository;
+		this.writtenMachines = writtenMachines(cacheSize);
+	}
+
+	/**
+	 * Sets if serialised contexts are compressed. Contexts not marked as
+	 * compressed are always read as is.
+	 *
+	 * @param compressContext the compress context flag
+	 */
+	public void setCompressContext(boolean compressContext) {
+		this.compressContext = compressContext;
 	}
 
 	@Override
@@ -64,7 +127,121 @@ public class JpaRepositoryStateMachinePersist<S, E> extends RepositoryStateMachi
 		JpaRepositoryStateMachine jpaRepositoryStateMachine = new JpaRepositoryStateMachine();
 		jpaRepositoryStateMachine.setMachineId(context.getId());
 		jpaRepositoryStateMachine.setState(context.getState() != null ? context.getState().toString() : null);
-		jpaRepositoryStateMachine.setStateMachineContext(serialisedContext);
+		jpaRepositoryStateMachine.setStateMachineContext(compressContext ? compress(serialisedContext) : serialisedContext);
+		jpaRepositoryStateMachine.setContextCompressed(compressContext && serialisedContext != null);
+		jpaRepositoryStateMachine.setActiveStates(buildActiveStates(context));
+		jpaRepositoryStateMachine.setIndexedVariables(buildIndexedVariables(context));
 		return jpaRepositoryStateMachine;
 	}
+
+	@Override
+	protected void save(JpaRepositoryStateMachine entity) {
+		WrittenMachine written = writtenMachines.get(entity.getMachineId());
+		entity.setVersion(written != null ? written.version : null);
+		boolean writeCollections = written == null || !written.hasCollections(entity);
+		try {
+			Long version = jpaStateMachineRepository.upsert(entity, writeCollections);
+			written(entity, version);
+		} catch (OptimisticLockingFailureException e) {
+			writtenMachines.remove(entity.getMachineId());
+			throw e;
+		}
+	}
+
+	@Override
+	protected void saveAll(List<JpaRepositoryStateMachine> entities) {
+		Set<String> unchangedCollections = new HashSet<>();
+		for (JpaRepositoryStateMachine entity : entities) {
+			WrittenMachine written = writtenMachines.get(entity.getMachineId());
+			entity.setVersion(written != null ? written.version : null);
+			if (written != null && written.hasCollections(entity)) {
+				unchangedCollections.add(entity.getMachineId());
+			}
+		}
+		try {
+			List<Long> versions = jpaStateMachineRepository.upsertAll(entities, unchangedCollections);
+			for (int i = 0; i < entities.size(); i++) {
+				written(entities.get(i), versions.get(i));
+			}
+		} catch (OptimisticLockingFailureException e) {
+			for (JpaRepositoryStateMachine entity : entities) {
+				writtenMachines.remove(entity.getMachineId());
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	protected byte[] getSerialisedContext(JpaRepositoryStateMachine entity) {
+		if (entity.getVersion() != null) {
+			writtenMachines.put(entity.getMachineId(), new WrittenMachine(entity.getVersion(), null, null));
+		} else {
+			writtenMachines.remove(entity.getMachineId());
+		}
+		byte[] serialisedContext = entity.getStateMachineContext();
+		return entity.isContextCompressed() ? decompress(serialisedContext) : serialisedContext;
+	}
+
+	@SuppressWarnings("serial")
+	private static Map<String, WrittenMachine> writtenMachines(int cacheSize) {
+		Assert.isTrue(cacheSize > 0, "'cacheSize' must be positive");
+		return Collections.synchronizedMap(new LinkedHashMap<String, WrittenMachine>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Entry<String, WrittenMachine> eldest) {
+				return size() > cacheSize;
+			}
+		});
+	}
+
+	private void written(JpaRepositoryStateMachine entity, Long version) {
+		if (version != null) {
+			writtenMachines.put(entity.getMachineId(),
+					new WrittenMachine(version, entity.getActiveStates(), entity.getIndexedVariables()));
+		} else {
+			writtenMachines.remove(entity.getMachineId());
+		}
+	}
+
+	private static byte[] compress(byte[] bytes) {
+		if (bytes == null) {
+			return null;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 32);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] decompress(byte[] bytes) {
+		if (bytes == null) {
+			return null;
+		}
+		try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			return StreamUtils.copyToByteArray(gzip);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static class WrittenMachine {
+
+		final Long version;
+		final Set<String> activeStates;
+		final Set<String> indexedVariables;
+
+		WrittenMachine(Long version, Set<String> activeStates, Set<String> indexedVariables) {
+			this.version = version;
+			this.activeStates = activeStates;
+			this.indexedVariables = indexedVariables;
+		}
+
+		boolean hasCollections(JpaRepositoryStateMachine entity) {
+			return activeStates != null && ObjectUtils.nullSafeEquals(activeStates, entity.getActiveStates())
+					&& ObjectUtils.nullSafeEquals(indexedVariables, entity.getIndexedVariables());
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,12 @@
  */
 package org.springframework.statemachine.data.jpa;
 
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.statemachine.data.RepositoryStateMachineId;
 import org.springframework.statemachine.data.StateMachineRepository;
 
 /**
@@ -24,5 +30,22 @@ import org.springframework.statemachine.data.StateMachineRepository;
  * @author Janne Valkealahti
  *
  */
-public interface JpaStateMachineRepository extends StateMachineRepository<JpaRepositoryStateMachine>{
+public interface JpaStateMachineRepository
+		extends StateMachineRepository<JpaRepositoryStateMachine>, JpaStateMachineRepositoryCustom {
+
+	@Override
+	@Query("select m.machineId as machineId from JpaRepositoryStateMachine m join m.activeStates s where s = ?1")
+	Slice<RepositoryStateMachineId> findByActiveStates(String state, Pageable pageable);
+
+	@Override
+	@Query("select m.machineId as machineId from JpaRepositoryStateMachine m join m.activeStates s where s = ?1")
+	Stream<RepositoryStateMachineId> streamByActiveStates(String state);
+
+	@Override
+	@Query("select m.machineId as machineId from JpaRepositoryStateMachine m join m.indexedVariables v where v = ?1")
+	Slice<RepositoryStateMachineId> findByIndexedVariables(String variable, Pageable pageable);
+
+	@Override
+	@Query("select m.machineId as machineId from JpaRepositoryStateMachine m join m.indexedVariables v where v = ?1")
+	Stream<RepositoryStateMachineId> streamByIndexedVariables(String variable);
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.data.jpa;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Custom write operations of a {@link JpaStateMachineRepository} which
+ * don't load a state machine before writing it.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public interface JpaStateMachineRepositoryCustom {
+
+	/**
+	 * Writes a state machine without loading it first. If a version is set, a
+	 * row is updated only if its version still matches. Without a version a
+	 * current version is read first and a row is updated only if it's still
+	 * at that version, or inserted if it doesn't exist. Active states and
+	 * indexed variables are rewritten only if those differ from stored ones.
+	 *
+	 * @param stateMachine the state machine
+	 * @param writeCollections false, if active states and indexed variables are known to be unchanged
+	 * @return the version of a written row
+	 * @throws org.springframework.dao.OptimisticLockingFailureException if a version didn't match
+	 * or a row was inserted concurrently
+	 */
+	Long upsert(JpaRepositoryStateMachine stateMachine, boolean writeCollections);
+
+	/**
+	 * Writes state machines within a single transaction without loading them
+	 * first.
+	 *
+	 * @param stateMachines the state machines
+	 * @param unchangedCollections ids of machines whose active states and indexed variables are
+	 * known to be unchanged
+	 * @return the versions of written rows
+	 * @throws org.springframework.dao.OptimisticLockingFailureException if a version didn't match
+	 * or a row was inserted concurrently
+	 * @see #upsert(JpaRepositoryStateMachine, boolean)
+	 */
+	List<Long> upsertAll(List<JpaRepositoryStateMachine> stateMachines, Collection<String> unchangedCollections);
+}
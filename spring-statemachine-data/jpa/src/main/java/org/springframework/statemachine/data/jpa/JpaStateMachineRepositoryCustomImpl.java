@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.data.jpa;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implementation of a {@link JpaStateMachineRepositoryCustom}. Main row is
+ * written with a single update statement conditional on its version. If a
+ * version is not known, a current one is read first and a row is inserted
+ * if it doesn't exist. Collection tables are compared with stored rows and
+ * rewritten only if those differ. If a row was inserted concurrently by
+ * another writer, failing insert is reported as an optimistic locking
+ * failure.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+class JpaStateMachineRepositoryCustomImpl implements JpaStateMachineRepositoryCustom {
+
+	private static final String UPDATE = "update JpaRepositoryStateMachine m set m.state = :state, "
+			+ "m.stateMachineContext = :context, m.contextCompressed = :compressed, "
+			+ "m.version = coalesce(m.version, 0) + 1 where m.machineId = :machineId";
+	private static final String VERSIONED_UPDATE = UPDATE + " and m.version = :version";
+	// rows written before versioning was introduced
+	private static final String UNVERSIONED_UPDATE = UPDATE + " and m.version is null";
+	private static final String SELECT_VERSION = "select m.version from JpaRepositoryStateMachine m where m.machineId = :machineId";
+	private static final String INTEGRITY_VIOLATION_SQL_STATE_CLASS = "23";
+	private static final String SELECT_ACTIVE_STATES = "select active_state from state_machine_active_state where machine_id = ?1";
+	private static final String DELETE_ACTIVE_STATES = "delete from state_machine_active_state where machine_id = ?1";
+	private static final String INSERT_ACTIVE_STATE = "insert into state_machine_active_state (machine_id, active_state) values (?1, ?2)";
+	private static final String SELECT_VARIABLES = "select indexed_variable from state_machine_variable where machine_id = ?1";
+	private static final String DELETE_VARIABLES = "delete from state_machine_variable where machine_id = ?1";
+	private static final String INSERT_VARIABLE = "insert into state_machine_variable (machine_id, indexed_variable) values (?1, ?2)";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	public Long upsert(JpaRepositoryStateMachine stateMachine, boolean writeCollections) {
+		try {
+			Long version = doUpsert(stateMachine, writeCollections);
+			if (version == null) {
+				entityManager.flush();
+				version = stateMachine.getVersion();
+			}
+			return version;
+		} catch (PersistenceException e) {
+			throw translate(e, stateMachine.getMachineId());
+		}
+	}
+
+	@Override
+	@Transactional
+	public List<Long> upsertAll(List<JpaRepositoryStateMachine> stateMachines, Collection<String> unchangedCollections) {
+		List<Long> versions = new ArrayList<>(stateMachines.size());
+		List<String> machineIds = new ArrayList<>(stateMachines.size());
+		try {
+			for (JpaRepositoryStateMachine stateMachine : stateMachines) {
+				machineIds.add(stateMachine.getMachineId());
+				versions.add(doUpsert(stateMachine, !unchangedCollections.contains(stateMachine.getMachineId())));
+			}
+			// inserts are flushed together
+			entityManager.flush();
+		} catch (PersistenceException e) {
+			throw translate(e, machineIds);
+		}
+		for (int i = 0; i < versions.size(); i++) {
+			if (versions.get(i) == null) {
+				versions.set(i, stateMachines.get(i).getVersion());
+			}
+		}
+		return versions;
+	}
+
+	/**
+	 * Writes a state machine and returns its new version, or {@code null} if
+	 * it was persisted and version is known only after a flush.
+	 */
+	private Long doUpsert(JpaRepositoryStateMachine stateMachine, boolean writeCollections) {
+		Long version = stateMachine.getVersion();
+		boolean versioned = true;
+		if (version == null) {
+			List<Long> versions = entityManager.createQuery(SELECT_VERSION, Long.class)
+					.setParameter("machineId", stateMachine.getMachineId())
+					.getResultList();
+			if (versions.isEmpty()) {
+				// inserted with its collections when flushed, fails on a
+				// duplicate id if a row was inserted meanwhile
+				entityManager.persist(stateMachine);
+				return null;
+			}
+			version = versions.get(0);
+			versioned = version != null;
+		}
+		Query query = entityManager.createQuery(versioned ? VERSIONED_UPDATE : UNVERSIONED_UPDATE)
+				.setParameter("state", stateMachine.getState())
+				.setParameter("context", stateMachine.getStateMachineContext())
+				.setParameter("compressed", stateMachine.isContextCompressed())
+				.setParameter("machineId", stateMachine.getMachineId());
+		if (versioned) {
+			query.setParameter("version", version);
+		}
+		if (query.executeUpdate() == 0) {
+			throw new ObjectOptimisticLockingFailureException(JpaRepositoryStateMachine.class,
+					stateMachine.getMachineId());
+		}
+		if (writeCollections) {
+			writeCollection(SELECT_ACTIVE_STATES, DELETE_ACTIVE_STATES, INSERT_ACTIVE_STATE,
+					stateMachine.getMachineId(), stateMachine.getActiveStates());
+			writeCollection(SELECT_VARIABLES, DELETE_VARIABLES, INSERT_VARIABLE, stateMachine.getMachineId(),
+					stateMachine.getIndexedVariables());
+		}
+		return versioned ? version + 1 : 1L;
+	}
+
+	/**
+	 * Translates a failed insert caused by a row inserted concurrently into an
+	 * optimistic locking failure, other errors are passed as is.
+	 */
+	private static RuntimeException translate(PersistenceException e, Object identifier) {
+		Throwable cause = e;
+		while (cause != null) {
+			if (cause instanceof SQLException) {
+				String sqlState = ((SQLException) cause).getSQLState();
+				if (sqlState != null && sqlState.startsWith(INTEGRITY_VIOLATION_SQL_STATE_CLASS)) {
+					return new ObjectOptimisticLockingFailureException(JpaRepositoryStateMachine.class, identifier, e);
+				}
+			}
+			cause = cause.getCause();
+		}
+		return e;
+	}
+
+	/**
+	 * Rewrites a collection table if stored values differ from given ones.
+	 */
+	private void writeCollection(String select, String delete, String insert, String machineId, Set<String> values) {
+		List<?> stored = entityManager.createNativeQuery(select).setParameter(1, machineId).getResultList();
+		if (new HashSet<Object>(stored).equals(values != null ? values : Collections.emptySet())) {
+			return;
+		}
+		entityManager.createNativeQuery(delete).setParameter(1, machineId).executeUpdate();
+		if (values != null) {
+			for (String value : values) {
+				entityManager.createNativeQuery(insert).setParameter(1, machineId).setParameter(2, value)
+						.executeUpdate();
+			}
+		}
+	}
+}
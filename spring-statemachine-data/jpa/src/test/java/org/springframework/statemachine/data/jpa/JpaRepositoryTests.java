@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2020 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,17 @@
 package org.springframework.statemachine.data.jpa;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.springframework.statemachine.TestUtils.doSendEventAndConsumeAll;
 import static org.springframework.statemachine.TestUtils.doStartAndAssert;
 import static org.springframework.statemachine.TestUtils.resolveMachine;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -33,7 +37,11 @@ import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
 import org.springframework.statemachine.config.EnableStateMachine;
 import org.springframework.statemachine.config.StateMachineConfigurerAdapter;
 import org.springframework.statemachine.config.builders.StateMachineConfigurationConfigurer;
@@ -41,11 +49,14 @@ import org.springframework.statemachine.config.builders.StateMachineStateConfigu
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
 import org.springframework.statemachine.data.AbstractRepositoryTests;
 import org.springframework.statemachine.data.RepositoryState;
+import org.springframework.statemachine.data.RepositoryStateMachineId;
 import org.springframework.statemachine.data.RepositoryTransition;
 import org.springframework.statemachine.data.StateMachineRepository;
 import org.springframework.statemachine.data.StateRepository;
 import org.springframework.statemachine.data.TransitionRepository;
 import org.springframework.statemachine.persist.StateMachineRuntimePersister;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
 import org.springframework.statemachine.transition.TransitionKind;
 
 /**
@@ -272,6 +283,172 @@ public class JpaRepositoryTests extends AbstractRepositoryTests {
 		assertThat(machine1x.getStateMachineContext().length).isEqualTo(1);
 	}
 
+	@Test
+	public void testFindByActiveStates() throws Exception {
+		context.register(TestConfig.class);
+		context.refresh();
+
+		JpaStateMachineRepository stateMachineRepository = context.getBean(JpaStateMachineRepository.class);
+		JpaRepositoryStateMachinePersist<String, String> persist = new JpaRepositoryStateMachinePersist<>(stateMachineRepository);
+		persist.setIndexedVariables("customer");
+		for (int i = 0; i < 5; i++) {
+			List<StateMachineContext<String, String>> childs = new ArrayList<>();
+			childs.add(new DefaultStateMachineContext<String, String>(i % 2 == 0 ? "S11" : "S12", null, null,
+					new DefaultExtendedState(), null, "R1"));
+			childs.add(new DefaultStateMachineContext<String, String>("S21", null, null, new DefaultExtendedState(),
+					null, "R2"));
+			DefaultExtendedState extendedState = new DefaultExtendedState();
+			extendedState.getVariables().put("customer", "c" + (i % 2));
+			extendedState.getVariables().put("other", "x");
+			persist.write(new DefaultStateMachineContext<String, String>(childs, "S1", null, null, extendedState, null,
+					"machine" + i), "machine" + i);
+		}
+
+		Slice<RepositoryStateMachineId> page1 = stateMachineRepository.findByActiveStates("S11", PageRequest.of(0, 2));
+		assertThat(page1.getContent()).hasSize(2);
+		assertThat(page1.hasNext()).isTrue();
+		Slice<RepositoryStateMachineId> page2 = stateMachineRepository.findByActiveStates("S11", page1.nextPageable());
+		assertThat(page2.getContent()).hasSize(1);
+		assertThat(page2.hasNext()).isFalse();
+
+		Set<String> ids = page1.getContent().stream().map(id -> id.getMachineId()).collect(Collectors.toSet());
+		ids.add(page2.getContent().get(0).getMachineId());
+		assertThat(ids).containsOnly("machine0", "machine2", "machine4");
+
+		assertThat(stateMachineRepository.findByRegionState("R1", "S12", PageRequest.of(0, 10)).getContent())
+				.extracting(id -> id.getMachineId()).containsOnly("machine1", "machine3");
+		assertThat(stateMachineRepository.findByRegionState("R2", "S12", PageRequest.of(0, 10)).getContent()).isEmpty();
+		assertThat(stateMachineRepository.findByVariable("customer", "c1", PageRequest.of(0, 10)).getContent())
+				.extracting(id -> id.getMachineId()).containsOnly("machine1", "machine3");
+		assertThat(stateMachineRepository.findByVariable("other", "x", PageRequest.of(0, 10)).getContent()).isEmpty();
+	}
+
+	@Test
+	public void testVersionedWrites() throws Exception {
+		context.register(TestConfig.class);
+		context.refresh();
+
+		JpaStateMachineRepository stateMachineRepository = context.getBean(JpaStateMachineRepository.class);
+		JpaRepositoryStateMachinePersist<String, String> persist1 = new JpaRepositoryStateMachinePersist<>(stateMachineRepository);
+		JpaRepositoryStateMachinePersist<String, String> persist2 = new JpaRepositoryStateMachinePersist<>(stateMachineRepository);
+		persist1.setCompressContext(true);
+
+		persist1.write(new DefaultStateMachineContext<String, String>("S1", null, null, null, null, "machine1"), "machine1");
+		persist1.write(new DefaultStateMachineContext<String, String>("S2", null, null, null, null, "machine1"), "machine1");
+		JpaRepositoryStateMachine machine1 = stateMachineRepository.findById("machine1").get();
+		assertThat(machine1.getVersion()).isEqualTo(1l);
+		assertThat(machine1.getState()).isEqualTo("S2");
+		assertThat(stateMachineRepository.findByActiveStates("S2", PageRequest.of(0, 10)).getContent())
+				.extracting(id -> id.getMachineId()).containsOnly("machine1");
+		assertThat(stateMachineRepository.findByActiveStates("S1", PageRequest.of(0, 10)).getContent()).isEmpty();
+		assertThat(machine1.isContextCompressed()).isTrue();
+
+		assertThat(persist2.read("machine1").getState()).isEqualTo("S2");
+		persist1.write(new DefaultStateMachineContext<String, String>("S3", null, null, null, null, "machine1"), "machine1");
+		assertThatThrownBy(() -> persist2
+				.write(new DefaultStateMachineContext<String, String>("S1", null, null, null, null, "machine1"), "machine1"))
+						.isInstanceOf(OptimisticLockingFailureException.class);
+
+		assertThat(persist2.read("machine1").getState()).isEqualTo("S3");
+		persist2.write(new DefaultStateMachineContext<String, String>("S1", null, null, null, null, "machine1"), "machine1");
+		assertThat(stateMachineRepository.findById("machine1").get().getVersion()).isEqualTo(3l);
+		assertThat(stateMachineRepository.count()).isEqualTo(1l);
+	}
+
+	@Test
+	public void testUnversionedWriteKeepsVersion() throws Exception {
+		context.register(TestConfig.class);
+		context.refresh();
+
+		JpaStateMachineRepository stateMachineRepository = context.getBean(JpaStateMachineRepository.class);
+		JpaRepositoryStateMachinePersist<String, String> persist1 = new JpaRepositoryStateMachinePersist<>(stateMachineRepository);
+		JpaRepositoryStateMachinePersist<String, String> persist2 = new JpaRepositoryStateMachinePersist<>(stateMachineRepository);
+
+		persist1.write(new DefaultStateMachineContext<String, String>("S1", null, null, null, null, "machine1"), "machine1");
+		// persist2 doesn't know a version, so it reads it before an update
+		persist2.write(new DefaultStateMachineContext<String, String>("S2", null, null, null, null, "machine1"), "machine1");
+		assertThat(stateMachineRepository.findById("machine1").get().getVersion()).isEqualTo(1l);
+
+		assertThatThrownBy(() -> persist1
+				.write(new DefaultStateMachineContext<String, String>("S3", null, null, null, null, "machine1"), "machine1"))
+						.isInstanceOf(OptimisticLockingFailureException.class);
+		persist2.write(new DefaultStateMachineContext<String, String>("S3", null, null, null, null, "machine1"), "machine1");
+		JpaRepositoryStateMachine machine1 = stateMachineRepository.findById("machine1").get();
+		assertThat(machine1.getVersion()).isEqualTo(2l);
+		assertThat(machine1.getState()).isEqualTo("S3");
+	}
+
+	@Test
+	public void testUnknownVersionCollectionsWrittenOnlyIfChanged() throws Exception {
+		context.register(TestConfig.class);
+		context.refresh();
+
+		JpaStateMachineRepository stateMachineRepository = context.getBean(JpaStateMachineRepository.class);
+		JpaRepositoryStateMachinePersist<String, String> persist1 = new JpaRepositoryStateMachinePersist<>(stateMachineRepository);
+		JpaRepositoryStateMachinePersist<String, String> persist2 = new JpaRepositoryStateMachinePersist<>(stateMachineRepository, 1);
+
+		persist1.write(new DefaultStateMachineContext<String, String>("S1", null, null, null, null, "machine1"), "machine1");
+		persist2.write(new DefaultStateMachineContext<String, String>("S1", null, null, null, null, "machine2"), "machine2");
+		// persist2 keeps a single machine, so versions and collections of others are read
+		persist2.write(new DefaultStateMachineContext<String, String>("S1", null, null, null, null, "machine1"), "machine1");
+		persist2.write(new DefaultStateMachineContext<String, String>("S2", null, null, null, null, "machine2"), "machine2");
+		assertThat(stateMachineRepository.findById("machine1").get().getVersion()).isEqualTo(1l);
+		assertThat(stateMachineRepository.findById("machine2").get().getVersion()).isEqualTo(1l);
+		assertThat(stateMachineRepository.findByActiveStates("S1", PageRequest.of(0, 10)).getContent())
+				.extracting(id -> id.getMachineId()).containsOnly("machine1");
+		assertThat(stateMachineRepository.findByActiveStates("S2", PageRequest.of(0, 10)).getContent())
+				.extracting(id -> id.getMachineId()).containsOnly("machine2");
+
+		assertThatThrownBy(() -> persist1
+				.write(new DefaultStateMachineContext<String, String>("S3", null, null, null, null, "machine1"), "machine1"))
+						.isInstanceOf(OptimisticLockingFailureException.class);
+	}
+
+	@Test
+	public void testUncompressedContextReadWithCompression() throws Exception {
+		context.register(TestConfig.class);
+		context.refresh();
+
+		JpaStateMachineRepository stateMachineRepository = context.getBean(JpaStateMachineRepository.class);
+		JpaRepositoryStateMachinePersist<String, String> persist1 = new JpaRepositoryStateMachinePersist<>(stateMachineRepository);
+		JpaRepositoryStateMachinePersist<String, String> persist2 = new JpaRepositoryStateMachinePersist<>(stateMachineRepository);
+		persist2.setCompressContext(true);
+
+		persist1.write(new DefaultStateMachineContext<String, String>("S1", null, null, null, null, "machine1"), "machine1");
+		assertThat(stateMachineRepository.findById("machine1").get().isContextCompressed()).isFalse();
+		assertThat(persist2.read("machine1").getState()).isEqualTo("S1");
+
+		persist2.write(new DefaultStateMachineContext<String, String>("S2", null, null, null, null, "machine1"), "machine1");
+		assertThat(stateMachineRepository.findById("machine1").get().isContextCompressed()).isTrue();
+		assertThat(persist1.read("machine1").getState()).isEqualTo("S2");
+	}
+
+	@Test
+	public void testWriteAllAndReadAllWithChildReferences() throws Exception {
+		context.register(TestConfig.class);
+		context.refresh();
+
+		JpaStateMachineRepository stateMachineRepository = context.getBean(JpaStateMachineRepository.class);
+		JpaRepositoryStateMachinePersist<String, String> persist = new JpaRepositoryStateMachinePersist<>(stateMachineRepository);
+		Map<Object, StateMachineContext<String, String>> contexts = new LinkedHashMap<>();
+		contexts.put("child1", new DefaultStateMachineContext<String, String>("S11", null, null,
+				new DefaultExtendedState(), null, "child1"));
+		contexts.put("child2", new DefaultStateMachineContext<String, String>("S21", null, null,
+				new DefaultExtendedState(), null, "child2"));
+		contexts.put("machine1", new DefaultStateMachineContext<String, String>(Arrays.asList("child1", "child2"),
+				new ArrayList<>(), "S1", null, null, new DefaultExtendedState(), null, "machine1"));
+		contexts.put("machine2", new DefaultStateMachineContext<String, String>("S2", null, null,
+				new DefaultExtendedState(), null, "machine2"));
+		persist.writeAll(contexts);
+
+		Map<Object, StateMachineContext<String, String>> read = persist.readAll(Arrays.asList("machine1", "machine2", "machine3"));
+		assertThat(read).containsOnlyKeys("machine1", "machine2");
+		assertThat(read.get("machine1").getState()).isEqualTo("S1");
+		assertThat(read.get("machine1").getChilds()).extracting(child -> child.getState()).containsExactly("S11", "S21");
+		assertThat(read.get("machine2").getState()).isEqualTo("S2");
+		assertThat(read.get("machine2").getChilds()).isEmpty();
+	}
+
 	@Override
 	protected AnnotationConfigApplicationContext buildContext() {
 		return new AnnotationConfigApplicationContext();
@@ -0,0 +1,609 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.data.mongodb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.bson.conversions.Bson;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.ClassTypeInformation;
+import org.springframework.statemachine.ExtendedState;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachineException;
+import org.springframework.statemachine.StateMachinePersist;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+import org.springframework.util.Assert;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * {@link StateMachinePersist} storing a {@link StateMachineContext} as a
+ * native {@code MongoDb} document instead of a serialised blob. Child
+ * contexts, history states, event headers and extended state variables are
+ * mapped into nested documents so that those can be queried and indexed on
+ * a server side.
+ * <p>
+ * Documents carry a {@code version} field. A write of a context which was
+ * earlier read or written by this persist only sends changed fields with
+ * {@code $set} and {@code $unset}, guarded by a version which was seen last,
+ * and fails with {@link OptimisticLockingFailureException} if a document has
+ * been changed elsewhere. A context which failed this way needs to be read
+ * again before it can be written. Without a known version, after a restart
+ * or when a context has dropped out of a cache, a current version is read
+ * first and a whole document is replaced only if it's still at that version,
+ * or inserted only if it doesn't exist. Extended state variables are stored per key so a change to one
+ * variable updates only that field. Variables need {@link String} keys and
+ * their values are written with a {@link MongoOperations} converter, meaning
+ * enum values are read back as strings.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class MongoDbDocumentStateMachinePersist<S, E> implements StateMachinePersist<S, E, Object> {
+
+	private final static Log log = LogFactory.getLog(MongoDbDocumentStateMachinePersist.class);
+	private static final String FIELD_ID = "_id";
+	private static final String FIELD_VERSION = "version";
+	private static final String FIELD_MACHINE_ID = "machineId";
+	private static final String FIELD_STATE = "state";
+	private static final String FIELD_EVENT = "event";
+	private static final String FIELD_EVENT_HEADERS = "eventHeaders";
+	private static final String FIELD_VARIABLES = "variables";
+	private static final String FIELD_HISTORY_STATES = "historyStates";
+	private static final String FIELD_HISTORY = "history";
+	private static final String FIELD_CHILDS = "childs";
+	private static final String FIELD_CHILD_REFS = "childRefs";
+	private static final String FIELD_WRITE = "lastWrite";
+	private static final int DUPLICATE_KEY = 11000;
+	private static final String[] OPTIONAL_FIELDS = new String[] { FIELD_MACHINE_ID, FIELD_STATE, FIELD_EVENT,
+			FIELD_EVENT_HEADERS, FIELD_HISTORY_STATES, FIELD_CHILDS, FIELD_CHILD_REFS };
+	private final MongoOperations mongoOperations;
+	private final Class<S> stateType;
+	private final Class<E> eventType;
+	private final Map<Object, Written> written;
+	private String collectionName = "MongoDbStateMachineContext";
+	private boolean restoreEventHeaders = true;
+
+	/**
+	 * Instantiates a new mongodb document state machine persist.
+	 *
+	 * @param mongoOperations the mongo operations
+	 * @param stateType the state type
+	 * @param eventType the event type
+	 */
+	public MongoDbDocumentStateMachinePersist(MongoOperations mongoOperations, Class<S> stateType, Class<E> eventType) {
+		this(mongoOperations, stateType, eventType, 10000);
+	}
+
+	/**
+	 * Instantiates a new mongodb document state machine persist.
+	 *
+	 * @param mongoOperations the mongo operations
+	 * @param stateType the state type
+	 * @param eventType the event type
+	 * @param cacheSize how many last seen documents are kept for partial updates
+	 */
+	@SuppressWarnings("serial")
+	public MongoDbDocumentStateMachinePersist(MongoOperations mongoOperations, Class<S> stateType, Class<E> eventType,
+			int cacheSize) {
+		Assert.notNull(mongoOperations, "'mongoOperations' must be set");
+		Assert.notNull(stateType, "'stateType' must be set");
+		Assert.notNull(eventType, "'eventType' must be set");
+		this.mongoOperations = mongoOperations;
+		this.stateType = stateType;
+		this.eventType = eventType;
+		this.written = Collections.synchronizedMap(new LinkedHashMap<Object, Written>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Entry<Object, Written> eldest) {
+				return size() > cacheSize;
+			}
+		});
+	}
+
+	@Override
+	public void write(StateMachineContext<S, E> context, Object contextObj) throws Exception {
+		Map<String, Object> fields = toFields(context);
+		Written previous = written.get(contextObj);
+		if (previous == null) {
+			written.put(contextObj, new Written(replace(contextObj, fields), fields));
+			return;
+		}
+		Update update = partialUpdate(fields, previous);
+		if (update == null) {
+			return;
+		}
+		UpdateResult result = mongoOperations.updateFirst(versionQuery(contextObj, previous.version), update,
+				collectionName);
+		if (result.getMatchedCount() == 0) {
+			// keep a stale version so that retries fail until a context is read again
+			throw new OptimisticLockingFailureException("Context " + contextObj + " was modified after version "
+					+ previous.version);
+		}
+		written.put(contextObj, new Written(previous.version + 1, fields));
+	}
+
+	@Override
+	public StateMachineContext<S, E> read(Object contextObj) throws Exception {
+		return readAll(Collections.singletonList(contextObj)).get(contextObj);
+	}
+
+	/**
+	 * Writes contexts with a single unordered bulk write. Contexts having a
+	 * last seen version are updated partially, current versions of others are
+	 * read with one {@code $in} query and those are replaced the same way as
+	 * with {@link #write(StateMachineContext, Object)}. Documents are marked
+	 * with an id of a bulk write so that contexts which didn't match can be
+	 * told apart. Contexts which were written keep their new version even if
+	 * others failed, and {@link OptimisticLockingFailureException} names the
+	 * contexts which were modified concurrently.
+	 */
+	@Override
+	public void writeAll(Map<Object, StateMachineContext<S, E>> contexts) throws Exception {
+		List<Object> misses = new ArrayList<>();
+		for (Object contextObj : contexts.keySet()) {
+			if (!written.containsKey(contextObj)) {
+				misses.add(contextObj);
+			}
+		}
+		Map<Object, Long> versions = misses.isEmpty() ? Collections.emptyMap() : versions(misses);
+		BulkOperations operations = null;
+		ObjectId write = new ObjectId();
+		List<Object> ids = new ArrayList<>();
+		Map<Object, Written> expected = new LinkedHashMap<>();
+		for (Entry<Object, StateMachineContext<S, E>> entry : contexts.entrySet()) {
+			Map<String, Object> fields = toFields(entry.getValue());
+			Written previous = written.get(entry.getKey());
+			long version;
+			Update update;
+			if (previous == null) {
+				Long current = versions.get(entry.getKey());
+				version = current != null ? current : 0;
+				update = replaceUpdate(fields);
+			} else {
+				version = previous.version;
+				update = partialUpdate(fields, previous);
+				if (update == null) {
+					continue;
+				}
+			}
+			update.set(FIELD_WRITE, write);
+			if (operations == null) {
+				operations = mongoOperations.bulkOps(BulkMode.UNORDERED, collectionName);
+			}
+			if (previous == null && !versions.containsKey(entry.getKey())) {
+				operations.upsert(versionQuery(entry.getKey(), 0), update);
+			} else {
+				operations.updateOne(versionQuery(entry.getKey(), version), update);
+			}
+			ids.add(entry.getKey());
+			expected.put(entry.getKey(), new Written(version + 1, fields));
+		}
+		if (operations == null) {
+			return;
+		}
+		Set<Object> conflicts = new LinkedHashSet<>();
+		BulkWriteResult result;
+		try {
+			result = operations.execute();
+		} catch (BulkOperationException e) {
+			for (BulkWriteError error : e.getErrors()) {
+				if (error.getCode() != DUPLICATE_KEY) {
+					throw e;
+				}
+				// insert of a context created concurrently
+				conflicts.add(ids.get(error.getIndex()));
+			}
+			result = e.getResult();
+		}
+		if (result.getMatchedCount() + result.getUpserts().size() + conflicts.size() < ids.size()) {
+			// counts don't tell which updates didn't match, find documents
+			// which still carry a marker of this write
+			Set<Object> matched = new HashSet<>();
+			for (Document document : mongoOperations.getCollection(collectionName)
+					.find(new Document(FIELD_ID, new Document("$in", ids)).append(FIELD_WRITE, write))
+					.projection(new Document(FIELD_ID, 1))) {
+				matched.add(document.get(FIELD_ID));
+			}
+			for (Object contextObj : ids) {
+				if (!matched.contains(contextObj)) {
+					conflicts.add(contextObj);
+				}
+			}
+		}
+		for (Entry<Object, Written> entry : expected.entrySet()) {
+			if (!conflicts.contains(entry.getKey())) {
+				written.put(entry.getKey(), entry.getValue());
+			}
+		}
+		if (!conflicts.isEmpty()) {
+			throw new OptimisticLockingFailureException("Contexts " + conflicts + " were modified concurrently");
+		}
+	}
+
+	/**
+	 * Reads contexts with a single {@code $in} query and resolves child
+	 * context references with another one.
+	 */
+	@Override
+	public Map<Object, StateMachineContext<S, E>> readAll(Collection<Object> contextObjs) throws Exception {
+		Map<Object, Document> documents = find(contextObjs);
+		Set<Object> childRefs = new LinkedHashSet<>();
+		Map<Object, StateMachineContext<S, E>> contexts = new LinkedHashMap<>();
+		for (Object contextObj : contextObjs) {
+			Document document = documents.get(contextObj);
+			if (document == null) {
+				continue;
+			}
+			StateMachineContext<S, E> context = fromDocument(document);
+			written.put(contextObj, new Written(version(document), toFields(context)));
+			if (context.getChilds().isEmpty()) {
+				childRefs.addAll(context.getChildReferences());
+			}
+			contexts.put(contextObj, context);
+		}
+		if (!childRefs.isEmpty()) {
+			Map<Object, Document> childDocuments = find(childRefs);
+			for (Entry<Object, StateMachineContext<S, E>> entry : contexts.entrySet()) {
+				StateMachineContext<S, E> context = entry.getValue();
+				if (!context.getChilds().isEmpty() || context.getChildReferences().isEmpty()) {
+					continue;
+				}
+				List<StateMachineContext<S, E>> childs = new ArrayList<>();
+				for (String childRef : context.getChildReferences()) {
+					Document child = childDocuments.get(childRef);
+					if (child != null) {
+						childs.add(fromDocument(child));
+					}
+				}
+				entry.setValue(new DefaultStateMachineContext<S, E>(context.getChildReferences(), childs,
+						context.getState(), context.getEvent(), context.getEventHeaders(), context.getExtendedState(),
+						context.getHistoryStates(), context.getId()));
+			}
+		}
+		return contexts;
+	}
+
+	/**
+	 * Forgets a last seen version of a context, causing a next write to
+	 * replace a whole document at its current version.
+	 *
+	 * @param contextObj the context object
+	 */
+	public void evict(Object contextObj) {
+		written.remove(contextObj);
+	}
+
+	/**
+	 * Sets the collection name. Defaults to {@code MongoDbStateMachineContext}.
+	 *
+	 * @param collectionName the collection name
+	 */
+	public void setCollectionName(String collectionName) {
+		Assert.hasText(collectionName, "'collectionName' must be set");
+		this.collectionName = collectionName;
+	}
+
+	/**
+	 * Sets if event headers are fetched on restore. Defaults to {@code true}.
+	 *
+	 * @param restoreEventHeaders the restore event headers flag
+	 */
+	public void setRestoreEventHeaders(boolean restoreEventHeaders) {
+		this.restoreEventHeaders = restoreEventHeaders;
+	}
+
+	private Map<Object, Document> find(Collection<Object> contextObjs) {
+		Document projection = new Document();
+		projection.put(FIELD_VERSION, 1);
+		projection.put(FIELD_MACHINE_ID, 1);
+		projection.put(FIELD_STATE, 1);
+		projection.put(FIELD_EVENT, 1);
+		projection.put(FIELD_VARIABLES, 1);
+		projection.put(FIELD_HISTORY_STATES, 1);
+		projection.put(FIELD_CHILDS, 1);
+		projection.put(FIELD_CHILD_REFS, 1);
+		if (restoreEventHeaders) {
+			projection.put(FIELD_EVENT_HEADERS, 1);
+		}
+		Map<Object, Document> documents = new HashMap<>();
+		for (Document document : mongoOperations.getCollection(collectionName)
+				.find(new Document(FIELD_ID, new Document("$in", new ArrayList<>(contextObjs)))).projection(projection)) {
+			documents.put(document.get(FIELD_ID), document);
+		}
+		return documents;
+	}
+
+	/**
+	 * Replaces a whole document if it's still at a version it had just before
+	 * a replace, inserts it only if it doesn't exist at all.
+	 */
+	private long replace(Object contextObj, Map<String, Object> fields) {
+		Query query = Query.query(Criteria.where(FIELD_ID).is(contextObj));
+		query.fields().include(FIELD_VERSION);
+		Document current = mongoOperations.findOne(query, Document.class, collectionName);
+		long version = current != null ? version(current) : 0;
+		try {
+			if (current == null) {
+				// matches nothing if a document was created meanwhile, in which
+				// case an insert fails on a duplicate id
+				mongoOperations.upsert(versionQuery(contextObj, 0), replaceUpdate(fields), collectionName);
+			} else if (mongoOperations.updateFirst(versionQuery(contextObj, version), replaceUpdate(fields),
+					collectionName).getMatchedCount() == 0) {
+				throw new OptimisticLockingFailureException("Context " + contextObj + " was modified after version "
+						+ version);
+			}
+		} catch (DuplicateKeyException e) {
+			throw new OptimisticLockingFailureException("Context " + contextObj + " was created concurrently", e);
+		}
+		return version + 1;
+	}
+
+	private Map<Object, Long> versions(Collection<Object> contextObjs) {
+		Map<Object, Long> versions = new HashMap<>();
+		for (Document document : mongoOperations.getCollection(collectionName)
+				.find(new Document(FIELD_ID, new Document("$in", new ArrayList<>(contextObjs))))
+				.projection(new Document(FIELD_VERSION, 1))) {
+			versions.put(document.get(FIELD_ID), version(document));
+		}
+		return versions;
+	}
+
+	private static long version(Document document) {
+		Number version = document.get(FIELD_VERSION, Number.class);
+		return version != null ? version.longValue() : 0;
+	}
+
+	private static Update replaceUpdate(Map<String, Object> fields) {
+		Update update = new Update();
+		for (Entry<String, Object> entry : fields.entrySet()) {
+			if (!entry.getKey().startsWith(FIELD_VARIABLES + ".")) {
+				update.set(entry.getKey(), entry.getValue());
+			}
+		}
+		update.set(FIELD_VARIABLES, variables(fields));
+		for (String field : OPTIONAL_FIELDS) {
+			if (!fields.containsKey(field)) {
+				update.unset(field);
+			}
+		}
+		update.inc(FIELD_VERSION, 1);
+		return update;
+	}
+
+	private static Update partialUpdate(Map<String, Object> fields, Written previous) {
+		Update update = new Update();
+		boolean changed = false;
+		for (Entry<String, Object> entry : fields.entrySet()) {
+			if (!Objects.equals(entry.getValue(), previous.fields.get(entry.getKey()))) {
+				update.set(entry.getKey(), entry.getValue());
+				changed = true;
+			}
+		}
+		for (String key : previous.fields.keySet()) {
+			if (!fields.containsKey(key)) {
+				update.unset(key);
+				changed = true;
+			}
+		}
+		if (!changed) {
+			return null;
+		}
+		update.inc(FIELD_VERSION, 1);
+		return update;
+	}
+
+	private static Query versionQuery(Object contextObj, long version) {
+		Criteria criteria = Criteria.where(FIELD_ID).is(contextObj);
+		// version 0 stands for a document without a version field
+		return Query.query(version > 0 ? criteria.and(FIELD_VERSION).is(version) : criteria.and(FIELD_VERSION).exists(false));
+	}
+
+	private Map<String, Object> toFields(StateMachineContext<S, E> context) {
+		Map<String, Object> fields = new LinkedHashMap<>();
+		Document document = toDocument(context);
+		for (Entry<String, Object> entry : document.entrySet()) {
+			if (FIELD_VARIABLES.equals(entry.getKey())) {
+				for (Entry<String, Object> variable : ((Document) entry.getValue()).entrySet()) {
+					fields.put(FIELD_VARIABLES + "." + variable.getKey(), variable.getValue());
+				}
+			} else {
+				fields.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return fields;
+	}
+
+	private static Document variables(Map<String, Object> fields) {
+		Document variables = new Document();
+		for (Entry<String, Object> entry : fields.entrySet()) {
+			if (entry.getKey().startsWith(FIELD_VARIABLES + ".")) {
+				variables.put(entry.getKey().substring(FIELD_VARIABLES.length() + 1), entry.getValue());
+			}
+		}
+		return variables;
+	}
+
+	private Document toDocument(StateMachineContext<S, E> context) {
+		Document document = new Document();
+		putIfNotNull(document, FIELD_MACHINE_ID, context.getId());
+		putIfNotNull(document, FIELD_STATE, convert(context.getState()));
+		putIfNotNull(document, FIELD_EVENT, convert(context.getEvent()));
+		if (context.getEventHeaders() != null && !context.getEventHeaders().isEmpty()) {
+			Document headers = new Document();
+			for (Entry<String, Object> entry : context.getEventHeaders().entrySet()) {
+				headers.put(encodeKey(entry.getKey()), convert(entry.getValue()));
+			}
+			document.put(FIELD_EVENT_HEADERS, headers);
+		}
+		Document variables = new Document();
+		if (context.getExtendedState() != null) {
+			for (Entry<Object, Object> entry : context.getExtendedState().getVariables().entrySet()) {
+				if (!(entry.getKey() instanceof String)) {
+					throw new StateMachineException("Extended state variable key " + entry.getKey() + " is not a String");
+				}
+				variables.put(encodeKey((String) entry.getKey()), convert(entry.getValue()));
+			}
+		}
+		document.put(FIELD_VARIABLES, variables);
+		if (context.getHistoryStates() != null && !context.getHistoryStates().isEmpty()) {
+			List<Document> historyStates = new ArrayList<>();
+			for (Entry<S, S> entry : context.getHistoryStates().entrySet()) {
+				Document history = new Document();
+				history.put(FIELD_STATE, convert(entry.getKey()));
+				history.put(FIELD_HISTORY, convert(entry.getValue()));
+				historyStates.add(history);
+			}
+			document.put(FIELD_HISTORY_STATES, historyStates);
+		}
+		if (context.getChilds() != null && !context.getChilds().isEmpty()) {
+			List<Document> childs = new ArrayList<>();
+			for (StateMachineContext<S, E> child : context.getChilds()) {
+				childs.add(toDocument(child));
+			}
+			document.put(FIELD_CHILDS, childs);
+		}
+		if (context.getChildReferences() != null && !context.getChildReferences().isEmpty()) {
+			document.put(FIELD_CHILD_REFS, new ArrayList<>(context.getChildReferences()));
+		}
+		return document;
+	}
+
+	@SuppressWarnings("unchecked")
+	private StateMachineContext<S, E> fromDocument(Document document) {
+		S state = convert(document.get(FIELD_STATE), stateType);
+		E event = convert(document.get(FIELD_EVENT), eventType);
+		Map<String, Object> headers = new HashMap<>();
+		Document headersDocument = document.get(FIELD_EVENT_HEADERS, Document.class);
+		if (headersDocument != null) {
+			for (Entry<String, Object> entry : headersDocument.entrySet()) {
+				headers.put(decodeKey(entry.getKey()), read(entry.getValue()));
+			}
+		}
+		ExtendedState extendedState = new DefaultExtendedState();
+		Document variables = document.get(FIELD_VARIABLES, Document.class);
+		if (variables != null) {
+			for (Entry<String, Object> entry : variables.entrySet()) {
+				extendedState.getVariables().put(decodeKey(entry.getKey()), read(entry.getValue()));
+			}
+		}
+		Map<S, S> historyStates = new HashMap<>();
+		List<Document> historyDocuments = (List<Document>) document.get(FIELD_HISTORY_STATES);
+		if (historyDocuments != null) {
+			for (Document history : historyDocuments) {
+				historyStates.put(convert(history.get(FIELD_STATE), stateType), convert(history.get(FIELD_HISTORY), stateType));
+			}
+		}
+		List<StateMachineContext<S, E>> childs = new ArrayList<>();
+		List<Document> childDocuments = (List<Document>) document.get(FIELD_CHILDS);
+		if (childDocuments != null) {
+			for (Document child : childDocuments) {
+				childs.add(fromDocument(child));
+			}
+		}
+		List<String> childRefs = new ArrayList<>();
+		List<String> childRefDocuments = (List<String>) document.get(FIELD_CHILD_REFS);
+		if (childRefDocuments != null) {
+			childRefs.addAll(childRefDocuments);
+		}
+		return new DefaultStateMachineContext<S, E>(childRefs, childs, state, event, headers, extendedState,
+				historyStates, document.getString(FIELD_MACHINE_ID));
+	}
+
+	private Object convert(Object value) {
+		if (value == null) {
+			return null;
+		}
+		return mongoOperations.getConverter().convertToMongoType(value, ClassTypeInformation.OBJECT);
+	}
+
+	private <T> T convert(Object value, Class<T> type) {
+		if (value == null) {
+			return null;
+		}
+		return mongoOperations.getConverter().getConversionService().convert(read(value), type);
+	}
+
+	private Object read(Object value) {
+		if (value instanceof Bson) {
+			try {
+				return mongoOperations.getConverter().read(Object.class, (Bson) value);
+			} catch (RuntimeException e) {
+				if (log.isDebugEnabled()) {
+					log.debug("Unable to map document " + value + ", using it as is", e);
+				}
+			}
+		}
+		return value;
+	}
+
+	private static void putIfNotNull(Document document, String key, Object value) {
+		if (value != null) {
+			document.put(key, value);
+		}
+	}
+
+	private static String encodeKey(String key) {
+		String encoded = key.replace("%", "%25").replace(".", "%2E");
+		return encoded.startsWith("$") ? "%24" + encoded.substring(1) : encoded;
+	}
+
+	private static String decodeKey(String key) {
+		return key.replace("%24", "$").replace("%2E", ".").replace("%25", "%");
+	}
+
+	/**
+	 * Fields of a document as last read or written.
+	 */
+	private static class Written {
+
+		final long version;
+		final Map<String, Object> fields;
+
+		Written(long version, Map<String, Object> fields) {
+			this.version = version;
+			this.fields = fields;
+		}
+	}
+}
@@ -59,6 +59,11 @@ public class MongoDbRepositoryStateMachinePersist<S, E> extends RepositoryStateM
 		return mongodbStateMachineRepository;
 	}
 
+	@Override
+	protected String getEntityId(MongoDbRepositoryStateMachine entity) {
+		return entity.getId();
+	}
+
 	@Override
 	protected MongoDbRepositoryStateMachine build(StateMachineContext<S, E> context, Object contextObj, byte[] serialisedContext) {
 		MongoDbRepositoryStateMachine mongodbRepositoryStateMachine = new MongoDbRepositoryStateMachine();
@@ -66,6 +71,8 @@ public class MongoDbRepositoryStateMachinePersist<S, E> extends RepositoryStateM
 		mongodbRepositoryStateMachine.setMachineId(context.getId());
 		mongodbRepositoryStateMachine.setState(context.getState().toString());
 		mongodbRepositoryStateMachine.setStateMachineContext(serialisedContext);
+		mongodbRepositoryStateMachine.setActiveStates(buildActiveStates(context));
+		mongodbRepositoryStateMachine.setIndexedVariables(buildIndexedVariables(context));
 		return mongodbRepositoryStateMachine;
 	}
 }
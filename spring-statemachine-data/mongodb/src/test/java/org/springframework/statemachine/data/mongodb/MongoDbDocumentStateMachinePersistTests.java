@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.data.mongodb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+
+/**
+ * Tests for {@link MongoDbDocumentStateMachinePersist}.
+ *
+ * @author Janne Valkealahti
+ */
+@EnabledOnMongoDb
+@Tag("mongodb")
+public class MongoDbDocumentStateMachinePersistTests {
+
+	private AnnotationConfigApplicationContext context;
+	private MongoTemplate template;
+
+	@BeforeEach
+	public void setup() {
+		context = new AnnotationConfigApplicationContext();
+		context.register(TestConfig.class);
+		context.refresh();
+		template = context.getBean(MongoTemplate.class);
+		template.dropCollection("MongoDbStateMachineContext");
+	}
+
+	@AfterEach
+	public void clean() {
+		context.close();
+	}
+
+	@Test
+	public void testWriteAndRead() throws Exception {
+		MongoDbDocumentStateMachinePersist<String, String> persist =
+				new MongoDbDocumentStateMachinePersist<>(template, String.class, String.class);
+		List<StateMachineContext<String, String>> childs = new ArrayList<>();
+		childs.add(new DefaultStateMachineContext<String, String>("S11", null, null, new DefaultExtendedState(), null, "R1"));
+		Map<String, String> historyStates = new HashMap<>();
+		historyStates.put("S1", "S11");
+		DefaultExtendedState extendedState = new DefaultExtendedState();
+		extendedState.getVariables().put("count", 1);
+		extendedState.getVariables().put("a.b", "dot");
+		persist.write(new DefaultStateMachineContext<String, String>(childs, "S1", "E1", null, extendedState,
+				historyStates, "machine1"), "machine1");
+
+		StateMachineContext<String, String> read = persist.read("machine1");
+		assertThat(read.getState()).isEqualTo("S1");
+		assertThat(read.getEvent()).isEqualTo("E1");
+		assertThat(read.getId()).isEqualTo("machine1");
+		assertThat(read.getChilds()).hasSize(1);
+		assertThat(read.getChilds().get(0).getState()).isEqualTo("S11");
+		assertThat(read.getChilds().get(0).getId()).isEqualTo("R1");
+		assertThat(read.getHistoryStates()).containsEntry("S1", "S11");
+		assertThat(read.getExtendedState().getVariables()).containsEntry("count", 1).containsEntry("a.b", "dot");
+
+		Document document = template.getCollection("MongoDbStateMachineContext").find(new Document("_id", "machine1")).first();
+		assertThat(document.get("version")).isEqualTo(1);
+		assertThat(document.get("state")).isEqualTo("S1");
+	}
+
+	@Test
+	public void testPartialUpdateAndVersion() throws Exception {
+		MongoDbDocumentStateMachinePersist<String, String> persist1 =
+				new MongoDbDocumentStateMachinePersist<>(template, String.class, String.class);
+		MongoDbDocumentStateMachinePersist<String, String> persist2 =
+				new MongoDbDocumentStateMachinePersist<>(template, String.class, String.class);
+
+		DefaultExtendedState extendedState = new DefaultExtendedState();
+		extendedState.getVariables().put("count", 1);
+		extendedState.getVariables().put("removed", "x");
+		persist1.write(new DefaultStateMachineContext<String, String>("S1", null, null, extendedState), "machine1");
+		persist2.read("machine1");
+
+		extendedState.getVariables().put("count", 2);
+		extendedState.getVariables().remove("removed");
+		persist1.write(new DefaultStateMachineContext<String, String>("S2", null, null, extendedState), "machine1");
+
+		Document document = template.getCollection("MongoDbStateMachineContext").find(new Document("_id", "machine1")).first();
+		assertThat(document.get("version")).isEqualTo(2);
+		assertThat(document.get("state")).isEqualTo("S2");
+		assertThat(document.get("variables", Document.class)).containsEntry("count", 2).doesNotContainKey("removed");
+
+		assertThatThrownBy(() -> persist2.write(new DefaultStateMachineContext<String, String>("S3", null, null,
+				new DefaultExtendedState()), "machine1")).isInstanceOf(OptimisticLockingFailureException.class);
+		assertThat(persist2.read("machine1").getState()).isEqualTo("S2");
+		persist2.write(new DefaultStateMachineContext<String, String>("S3", null, null, new DefaultExtendedState()), "machine1");
+		assertThat(persist1.read("machine1").getState()).isEqualTo("S3");
+	}
+
+	@Test
+	public void testWriteWithoutKnownVersion() throws Exception {
+		MongoDbDocumentStateMachinePersist<String, String> persist1 =
+				new MongoDbDocumentStateMachinePersist<>(template, String.class, String.class);
+		MongoDbDocumentStateMachinePersist<String, String> persist2 =
+				new MongoDbDocumentStateMachinePersist<>(template, String.class, String.class);
+
+		persist1.write(new DefaultStateMachineContext<String, String>("S1", null, null, new DefaultExtendedState()), "machine1");
+		persist2.write(new DefaultStateMachineContext<String, String>("S2", null, null, new DefaultExtendedState()), "machine1");
+		Document document = template.getCollection("MongoDbStateMachineContext").find(new Document("_id", "machine1")).first();
+		assertThat(document.get("version")).isEqualTo(2);
+		assertThat(document.get("state")).isEqualTo("S2");
+
+		// stale version is kept so that a blind retry doesn't overwrite
+		assertThatThrownBy(() -> persist1.write(new DefaultStateMachineContext<String, String>("S3", null, null,
+				new DefaultExtendedState()), "machine1")).isInstanceOf(OptimisticLockingFailureException.class);
+		assertThatThrownBy(() -> persist1.write(new DefaultStateMachineContext<String, String>("S3", null, null,
+				new DefaultExtendedState()), "machine1")).isInstanceOf(OptimisticLockingFailureException.class);
+		assertThat(persist1.read("machine1").getState()).isEqualTo("S2");
+		persist1.write(new DefaultStateMachineContext<String, String>("S3", null, null, new DefaultExtendedState()), "machine1");
+		document = template.getCollection("MongoDbStateMachineContext").find(new Document("_id", "machine1")).first();
+		assertThat(document.get("version")).isEqualTo(3);
+		assertThat(document.get("state")).isEqualTo("S3");
+	}
+
+	@Test
+	public void testWriteOverDocumentWithoutVersion() throws Exception {
+		template.getCollection("MongoDbStateMachineContext").insertOne(new Document("_id", "machine1").append("state", "S1"));
+		MongoDbDocumentStateMachinePersist<String, String> persist =
+				new MongoDbDocumentStateMachinePersist<>(template, String.class, String.class);
+
+		persist.write(new DefaultStateMachineContext<String, String>("S2", null, null, new DefaultExtendedState()), "machine1");
+		Document document = template.getCollection("MongoDbStateMachineContext").find(new Document("_id", "machine1")).first();
+		assertThat(document.get("version")).isEqualTo(1);
+		assertThat(document.get("state")).isEqualTo("S2");
+		assertThat(template.getCollection("MongoDbStateMachineContext").countDocuments()).isEqualTo(1);
+	}
+
+	@Test
+	public void testWriteAllAndReadAllWithChildReferences() throws Exception {
+		MongoDbDocumentStateMachinePersist<String, String> persist =
+				new MongoDbDocumentStateMachinePersist<>(template, String.class, String.class);
+		Map<Object, StateMachineContext<String, String>> contexts = new LinkedHashMap<>();
+		contexts.put("child1", new DefaultStateMachineContext<String, String>("S11", null, null, new DefaultExtendedState(), null, "R1"));
+		contexts.put("child2", new DefaultStateMachineContext<String, String>("S21", null, null, new DefaultExtendedState(), null, "R2"));
+		contexts.put("machine1", new DefaultStateMachineContext<String, String>(Arrays.asList("child1", "child2"),
+				new ArrayList<>(), "S1", null, null, new DefaultExtendedState(), null, "machine1"));
+		persist.writeAll(contexts);
+
+		Map<Object, StateMachineContext<String, String>> read =
+				new MongoDbDocumentStateMachinePersist<>(template, String.class, String.class)
+						.readAll(Arrays.asList("machine1", "machine2"));
+		assertThat(read).containsOnlyKeys("machine1");
+		assertThat(read.get("machine1").getChilds()).extracting(child -> child.getState()).containsExactly("S11", "S21");
+		assertThat(read.get("machine1").getChilds()).extracting(child -> child.getId()).containsExactly("R1", "R2");
+	}
+
+	@Test
+	public void testWriteAllReportsConflicts() throws Exception {
+		MongoDbDocumentStateMachinePersist<String, String> persist1 =
+				new MongoDbDocumentStateMachinePersist<>(template, String.class, String.class);
+		MongoDbDocumentStateMachinePersist<String, String> persist2 =
+				new MongoDbDocumentStateMachinePersist<>(template, String.class, String.class);
+		Map<Object, StateMachineContext<String, String>> contexts = new LinkedHashMap<>();
+		contexts.put("machine1", new DefaultStateMachineContext<String, String>("S1", null, null, new DefaultExtendedState()));
+		contexts.put("machine2", new DefaultStateMachineContext<String, String>("S1", null, null, new DefaultExtendedState()));
+		persist1.writeAll(contexts);
+		// versions of upserted documents are known for partial updates
+		persist1.write(new DefaultStateMachineContext<String, String>("S2", null, null, new DefaultExtendedState()), "machine2");
+		Document document = template.getCollection("MongoDbStateMachineContext").find(new Document("_id", "machine2")).first();
+		assertThat(document.get("version")).isEqualTo(2);
+
+		persist2.write(new DefaultStateMachineContext<String, String>("S3", null, null, new DefaultExtendedState()), "machine1");
+		contexts.put("machine1", new DefaultStateMachineContext<String, String>("S4", null, null, new DefaultExtendedState()));
+		contexts.put("machine2", new DefaultStateMachineContext<String, String>("S4", null, null, new DefaultExtendedState()));
+		contexts.put("machine3", new DefaultStateMachineContext<String, String>("S4", null, null, new DefaultExtendedState()));
+		assertThatThrownBy(() -> persist1.writeAll(contexts))
+				.isInstanceOf(OptimisticLockingFailureException.class)
+				.hasMessageContaining("[machine1]");
+
+		// contexts which were written keep their versions
+		persist1.write(new DefaultStateMachineContext<String, String>("S5", null, null, new DefaultExtendedState()), "machine2");
+		persist1.write(new DefaultStateMachineContext<String, String>("S5", null, null, new DefaultExtendedState()), "machine3");
+		document = template.getCollection("MongoDbStateMachineContext").find(new Document("_id", "machine2")).first();
+		assertThat(document.get("version")).isEqualTo(4);
+		assertThat(document.get("state")).isEqualTo("S5");
+		document = template.getCollection("MongoDbStateMachineContext").find(new Document("_id", "machine3")).first();
+		assertThat(document.get("version")).isEqualTo(2);
+		document = template.getCollection("MongoDbStateMachineContext").find(new Document("_id", "machine1")).first();
+		assertThat(document.get("state")).isEqualTo("S3");
+	}
+
+	@EnableAutoConfiguration
+	static class TestConfig {
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2020 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,7 +21,13 @@ import static org.springframework.statemachine.TestUtils.doStartAndAssert;
 import static org.springframework.statemachine.TestUtils.resolveMachine;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -30,15 +36,22 @@ import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
 import org.springframework.statemachine.config.EnableStateMachine;
 import org.springframework.statemachine.config.StateMachineConfigurerAdapter;
 import org.springframework.statemachine.config.builders.StateMachineConfigurationConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
 import org.springframework.statemachine.data.AbstractRepositoryTests;
+import org.springframework.statemachine.data.RepositoryStateMachine;
+import org.springframework.statemachine.data.RepositoryStateMachineId;
 import org.springframework.statemachine.persist.StateMachineRuntimePersister;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
 import org.springframework.statemachine.transition.TransitionKind;
 
 /**
@@ -60,6 +73,7 @@ public class MongoDbRepositoryTests extends AbstractRepositoryTests {
 		template.dropCollection(MongoDbRepositoryGuard.class);
 		template.dropCollection(MongoDbRepositoryState.class);
 		template.dropCollection(MongoDbRepositoryTransition.class);
+		template.dropCollection(MongoDbRepositoryStateMachine.class);
 		c.close();
 	}
 
@@ -146,6 +160,84 @@ public class MongoDbRepositoryTests extends AbstractRepositoryTests {
 		assertThat(stateMachine.getState().getId()).isEqualTo(PersistTestStates.S1);
 	}
 
+	@Test
+	public void testFindByActiveStates() throws Exception {
+		context.register(TestConfig.class);
+		context.refresh();
+
+		MongoDbStateMachineRepository stateMachineRepository = context.getBean(MongoDbStateMachineRepository.class);
+		MongoDbRepositoryStateMachinePersist<String, String> persist = new MongoDbRepositoryStateMachinePersist<>(stateMachineRepository);
+		persist.setIndexedVariables("customer");
+		for (int i = 0; i < 5; i++) {
+			List<StateMachineContext<String, String>> childs = new ArrayList<>();
+			childs.add(new DefaultStateMachineContext<String, String>(i % 2 == 0 ? "S11" : "S12", null, null,
+					new DefaultExtendedState(), null, "R1"));
+			childs.add(new DefaultStateMachineContext<String, String>("S21", null, null, new DefaultExtendedState(),
+					null, "R2"));
+			DefaultExtendedState extendedState = new DefaultExtendedState();
+			extendedState.getVariables().put("customer", "c" + (i % 2));
+			extendedState.getVariables().put("other", "x");
+			persist.write(new DefaultStateMachineContext<String, String>(childs, "S1", null, null, extendedState, null,
+					"machine" + i), "machine" + i);
+		}
+
+		Slice<RepositoryStateMachineId> page1 = stateMachineRepository.findByActiveStates("S11", PageRequest.of(0, 2));
+		assertThat(page1.getContent()).hasSize(2);
+		assertThat(page1.hasNext()).isTrue();
+		Slice<RepositoryStateMachineId> page2 = stateMachineRepository.findByActiveStates("S11", page1.nextPageable());
+		assertThat(page2.getContent()).hasSize(1);
+		assertThat(page2.hasNext()).isFalse();
+
+		Set<String> ids = page1.getContent().stream().map(id -> id.getMachineId()).collect(Collectors.toSet());
+		ids.add(page2.getContent().get(0).getMachineId());
+		assertThat(ids).containsOnly("machine0", "machine2", "machine4");
+
+		assertThat(stateMachineRepository.findByRegionState("R1", "S12", PageRequest.of(0, 10)).getContent())
+				.extracting(id -> id.getMachineId()).containsOnly("machine1", "machine3");
+		assertThat(stateMachineRepository.findByRegionState("R2", "S12", PageRequest.of(0, 10)).getContent()).isEmpty();
+		assertThat(stateMachineRepository.findByVariable("customer", "c1", PageRequest.of(0, 10)).getContent())
+				.extracting(id -> id.getMachineId()).containsOnly("machine1", "machine3");
+		assertThat(stateMachineRepository.findByVariable("other", "x", PageRequest.of(0, 10)).getContent()).isEmpty();
+
+		try (Stream<RepositoryStateMachineId> stream = stateMachineRepository.streamByActiveStates("S21")) {
+			assertThat(stream.map(id -> id.getMachineId()))
+					.containsOnly("machine0", "machine1", "machine2", "machine3", "machine4");
+		}
+		try (Stream<RepositoryStateMachineId> stream = stateMachineRepository
+				.streamByIndexedVariables(RepositoryStateMachine.indexedVariable("customer", "c0"))) {
+			assertThat(stream.map(id -> id.getMachineId())).containsOnly("machine0", "machine2", "machine4");
+		}
+		try (Stream<RepositoryStateMachineId> stream = stateMachineRepository.streamByActiveStates("S3")) {
+			assertThat(stream).isEmpty();
+		}
+	}
+
+	@Test
+	public void testWriteAllAndReadAllWithChildReferences() throws Exception {
+		context.register(TestConfig.class);
+		context.refresh();
+
+		MongoDbStateMachineRepository stateMachineRepository = context.getBean(MongoDbStateMachineRepository.class);
+		MongoDbRepositoryStateMachinePersist<String, String> persist = new MongoDbRepositoryStateMachinePersist<>(stateMachineRepository);
+		Map<Object, StateMachineContext<String, String>> contexts = new LinkedHashMap<>();
+		contexts.put("child1", new DefaultStateMachineContext<String, String>("S11", null, null,
+				new DefaultExtendedState(), null, "child1"));
+		contexts.put("child2", new DefaultStateMachineContext<String, String>("S21", null, null,
+				new DefaultExtendedState(), null, "child2"));
+		contexts.put("machine1", new DefaultStateMachineContext<String, String>(Arrays.asList("child1", "child2"),
+				new ArrayList<>(), "S1", null, null, new DefaultExtendedState(), null, "machine1"));
+		contexts.put("machine2", new DefaultStateMachineContext<String, String>("S2", null, null,
+				new DefaultExtendedState(), null, "machine2"));
+		persist.writeAll(contexts);
+
+		Map<Object, StateMachineContext<String, String>> read = persist.readAll(Arrays.asList("machine1", "machine2", "machine3"));
+		assertThat(read).containsOnlyKeys("machine1", "machine2");
+		assertThat(read.get("machine1").getState()).isEqualTo("S1");
+		assertThat(read.get("machine1").getChilds()).extracting(child -> child.getState()).containsExactly("S11", "S21");
+		assertThat(read.get("machine2").getState()).isEqualTo("S2");
+		assertThat(read.get("machine2").getChilds()).isEmpty();
+	}
+
 	@Override
 	protected Class<?>[] getRegisteredClasses() {
 		return new Class<?>[] { TestConfig.class };
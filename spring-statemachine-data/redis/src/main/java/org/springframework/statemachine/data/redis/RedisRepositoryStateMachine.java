@@ -15,8 +15,12 @@
  */
 package org.springframework.statemachine.data.redis;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.springframework.data.annotation.Id;
 import org.springframework.data.redis.core.RedisHash;
+import org.springframework.data.redis.core.index.Indexed;
 import org.springframework.statemachine.data.RepositoryStateMachine;
 
 /**
@@ -35,6 +39,12 @@ public class RedisRepositoryStateMachine extends RepositoryStateMachine {
 	private String state;
 	private byte[] stateMachineContext;
 
+	@Indexed
+	private Set<String> activeStates = new HashSet<>();
+
+	@Indexed
+	private Set<String> indexedVariables = new HashSet<>();
+
 	public String getId() {
 		return id;
 	}
@@ -69,4 +79,22 @@ public class RedisRepositoryStateMachine extends RepositoryStateMachine {
 	public void setStateMachineContext(byte[] stateMachineContext) {
 		this.stateMachineContext = stateMachineContext;
 	}
+
+	@Override
+	public Set<String> getActiveStates() {
+		return activeStates;
+	}
+
+	public void setActiveStates(Set<String> activeStates) {
+		this.activeStates = activeStates;
+	}
+
+	@Override
+	public Set<String> getIndexedVariables() {
+		return indexedVariables;
+	}
+
+	public void setIndexedVariables(Set<String> indexedVariables) {
+		this.indexedVariables = indexedVariables;
+	}
 }
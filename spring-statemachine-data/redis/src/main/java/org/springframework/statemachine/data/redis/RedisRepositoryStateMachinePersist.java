@@ -59,6 +59,11 @@ public class RedisRepositoryStateMachinePersist<S, E> extends RepositoryStateMac
 		return redisStateMachineRepository;
 	}
 
+	@Override
+	protected String getEntityId(RedisRepositoryStateMachine entity) {
+		return entity.getId();
+	}
+
 	@Override
 	protected RedisRepositoryStateMachine build(StateMachineContext<S, E> context, Object contextObj, byte[] serialisedContext) {
 		RedisRepositoryStateMachine redisRepositoryStateMachine = new RedisRepositoryStateMachine();
@@ -66,6 +71,8 @@ public class RedisRepositoryStateMachinePersist<S, E> extends RepositoryStateMac
 		redisRepositoryStateMachine.setMachineId(context.getId());
 		redisRepositoryStateMachine.setState(context.getState().toString());
 		redisRepositoryStateMachine.setStateMachineContext(serialisedContext);
+		redisRepositoryStateMachine.setActiveStates(buildActiveStates(context));
+		redisRepositoryStateMachine.setIndexedVariables(buildIndexedVariables(context));
 		return redisRepositoryStateMachine;
 	}
 }
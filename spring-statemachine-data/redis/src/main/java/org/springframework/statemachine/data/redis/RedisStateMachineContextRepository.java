@@ -17,6 +17,13 @@ package org.springframework.statemachine.data.redis;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.UUID;
 
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -78,6 +85,29 @@ public class RedisStateMachineContextRepository<S, E> implements StateMachineCon
 		return deserialize(redisOperations.opsForValue().get(id));
 	}
 
+	@Override
+	public void saveAll(Map<String, StateMachineContext<S, E>> contexts) {
+		Map<String, byte[]> values = new HashMap<>();
+		for (Entry<String, StateMachineContext<S, E>> entry : contexts.entrySet()) {
+			values.put(entry.getKey(), serialize(entry.getValue()));
+		}
+		redisOperations.opsForValue().multiSet(values);
+	}
+
+	@Override
+	public Map<String, StateMachineContext<S, E>> getContexts(Collection<String> ids) {
+		List<String> keys = new ArrayList<>(ids);
+		List<byte[]> values = redisOperations.opsForValue().multiGet(keys);
+		Map<String, StateMachineContext<S, E>> contexts = new LinkedHashMap<>();
+		for (int i = 0; values != null && i < keys.size(); i++) {
+			StateMachineContext<S, E> context = deserialize(values.get(i));
+			if (context != null) {
+				contexts.put(keys.get(i), context);
+			}
+		}
+		return contexts;
+	}
+
 	private static RedisTemplate<String,byte[]> createDefaultTemplate(RedisConnectionFactory connectionFactory) {
 		RedisTemplate<String,byte[]> template = new RedisTemplate<String,byte[]>();
 		template.setKeySerializer(new StringRedisSerializer());
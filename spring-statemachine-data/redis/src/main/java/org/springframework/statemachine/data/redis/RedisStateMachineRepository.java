@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,5 +23,6 @@ import org.springframework.statemachine.data.StateMachineRepository;
  * @author Janne Valkealahti
  *
  */
-public interface RedisStateMachineRepository extends StateMachineRepository<RedisRepositoryStateMachine>{
+public interface RedisStateMachineRepository
+		extends StateMachineRepository<RedisRepositoryStateMachine>, RedisStateMachineRepositoryCustom {
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.data.redis;
+
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.statemachine.data.RepositoryStateMachineId;
+
+/**
+ * Index queries of a {@link RedisStateMachineRepository} implemented directly
+ * against index sets Redis repositories maintain for indexed properties, as
+ * key-value query derivation doesn't support projections and streams.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public interface RedisStateMachineRepositoryCustom {
+
+	/**
+	 * Finds ids of machines having a given state active.
+	 *
+	 * @param state the state
+	 * @param pageable the page request
+	 * @return the slice of machine ids
+	 */
+	Slice<RepositoryStateMachineId> findByActiveStates(String state, Pageable pageable);
+
+	/**
+	 * Streams ids of machines having a given state active.
+	 *
+	 * @param state the state
+	 * @return the stream of machine ids
+	 */
+	Stream<RepositoryStateMachineId> streamByActiveStates(String state);
+
+	/**
+	 * Finds ids of machines having an indexed extended state variable entry.
+	 *
+	 * @param variable the variable entry
+	 * @param pageable the page request
+	 * @return the slice of machine ids
+	 */
+	Slice<RepositoryStateMachineId> findByIndexedVariables(String variable, Pageable pageable);
+
+	/**
+	 * Streams ids of machines having an indexed extended state variable entry.
+	 *
+	 * @param variable the variable entry
+	 * @return the stream of machine ids
+	 */
+	Stream<RepositoryStateMachineId> streamByIndexedVariables(String variable);
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.data.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.statemachine.data.RepositoryStateMachineId;
+
+/**
+ * Implementation of a {@link RedisStateMachineRepositoryCustom}. Members of
+ * an index set are sorted by entity id for a stable paging order and machine
+ * ids are read from entity hashes in a single pipeline without touching
+ * serialised contexts.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+class RedisStateMachineRepositoryCustomImpl implements RedisStateMachineRepositoryCustom {
+
+	private static final String KEYSPACE = "RedisRepositoryStateMachine";
+	private static final byte[] MACHINE_ID = "machineId".getBytes(StandardCharsets.UTF_8);
+	private final StringRedisTemplate redisTemplate;
+
+	/**
+	 * Instantiates a new redis state machine repository custom impl.
+	 *
+	 * @param redisConnectionFactory the redis connection factory
+	 */
+	RedisStateMachineRepositoryCustomImpl(RedisConnectionFactory redisConnectionFactory) {
+		this.redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+	}
+
+	@Override
+	public Slice<RepositoryStateMachineId> findByActiveStates(String state, Pageable pageable) {
+		return find("activeStates", state, pageable);
+	}
+
+	@Override
+	public Stream<RepositoryStateMachineId> streamByActiveStates(String state) {
+		return stream("activeStates", state);
+	}
+
+	@Override
+	public Slice<RepositoryStateMachineId> findByIndexedVariables(String variable, Pageable pageable) {
+		return find("indexedVariables", variable, pageable);
+	}
+
+	@Override
+	public Stream<RepositoryStateMachineId> streamByIndexedVariables(String variable) {
+		return stream("indexedVariables", variable);
+	}
+
+	private Slice<RepositoryStateMachineId> find(String property, String value, Pageable pageable) {
+		List<String> ids = new ArrayList<>(members(property, value));
+		if (pageable.isUnpaged()) {
+			return new SliceImpl<>(machineIds(ids), pageable, false);
+		}
+		int from = (int) Math.min(pageable.getOffset(), ids.size());
+		int to = Math.min(from + pageable.getPageSize(), ids.size());
+		return new SliceImpl<>(machineIds(ids.subList(from, to)), pageable, to < ids.size());
+	}
+
+	private Stream<RepositoryStateMachineId> stream(String property, String value) {
+		return machineIds(new ArrayList<>(members(property, value))).stream();
+	}
+
+	private Set<String> members(String property, String value) {
+		Set<String> members = redisTemplate.opsForSet().members(KEYSPACE + ":" + property + ":" + value);
+		return members != null ? new TreeSet<>(members) : new TreeSet<>();
+	}
+
+	private List<RepositoryStateMachineId> machineIds(List<String> ids) {
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+		List<Object> machineIds = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			for (String id : ids) {
+				connection.hashCommands().hGet((KEYSPACE + ":" + id).getBytes(StandardCharsets.UTF_8), MACHINE_ID);
+			}
+			return null;
+		});
+		// index may briefly point to an entity which was just deleted
+		return machineIds.stream()
+				.filter(machineId -> machineId != null)
+				.map(machineId -> new MachineId((String) machineId))
+				.collect(Collectors.toList());
+	}
+
+	private static class MachineId implements RepositoryStateMachineId {
+
+		private final String machineId;
+
+		MachineId(String machineId) {
+			this.machineId = machineId;
+		}
+
+		@Override
+		public String getMachineId() {
+			return machineId;
+		}
+
+		@Override
+		public String toString() {
+			return "MachineId [machineId=" + machineId + "]";
+		}
+	}
+}
@@ -15,6 +15,9 @@
  */
 package org.springframework.statemachine.data;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * Generic base class representing state machine entity.
  *
@@ -43,4 +46,47 @@ public abstract class RepositoryStateMachine extends BaseRepositoryEntity {
 	 * @return the state machine context
 	 */
 	public abstract byte[] getStateMachineContext();
+
+	/**
+	 * Gets the indexed active states. Contains all states of a persisted
+	 * context and its child contexts, and for child contexts having an id
+	 * also a state qualified with {@link #regionState(Object, Object)}.
+	 *
+	 * @return the active states
+	 */
+	public Set<String> getActiveStates() {
+		return Collections.emptySet();
+	}
+
+	/**
+	 * Gets the indexed extended state variables as entries formatted with
+	 * {@link #indexedVariable(Object, Object)}.
+	 *
+	 * @return the indexed variables
+	 */
+	public Set<String> getIndexedVariables() {
+		return Collections.emptySet();
+	}
+
+	/**
+	 * Formats a state qualified with a region, or a child context, id.
+	 *
+	 * @param region the region id
+	 * @param state the state
+	 * @return the qualified state
+	 */
+	public static String regionState(Object region, Object state) {
+		return region + "/" + state;
+	}
+
+	/**
+	 * Formats an extended state variable entry.
+	 *
+	 * @param key the variable key
+	 * @param value the variable value
+	 * @return the variable entry
+	 */
+	public static String indexedVariable(Object key, Object value) {
+		return key + "=" + value;
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2019 the original author or authors.
+ * Copyright 2017-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,15 @@
 package org.springframework.statemachine.data;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -40,6 +48,7 @@ public abstract class RepositoryStateMachinePersist<M extends RepositoryStateMac
 
 	private final Log log = LogFactory.getLog(RepositoryStateMachinePersist.class);
 	private final StateMachineSerialisationService<S, E> serialisationService;
+	private Set<Object> indexedVariables = Collections.emptySet();
 
 	/**
 	 * Instantiates a new repository state machine persist.
@@ -64,7 +73,7 @@ public abstract class RepositoryStateMachinePersist<M extends RepositoryStateMac
 			log.debug("Persisting context " + context + " using contextObj " + contextObj);
 		}
 		M build = build(context, contextObj, serialisationService.serialiseStateMachineContext(context));
-		getRepository().save(build);
+		save(build);
 	}
 
 	@Override
@@ -73,7 +82,7 @@ public abstract class RepositoryStateMachinePersist<M extends RepositoryStateMac
 		// use child contexts if we have those, otherwise fall back to child context refs.
 		if (repositoryStateMachine != null) {
 			StateMachineContext<S, E> context = serialisationService
-					.deserialiseStateMachineContext(repositoryStateMachine.getStateMachineContext());;
+					.deserialiseStateMachineContext(getSerialisedContext(repositoryStateMachine));
 			if (context != null && context.getChilds() != null && context.getChilds().isEmpty()
 					&& context.getChildReferences() != null) {
 				List<StateMachineContext<S, E>> contexts = new ArrayList<>();
@@ -81,7 +90,7 @@ public abstract class RepositoryStateMachinePersist<M extends RepositoryStateMac
 					repositoryStateMachine = getRepository().findById(childRef).orElse(null);
 					if (repositoryStateMachine != null) {
 						contexts.add(serialisationService
-								.deserialiseStateMachineContext(repositoryStateMachine.getStateMachineContext()));
+								.deserialiseStateMachineContext(getSerialisedContext(repositoryStateMachine)));
 					}
 				}
 				return new DefaultStateMachineContext<S, E>(contexts, context.getState(), context.getEvent(),
@@ -95,6 +104,162 @@ public abstract class RepositoryStateMachinePersist<M extends RepositoryStateMac
 		return null;
 	}
 
+	@Override
+	public void writeAll(Map<Object, StateMachineContext<S, E>> contexts) throws Exception {
+		List<M> entities = new ArrayList<>(contexts.size());
+		for (Entry<Object, StateMachineContext<S, E>> entry : contexts.entrySet()) {
+			entities.add(build(entry.getValue(), entry.getKey(),
+					serialisationService.serialiseStateMachineContext(entry.getValue())));
+		}
+		saveAll(entities);
+	}
+
+	@Override
+	public Map<Object, StateMachineContext<S, E>> readAll(Collection<Object> contextObjs) throws Exception {
+		Map<String, Object> ids = new LinkedHashMap<>();
+		for (Object contextObj : contextObjs) {
+			ids.put(contextObj.toString(), contextObj);
+		}
+		Map<String, StateMachineContext<S, E>> found = findAll(ids.keySet());
+		Set<String> childRefs = new LinkedHashSet<>();
+		for (StateMachineContext<S, E> context : found.values()) {
+			if (hasOnlyChildReferences(context)) {
+				childRefs.addAll(context.getChildReferences());
+			}
+		}
+		Map<String, StateMachineContext<S, E>> childs = childRefs.isEmpty() ? Collections.emptyMap() : findAll(childRefs);
+		Map<Object, StateMachineContext<S, E>> contexts = new LinkedHashMap<>();
+		for (Entry<String, Object> entry : ids.entrySet()) {
+			StateMachineContext<S, E> context = found.get(entry.getKey());
+			if (context == null) {
+				continue;
+			}
+			if (hasOnlyChildReferences(context)) {
+				List<StateMachineContext<S, E>> childContexts = new ArrayList<>();
+				for (String childRef : context.getChildReferences()) {
+					StateMachineContext<S, E> child = childs.get(childRef);
+					if (child != null) {
+						childContexts.add(child);
+					}
+				}
+				context = new DefaultStateMachineContext<S, E>(childContexts, context.getState(), context.getEvent(),
+						context.getEventHeaders(), context.getExtendedState(), context.getHistoryStates(),
+						context.getId());
+			}
+			contexts.put(entry.getValue(), context);
+		}
+		return contexts;
+	}
+
+	/**
+	 * Sets extended state variable keys whose values are indexed with a
+	 * persisted entity, making those queryable with
+	 * {@link StateMachineRepository#findByVariable(Object, Object, org.springframework.data.domain.Pageable)}.
+	 *
+	 * @param keys the variable keys
+	 */
+	public void setIndexedVariables(Object... keys) {
+		this.indexedVariables = keys != null ? new LinkedHashSet<>(Arrays.asList(keys)) : Collections.emptySet();
+	}
+
+	/**
+	 * Builds indexed active states from a context and its child contexts.
+	 *
+	 * @param context the context
+	 * @return the active states
+	 * @see RepositoryStateMachine#getActiveStates()
+	 */
+	protected Set<String> buildActiveStates(StateMachineContext<S, E> context) {
+		Set<String> states = new LinkedHashSet<>();
+		addActiveStates(context, false, states);
+		return states;
+	}
+
+	/**
+	 * Builds indexed extended state variables from a context.
+	 *
+	 * @param context the context
+	 * @return the variable entries
+	 * @see RepositoryStateMachine#getIndexedVariables()
+	 */
+	protected Set<String> buildIndexedVariables(StateMachineContext<S, E> context) {
+		Set<String> variables = new LinkedHashSet<>();
+		if (!indexedVariables.isEmpty() && context.getExtendedState() != null) {
+			for (Entry<Object, Object> entry : context.getExtendedState().getVariables().entrySet()) {
+				if (indexedVariables.contains(entry.getKey()) && entry.getValue() != null) {
+					variables.add(RepositoryStateMachine.indexedVariable(entry.getKey(), entry.getValue()));
+				}
+			}
+		}
+		return variables;
+	}
+
+	private void addActiveStates(StateMachineContext<S, E> context, boolean child, Set<String> states) {
+		if (context.getState() != null) {
+			states.add(context.getState().toString());
+			if (child && context.getId() != null) {
+				states.add(RepositoryStateMachine.regionState(context.getId(), context.getState()));
+			}
+		}
+		if (context.getChilds() != null) {
+			for (StateMachineContext<S, E> childContext : context.getChilds()) {
+				addActiveStates(childContext, true, states);
+			}
+		}
+	}
+
+	/**
+	 * Gets the id a given entity is stored with. Defaults to a machine id.
+	 *
+	 * @param entity the entity
+	 * @return the entity id
+	 */
+	protected String getEntityId(M entity) {
+		return entity.getMachineId();
+	}
+
+	/**
+	 * Saves an entity. Defaults to a repository save.
+	 *
+	 * @param entity the entity
+	 */
+	protected void save(M entity) {
+		getRepository().save(entity);
+	}
+
+	/**
+	 * Saves entities. Defaults to a repository save.
+	 *
+	 * @param entities the entities
+	 */
+	protected void saveAll(List<M> entities) {
+		getRepository().saveAll(entities);
+	}
+
+	/**
+	 * Gets a serialised context from an entity loaded from a repository.
+	 * Defaults to a raw entity context.
+	 *
+	 * @param entity the entity
+	 * @return the serialised context
+	 */
+	protected byte[] getSerialisedContext(M entity) {
+		return entity.getStateMachineContext();
+	}
+
+	private Map<String, StateMachineContext<S, E>> findAll(Collection<String> ids) throws Exception {
+		Map<String, StateMachineContext<S, E>> contexts = new LinkedHashMap<>();
+		for (M entity : getRepository().findAllById(ids)) {
+			contexts.put(getEntityId(entity), serialisationService.deserialiseStateMachineContext(getSerialisedContext(entity)));
+		}
+		return contexts;
+	}
+
+	private static boolean hasOnlyChildReferences(StateMachineContext<?, ?> context) {
+		return context != null && context.getChilds() != null && context.getChilds().isEmpty()
+				&& context.getChildReferences() != null && !context.getChildReferences().isEmpty();
+	}
+
 	/**
 	 * Gets the repository.
 	 *
@@ -15,6 +15,10 @@
  */
 package org.springframework.statemachine.data;
 
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.Repository;
@@ -27,4 +31,67 @@ import org.springframework.data.repository.Repository;
  */
 @NoRepositoryBean
 public interface StateMachineRepository<M extends RepositoryStateMachine> extends CrudRepository<M, String> {
+
+	/**
+	 * Finds ids of machines having a given state active.
+	 *
+	 * @param state the state
+	 * @param pageable the page request
+	 * @return the slice of machine ids
+	 * @see RepositoryStateMachine#getActiveStates()
+	 */
+	Slice<RepositoryStateMachineId> findByActiveStates(String state, Pageable pageable);
+
+	/**
+	 * Streams ids of machines having a given state active. Returned stream
+	 * needs to be closed and some stores require it to be consumed within a
+	 * transaction.
+	 *
+	 * @param state the state
+	 * @return the stream of machine ids
+	 */
+	Stream<RepositoryStateMachineId> streamByActiveStates(String state);
+
+	/**
+	 * Finds ids of machines having an indexed extended state variable entry.
+	 *
+	 * @param variable the variable entry
+	 * @param pageable the page request
+	 * @return the slice of machine ids
+	 * @see RepositoryStateMachine#indexedVariable(Object, Object)
+	 */
+	Slice<RepositoryStateMachineId> findByIndexedVariables(String variable, Pageable pageable);
+
+	/**
+	 * Streams ids of machines having an indexed extended state variable entry.
+	 *
+	 * @param variable the variable entry
+	 * @return the stream of machine ids
+	 */
+	Stream<RepositoryStateMachineId> streamByIndexedVariables(String variable);
+
+	/**
+	 * Finds ids of machines having a given state active in a given region.
+	 *
+	 * @param region the region id
+	 * @param state the state
+	 * @param pageable the page request
+	 * @return the slice of machine ids
+	 */
+	default Slice<RepositoryStateMachineId> findByRegionState(Object region, Object state, Pageable pageable) {
+		return findByActiveStates(RepositoryStateMachine.regionState(region, state), pageable);
+	}
+
+	/**
+	 * Finds ids of machines having an indexed extended state variable with
+	 * a given value.
+	 *
+	 * @param key the variable key
+	 * @param value the variable value
+	 * @param pageable the page request
+	 * @return the slice of machine ids
+	 */
+	default Slice<RepositoryStateMachineId> findByVariable(Object key, Object value, Pageable pageable) {
+		return findByIndexedVariables(RepositoryStateMachine.indexedVariable(key, value), pageable);
+	}
 }
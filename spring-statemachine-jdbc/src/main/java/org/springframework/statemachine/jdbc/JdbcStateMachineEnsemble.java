@@ -0,0 +1,334 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.jdbc;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachineException;
+import org.springframework.statemachine.ensemble.StateMachineEnsemble;
+import org.springframework.statemachine.ensemble.StateMachineEnsembleException;
+import org.springframework.statemachine.ensemble.StateMachineEnsembleObjectSupport;
+import org.springframework.statemachine.kryo.KryoStateMachineSerialisationService;
+import org.springframework.statemachine.service.StateMachineSerialisationService;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link StateMachineEnsemble} backed by a relational database.
+ * <p>
+ * Current context is kept in a versioned row which is updated with an
+ * optimistic compare and set, every change is also appended into a log
+ * table which members replay in version order. Changes are propagated by
+ * polling a version column, {@link #refresh()} can be used to request an
+ * immediate poll i.e. from a database specific change notification.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class JdbcStateMachineEnsemble<S, E> extends StateMachineEnsembleObjectSupport<S, E> {
+
+	private final static Log log = LogFactory.getLog(JdbcStateMachineEnsemble.class);
+	private final static int DEFAULT_LOGSIZE = 32;
+	private final static long DEFAULT_POLL_INTERVAL = 500;
+	private final static String DEFAULT_TABLE_PREFIX = "SSM_";
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final String ensembleId;
+	private final AtomicReference<StateWrapper> stateRef = new AtomicReference<StateWrapper>();
+	private final AtomicReference<StateWrapper> notifyRef = new AtomicReference<StateWrapper>();
+	private final List<StateMachine<S, E>> joined = new CopyOnWriteArrayList<StateMachine<S, E>>();
+	private StateMachineSerialisationService<S, E> serialisationService = new KryoStateMachineSerialisationService<S, E>();
+	private int logSize = DEFAULT_LOGSIZE;
+	private long pollInterval = DEFAULT_POLL_INTERVAL;
+	private String tablePrefix = DEFAULT_TABLE_PREFIX;
+	private volatile ScheduledExecutorService scheduler;
+
+	/**
+	 * Instantiates a new jdbc state machine ensemble.
+	 *
+	 * @param dataSource the data source
+	 * @param ensembleId the ensemble id
+	 */
+	public JdbcStateMachineEnsemble(DataSource dataSource, String ensembleId) {
+		Assert.notNull(dataSource, "Data source must be set");
+		Assert.hasText(ensembleId, "Ensemble id must be set");
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		this.ensembleId = ensembleId;
+		setAutoStartup(true);
+	}
+
+	@Override
+	protected void onInit() throws Exception {
+		try {
+			jdbcTemplate.update("INSERT INTO " + tablePrefix + "ENSEMBLE (ENSEMBLE_ID, VERSION) VALUES (?, 0)", ensembleId);
+		} catch (DuplicateKeyException e) {
+			// other member already created it
+		}
+	}
+
+	@Override
+	protected Mono<Void> doPreStartReactively() {
+		return Mono.fromRunnable(() -> doStart());
+	}
+
+	protected void doStart() {
+		StateWrapper current = readCurrentContext();
+		stateRef.set(current);
+		notifyRef.set(current);
+		scheduler = Executors.newSingleThreadScheduledExecutor();
+		scheduler.scheduleWithFixedDelay(() -> poll(), pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+		for (StateMachine<S, E> stateMachine : joined) {
+			notifyJoined(stateMachine, current.context);
+		}
+	}
+
+	@Override
+	protected Mono<Void> doPreStopReactively() {
+		return Mono.fromRunnable(() -> doStop());
+	}
+
+	protected void doStop() {
+		ScheduledExecutorService scheduler = this.scheduler;
+		this.scheduler = null;
+		if (scheduler != null) {
+			scheduler.shutdown();
+		}
+	}
+
+	@Override
+	public void join(StateMachine<S, E> stateMachine) {
+		joined.add(stateMachine);
+		if (isRunning()) {
+			StateWrapper stateWrapper = stateRef.get();
+			notifyJoined(stateMachine, stateWrapper != null ? stateWrapper.context : null);
+		}
+	}
+
+	@Override
+	public void leave(StateMachine<S, E> stateMachine) {
+		if (joined.remove(stateMachine)) {
+			StateWrapper stateWrapper = stateRef.get();
+			notifyLeft(stateMachine, stateWrapper != null ? stateWrapper.context : null);
+		}
+	}
+
+	@Override
+	public synchronized void setState(StateMachineContext<S, E> context) {
+		if (log.isDebugEnabled()) {
+			log.debug("Setting state context=" + context + " for ensemble " + ensembleId);
+		}
+		StateWrapper stateWrapper = stateRef.get();
+		final long expected = stateWrapper != null ? stateWrapper.version : 0;
+		final long version = expected + 1;
+		final byte[] data = serialize(context);
+		Boolean updated = transactionTemplate.execute(status -> {
+			int count = jdbcTemplate.update("UPDATE " + tablePrefix
+					+ "ENSEMBLE SET VERSION = ?, CONTEXT = ? WHERE ENSEMBLE_ID = ? AND VERSION = ?", version, data,
+					ensembleId, expected);
+			if (count == 0) {
+				return false;
+			}
+			jdbcTemplate.update("INSERT INTO " + tablePrefix + "ENSEMBLE_LOG (ENSEMBLE_ID, VERSION, CONTEXT) VALUES (?, ?, ?)",
+					ensembleId, version, data);
+			jdbcTemplate.update("DELETE FROM " + tablePrefix + "ENSEMBLE_LOG WHERE ENSEMBLE_ID = ? AND VERSION <= ?",
+					ensembleId, version - logSize);
+			return true;
+		});
+		if (!Boolean.TRUE.equals(updated)) {
+			throw new StateMachineException("Error persisting data, expected version " + expected + " is stale");
+		}
+		advanceStateRef(new StateWrapper(context, version));
+	}
+
+	@Override
+	public StateMachineContext<S, E> getState() {
+		return readCurrentContext().context;
+	}
+
+	@Override
+	public StateMachine<S, E> getLeader() {
+		return null;
+	}
+
+	/**
+	 * Request an immediate check for changes instead of waiting for a
+	 * next poll. Can be used together with a database specific change
+	 * notification like {@code LISTEN/NOTIFY}.
+	 */
+	public void refresh() {
+		ScheduledExecutorService scheduler = this.scheduler;
+		if (scheduler != null) {
+			scheduler.execute(() -> poll());
+		}
+	}
+
+	/**
+	 * Sets the serialisation service. Defaults to {@link KryoStateMachineSerialisationService}.
+	 *
+	 * @param serialisationService the serialisation service
+	 */
+	public void setSerialisationService(StateMachineSerialisationService<S, E> serialisationService) {
+		Assert.notNull(serialisationService, "Serialisation service must be set");
+		this.serialisationService = serialisationService;
+	}
+
+	/**
+	 * Sets the number of log entries kept for members to replay.
+	 *
+	 * @param logSize the log size
+	 */
+	public void setLogSize(int logSize) {
+		Assert.state(logSize > 0, "Log size must be positive");
+		this.logSize = logSize;
+	}
+
+	/**
+	 * Sets the poll interval in milliseconds.
+	 *
+	 * @param pollInterval the poll interval
+	 */
+	public void setPollInterval(long pollInterval) {
+		Assert.state(pollInterval > 0, "Poll interval must be positive");
+		this.pollInterval = pollInterval;
+	}
+
+	/**
+	 * Sets the table prefix. Defaults to {@code SSM_}.
+	 *
+	 * @param tablePrefix the table prefix
+	 */
+	public void setTablePrefix(String tablePrefix) {
+		Assert.notNull(tablePrefix, "Table prefix must be set");
+		this.tablePrefix = tablePrefix;
+	}
+
+	/**
+	 * Checks if current version has changed and replays missed
+	 * changes from a log in version order.
+	 */
+	protected void poll() {
+		try {
+			StateWrapper notifyWrapper = notifyRef.get();
+			long notified = notifyWrapper != null ? notifyWrapper.version : 0;
+			Long current = jdbcTemplate.queryForObject("SELECT VERSION FROM " + tablePrefix + "ENSEMBLE WHERE ENSEMBLE_ID = ?",
+					Long.class, ensembleId);
+			if (current == null || current <= notified) {
+				return;
+			}
+			List<StateWrapper> wrappers = jdbcTemplate.query("SELECT VERSION, CONTEXT FROM " + tablePrefix
+					+ "ENSEMBLE_LOG WHERE ENSEMBLE_ID = ? AND VERSION > ? AND VERSION <= ? ORDER BY VERSION",
+					(rs, rowNum) -> new StateWrapper(deserialize(rs.getBytes(2)), rs.getLong(1)), ensembleId, notified,
+					current);
+			if (wrappers.isEmpty() || wrappers.get(0).version != notified + 1) {
+				// we can't replay full history, move to current
+				// version and let joined machines know about it
+				StateWrapper latest = readCurrentContext();
+				advanceStateRef(latest);
+				notifyRef.set(latest);
+				notifyError(new StateMachineEnsembleException("Current version behind more than log size"));
+				return;
+			}
+			for (StateWrapper wrapper : wrappers) {
+				advanceStateRef(wrapper);
+				notifyRef.set(wrapper);
+				notifyStateChanged(wrapper.context);
+			}
+		} catch (Exception e) {
+			log.error("Error polling changes for ensemble " + ensembleId, e);
+		}
+	}
+
+	private StateWrapper readCurrentContext() {
+		try {
+			return jdbcTemplate.queryForObject("SELECT VERSION, CONTEXT FROM " + tablePrefix + "ENSEMBLE WHERE ENSEMBLE_ID = ?",
+					(rs, rowNum) -> new StateWrapper(deserialize(rs.getBytes(2)), rs.getLong(1)), ensembleId);
+		} catch (Exception e) {
+			throw new StateMachineException("Error reading data", e);
+		}
+	}
+
+	private void advanceStateRef(StateWrapper wrapper) {
+		StateWrapper current;
+		do {
+			current = stateRef.get();
+			if (current != null && current.version >= wrapper.version) {
+				return;
+			}
+		} while (!stateRef.compareAndSet(current, wrapper));
+	}
+
+	private byte[] serialize(StateMachineContext<S, E> context) {
+		try {
+			return serialisationService.serialiseStateMachineContext(context);
+		} catch (Exception e) {
+			throw new StateMachineException("Unable to serialize context", e);
+		}
+	}
+
+	private StateMachineContext<S, E> deserialize(byte[] data) {
+		if (data == null || data.length == 0) {
+			return null;
+		}
+		try {
+			return serialisationService.deserialiseStateMachineContext(data);
+		} catch (Exception e) {
+			throw new StateMachineException("Unable to deserialize context", e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "JdbcStateMachineEnsemble [ensembleId=" + ensembleId + "]";
+	}
+
+	/**
+	 * Wrapper object for a {@link StateMachineContext} and its
+	 * current version.
+	 */
+	private class StateWrapper {
+		private final StateMachineContext<S, E> context;
+		private final long version;
+
+		public StateWrapper(StateMachineContext<S, E> context, long version) {
+			this.context = context;
+			this.version = version;
+		}
+
+		@Override
+		public String toString() {
+			return "StateWrapper [context=" + context + ", version=" + version + "]";
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.messaging.Message;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachineException;
+import org.springframework.statemachine.kryo.KryoStateMachineSerialisationService;
+import org.springframework.statemachine.persist.AbstractStateMachineJournal;
+import org.springframework.statemachine.persist.JournalEntry;
+import org.springframework.statemachine.persist.JournalSnapshot;
+import org.springframework.statemachine.persist.StateMachineJournal;
+import org.springframework.statemachine.service.StateMachineSerialisationService;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * {@link StateMachineJournal} backed by a relational database. Events are
+ * inserted into a journal table keyed by machine id and sequence and a
+ * latest snapshot is kept in a separate table. A snapshot is only replaced
+ * by one having the same or a newer sequence.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class JdbcStateMachineJournal<S, E> extends AbstractStateMachineJournal<S, E> {
+
+	private final static String DEFAULT_TABLE_PREFIX = "SSM_";
+	private final static int APPEND_RETRIES = 3;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private String tablePrefix = DEFAULT_TABLE_PREFIX;
+
+	/**
+	 * Instantiates a new jdbc state machine journal using a
+	 * {@link KryoStateMachineSerialisationService}.
+	 *
+	 * @param dataSource the data source
+	 */
+	public JdbcStateMachineJournal(DataSource dataSource) {
+		this(dataSource, new KryoStateMachineSerialisationService<S, E>());
+	}
+
+	/**
+	 * Instantiates a new jdbc state machine journal.
+	 *
+	 * @param dataSource the data source
+	 * @param serialisationService the serialisation service
+	 */
+	public JdbcStateMachineJournal(DataSource dataSource, StateMachineSerialisationService<S, E> serialisationService) {
+		super(serialisationService);
+		Assert.notNull(dataSource, "Data source must be set");
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+	@Override
+	public long append(String machineId, Message<E> message) throws Exception {
+		byte[] data = serializeMessage(message);
+		// concurrent appenders race for a same sequence, loser retries
+		for (int i = 0; ; i++) {
+			try {
+				return transactionTemplate.execute(status -> {
+					long sequence = getLastSequence(machineId) + 1;
+					jdbcTemplate.update("INSERT INTO " + tablePrefix
+							+ "JOURNAL (MACHINE_ID, ENTRY_SEQUENCE, ENTRY_TIMESTAMP, EVENT) VALUES (?, ?, ?, ?)",
+							machineId, sequence, System.currentTimeMillis(), data);
+					return sequence;
+				});
+			} catch (DuplicateKeyException e) {
+				if (i + 1 >= APPEND_RETRIES) {
+					throw new StateMachineException("Unable to append event for machine " + machineId, e);
+				}
+			}
+		}
+	}
+
+	@Override
+	public List<JournalEntry<E>> read(String machineId, long afterSequence) throws Exception {
+		List<JournalEntry<E>> entries = new ArrayList<>();
+		jdbcTemplate.query("SELECT ENTRY_SEQUENCE, ENTRY_TIMESTAMP, EVENT FROM " + tablePrefix
+				+ "JOURNAL WHERE MACHINE_ID = ? AND ENTRY_SEQUENCE > ? ORDER BY ENTRY_SEQUENCE", rs -> {
+					try {
+						entries.add(new JournalEntry<E>(rs.getLong(1), rs.getLong(2), deserializeMessage(rs.getBytes(3))));
+					} catch (Exception e) {
+						throw new StateMachineException("Unable to read journal entry", e);
+					}
+				}, machineId, afterSequence);
+		return entries;
+	}
+
+	@Override
+	public long getLastSequence(String machineId) {
+		Long sequence = jdbcTemplate.queryForObject("SELECT MAX(ENTRY_SEQUENCE) FROM " + tablePrefix
+				+ "JOURNAL WHERE MACHINE_ID = ?", Long.class, machineId);
+		return sequence != null ? sequence : 0;
+	}
+
+	@Override
+	public void writeSnapshot(String machineId, long sequence, StateMachineContext<S, E> context) throws Exception {
+		byte[] data = serializeContext(context);
+		// never replace a snapshot with an older one
+		String update = "UPDATE " + tablePrefix
+				+ "SNAPSHOT SET ENTRY_SEQUENCE = ?, CONTEXT = ? WHERE MACHINE_ID = ? AND ENTRY_SEQUENCE <= ?";
+		int count = jdbcTemplate.update(update, sequence, data, machineId, sequence);
+		if (count == 0 && readSnapshotSequence(machineId) == null) {
+			try {
+				jdbcTemplate.update("INSERT INTO " + tablePrefix
+						+ "SNAPSHOT (MACHINE_ID, ENTRY_SEQUENCE, CONTEXT) VALUES (?, ?, ?)", machineId, sequence, data);
+			} catch (DuplicateKeyException e) {
+				jdbcTemplate.update(update, sequence, data, machineId, sequence);
+			}
+		}
+	}
+
+	@Override
+	public JournalSnapshot<S, E> readSnapshot(String machineId) throws Exception {
+		List<JournalSnapshot<S, E>> snapshots = jdbcTemplate.query("SELECT ENTRY_SEQUENCE, CONTEXT FROM " + tablePrefix
+				+ "SNAPSHOT WHERE MACHINE_ID = ?", (rs, rowNum) -> {
+					try {
+						return new JournalSnapshot<S, E>(rs.getLong(1), deserializeContext(rs.getBytes(2)));
+					} catch (Exception e) {
+						throw new StateMachineException("Unable to read snapshot", e);
+					}
+				}, machineId);
+		return snapshots.isEmpty() ? null : snapshots.get(0);
+	}
+
+	private Long readSnapshotSequence(String machineId) {
+		List<Long> sequences = jdbcTemplate.queryForList("SELECT ENTRY_SEQUENCE FROM " + tablePrefix
+				+ "SNAPSHOT WHERE MACHINE_ID = ?", Long.class, machineId);
+		return sequences.isEmpty() ? null : sequences.get(0);
+	}
+
+	/**
+	 * Sets the table prefix. Defaults to {@code SSM_}.
+	 *
+	 * @param tablePrefix the table prefix
+	 */
+	public void setTablePrefix(String tablePrefix) {
+		Assert.notNull(tablePrefix, "Table prefix must be set");
+		this.tablePrefix = tablePrefix;
+	}
+}
@@ -0,0 +1,26 @@
+CREATE TABLE SSM_ENSEMBLE (
+	ENSEMBLE_ID VARCHAR(255) NOT NULL PRIMARY KEY,
+	VERSION BIGINT NOT NULL,
+	CONTEXT BYTEA
+);
+
+CREATE TABLE SSM_ENSEMBLE_LOG (
+	ENSEMBLE_ID VARCHAR(255) NOT NULL,
+	VERSION BIGINT NOT NULL,
+	CONTEXT BYTEA NOT NULL,
+	PRIMARY KEY (ENSEMBLE_ID, VERSION)
+);
+
+CREATE TABLE SSM_JOURNAL (
+	MACHINE_ID VARCHAR(255) NOT NULL,
+	ENTRY_SEQUENCE BIGINT NOT NULL,
+	ENTRY_TIMESTAMP BIGINT NOT NULL,
+	EVENT BYTEA NOT NULL,
+	PRIMARY KEY (MACHINE_ID, ENTRY_SEQUENCE)
+);
+
+CREATE TABLE SSM_SNAPSHOT (
+	MACHINE_ID VARCHAR(255) NOT NULL PRIMARY KEY,
+	ENTRY_SEQUENCE BIGINT NOT NULL,
+	CONTEXT BYTEA NOT NULL
+);
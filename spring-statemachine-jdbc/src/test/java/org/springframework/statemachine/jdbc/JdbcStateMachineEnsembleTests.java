@@ -0,0 +1,182 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachineException;
+import org.springframework.statemachine.ensemble.EnsembleListenerAdapter;
+import org.springframework.statemachine.ensemble.StateMachineEnsembleException;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+
+public class JdbcStateMachineEnsembleTests {
+
+	private EmbeddedDatabase dataSource;
+
+	@BeforeEach
+	public void setup() {
+		dataSource = new EmbeddedDatabaseBuilder()
+				.generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.H2)
+				.addScript("org/springframework/statemachine/jdbc/schema-h2.sql")
+				.build();
+	}
+
+	@AfterEach
+	public void clean() {
+		dataSource.shutdown();
+	}
+
+	@Test
+	public void testPersist() throws Exception {
+		JdbcStateMachineEnsemble<String, String> ensemble = new JdbcStateMachineEnsemble<String, String>(dataSource, "foo");
+		ensemble.afterPropertiesSet();
+		ensemble.start();
+
+		assertThat(ensemble.getState()).isNull();
+		ensemble.setState(context("S1", "E1"));
+		ensemble.setState(context("S2", "E2"));
+		assertThat(ensemble.getState().getState()).isEqualTo("S2");
+		ensemble.stop();
+	}
+
+	@Test
+	public void testStaleVersionRejected() throws Exception {
+		JdbcStateMachineEnsemble<String, String> ensemble1 = new JdbcStateMachineEnsemble<String, String>(dataSource, "foo");
+		JdbcStateMachineEnsemble<String, String> ensemble2 = new JdbcStateMachineEnsemble<String, String>(dataSource, "foo");
+		ensemble1.setPollInterval(60000);
+		ensemble2.setPollInterval(60000);
+		ensemble1.afterPropertiesSet();
+		ensemble2.afterPropertiesSet();
+		ensemble1.start();
+		ensemble2.start();
+
+		ensemble1.setState(context("S1", "E1"));
+		assertThatThrownBy(() -> ensemble2.setState(context("S2", "E2"))).isInstanceOf(StateMachineException.class);
+		assertThat(ensemble2.getState().getState()).isEqualTo("S1");
+		ensemble1.stop();
+		ensemble2.stop();
+	}
+
+	@Test
+	public void testReceiveEvents() throws Exception {
+		JdbcStateMachineEnsemble<String, String> ensemble1 = new JdbcStateMachineEnsemble<String, String>(dataSource, "foo");
+		JdbcStateMachineEnsemble<String, String> ensemble2 = new JdbcStateMachineEnsemble<String, String>(dataSource, "foo");
+		ensemble2.setPollInterval(50);
+		TestEnsembleListener listener = new TestEnsembleListener(5);
+		ensemble2.addEnsembleListener(listener);
+		ensemble1.afterPropertiesSet();
+		ensemble2.afterPropertiesSet();
+		ensemble1.start();
+		ensemble2.start();
+		ensemble2.join(stateMachine());
+		assertThat(listener.joinedLatch.await(2, TimeUnit.SECONDS)).isTrue();
+
+		for (int i = 0; i < 5; i++) {
+			ensemble1.setState(context("S" + i, "E" + i));
+		}
+
+		assertThat(listener.eventLatch.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(listener.events).hasSize(5);
+		for (int i = 0; i < 5; i++) {
+			assertThat(listener.events.get(i).getEvent()).isEqualTo("E" + i);
+		}
+		assertThat(listener.errors).isEmpty();
+		ensemble1.stop();
+		ensemble2.stop();
+	}
+
+	@Test
+	public void testEventsOverflow() throws Exception {
+		JdbcStateMachineEnsemble<String, String> ensemble1 = new JdbcStateMachineEnsemble<String, String>(dataSource, "foo");
+		JdbcStateMachineEnsemble<String, String> ensemble2 = new JdbcStateMachineEnsemble<String, String>(dataSource, "foo");
+		ensemble1.setLogSize(4);
+		ensemble2.setPollInterval(60000);
+		TestEnsembleListener listener = new TestEnsembleListener(0);
+		ensemble2.addEnsembleListener(listener);
+		ensemble1.afterPropertiesSet();
+		ensemble2.afterPropertiesSet();
+		ensemble1.start();
+		ensemble2.start();
+
+		for (int i = 0; i < 10; i++) {
+			ensemble1.setState(context("S" + i, "E" + i));
+		}
+		ensemble2.poll();
+
+		assertThat(listener.errors).hasSize(1);
+		assertThat(listener.events).isEmpty();
+		ensemble1.stop();
+		ensemble2.stop();
+	}
+
+	private static StateMachineContext<String, String> context(String state, String event) {
+		return new DefaultStateMachineContext<String, String>(state, event, new HashMap<String, Object>(),
+				new DefaultExtendedState());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static StateMachine<String, String> stateMachine() {
+		return mock(StateMachine.class);
+	}
+
+	private static class TestEnsembleListener extends EnsembleListenerAdapter<String, String> {
+
+		final CountDownLatch joinedLatch = new CountDownLatch(1);
+		final CountDownLatch eventLatch;
+		final List<StateMachineContext<String, String>> events =
+				Collections.synchronizedList(new ArrayList<StateMachineContext<String, String>>());
+		final List<Exception> errors = Collections.synchronizedList(new ArrayList<Exception>());
+
+		TestEnsembleListener(int events) {
+			this.eventLatch = new CountDownLatch(events);
+		}
+
+		@Override
+		public void stateMachineJoined(StateMachine<String, String> stateMachine, StateMachineContext<String, String> context) {
+			joinedLatch.countDown();
+		}
+
+		@Override
+		public void stateChanged(StateMachineContext<String, String> context) {
+			events.add(context);
+			eventLatch.countDown();
+		}
+
+		@Override
+		public void ensembleError(StateMachineEnsembleException exception) {
+			errors.add(exception);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.persist.JournalEntry;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+
+public class JdbcStateMachineJournalTests {
+
+	private EmbeddedDatabase dataSource;
+
+	@BeforeEach
+	public void setup() {
+		dataSource = new EmbeddedDatabaseBuilder()
+				.generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.H2)
+				.addScript("org/springframework/statemachine/jdbc/schema-h2.sql")
+				.build();
+	}
+
+	@AfterEach
+	public void clean() {
+		dataSource.shutdown();
+	}
+
+	@Test
+	public void testAppendAndRead() throws Exception {
+		JdbcStateMachineJournal<String, String> journal = new JdbcStateMachineJournal<String, String>(dataSource);
+		assertThat(journal.getLastSequence("m1")).isZero();
+		assertThat(journal.append("m1", MessageBuilder.withPayload("E1").setHeader("foo", "bar").build())).isEqualTo(1);
+		assertThat(journal.append("m1", MessageBuilder.withPayload("E2").build())).isEqualTo(2);
+		assertThat(journal.append("m2", MessageBuilder.withPayload("E1").build())).isEqualTo(1);
+
+		List<JournalEntry<String>> entries = journal.read("m1", 0);
+		assertThat(entries).hasSize(2);
+		assertThat(entries.get(0).getMessage().getPayload()).isEqualTo("E1");
+		assertThat(entries.get(0).getMessage().getHeaders().get("foo")).isEqualTo("bar");
+		assertThat(entries.get(1).getSequence()).isEqualTo(2);
+		assertThat(journal.read("m1", 1)).hasSize(1);
+	}
+
+	@Test
+	public void testSnapshot() throws Exception {
+		JdbcStateMachineJournal<String, String> journal = new JdbcStateMachineJournal<String, String>(dataSource);
+		assertThat(journal.readSnapshot("m1")).isNull();
+		journal.writeSnapshot("m1", 1, new DefaultStateMachineContext<String, String>("S1", null,
+				new HashMap<String, Object>(), new DefaultExtendedState()));
+		journal.writeSnapshot("m1", 3, new DefaultStateMachineContext<String, String>("S2", null,
+				new HashMap<String, Object>(), new DefaultExtendedState()));
+		assertThat(journal.readSnapshot("m1").getSequence()).isEqualTo(3);
+		assertThat(journal.readSnapshot("m1").getContext().getState()).isEqualTo("S2");
+	}
+
+	@Test
+	public void testOlderSnapshotIgnored() throws Exception {
+		JdbcStateMachineJournal<String, String> journal = new JdbcStateMachineJournal<String, String>(dataSource);
+		journal.writeSnapshot("m1", 3, new DefaultStateMachineContext<String, String>("S2", null,
+				new HashMap<String, Object>(), new DefaultExtendedState()));
+		journal.writeSnapshot("m1", 2, new DefaultStateMachineContext<String, String>("S1", null,
+				new HashMap<String, Object>(), new DefaultExtendedState()));
+		assertThat(journal.readSnapshot("m1").getSequence()).isEqualTo(3);
+		assertThat(journal.readSnapshot("m1").getContext().getState()).isEqualTo("S2");
+	}
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.kryo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.service.StateMachineSerialisationService;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+import org.springframework.util.Assert;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * {@link StateMachineSerialisationService} using a compact schema based
+ * binary format for a {@link StateMachineContext}.
+ * <p>
+ * State and event types are given up front, enums are written as ordinals
+ * and strings as deduplicated entries in a per context string table. Common
+ * value types are written with a single byte tag and types registered with
+ * {@link #registerType(Class)} with an index instead of a class name, while
+ * anything else falls back to Kryo. Format is versioned and prefixed with a
+ * magic header, payloads without it are read as contexts written by
+ * {@link KryoStateMachineSerialisationService}.
+ * <p>
+ * Registered types and their order need to be same for a writer and a reader.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class CompactStateMachineSerialisationService<S, E> extends AbstractKryoStateMachineSerialisationService<S, E> {
+
+	// first byte having high bit set would mean kryo class registration
+	// id above 126 which never happens with a serialised context
+	private static final byte[] MAGIC = new byte[] { (byte) 0xFE, 'S', 'M', 'C' };
+	private static final int FORMAT_VERSION = 1;
+
+	private static final byte TAG_NULL = 0;
+	private static final byte TAG_STRING = 1;
+	private static final byte TAG_INT = 2;
+	private static final byte TAG_LONG = 3;
+	private static final byte TAG_DOUBLE = 4;
+	private static final byte TAG_TRUE = 5;
+	private static final byte TAG_FALSE = 6;
+	private static final byte TAG_STATE = 7;
+	private static final byte TAG_EVENT = 8;
+	private static final byte TAG_UUID = 9;
+	private static final byte TAG_REGISTERED = 10;
+	private static final byte TAG_KRYO = 11;
+
+	private final Class<S> stateType;
+	private final Class<E> eventType;
+	private final List<Class<?>> types = new ArrayList<>();
+	private final Map<Class<?>, Integer> typeIndexes = new HashMap<>();
+
+	/**
+	 * Instantiates a new compact state machine serialisation service.
+	 *
+	 * @param stateType the state type
+	 * @param eventType the event type
+	 */
+	public CompactStateMachineSerialisationService(Class<S> stateType, Class<E> eventType) {
+		Assert.notNull(stateType, "State type must be set");
+		Assert.notNull(eventType, "Event type must be set");
+		this.stateType = stateType;
+		this.eventType = eventType;
+	}
+
+	/**
+	 * Register a known variable or header value type which is then written
+	 * without a class name. Needs to be called before service is used.
+	 *
+	 * @param type the type
+	 */
+	public synchronized void registerType(Class<?> type) {
+		Assert.notNull(type, "Type must be set");
+		if (!typeIndexes.containsKey(type)) {
+			typeIndexes.put(type, types.size());
+			types.add(type);
+		}
+	}
+
+	@Override
+	protected void doEncode(Kryo kryo, Object object, Output output) {
+		output.writeBytes(MAGIC);
+		output.writeVarInt(FORMAT_VERSION, true);
+		writeContext(new Writer(kryo, output), castContext(object));
+	}
+
+	@Override
+	protected <T> T doDecode(Kryo kryo, Input input, Class<T> type) {
+		int start = input.position();
+		if (!hasMagic(input)) {
+			input.setPosition(start);
+			return kryo.readObject(input, type);
+		}
+		int version = input.readVarInt(true);
+		if (version != FORMAT_VERSION) {
+			throw new KryoException("Unsupported context format version " + version);
+		}
+		return type.cast(readContext(new Reader(kryo, input)));
+	}
+
+	@Override
+	protected void configureKryoInstance(Kryo kryo) {
+		// same as a default kryo service so that existing payloads can be read
+		kryo.addDefaultSerializer(StateMachineContext.class, new StateMachineContextSerializer<S, E>());
+		kryo.addDefaultSerializer(MessageHeaders.class, new MessageHeadersSerializer());
+		kryo.addDefaultSerializer(UUID.class, new UUIDSerializer());
+	}
+
+	private boolean hasMagic(Input input) {
+		if (!input.canReadInt()) {
+			return false;
+		}
+		for (byte b : MAGIC) {
+			if (input.readByte() != b) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private StateMachineContext<S, E> castContext(Object object) {
+		return (StateMachineContext<S, E>) object;
+	}
+
+	private void writeContext(Writer writer, StateMachineContext<S, E> context) {
+		writer.string(context.getId());
+		writer.typed(context.getState(), stateType);
+		writer.typed(context.getEvent(), eventType);
+		Map<String, Object> headers = context.getEventHeaders();
+		writer.size(headers);
+		if (headers != null) {
+			for (Entry<String, Object> entry : headers.entrySet()) {
+				writer.string(entry.getKey());
+				writer.value(entry.getValue());
+			}
+		}
+		Map<Object, Object> variables = context.getExtendedState() != null ? context.getExtendedState().getVariables() : null;
+		writer.size(variables);
+		if (variables != null) {
+			for (Entry<Object, Object> entry : variables.entrySet()) {
+				writer.value(entry.getKey());
+				writer.value(entry.getValue());
+			}
+		}
+		Map<S, S> historyStates = context.getHistoryStates();
+		writer.size(historyStates);
+		if (historyStates != null) {
+			for (Entry<S, S> entry : historyStates.entrySet()) {
+				writer.typed(entry.getKey(), stateType);
+				writer.typed(entry.getValue(), stateType);
+			}
+		}
+		List<String> childRefs = context.getChildReferences();
+		writer.size(childRefs);
+		if (childRefs != null) {
+			for (String childRef : childRefs) {
+				writer.string(childRef);
+			}
+		}
+		List<StateMachineContext<S, E>> childs = context.getChilds();
+		writer.size(childs);
+		if (childs != null) {
+			for (StateMachineContext<S, E> child : childs) {
+				writeContext(writer, child);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private StateMachineContext<S, E> readContext(Reader reader) {
+		String id = reader.string();
+		S state = (S) reader.typed(stateType);
+		E event = (E) reader.typed(eventType);
+		Map<String, Object> headers = null;
+		int size = reader.size();
+		if (size >= 0) {
+			headers = new HashMap<>(size);
+			for (int i = 0; i < size; i++) {
+				headers.put(reader.string(), reader.value());
+			}
+		}
+		Map<Object, Object> variables = null;
+		size = reader.size();
+		if (size >= 0) {
+			variables = new HashMap<>(size);
+			for (int i = 0; i < size; i++) {
+				variables.put(reader.value(), reader.value());
+			}
+		}
+		Map<S, S> historyStates = null;
+		size = reader.size();
+		if (size >= 0) {
+			historyStates = new HashMap<>(size);
+			for (int i = 0; i < size; i++) {
+				historyStates.put((S) reader.typed(stateType), (S) reader.typed(stateType));
+			}
+		}
+		List<String> childRefs = null;
+		size = reader.size();
+		if (size >= 0) {
+			childRefs = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				childRefs.add(reader.string());
+			}
+		}
+		List<StateMachineContext<S, E>> childs = null;
+		size = reader.size();
+		if (size >= 0) {
+			childs = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				childs.add(readContext(reader));
+			}
+		}
+		return new DefaultStateMachineContext<S, E>(childRefs, childs, state, event, headers,
+				new DefaultExtendedState(variables), historyStates, id);
+	}
+
+	/**
+	 * Writes values into kryo output keeping a string table.
+	 */
+	private class Writer {
+
+		final Kryo kryo;
+		final Output output;
+		final Map<String, Integer> strings = new LinkedHashMap<>();
+
+		Writer(Kryo kryo, Output output) {
+			this.kryo = kryo;
+			this.output = output;
+		}
+
+		void size(Object collection) {
+			int size = -1;
+			if (collection instanceof Map) {
+				size = ((Map<?, ?>) collection).size();
+			} else if (collection instanceof List) {
+				size = ((List<?>) collection).size();
+			}
+			output.writeVarInt(size + 1, true);
+		}
+
+		void string(String value) {
+			// 0 is null, 1 is a new string followed by its content, 2 is
+			// reserved for a typed non string value and anything else
+			// refers to an existing one
+			if (value == null) {
+				output.writeVarInt(0, true);
+				return;
+			}
+			Integer index = strings.get(value);
+			if (index != null) {
+				output.writeVarInt(index + 3, true);
+			} else {
+				strings.put(value, strings.size());
+				output.writeVarInt(1, true);
+				output.writeString(value);
+			}
+		}
+
+		void typed(Object value, Class<?> type) {
+			if (type.isEnum()) {
+				// 0 is null, 1 is a value of some other type
+				// followed by its tag and anything else an ordinal
+				if (value == null) {
+					output.writeVarInt(0, true);
+				} else if (type.isInstance(value)) {
+					output.writeVarInt(((Enum<?>) value).ordinal() + 2, true);
+				} else {
+					output.writeVarInt(1, true);
+					value(value);
+				}
+			} else if (type == String.class) {
+				if (value == null || value instanceof String) {
+					string((String) value);
+				} else {
+					output.writeVarInt(2, true);
+					value(value);
+				}
+			} else {
+				value(value);
+			}
+		}
+
+		void value(Object value) {
+			if (value == null) {
+				output.writeByte(TAG_NULL);
+			} else if (value instanceof String) {
+				output.writeByte(TAG_STRING);
+				string((String) value);
+			} else if (value instanceof Integer) {
+				output.writeByte(TAG_INT);
+				output.writeVarInt((Integer) value, false);
+			} else if (value instanceof Long) {
+				output.writeByte(TAG_LONG);
+				output.writeVarLong((Long) value, false);
+			} else if (value instanceof Double) {
+				output.writeByte(TAG_DOUBLE);
+				output.writeDouble((Double) value);
+			} else if (value instanceof Boolean) {
+				output.writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+			} else if (value instanceof UUID) {
+				output.writeByte(TAG_UUID);
+				output.writeLong(((UUID) value).getMostSignificantBits());
+				output.writeLong(((UUID) value).getLeastSignificantBits());
+			} else if (stateType.isEnum() && stateType.isInstance(value)) {
+				output.writeByte(TAG_STATE);
+				output.writeVarInt(((Enum<?>) value).ordinal(), true);
+			} else if (eventType.isEnum() && eventType.isInstance(value)) {
+				output.writeByte(TAG_EVENT);
+				output.writeVarInt(((Enum<?>) value).ordinal(), true);
+			} else if (typeIndexes.containsKey(value.getClass())) {
+				output.writeByte(TAG_REGISTERED);
+				output.writeVarInt(typeIndexes.get(value.getClass()), true);
+				kryo.writeObject(output, value);
+			} else {
+				output.writeByte(TAG_KRYO);
+				kryo.writeClassAndObject(output, value);
+			}
+		}
+	}
+
+	/**
+	 * Reads values from kryo input keeping a string table.
+	 */
+	private class Reader {
+
+		final Kryo kryo;
+		final Input input;
+		final List<String> strings = new ArrayList<>();
+
+		Reader(Kryo kryo, Input input) {
+			this.kryo = kryo;
+			this.input = input;
+		}
+
+		int size() {
+			return input.readVarInt(true) - 1;
+		}
+
+		String string() {
+			return string(input.readVarInt(true));
+		}
+
+		String string(int index) {
+			if (index == 0) {
+				return null;
+			} else if (index == 1) {
+				String value = input.readString();
+				strings.add(value);
+				return value;
+			}
+			return strings.get(index - 3);
+		}
+
+		Object typed(Class<?> type) {
+			if (type.isEnum()) {
+				int ordinal = input.readVarInt(true);
+				if (ordinal == 0) {
+					return null;
+				} else if (ordinal == 1) {
+					return value();
+				}
+				return type.getEnumConstants()[ordinal - 2];
+			} else if (type == String.class) {
+				int index = input.readVarInt(true);
+				return index == 2 ? value() : string(index);
+			}
+			return value();
+		}
+
+		Object value() {
+			byte tag = input.readByte();
+			switch (tag) {
+			case TAG_NULL:
+				return null;
+			case TAG_STRING:
+				return string();
+			case TAG_INT:
+				return input.readVarInt(false);
+			case TAG_LONG:
+				return input.readVarLong(false);
+			case TAG_DOUBLE:
+				return input.readDouble();
+			case TAG_TRUE:
+				return Boolean.TRUE;
+			case TAG_FALSE:
+				return Boolean.FALSE;
+			case TAG_UUID:
+				return new UUID(input.readLong(), input.readLong());
+			case TAG_STATE:
+				return stateType.getEnumConstants()[input.readVarInt(true)];
+			case TAG_EVENT:
+				return eventType.getEnumConstants()[input.readVarInt(true)];
+			case TAG_REGISTERED:
+				return kryo.readObject(input, types.get(input.readVarInt(true)));
+			case TAG_KRYO:
+				return kryo.readClassAndObject(input);
+			default:
+				throw new KryoException("Unknown value tag " + tag);
+			}
+		}
+	}
+}
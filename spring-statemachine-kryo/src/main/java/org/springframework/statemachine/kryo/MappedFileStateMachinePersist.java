@@ -0,0 +1,474 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.kryo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachineException;
+import org.springframework.statemachine.StateMachinePersist;
+import org.springframework.statemachine.service.StateMachineSerialisationService;
+import org.springframework.statemachine.support.LifecycleObjectSupport;
+import org.springframework.util.Assert;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link StateMachinePersist} storing contexts in memory-mapped segment files
+ * under a local directory, meant for single node deployments without a
+ * database.
+ * <p>
+ * Every write appends a record {@code length, crc32, idLength, id, context}
+ * into an active segment and then points an in-memory id index to it. Record
+ * length is written last so a crash never exposes a partial record and a
+ * record failing its checksum ends a segment on recovery. Older segments
+ * whose share of live records falls below a
+ * {@link #setCompactionThreshold(double) threshold} are compacted in a
+ * background by copying live records into an active segment.
+ * <p>
+ * Writes are not forced to a storage device unless {@link #setSync(boolean)}
+ * is enabled, which means that on a host crash latest writes may be lost but
+ * a store stays consistent.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class MappedFileStateMachinePersist<S, E> extends LifecycleObjectSupport implements StateMachinePersist<S, E, String> {
+
+	private final static Log log = LogFactory.getLog(MappedFileStateMachinePersist.class);
+	private static final String SEGMENT_PREFIX = "segment-";
+	private static final String SEGMENT_SUFFIX = ".dat";
+	private static final int HEADER_LENGTH = 4 + 4;
+	private final Path directory;
+	private final StateMachineSerialisationService<S, E> serialisationService;
+	private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+	private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+	private final Object lock = new Object();
+	private final Object compactionLock = new Object();
+	private volatile Segment active;
+	private volatile ScheduledExecutorService scheduler;
+	private int segmentSize = 64 * 1024 * 1024;
+	private double compactionThreshold = 0.5;
+	private long compactionInterval = 60000;
+	private boolean sync = false;
+
+	/**
+	 * Instantiates a new mapped file state machine persist using a
+	 * {@link KryoStateMachineSerialisationService}.
+	 *
+	 * @param directory the directory for segment files
+	 */
+	public MappedFileStateMachinePersist(Path directory) {
+		this(directory, new KryoStateMachineSerialisationService<S, E>());
+	}
+
+	/**
+	 * Instantiates a new mapped file state machine persist.
+	 *
+	 * @param directory the directory for segment files
+	 * @param serialisationService the serialisation service
+	 */
+	public MappedFileStateMachinePersist(Path directory, StateMachineSerialisationService<S, E> serialisationService) {
+		Assert.notNull(directory, "Directory must be set");
+		Assert.notNull(serialisationService, "Serialisation service must be set");
+		this.directory = directory;
+		this.serialisationService = serialisationService;
+		setAutoStartup(true);
+	}
+
+	@Override
+	protected void onInit() throws Exception {
+		Files.createDirectories(directory);
+		recover();
+	}
+
+	@Override
+	protected Mono<Void> doPreStartReactively() {
+		return Mono.fromRunnable(() -> doStart());
+	}
+
+	protected void doStart() {
+		scheduler = Executors.newSingleThreadScheduledExecutor();
+		scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				compact();
+			} catch (Exception e) {
+				log.warn("Segment compaction failed", e);
+			}
+		}, compactionInterval, compactionInterval, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	protected Mono<Void> doPreStopReactively() {
+		return Mono.fromRunnable(() -> doStop());
+	}
+
+	protected void doStop() {
+		ScheduledExecutorService scheduler = this.scheduler;
+		this.scheduler = null;
+		if (scheduler != null) {
+			scheduler.shutdown();
+		}
+	}
+
+	@Override
+	protected void doDestroy() {
+		doStop();
+		synchronized (lock) {
+			for (Segment segment : segments.values()) {
+				if (sync) {
+					segment.buffer.force();
+				}
+				closeQuietly(segment);
+			}
+		}
+	}
+
+	@Override
+	public void write(StateMachineContext<S, E> context, String contextObj) throws Exception {
+		Assert.notNull(contextObj, "Machine id must be set");
+		byte[] id = contextObj.getBytes(StandardCharsets.UTF_8);
+		Assert.isTrue(id.length <= Short.MAX_VALUE, "Machine id is too long");
+		byte[] data = serialisationService.serialiseStateMachineContext(context);
+		ByteBuffer body = ByteBuffer.allocate(2 + id.length + data.length);
+		body.putShort((short) id.length);
+		body.put(id);
+		body.put(data);
+		CRC32 crc = new CRC32();
+		crc.update(body.array());
+		synchronized (lock) {
+			Location location = append(body.array(), (int) crc.getValue());
+			release(index.put(contextObj, location));
+		}
+	}
+
+	@Override
+	public StateMachineContext<S, E> read(String contextObj) throws Exception {
+		Location location = index.get(contextObj);
+		if (location == null) {
+			return null;
+		}
+		// record behind a location is immutable, segment buffer stays valid
+		// until gc even if compaction has dropped a segment
+		ByteBuffer buffer = location.segment.buffer.duplicate();
+		buffer.position(location.offset + 4);
+		int checksum = buffer.getInt();
+		byte[] body = new byte[location.length];
+		buffer.get(body);
+		CRC32 crc = new CRC32();
+		crc.update(body);
+		if ((int) crc.getValue() != checksum) {
+			throw new StateMachineException("Checksum mismatch for machine " + contextObj);
+		}
+		int idLength = ((body[0] & 0xff) << 8) | (body[1] & 0xff);
+		byte[] data = new byte[body.length - 2 - idLength];
+		System.arraycopy(body, 2 + idLength, data, 0, data.length);
+		return serialisationService.deserialiseStateMachineContext(data);
+	}
+
+	/**
+	 * Compacts segments whose share of live records is below a compaction
+	 * threshold by copying live records into an active segment and deleting
+	 * a compacted segment. Called periodically when this persist is running.
+	 */
+	public void compact() {
+		synchronized (compactionLock) {
+			doCompact();
+		}
+	}
+
+	private void doCompact() {
+		List<Segment> candidates = new ArrayList<>();
+		synchronized (lock) {
+			for (Segment segment : segments.values()) {
+				if (segment != active && (segment.live == 0 || segment.live < segment.position * compactionThreshold)) {
+					candidates.add(segment);
+				}
+			}
+		}
+		for (Segment segment : candidates) {
+			ByteBuffer buffer = segment.buffer.duplicate();
+			int offset = 0;
+			while (offset < segment.position) {
+				int length = buffer.getInt(offset);
+				synchronized (lock) {
+					String id = readId(buffer, offset);
+					Location current = index.get(id);
+					if (current != null && current.segment == segment && current.offset == offset) {
+						byte[] body = new byte[length];
+						ByteBuffer record = buffer.duplicate();
+						record.position(offset + HEADER_LENGTH);
+						record.get(body);
+						Location location = append(body, buffer.getInt(offset + 4));
+						release(index.put(id, location));
+					}
+				}
+				offset += HEADER_LENGTH + length;
+			}
+			synchronized (lock) {
+				segments.remove(segment.id);
+				closeQuietly(segment);
+			}
+			try {
+				Files.deleteIfExists(segment.path);
+			} catch (IOException e) {
+				log.warn("Unable to delete compacted segment " + segment.path, e);
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of stored machine contexts.
+	 *
+	 * @return the number of stored contexts
+	 */
+	public int getSize() {
+		return index.size();
+	}
+
+	/**
+	 * Gets the number of segment files.
+	 *
+	 * @return the number of segments
+	 */
+	public int getSegmentCount() {
+		synchronized (lock) {
+			return segments.size();
+		}
+	}
+
+	/**
+	 * Sets the size of a segment file. A serialised context needs to fit into
+	 * a single segment. Defaults to 64MB.
+	 *
+	 * @param segmentSize the segment size in bytes
+	 */
+	public void setSegmentSize(int segmentSize) {
+		Assert.isTrue(segmentSize > HEADER_LENGTH, "Segment size is too small");
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * Sets the ratio of live records in a segment below which it is
+	 * compacted. Defaults to {@code 0.5}.
+	 *
+	 * @param compactionThreshold the compaction threshold
+	 */
+	public void setCompactionThreshold(double compactionThreshold) {
+		Assert.isTrue(compactionThreshold > 0 && compactionThreshold <= 1, "Compaction threshold must be in range (0, 1]");
+		this.compactionThreshold = compactionThreshold;
+	}
+
+	/**
+	 * Sets the interval in millis between background compactions. Defaults
+	 * to {@code 60000}.
+	 *
+	 * @param compactionInterval the compaction interval
+	 */
+	public void setCompactionInterval(long compactionInterval) {
+		Assert.isTrue(compactionInterval > 0, "Compaction interval must be greater than zero");
+		this.compactionInterval = compactionInterval;
+	}
+
+	/**
+	 * Sets if every write is forced to a storage device before returning.
+	 * Defaults to {@code false}.
+	 *
+	 * @param sync the sync flag
+	 */
+	public void setSync(boolean sync) {
+		this.sync = sync;
+	}
+
+	private Location append(byte[] body, int checksum) {
+		int length = HEADER_LENGTH + body.length;
+		if (length > segmentSize) {
+			throw new StateMachineException("Record of " + length + " bytes doesn't fit into segment of " + segmentSize + " bytes");
+		}
+		Segment segment = active;
+		if (segment == null || segment.position + length > segment.buffer.capacity()) {
+			segment = roll();
+		}
+		int offset = segment.position;
+		ByteBuffer buffer = segment.buffer.duplicate();
+		buffer.position(offset + HEADER_LENGTH);
+		buffer.put(body);
+		buffer.putInt(offset + 4, checksum);
+		// length last, a zero length marks an end of segment on recovery
+		buffer.putInt(offset, body.length);
+		if (sync) {
+			segment.buffer.force();
+		}
+		segment.position += length;
+		segment.live += length;
+		return new Location(segment, offset, body.length);
+	}
+
+	private void release(Location location) {
+		if (location != null) {
+			location.segment.live -= HEADER_LENGTH + location.length;
+		}
+	}
+
+	private Segment roll() {
+		int id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+		try {
+			Segment segment = open(id, segmentSize);
+			segments.put(id, segment);
+			active = segment;
+			return segment;
+		} catch (IOException e) {
+			throw new StateMachineException("Unable to create segment " + id, e);
+		}
+	}
+
+	private Segment open(int id, int size) throws IOException {
+		Path path = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		return new Segment(id, path, channel, buffer);
+	}
+
+	private void recover() throws IOException {
+		TreeMap<Integer, Path> files = new TreeMap<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			for (Path path : stream) {
+				String name = path.getFileName().toString();
+				try {
+					files.put(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), path);
+				} catch (NumberFormatException e) {
+					log.warn("Ignoring unknown file " + path);
+				}
+			}
+		}
+		synchronized (lock) {
+			for (Entry<Integer, Path> entry : files.entrySet()) {
+				long size = Files.size(entry.getValue());
+				Segment segment = open(entry.getKey(), (int) Math.max(size, HEADER_LENGTH));
+				segments.put(segment.id, segment);
+				active = segment;
+				scan(segment);
+			}
+			Segment last = active;
+			if (last != null && last.position + 4 <= last.buffer.capacity() && last.buffer.getInt(last.position) != 0) {
+				// leftovers of a torn record, start a new segment so that they
+				// never get mistaken as records once new ones are appended
+				active = null;
+			}
+		}
+	}
+
+	private void scan(Segment segment) {
+		ByteBuffer buffer = segment.buffer.duplicate();
+		int offset = 0;
+		CRC32 crc = new CRC32();
+		while (offset + HEADER_LENGTH <= buffer.capacity()) {
+			int length = buffer.getInt(offset);
+			if (length < 2 || offset + HEADER_LENGTH + length > buffer.capacity()) {
+				break;
+			}
+			byte[] body = new byte[length];
+			ByteBuffer record = buffer.duplicate();
+			record.position(offset + HEADER_LENGTH);
+			record.get(body);
+			crc.reset();
+			crc.update(body);
+			if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+				log.warn("Checksum mismatch in segment " + segment.path + " at offset " + offset + ", ignoring rest of segment");
+				break;
+			}
+			release(index.put(readId(buffer, offset), new Location(segment, offset, length)));
+			segment.live += HEADER_LENGTH + length;
+			offset += HEADER_LENGTH + length;
+		}
+		segment.position = offset;
+	}
+
+	private static String readId(ByteBuffer buffer, int offset) {
+		int idLength = buffer.getShort(offset + HEADER_LENGTH);
+		byte[] id = new byte[idLength];
+		ByteBuffer record = buffer.duplicate();
+		record.position(offset + HEADER_LENGTH + 2);
+		record.get(id);
+		return new String(id, StandardCharsets.UTF_8);
+	}
+
+	private static void closeQuietly(Segment segment) {
+		try {
+			segment.channel.close();
+		} catch (IOException e) {
+			log.warn("Unable to close segment " + segment.path, e);
+		}
+	}
+
+	/**
+	 * Segment file, position and live counters guarded by a persist lock.
+	 */
+	private static class Segment {
+
+		final int id;
+		final Path path;
+		final FileChannel channel;
+		final MappedByteBuffer buffer;
+		int position;
+		long live;
+
+		Segment(int id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+			this.id = id;
+			this.path = path;
+			this.channel = channel;
+			this.buffer = buffer;
+		}
+	}
+
+	/**
+	 * Location of a latest record for a machine.
+	 */
+	private static class Location {
+
+		final Segment segment;
+		final int offset;
+		final int length;
+
+		Location(Segment segment, int offset, int length) {
+			this.segment = segment;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+}
@@ -19,11 +19,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.statemachine.ExtendedState;
 import org.springframework.statemachine.StateMachineContext;
 import org.springframework.statemachine.support.DefaultExtendedState;
 import org.springframework.statemachine.support.DefaultStateMachineContext;
+import org.springframework.statemachine.support.TypedExtendedState;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Registration;
 import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
@@ -41,12 +44,22 @@ public class StateMachineContextSerializer<S, E> extends Serializer<StateMachine
 	// NOTE: when structure of this serialisation is changed, see how things are tested
 	//       in StateMachineContextSerializerTests.
 
+	private final TypedExtendedStateSerializer typedExtendedStateSerializer = new TypedExtendedStateSerializer();
+
 	@Override
 	public void write(Kryo kryo, Output output, StateMachineContext<S, E> context) {
 		kryo.writeClassAndObject(output, context.getEvent());
 		kryo.writeClassAndObject(output, context.getState());
 		kryo.writeClassAndObject(output, context.getEventHeaders());
-		kryo.writeClassAndObject(output, context.getExtendedState() != null ? context.getExtendedState().getVariables() : null);
+		ExtendedState extendedState = context.getExtendedState();
+		if (extendedState instanceof TypedExtendedState) {
+			// typed state is written in place of variables with its own
+			// serializer so that kryo instances don't need to register it
+			kryo.writeClass(output, TypedExtendedState.class);
+			kryo.writeObject(output, extendedState, typedExtendedStateSerializer);
+		} else {
+			kryo.writeClassAndObject(output, extendedState != null ? extendedState.getVariables() : null);
+		}
 		kryo.writeClassAndObject(output, context.getChilds());
 		kryo.writeClassAndObject(output, context.getHistoryStates());
 		kryo.writeClassAndObject(output, context.getId());
@@ -63,7 +76,16 @@ public class StateMachineContextSerializer<S, E> extends Serializer<StateMachine
 		E event = (E) kryo.readClassAndObject(input);
 		S state = (S) kryo.readClassAndObject(input);
 		Map<String, Object> eventHeaders = (Map<String, Object>) kryo.readClassAndObject(input);
-		Map<Object, Object> variables = (Map<Object, Object>) kryo.readClassAndObject(input);
+		ExtendedState extendedState = null;
+		Registration registration = kryo.readClass(input);
+		if (registration != null && registration.getType() == TypedExtendedState.class) {
+			extendedState = kryo.readObject(input, TypedExtendedState.class, typedExtendedStateSerializer);
+		} else {
+			Map<Object, Object> variables = registration != null
+					? (Map<Object, Object>) kryo.readObject(input, registration.getType(), registration.getSerializer())
+					: null;
+			extendedState = new DefaultExtendedState(variables);
+		}
 		List<StateMachineContext<S, E>> childs = (List<StateMachineContext<S, E>>) kryo.readClassAndObject(input);
 		Map<S, S> historyStates = (Map<S, S>) kryo.readClassAndObject(input);
 		String id = (String) kryo.readClassAndObject(input);
@@ -73,6 +95,6 @@ public class StateMachineContextSerializer<S, E> extends Serializer<StateMachine
 		}
 
 		return new DefaultStateMachineContext<S, E>(childRefs, childs, state, event, eventHeaders,
-				new DefaultExtendedState(variables), historyStates, id);
+				extendedState, historyStates, id);
 	}
 }
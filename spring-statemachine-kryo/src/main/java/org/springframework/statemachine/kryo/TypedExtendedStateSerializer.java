@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.kryo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.springframework.statemachine.support.ExtendedStateSchema;
+import org.springframework.statemachine.support.ExtendedStateSchema.Slot;
+import org.springframework.statemachine.support.ExtendedStateSchema.VariableType;
+import org.springframework.statemachine.support.TypedExtendedState;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo {@link Serializer} for {@link TypedExtendedState}. Schema keys and
+ * types are written once followed by a presence bitmap and raw primitive
+ * values, untyped variables are written as a map.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class TypedExtendedStateSerializer extends Serializer<TypedExtendedState> {
+
+	private static final VariableType[] TYPES = VariableType.values();
+
+	@Override
+	public void write(Kryo kryo, Output output, TypedExtendedState extendedState) {
+		List<Slot> slots = extendedState.getSchema().getSlots();
+		output.writeVarInt(slots.size(), true);
+		for (Slot slot : slots) {
+			kryo.writeClassAndObject(output, slot.getKey());
+			output.writeByte(slot.getType().ordinal());
+		}
+		byte[] bitmap = new byte[(slots.size() + 7) / 8];
+		for (Slot slot : slots) {
+			if (extendedState.isSet(slot)) {
+				bitmap[slot.getIndex() / 8] |= 1 << (slot.getIndex() % 8);
+			}
+		}
+		output.writeBytes(bitmap);
+		for (Slot slot : slots) {
+			if (!extendedState.isSet(slot)) {
+				continue;
+			}
+			switch (slot.getType()) {
+			case INT:
+				output.writeVarInt(extendedState.getInt(slot), false);
+				break;
+			case LONG:
+				output.writeVarLong(extendedState.getLong(slot), false);
+				break;
+			case DOUBLE:
+				output.writeDouble(extendedState.getDouble(slot));
+				break;
+			default:
+				output.writeBoolean(extendedState.getBoolean(slot));
+				break;
+			}
+		}
+		Map<Object, Object> untyped = new HashMap<Object, Object>();
+		for (Entry<Object, Object> entry : extendedState.getVariables().entrySet()) {
+			if (extendedState.getSchema().getSlot(entry.getKey()) == null) {
+				untyped.put(entry.getKey(), entry.getValue());
+			}
+		}
+		kryo.writeClassAndObject(output, untyped);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public TypedExtendedState read(Kryo kryo, Input input, Class<TypedExtendedState> type) {
+		int size = input.readVarInt(true);
+		ExtendedStateSchema.Builder builder = ExtendedStateSchema.builder();
+		for (int i = 0; i < size; i++) {
+			Object key = kryo.readClassAndObject(input);
+			builder.variable(key, TYPES[input.readByte()]);
+		}
+		ExtendedStateSchema schema = builder.build();
+		byte[] bitmap = input.readBytes((size + 7) / 8);
+		TypedExtendedState extendedState = new TypedExtendedState(schema);
+		for (Slot slot : schema.getSlots()) {
+			if ((bitmap[slot.getIndex() / 8] & (1 << (slot.getIndex() % 8))) == 0) {
+				continue;
+			}
+			switch (slot.getType()) {
+			case INT:
+				extendedState.setInt(slot, input.readVarInt(false));
+				break;
+			case LONG:
+				extendedState.setLong(slot, input.readVarLong(false));
+				break;
+			case DOUBLE:
+				extendedState.setDouble(slot, input.readDouble());
+				break;
+			default:
+				extendedState.setBoolean(slot, input.readBoolean());
+				break;
+			}
+		}
+		Map<Object, Object> untyped = (Map<Object, Object>) kryo.readClassAndObject(input);
+		if (untyped != null) {
+			extendedState.getVariables().putAll(untyped);
+		}
+		return extendedState;
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.kryo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+
+/**
+ * Tests for {@link CompactStateMachineSerialisationService}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class CompactStateMachineSerialisationServiceTests {
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		CompactStateMachineSerialisationService<States, Events> service =
+				new CompactStateMachineSerialisationService<>(States.class, Events.class);
+		service.registerType(Point.class);
+		StateMachineContext<States, Events> root = context();
+
+		byte[] bytes = service.serialiseStateMachineContext(root);
+		StateMachineContext<States, Events> context = service.deserialiseStateMachineContext(bytes);
+
+		assertThat(context.getId()).isEqualTo("machine1");
+		assertThat(context.getState()).isEqualTo(States.S1);
+		assertThat(context.getEvent()).isEqualTo(Events.E1);
+		assertThat(context.getEventHeaders()).containsEntry("header", "value");
+		assertThat(context.getExtendedState().getVariables())
+				.containsEntry("count", 10)
+				.containsEntry("total", 10000000000L)
+				.containsEntry("flag", true)
+				.containsEntry("state", States.S2)
+				.containsEntry("point", new Point(1, 2))
+				.containsEntry("uuid", new UUID(1, 2))
+				.containsEntry("other", "machine1");
+		assertThat(context.getHistoryStates()).containsEntry(States.S2, States.S21);
+		assertThat(context.getChildReferences()).containsExactly("child1");
+		assertThat(context.getChilds()).hasSize(2);
+		assertThat(context.getChilds().get(0).getState()).isEqualTo(States.S21);
+		assertThat(context.getChilds().get(1).getState()).isNull();
+	}
+
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void testRoundTripValuesNotOfDeclaredTypes() throws Exception {
+		CompactStateMachineSerialisationService<Object, Object> service =
+				new CompactStateMachineSerialisationService<Object, Object>((Class) States.class, (Class) String.class);
+		Map<Object, Object> historyStates = new HashMap<>();
+		historyStates.put("S2", States.S21);
+		List<StateMachineContext<Object, Object>> childs = new ArrayList<>();
+		childs.add(new DefaultStateMachineContext<Object, Object>(States.S21, "machine1", null,
+				new DefaultExtendedState(), null, "child1"));
+		StateMachineContext<Object, Object> root = new DefaultStateMachineContext<Object, Object>(childs, "S1", 1,
+				null, new DefaultExtendedState(), historyStates, "machine1");
+
+		StateMachineContext<Object, Object> context = service
+				.deserialiseStateMachineContext(service.serialiseStateMachineContext(root));
+
+		assertThat(context.getState()).isEqualTo("S1");
+		assertThat(context.getEvent()).isEqualTo(1);
+		assertThat(context.getHistoryStates()).containsEntry("S2", States.S21);
+		assertThat(context.getChilds()).hasSize(1);
+		assertThat(context.getChilds().get(0).getState()).isEqualTo(States.S21);
+		assertThat(context.getChilds().get(0).getEvent()).isEqualTo("machine1");
+		assertThat(context.getChilds().get(0).getId()).isEqualTo("child1");
+	}
+
+	@Test
+	public void testSmallerThanKryo() throws Exception {
+		CompactStateMachineSerialisationService<States, Events> compact =
+				new CompactStateMachineSerialisationService<>(States.class, Events.class);
+		compact.registerType(Point.class);
+		KryoStateMachineSerialisationService<States, Events> kryo = new KryoStateMachineSerialisationService<>();
+		StateMachineContext<States, Events> root = context();
+
+		assertThat(compact.serialiseStateMachineContext(root).length)
+				.isLessThan(kryo.serialiseStateMachineContext(root).length);
+	}
+
+	@Test
+	public void testReadsKryoFormat() throws Exception {
+		KryoStateMachineSerialisationService<String, String> kryo = new KryoStateMachineSerialisationService<>();
+		CompactStateMachineSerialisationService<String, String> compact =
+				new CompactStateMachineSerialisationService<>(String.class, String.class);
+		Map<Object, Object> variables = new HashMap<>();
+		variables.put("foo", "bar");
+		StateMachineContext<String, String> root = new DefaultStateMachineContext<String, String>("S1", "E1",
+				new HashMap<String, Object>(), new DefaultExtendedState(variables), null, "machine1");
+
+		StateMachineContext<String, String> context =
+				compact.deserialiseStateMachineContext(kryo.serialiseStateMachineContext(root));
+
+		assertThat(context.getId()).isEqualTo("machine1");
+		assertThat(context.getState()).isEqualTo("S1");
+		assertThat(context.getEvent()).isEqualTo("E1");
+		assertThat(context.getExtendedState().getVariables()).containsEntry("foo", "bar");
+
+		context = compact.deserialiseStateMachineContext(compact.serialiseStateMachineContext(root));
+		assertThat(context.getState()).isEqualTo("S1");
+		assertThat(context.getExtendedState().getVariables()).containsEntry("foo", "bar");
+	}
+
+	private static StateMachineContext<States, Events> context() {
+		Map<Object, Object> variables = new HashMap<>();
+		variables.put("count", 10);
+		variables.put("total", 10000000000L);
+		variables.put("flag", true);
+		variables.put("state", States.S2);
+		variables.put("point", new Point(1, 2));
+		variables.put("uuid", new UUID(1, 2));
+		variables.put("other", "machine1");
+		Map<String, Object> headers = new HashMap<>();
+		headers.put("header", "value");
+		Map<States, States> historyStates = new HashMap<>();
+		historyStates.put(States.S2, States.S21);
+		List<StateMachineContext<States, Events>> childs = new ArrayList<>();
+		childs.add(new DefaultStateMachineContext<States, Events>(States.S21, null, null, new DefaultExtendedState()));
+		childs.add(new DefaultStateMachineContext<States, Events>(null, null, null, new DefaultExtendedState()));
+		List<String> childRefs = new ArrayList<>();
+		childRefs.add("child1");
+		return new DefaultStateMachineContext<States, Events>(childRefs, childs, States.S1, Events.E1, headers,
+				new DefaultExtendedState(variables), historyStates, "machine1");
+	}
+
+	public enum States {
+		S1, S2, S21
+	}
+
+	public enum Events {
+		E1, E2
+	}
+
+	public static class Point {
+
+		int x;
+		int y;
+
+		public Point() {
+		}
+
+		Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Point && ((Point) obj).x == x && ((Point) obj).y == y;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * x + y;
+		}
+	}
+}
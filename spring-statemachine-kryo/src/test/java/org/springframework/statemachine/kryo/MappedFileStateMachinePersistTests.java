@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.kryo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+
+/**
+ * Tests for {@link MappedFileStateMachinePersist}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class MappedFileStateMachinePersistTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testWriteAndRead() throws Exception {
+		MappedFileStateMachinePersist<String, String> persist = persist(64 * 1024);
+		assertThat(persist.read("m1")).isNull();
+		persist.write(context("S1"), "m1");
+		persist.write(context("S2"), "m2");
+		persist.write(context("S3"), "m1");
+		assertThat(persist.read("m1").getState()).isEqualTo("S3");
+		assertThat(persist.read("m2").getState()).isEqualTo("S2");
+		assertThat(persist.getSize()).isEqualTo(2);
+		persist.destroy();
+	}
+
+	@Test
+	public void testRecover() throws Exception {
+		MappedFileStateMachinePersist<String, String> persist = persist(1024);
+		for (int i = 0; i < 50; i++) {
+			persist.write(context("S" + i), "m" + (i % 5));
+		}
+		assertThat(persist.getSegmentCount()).isGreaterThan(1);
+		persist.destroy();
+
+		persist = persist(1024);
+		assertThat(persist.getSize()).isEqualTo(5);
+		for (int i = 0; i < 5; i++) {
+			assertThat(persist.read("m" + i).getState()).isEqualTo("S" + (45 + i));
+		}
+		persist.write(context("X"), "m0");
+		assertThat(persist.read("m0").getState()).isEqualTo("X");
+		persist.destroy();
+	}
+
+	@Test
+	public void testCompact() throws Exception {
+		MappedFileStateMachinePersist<String, String> persist = persist(1024);
+		for (int i = 0; i < 100; i++) {
+			persist.write(context("S" + i), "m" + (i % 2));
+		}
+		int segments = persist.getSegmentCount();
+		persist.compact();
+		assertThat(persist.getSegmentCount()).isLessThan(segments);
+		assertThat(persist.read("m0").getState()).isEqualTo("S98");
+		assertThat(persist.read("m1").getState()).isEqualTo("S99");
+		persist.destroy();
+
+		persist = persist(1024);
+		assertThat(persist.read("m0").getState()).isEqualTo("S98");
+		assertThat(persist.read("m1").getState()).isEqualTo("S99");
+		persist.destroy();
+	}
+
+	private MappedFileStateMachinePersist<String, String> persist(int segmentSize) {
+		MappedFileStateMachinePersist<String, String> persist = new MappedFileStateMachinePersist<>(tempDir);
+		persist.setSegmentSize(segmentSize);
+		persist.afterPropertiesSet();
+		persist.start();
+		return persist;
+	}
+
+	private static StateMachineContext<String, String> context(String state) {
+		return new DefaultStateMachineContext<String, String>(state, null, null, new DefaultExtendedState());
+	}
+}
@@ -28,6 +28,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.statemachine.StateMachineContext;
 import org.springframework.statemachine.support.DefaultExtendedState;
 import org.springframework.statemachine.support.DefaultStateMachineContext;
+import org.springframework.statemachine.support.ExtendedStateSchema;
+import org.springframework.statemachine.support.TypedExtendedState;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Serializer;
@@ -68,6 +70,43 @@ public class StateMachineContextSerializerTests {
 		kryo.readClassAndObject(input);
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testContextWithTypedExtendedState() {
+		Kryo kryo = new Kryo();
+		StateMachineContextSerializer<String, String> serializer = new StateMachineContextSerializer<>();
+		kryo.addDefaultSerializer(StateMachineContext.class, serializer);
+
+		ExtendedStateSchema schema = ExtendedStateSchema.builder()
+				.intVariable("count")
+				.longVariable("amount")
+				.doubleVariable("rate")
+				.booleanVariable("flag")
+				.build();
+		TypedExtendedState extendedState = new TypedExtendedState(schema);
+		extendedState.setInt("count", -3);
+		extendedState.setLong("amount", 1234567890123L);
+		extendedState.setBoolean("flag", true);
+		extendedState.getVariables().put("name", "value");
+		StateMachineContext<String, String> root = new DefaultStateMachineContext<String, String>(new ArrayList<>(),
+				"root", "event1", new HashMap<String, Object>(), extendedState);
+
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		Output output = new Output(outStream);
+		kryo.writeClassAndObject(output, root);
+		output.flush();
+
+		Input input = new Input(new ByteArrayInputStream(outStream.toByteArray()));
+		StateMachineContext<String, String> read = (StateMachineContext<String, String>) kryo.readClassAndObject(input);
+		assertThat(read.getExtendedState()).isInstanceOf(TypedExtendedState.class);
+		TypedExtendedState readExtendedState = (TypedExtendedState) read.getExtendedState();
+		assertThat(readExtendedState.getInt("count")).isEqualTo(-3);
+		assertThat(readExtendedState.getLong("amount")).isEqualTo(1234567890123L);
+		assertThat(readExtendedState.getBoolean("flag")).isTrue();
+		assertThat(readExtendedState.getVariables()).containsOnlyKeys("count", "amount", "flag", "name");
+		assertThat(readExtendedState.getVariables()).isEqualTo(extendedState.getVariables());
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testContextFromInitialVersionToCurrent() {
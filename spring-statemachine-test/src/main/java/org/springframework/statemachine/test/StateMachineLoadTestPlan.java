@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.messaging.Message;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineEventResult;
+import org.springframework.statemachine.StateMachineEventResult.ResultType;
+import org.springframework.statemachine.service.StateMachineService;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code StateMachineLoadTestPlan} sends a weighted mix of events from
+ * concurrent workers for a given duration or event count and collects
+ * throughput, latency, denial and allocation figures into a
+ * {@link StateMachineLoadTestResult}.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ * @see StateMachineLoadTestPlanBuilder
+ */
+public class StateMachineLoadTestPlan<S, E> {
+
+	private static final Log log = LogFactory.getLog(StateMachineLoadTestPlan.class);
+	private final List<StateMachine<S, E>> stateMachines;
+	private final StateMachineService<S, E> stateMachineService;
+	private final List<String> machineIds;
+	private final List<Message<E>> messages;
+	private final int[] cumulativeWeights;
+	private final int concurrency;
+	private final long durationMillis;
+	private final long warmupMillis;
+	private final long eventCount;
+	private final Double expectThroughput;
+	private final List<double[]> expectLatencies;
+	private final Double expectDeniedRate;
+	private final Long expectAllocatedBytesPerEvent;
+	private final Long expectErrors;
+
+	/**
+	 * Instantiates a new state machine load test plan.
+	 *
+	 * @param stateMachines the state machines
+	 * @param stateMachineService the state machine service
+	 * @param machineIds the machine ids used with service
+	 * @param messages the messages
+	 * @param weights the message weights
+	 * @param concurrency the concurrency
+	 * @param durationMillis the duration in millis, negative for no limit
+	 * @param warmupMillis the warmup in millis
+	 * @param eventCount the event count, negative for no limit
+	 * @param expectThroughput the expected throughput
+	 * @param expectLatencies the expected latency percentiles and nanos
+	 * @param expectDeniedRate the expected denied rate
+	 * @param expectAllocatedBytesPerEvent the expected allocated bytes per event
+	 * @param expectErrors the expected errors
+	 */
+	public StateMachineLoadTestPlan(List<StateMachine<S, E>> stateMachines, StateMachineService<S, E> stateMachineService,
+			List<String> machineIds, List<Message<E>> messages, List<Integer> weights, int concurrency,
+			long durationMillis, long warmupMillis, long eventCount, Double expectThroughput,
+			List<double[]> expectLatencies, Double expectDeniedRate, Long expectAllocatedBytesPerEvent,
+			Long expectErrors) {
+		this.stateMachines = stateMachines;
+		this.stateMachineService = stateMachineService;
+		this.machineIds = machineIds;
+		this.messages = messages;
+		this.cumulativeWeights = new int[weights.size()];
+		int total = 0;
+		for (int i = 0; i < weights.size(); i++) {
+			total += weights.get(i);
+			this.cumulativeWeights[i] = total;
+		}
+		this.concurrency = concurrency;
+		this.durationMillis = durationMillis;
+		this.warmupMillis = warmupMillis;
+		this.eventCount = eventCount;
+		this.expectThroughput = expectThroughput;
+		this.expectLatencies = expectLatencies;
+		this.expectDeniedRate = expectDeniedRate;
+		this.expectAllocatedBytesPerEvent = expectAllocatedBytesPerEvent;
+		this.expectErrors = expectErrors;
+	}
+
+	/**
+	 * Run a plan and assert expectations.
+	 *
+	 * @return the load test result
+	 * @throws Exception if error occurred
+	 */
+	public StateMachineLoadTestResult test() throws Exception {
+		StateMachineLoadTestResult result = run();
+		log.info("Load test result " + result);
+		if (expectErrors != null) {
+			assertThat("Errors not matched", result.getErrorCount(), lessThanOrEqualTo(expectErrors));
+		}
+		if (expectThroughput != null) {
+			assertThat("Throughput not matched", result.getThroughput(), greaterThanOrEqualTo(expectThroughput));
+		}
+		for (double[] expectLatency : expectLatencies) {
+			assertThat("Latency percentile " + expectLatency[0] + " not matched",
+					result.getLatency(expectLatency[0], TimeUnit.NANOSECONDS), lessThanOrEqualTo((long) expectLatency[1]));
+		}
+		if (expectDeniedRate != null) {
+			assertThat("Denied rate not matched", result.getDeniedRate(), lessThanOrEqualTo(expectDeniedRate));
+		}
+		if (expectAllocatedBytesPerEvent != null && result.getAllocatedBytes() >= 0) {
+			assertThat("Allocated bytes per event not matched", result.getAllocatedBytesPerEvent(),
+					lessThanOrEqualTo(expectAllocatedBytesPerEvent));
+		}
+		return result;
+	}
+
+	/**
+	 * Run a plan without asserting expectations.
+	 *
+	 * @return the load test result
+	 * @throws Exception if error occurred
+	 */
+	public StateMachineLoadTestResult run() throws Exception {
+		Run run = new Run();
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(concurrency, r -> {
+			Thread thread = new Thread(r, "statemachine-load-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<Worker>> futures = new ArrayList<>();
+			for (int i = 0; i < concurrency; i++) {
+				futures.add(executor.submit(() -> {
+					Worker worker = new Worker();
+					worker.work(run);
+					return worker;
+				}));
+			}
+			run.start.countDown();
+			if (warmupMillis > 0) {
+				Thread.sleep(warmupMillis);
+			}
+			run.measureStart = System.nanoTime();
+			run.measuring = true;
+			if (durationMillis >= 0) {
+				run.done.await(durationMillis, TimeUnit.MILLISECONDS);
+			} else {
+				run.done.await();
+			}
+			run.stopped = true;
+
+			Histogram histogram = new Histogram(3);
+			long accepted = 0;
+			long denied = 0;
+			long deferred = 0;
+			long errors = 0;
+			long allocated = 0;
+			for (Future<Worker> future : futures) {
+				Worker worker = future.get();
+				histogram.add(worker.histogram);
+				accepted += worker.accepted;
+				denied += worker.denied;
+				deferred += worker.deferred;
+				errors += worker.errors;
+				allocated = worker.allocated < 0 || allocated < 0 ? -1 : allocated + worker.allocated;
+			}
+			// all recorded events have completed when every worker has returned
+			return new StateMachineLoadTestResult(histogram, accepted, denied, deferred, errors, allocated,
+					System.nanoTime() - run.measureStart);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Message<E> nextMessage(ThreadLocalRandom random) {
+		int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		for (int i = 0; i < cumulativeWeights.length; i++) {
+			if (value < cumulativeWeights[i]) {
+				return messages.get(i);
+			}
+		}
+		return messages.get(messages.size() - 1);
+	}
+
+	private StateMachine<S, E> nextStateMachine(ThreadLocalRandom random) {
+		if (stateMachineService != null) {
+			return stateMachineService.acquireStateMachine(machineIds.get(random.nextInt(machineIds.size())));
+		}
+		return stateMachines.get(random.nextInt(stateMachines.size()));
+	}
+
+	/**
+	 * Shared state between workers and a coordinating thread.
+	 */
+	private class Run {
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(1);
+		final AtomicLong sent = new AtomicLong();
+		volatile boolean measuring;
+		volatile boolean stopped;
+		volatile long measureStart;
+	}
+
+	/**
+	 * Sends events from a single thread and collects its own figures which
+	 * are merged after all workers have stopped.
+	 */
+	private class Worker {
+		final Histogram histogram = new Histogram(3);
+		long accepted;
+		long denied;
+		long deferred;
+		long errors;
+		long allocated = -1;
+
+		void work(Run run) throws InterruptedException {
+			run.start.await();
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			boolean measuring = false;
+			long allocatedStart = -1;
+			while (!run.stopped) {
+				if (!measuring && run.measuring) {
+					measuring = true;
+					allocatedStart = allocatedBytes();
+				}
+				if (measuring && eventCount > 0) {
+					long count = run.sent.incrementAndGet();
+					if (count > eventCount) {
+						break;
+					}
+				}
+				Message<E> message = nextMessage(random);
+				long start = System.nanoTime();
+				ResultType resultType = null;
+				try {
+					StateMachine<S, E> stateMachine = nextStateMachine(random);
+					List<StateMachineEventResult<S, E>> results = stateMachine.sendEvent(Mono.just(message))
+							.collectList().block();
+					resultType = resolveResultType(results);
+				} catch (Exception e) {
+					if (log.isDebugEnabled()) {
+						log.debug("Error sending event " + message, e);
+					}
+				}
+				long latency = System.nanoTime() - start;
+				if (measuring) {
+					histogram.recordValue(latency);
+					if (resultType == ResultType.ACCEPTED) {
+						accepted++;
+					} else if (resultType == ResultType.DEFERRED) {
+						deferred++;
+					} else if (resultType == ResultType.DENIED) {
+						denied++;
+					} else {
+						errors++;
+					}
+				}
+			}
+			if (measuring && allocatedStart >= 0) {
+				long allocatedEnd = allocatedBytes();
+				allocated = allocatedEnd >= 0 ? allocatedEnd - allocatedStart : -1;
+			}
+			run.done.countDown();
+		}
+
+		private ResultType resolveResultType(List<StateMachineEventResult<S, E>> results) {
+			// with regions an event is accepted if any region accepted it
+			ResultType type = null;
+			if (results != null) {
+				for (StateMachineEventResult<S, E> result : results) {
+					if (result.getResultType() == ResultType.ACCEPTED) {
+						return ResultType.ACCEPTED;
+					} else if (result.getResultType() == ResultType.DEFERRED) {
+						type = ResultType.DEFERRED;
+					} else if (type == null) {
+						type = result.getResultType();
+					}
+				}
+			}
+			return type != null ? type : ResultType.DENIED;
+		}
+
+		private long allocatedBytes() {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+				if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+					return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+				}
+			}
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.service.StateMachineService;
+import org.springframework.util.Assert;
+
+/**
+ * A builder for {@link StateMachineLoadTestPlan}.
+ *
+ * <p>Plan drives a set of state machines, or machines acquired from a
+ * {@link StateMachineService}, from a number of concurrent workers with a
+ * weighted mix of events. Expectations are checked against collected
+ * {@link StateMachineLoadTestResult} when plan is tested.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class StateMachineLoadTestPlanBuilder<S, E> {
+
+	private final List<StateMachine<S, E>> stateMachines = new ArrayList<StateMachine<S, E>>();
+	private StateMachineService<S, E> stateMachineService;
+	private final List<String> machineIds = new ArrayList<String>();
+	private final List<Message<E>> messages = new ArrayList<Message<E>>();
+	private final List<Integer> weights = new ArrayList<Integer>();
+	private int concurrency = 1;
+	private long durationMillis = -1;
+	private long warmupMillis = 0;
+	private long eventCount = -1;
+	private Double expectThroughput;
+	private final List<double[]> expectLatencies = new ArrayList<double[]>();
+	private Double expectDeniedRate;
+	private Long expectAllocatedBytesPerEvent;
+	private Long expectErrors;
+
+	/**
+	 * Gets a new instance of this builder.
+	 *
+	 * @param <S> the type of state
+	 * @param <E> the type of event
+	 * @return the state machine load test plan builder
+	 */
+	public static <S, E> StateMachineLoadTestPlanBuilder<S, E> builder() {
+		return new StateMachineLoadTestPlanBuilder<S, E>();
+	}
+
+	/**
+	 * Associate a state machine with this builder. If multiple machines are
+	 * associated, each event is sent to a randomly chosen machine. Machine is
+	 * expected to be started.
+	 *
+	 * @param stateMachine the state machine
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> stateMachine(StateMachine<S, E> stateMachine) {
+		Assert.notNull(stateMachine, "State machine must be set");
+		this.stateMachines.add(stateMachine);
+		return this;
+	}
+
+	/**
+	 * Associate a {@link StateMachineService} with this builder. Each event is
+	 * sent to a machine acquired from a service with a randomly chosen machine
+	 * id.
+	 *
+	 * @param stateMachineService the state machine service
+	 * @param machineIds the machine ids
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> stateMachineService(StateMachineService<S, E> stateMachineService,
+			String... machineIds) {
+		Assert.notNull(stateMachineService, "State machine service must be set");
+		Assert.notEmpty(machineIds, "At least one machine id must be set");
+		this.stateMachineService = stateMachineService;
+		this.machineIds.addAll(Arrays.asList(machineIds));
+		return this;
+	}
+
+	/**
+	 * Add an event to an event mix with weight of one.
+	 *
+	 * @param event the event
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> event(E event) {
+		return event(event, 1);
+	}
+
+	/**
+	 * Add an event to an event mix with a weight relative to other events.
+	 *
+	 * @param event the event
+	 * @param weight the weight
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> event(E event, int weight) {
+		return message(MessageBuilder.withPayload(event).build(), weight);
+	}
+
+	/**
+	 * Add a message to an event mix with a weight relative to other events.
+	 *
+	 * @param message the message
+	 * @param weight the weight
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> message(Message<E> message, int weight) {
+		Assert.notNull(message, "Message must be set");
+		if (weight < 1) {
+			throw new IllegalArgumentException("Weight must be positive, was " + weight);
+		}
+		this.messages.add(message);
+		this.weights.add(weight);
+		return this;
+	}
+
+	/**
+	 * Sets a number of concurrent workers sending events. Defaults to one.
+	 *
+	 * @param concurrency the concurrency
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> concurrency(int concurrency) {
+		if (concurrency < 1) {
+			throw new IllegalArgumentException("Concurrency must be positive, was " + concurrency);
+		}
+		this.concurrency = concurrency;
+		return this;
+	}
+
+	/**
+	 * Sets how long events are sent after a warmup. Defaults to ten seconds
+	 * unless event count is set.
+	 *
+	 * @param duration the duration
+	 * @param unit the time unit
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> duration(long duration, TimeUnit unit) {
+		if (duration < 0) {
+			throw new IllegalArgumentException("Duration cannot be negative, was " + duration);
+		}
+		this.durationMillis = unit.toMillis(duration);
+		return this;
+	}
+
+	/**
+	 * Sets how long events are sent before results are collected.
+	 *
+	 * @param warmup the warmup time
+	 * @param unit the time unit
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> warmup(long warmup, TimeUnit unit) {
+		if (warmup < 0) {
+			throw new IllegalArgumentException("Warmup cannot be negative, was " + warmup);
+		}
+		this.warmupMillis = unit.toMillis(warmup);
+		return this;
+	}
+
+	/**
+	 * Sets a number of events sent after a warmup. If duration is also set,
+	 * plan stops when either one is reached.
+	 *
+	 * @param eventCount the event count
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> eventCount(long eventCount) {
+		if (eventCount < 1) {
+			throw new IllegalArgumentException("Event count must be positive, was " + eventCount);
+		}
+		this.eventCount = eventCount;
+		return this;
+	}
+
+	/**
+	 * Expect a throughput in events per second to be at least a given value.
+	 *
+	 * @param eventsPerSecond the events per second
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> expectThroughputAtLeast(double eventsPerSecond) {
+		this.expectThroughput = eventsPerSecond;
+		return this;
+	}
+
+	/**
+	 * Expect a latency percentile to be at most a given value.
+	 *
+	 * @param percentile the percentile, for example {@code 99.9}
+	 * @param latency the latency
+	 * @param unit the time unit
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> expectLatencyAtMost(double percentile, long latency, TimeUnit unit) {
+		if (percentile <= 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be within (0, 100], was " + percentile);
+		}
+		this.expectLatencies.add(new double[] { percentile, unit.toNanos(latency) });
+		return this;
+	}
+
+	/**
+	 * Expect a rate of events which were not accepted to be at most a given
+	 * value between zero and one.
+	 *
+	 * @param rate the denied rate
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> expectDeniedRateAtMost(double rate) {
+		this.expectDeniedRate = rate;
+		return this;
+	}
+
+	/**
+	 * Expect allocated bytes per event in sending threads to be at most a
+	 * given value. Only checked if jvm supports thread allocation counters.
+	 *
+	 * @param bytes the allocated bytes per event
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> expectAllocatedBytesPerEventAtMost(long bytes) {
+		this.expectAllocatedBytesPerEvent = bytes;
+		return this;
+	}
+
+	/**
+	 * Expect a number of errors from sending events to be at most a given
+	 * value.
+	 *
+	 * @param errors the errors
+	 * @return the state machine load test plan builder
+	 */
+	public StateMachineLoadTestPlanBuilder<S, E> expectErrorsAtMost(long errors) {
+		this.expectErrors = errors;
+		return this;
+	}
+
+	/**
+	 * Builds the state machine load test plan.
+	 *
+	 * @return the state machine load test plan
+	 */
+	public StateMachineLoadTestPlan<S, E> build() {
+		if (stateMachines.isEmpty() && stateMachineService == null) {
+			throw new IllegalStateException("Either state machine or state machine service must be set");
+		}
+		if (messages.isEmpty()) {
+			throw new IllegalStateException("At least one event must be set");
+		}
+		long duration = durationMillis < 0 && eventCount < 0 ? TimeUnit.SECONDS.toMillis(10) : durationMillis;
+		return new StateMachineLoadTestPlan<S, E>(stateMachines, stateMachineService, machineIds, messages, weights,
+				concurrency, duration, warmupMillis, eventCount, expectThroughput, expectLatencies, expectDeniedRate,
+				expectAllocatedBytesPerEvent, expectErrors);
+	}
+}
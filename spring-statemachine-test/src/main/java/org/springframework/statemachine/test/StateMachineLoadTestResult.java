@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.test;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Result of a {@link StateMachineLoadTestPlan} run. Latencies are measured
+ * from sending an event until its results have been received.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class StateMachineLoadTestResult {
+
+	private final Histogram histogram;
+	private final long acceptedCount;
+	private final long deniedCount;
+	private final long deferredCount;
+	private final long errorCount;
+	private final long allocatedBytes;
+	private final long elapsedNanos;
+
+	/**
+	 * Instantiates a new state machine load test result.
+	 *
+	 * @param histogram the latency histogram in nanos
+	 * @param acceptedCount the accepted event count
+	 * @param deniedCount the denied event count
+	 * @param deferredCount the deferred event count
+	 * @param errorCount the error count
+	 * @param allocatedBytes the allocated bytes, negative if not known
+	 * @param elapsedNanos the elapsed time in nanos
+	 */
+	public StateMachineLoadTestResult(Histogram histogram, long acceptedCount, long deniedCount, long deferredCount,
+			long errorCount, long allocatedBytes, long elapsedNanos) {
+		this.histogram = histogram;
+		this.acceptedCount = acceptedCount;
+		this.deniedCount = deniedCount;
+		this.deferredCount = deferredCount;
+		this.errorCount = errorCount;
+		this.allocatedBytes = allocatedBytes;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Gets the number of sent events.
+	 *
+	 * @return the event count
+	 */
+	public long getEventCount() {
+		return acceptedCount + deniedCount + deferredCount + errorCount;
+	}
+
+	/**
+	 * Gets the number of accepted events.
+	 *
+	 * @return the accepted count
+	 */
+	public long getAcceptedCount() {
+		return acceptedCount;
+	}
+
+	/**
+	 * Gets the number of denied events.
+	 *
+	 * @return the denied count
+	 */
+	public long getDeniedCount() {
+		return deniedCount;
+	}
+
+	/**
+	 * Gets the number of deferred events.
+	 *
+	 * @return the deferred count
+	 */
+	public long getDeferredCount() {
+		return deferredCount;
+	}
+
+	/**
+	 * Gets the number of events which failed with an error.
+	 *
+	 * @return the error count
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * Gets the elapsed time.
+	 *
+	 * @param unit the time unit
+	 * @return the elapsed time
+	 */
+	public long getElapsedTime(TimeUnit unit) {
+		return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Gets the throughput in events per second.
+	 *
+	 * @return the throughput
+	 */
+	public double getThroughput() {
+		return elapsedNanos > 0 ? getEventCount() * 1e9d / elapsedNanos : 0d;
+	}
+
+	/**
+	 * Gets a latency at a given percentile.
+	 *
+	 * @param percentile the percentile, for example {@code 99.9}
+	 * @param unit the time unit
+	 * @return the latency
+	 */
+	public long getLatency(double percentile, TimeUnit unit) {
+		return unit.convert(histogram.getValueAtPercentile(percentile), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Gets a copy of a latency histogram with values in nanos.
+	 *
+	 * @return the latency histogram
+	 */
+	public Histogram getLatencyHistogram() {
+		return histogram.copy();
+	}
+
+	/**
+	 * Gets the rate of denied events between zero and one.
+	 *
+	 * @return the denied rate
+	 */
+	public double getDeniedRate() {
+		long count = getEventCount();
+		return count > 0 ? (double) deniedCount / count : 0d;
+	}
+
+	/**
+	 * Gets the bytes allocated by sending threads, negative if jvm doesn't
+	 * support thread allocation counters. Work done in other threads, i.e.
+	 * actions executed in a reactor scheduler, is not included.
+	 *
+	 * @return the allocated bytes
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Gets the bytes allocated per event by sending threads, negative if not
+	 * known.
+	 *
+	 * @return the allocated bytes per event
+	 */
+	public long getAllocatedBytesPerEvent() {
+		long count = getEventCount();
+		if (allocatedBytes < 0) {
+			return -1;
+		}
+		return count > 0 ? allocatedBytes / count : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "StateMachineLoadTestResult [events=" + getEventCount() + ", accepted=" + acceptedCount + ", denied="
+				+ deniedCount + ", deferred=" + deferredCount + ", errors=" + errorCount + ", elapsedMillis="
+				+ getElapsedTime(TimeUnit.MILLISECONDS) + ", throughput=" + String.format("%.1f", getThroughput())
+				+ ", p50=" + histogram.getValueAtPercentile(50) + "ns, p99=" + histogram.getValueAtPercentile(99)
+				+ "ns, p999=" + histogram.getValueAtPercentile(99.9) + "ns, max=" + histogram.getMaxValue()
+				+ "ns, allocatedBytesPerEvent=" + getAllocatedBytesPerEvent() + "]";
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.statemachine.TestUtils.resolveMachine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.EnableStateMachine;
+import org.springframework.statemachine.config.StateMachineConfigurerAdapter;
+import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
+import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
+
+public class StateMachineLoadTestPlanJUnit5Tests extends AbstractStateMachineJUnit5Tests {
+
+	@Test
+	public void testEventCount() throws Exception {
+		registerAndRefresh(Config1.class);
+		StateMachine<String, String> machine = resolveMachine(context);
+		machine.startReactively().block();
+
+		StateMachineLoadTestPlan<String, String> plan =
+				StateMachineLoadTestPlanBuilder.<String, String>builder()
+					.stateMachine(machine)
+					.event("E1", 3)
+					.event("E2")
+					.concurrency(4)
+					.eventCount(2000)
+					.expectErrorsAtMost(0)
+					.expectThroughputAtLeast(1)
+					.expectLatencyAtMost(50, 10, TimeUnit.SECONDS)
+					.build();
+
+		StateMachineLoadTestResult result = plan.test();
+		assertThat(result.getEventCount()).isEqualTo(2000);
+		assertThat(result.getAcceptedCount()).isGreaterThan(0);
+		assertThat(result.getDeniedCount()).isGreaterThan(0);
+		assertThat(result.getLatencyHistogram().getTotalCount()).isEqualTo(2000);
+	}
+
+	@Test
+	public void testDeniedRateExpectation() throws Exception {
+		registerAndRefresh(Config1.class);
+		StateMachine<String, String> machine = resolveMachine(context);
+		machine.startReactively().block();
+
+		StateMachineLoadTestPlan<String, String> plan =
+				StateMachineLoadTestPlanBuilder.<String, String>builder()
+					.stateMachine(machine)
+					.event("E3")
+					.duration(200, TimeUnit.MILLISECONDS)
+					.expectDeniedRateAtMost(0.5)
+					.build();
+
+		assertThatThrownBy(() -> plan.test()).isInstanceOf(AssertionError.class);
+	}
+
+	@Test
+	public void testBuilderValidation() {
+		assertThatThrownBy(() -> StateMachineLoadTestPlanBuilder.<String, String>builder().event("E1").build())
+				.isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> StateMachineLoadTestPlanBuilder.<String, String>builder().concurrency(0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Configuration
+	@EnableStateMachine
+	static class Config1 extends StateMachineConfigurerAdapter<String, String> {
+
+		@Override
+		public void configure(StateMachineStateConfigurer<String, String> states) throws Exception {
+			states
+				.withStates()
+					.initial("S1")
+					.state("S2");
+		}
+
+		@Override
+		public void configure(StateMachineTransitionConfigurer<String, String> transitions) throws Exception {
+			transitions
+				.withExternal()
+					.source("S1").target("S2").event("E1")
+					.and()
+				.withExternal()
+					.source("S2").target("S1").event("E2");
+		}
+	}
+}
@@ -0,0 +1,545 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.zookeeper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.curator.framework.imps.CuratorFrameworkState;
+import org.apache.curator.framework.recipes.nodes.PersistentNode;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher.Event.EventType;
+import org.apache.zookeeper.data.Stat;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachineException;
+import org.springframework.statemachine.ensemble.StateMachineEnsemble;
+import org.springframework.statemachine.ensemble.StateMachineEnsembleException;
+import org.springframework.statemachine.ensemble.StateMachineEnsembleObjectSupport;
+import org.springframework.statemachine.support.LifecycleObjectSupport;
+import org.springframework.util.Assert;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Group of {@link StateMachineEnsemble}s backed by a zookeeper where every
+ * logical distributed machine is keyed by a machine id and all of them share
+ * a single {@link CuratorFramework} session.
+ * <p>
+ * Machine paths are sharded under {@code basePath/shards/<shard>/<machineId>}
+ * by hashing a machine id, one ephemeral member node is used for a whole
+ * group and all watch events are dispatched via one shared watcher. Watches
+ * are re-registered and data read with a single background round-trip and
+ * missed log entries are read in a pipelined fashion.
+ * <p>
+ * Writing a state is still a synchronous round-trip per state change. A
+ * state node and its log slot are written within one transaction and
+ * curator doesn't support background transactions, while writing those two
+ * with separate background calls would leave a log slot out of step with a
+ * state version a replay relies on. Writes are serialised per machine only.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <S> the type of state
+ * @param <E> the type of event
+ */
+public class ShardedZookeeperStateMachineEnsemble<S, E> extends LifecycleObjectSupport {
+
+	private final static Log log = LogFactory.getLog(ShardedZookeeperStateMachineEnsemble.class);
+	private final String uuid = UUID.randomUUID().toString();
+	private final static int DEFAULT_LOGSIZE = 32;
+	private final static int DEFAULT_SHARDS = 64;
+	private final static String PATH_SHARDS = "shards";
+	private final static String PATH_CURRENT = "current";
+	private final static String PATH_LOG = "log";
+	private final static String PATH_MEMBERS = "members";
+	private final CuratorFramework curatorClient;
+	private final String shardsPath;
+	private final String memberPath;
+	private final int shards;
+	private final int logSize;
+	private final ConcurrentMap<String, MachineEnsemble> ensembles = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, MachineEnsemble> watchedPaths = new ConcurrentHashMap<>();
+	private final CuratorWatcher watcher = new DispatchingWatcher();
+	private final ConnectionStateListener connectionListener = new LocalConnectionStateListener();
+	private volatile boolean connected;
+	private PersistentNode node;
+
+	/**
+	 * Instantiates a new sharded zookeeper state machine ensemble.
+	 *
+	 * @param curatorClient the curator client
+	 * @param basePath the base zookeeper path
+	 */
+	public ShardedZookeeperStateMachineEnsemble(CuratorFramework curatorClient, String basePath) {
+		this(curatorClient, basePath, DEFAULT_SHARDS, DEFAULT_LOGSIZE);
+	}
+
+	/**
+	 * Instantiates a new sharded zookeeper state machine ensemble.
+	 *
+	 * @param curatorClient the curator client
+	 * @param basePath the base zookeeper path
+	 * @param shards the number of path shards
+	 * @param logSize the log size per machine
+	 */
+	public ShardedZookeeperStateMachineEnsemble(CuratorFramework curatorClient, String basePath, int shards, int logSize) {
+		Assert.notNull(curatorClient, "Curator client must be set");
+		Assert.hasText(basePath, "Base path must be set");
+		Assert.state(shards > 0, "Shards must be positive");
+		Assert.state(logSize > 0 && ((logSize & -logSize) == logSize), "Log size must be positive and power of two");
+		this.curatorClient = curatorClient;
+		this.shardsPath = basePath + "/" + PATH_SHARDS;
+		this.memberPath = basePath + "/" + PATH_MEMBERS;
+		this.shards = shards;
+		this.logSize = logSize;
+		setAutoStartup(true);
+	}
+
+	@Override
+	protected Mono<Void> doPreStartReactively() {
+		return Mono.fromRunnable(() -> doStart());
+	}
+
+	protected void doStart() {
+		curatorClient.getConnectionStateListenable().addListener(connectionListener);
+		if (curatorClient.getState() == CuratorFrameworkState.STARTED) {
+			handleZkConnect();
+		} else {
+			curatorClient.start();
+		}
+	}
+
+	@Override
+	protected Mono<Void> doPreStopReactively() {
+		return Mono.fromRunnable(() -> doStop());
+	}
+
+	protected void doStop() {
+		connected = false;
+		if (node != null && curatorClient.getState() != CuratorFrameworkState.STOPPED) {
+			try {
+				node.close();
+			} catch (IOException e) {
+			} finally {
+				node = null;
+			}
+		}
+		curatorClient.getConnectionStateListenable().removeListener(connectionListener);
+	}
+
+	/**
+	 * Gets a {@link StateMachineEnsemble} for a machine id. Ensemble is
+	 * created on demand and its zookeeper paths are initialised
+	 * asynchronously. Joined machines are notified when initial state
+	 * has been read.
+	 *
+	 * @param machineId the machine id
+	 * @return the state machine ensemble
+	 */
+	public StateMachineEnsemble<S, E> getEnsemble(String machineId) {
+		Assert.hasText(machineId, "Machine id must be set");
+		MachineEnsemble ensemble = ensembles.get(machineId);
+		if (ensemble == null) {
+			MachineEnsemble created = new MachineEnsemble(machineId);
+			ensemble = ensembles.putIfAbsent(machineId, created);
+			if (ensemble == null) {
+				ensemble = created;
+				watchedPaths.put(ensemble.statePath, ensemble);
+				ensemble.initPaths();
+			}
+		}
+		return ensemble;
+	}
+
+	/**
+	 * Releases a {@link StateMachineEnsemble} for a machine id. Zookeeper
+	 * data is kept while local resources are released and further
+	 * watch events for a machine are ignored.
+	 *
+	 * @param machineId the machine id
+	 */
+	public void releaseEnsemble(String machineId) {
+		MachineEnsemble ensemble = ensembles.remove(machineId);
+		if (ensemble != null) {
+			watchedPaths.remove(ensemble.statePath);
+		}
+	}
+
+	/**
+	 * Gets the shard for a machine id.
+	 *
+	 * @param machineId the machine id
+	 * @return the shard
+	 */
+	protected int getShard(String machineId) {
+		return (machineId.hashCode() & Integer.MAX_VALUE) % shards;
+	}
+
+	private void handleZkConnect() {
+		log.info("Handling Zookeeper connect");
+		if (node == null) {
+			node = new PersistentNode(curatorClient, CreateMode.EPHEMERAL, true, memberPath + "/" + uuid, new byte[0]);
+			node.start();
+		}
+		connected = true;
+		for (MachineEnsemble ensemble : ensembles.values()) {
+			ensemble.resync();
+		}
+	}
+
+	private void handleZkDisconnect() {
+		log.info("Handling Zookeeper disconnect");
+		connected = false;
+		for (MachineEnsemble ensemble : ensembles.values()) {
+			ensemble.disconnected();
+		}
+	}
+
+	private static boolean isResult(CuratorEvent event, KeeperException.Code code) {
+		return event.getResultCode() == code.intValue();
+	}
+
+	@Override
+	public String toString() {
+		return "ShardedZookeeperStateMachineEnsemble [uuid=" + uuid + ", shardsPath=" + shardsPath + "]";
+	}
+
+	/**
+	 * Single watcher shared with all machines which dispatches
+	 * events to a machine ensemble by a watched path.
+	 */
+	private class DispatchingWatcher implements CuratorWatcher {
+
+		@Override
+		public void process(WatchedEvent event) throws Exception {
+			if (log.isTraceEnabled()) {
+				log.trace("Process WatchedEvent: id=" + uuid + " " + event);
+			}
+			if (event.getPath() == null) {
+				return;
+			}
+			MachineEnsemble ensemble = watchedPaths.get(event.getPath());
+			if (ensemble != null && event.getType() != EventType.None) {
+				// reading data also re-registers this watcher
+				ensemble.refresh();
+			}
+		}
+	}
+
+	private class LocalConnectionStateListener implements ConnectionStateListener {
+
+		@Override
+		public void stateChanged(CuratorFramework client, ConnectionState newState) {
+			if (curatorClient == client) {
+				switch (newState) {
+				case CONNECTED:
+				case RECONNECTED:
+					handleZkConnect();
+					break;
+				case READ_ONLY:
+					break;
+				case LOST:
+				case SUSPENDED:
+					handleZkDisconnect();
+					break;
+				default:
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@link StateMachineEnsemble} for one logical machine within this group.
+	 */
+	private class MachineEnsemble extends StateMachineEnsembleObjectSupport<S, E> {
+
+		private final String machineId;
+		private final String statePath;
+		private final String logPath;
+		private final ZookeeperStateMachinePersist<S, E> persist;
+		private final AtomicReference<StateWrapper> stateRef = new AtomicReference<StateWrapper>();
+		private final AtomicReference<StateWrapper> notifyRef = new AtomicReference<StateWrapper>();
+		private final List<StateMachine<S, E>> joined = new ArrayList<StateMachine<S, E>>();
+		private final Object joinLock = new Object();
+		private volatile boolean ready;
+
+		MachineEnsemble(String machineId) {
+			String machinePath = shardsPath + "/" + getShard(machineId) + "/" + machineId;
+			this.machineId = machineId;
+			this.statePath = machinePath + "/" + PATH_CURRENT;
+			this.logPath = machinePath + "/" + PATH_LOG;
+			this.persist = new ZookeeperStateMachinePersist<S, E>(curatorClient, statePath, logPath, logSize);
+		}
+
+		@Override
+		public void join(StateMachine<S, E> stateMachine) {
+			boolean notify;
+			synchronized (joinLock) {
+				joined.add(stateMachine);
+				notify = ready && connected;
+			}
+			if (notify) {
+				StateWrapper stateWrapper = stateRef.get();
+				notifyJoined(stateMachine, stateWrapper != null ? stateWrapper.context : null);
+			}
+		}
+
+		@Override
+		public void leave(StateMachine<S, E> stateMachine) {
+			boolean removed = false;
+			synchronized (joinLock) {
+				removed = joined.remove(stateMachine);
+			}
+			if (removed) {
+				StateWrapper stateWrapper = stateRef.get();
+				notifyLeft(stateMachine, stateWrapper != null ? stateWrapper.context : null);
+			}
+		}
+
+		/**
+		 * Writes a state and its log slot with a single blocking transaction.
+		 * Writes of a same machine are serialised so that an expected version
+		 * is taken from a previous local write.
+		 */
+		@Override
+		public synchronized void setState(StateMachineContext<S, E> context) {
+			if (log.isDebugEnabled()) {
+				log.debug("Setting state context=" + context + " for machine " + machineId);
+			}
+			try {
+				Stat stat = new Stat();
+				StateWrapper stateWrapper = stateRef.get();
+				if (stateWrapper != null) {
+					stat.setVersion(stateWrapper.version);
+				}
+				persist.write(context, stat);
+				StateWrapper newWrapper = new StateWrapper(context, stat.getVersion());
+				// watch callback may already have moved reference forward
+				StateWrapper current = stateRef.get();
+				if (current == null || current.version < newWrapper.version) {
+					stateRef.compareAndSet(current, newWrapper);
+				}
+			} catch (Exception e) {
+				throw new StateMachineException("Error persisting data", e);
+			}
+		}
+
+		@Override
+		public StateMachineContext<S, E> getState() {
+			try {
+				return persist.read(new Stat());
+			} catch (Exception e) {
+				throw new StateMachineException("Error reading data", e);
+			}
+		}
+
+		@Override
+		public StateMachine<S, E> getLeader() {
+			return null;
+		}
+
+		/**
+		 * Creates all machine paths with pipelined background calls and
+		 * does initial read when all are done.
+		 */
+		void initPaths() {
+			final AtomicInteger pending = new AtomicInteger(logSize + 1);
+			try {
+				for (int i = -1; i < logSize; i++) {
+					String path = i < 0 ? statePath : logPath + "/" + i;
+					curatorClient.create().creatingParentsIfNeeded().inBackground((client, event) -> {
+						if (!isResult(event, KeeperException.Code.OK) && !isResult(event, KeeperException.Code.NODEEXISTS)) {
+							log.warn("Error creating path " + event.getPath() + " code " + event.getResultCode());
+						}
+						if (pending.decrementAndGet() == 0) {
+							refresh();
+						}
+					}).forPath(path);
+				}
+			} catch (Exception e) {
+				log.warn("Error in initPaths for machine " + machineId, e);
+			}
+		}
+
+		/**
+		 * Reads current context and re-registers shared watcher within
+		 * same background call.
+		 */
+		void refresh() {
+			if (curatorClient.getState() == CuratorFrameworkState.STOPPED) {
+				return;
+			}
+			try {
+				curatorClient.getData().usingWatcher(watcher).inBackground((client, event) -> {
+					if (isResult(event, KeeperException.Code.OK)) {
+						handleDataChange(new StateWrapper(persist.deserialize(event.getData()), event.getStat().getVersion()));
+					} else {
+						log.warn("Error reading path " + event.getPath() + " code " + event.getResultCode());
+					}
+				}).forPath(statePath);
+			} catch (Exception e) {
+				log.warn("Registering watcher for path " + statePath + " threw error", e);
+			}
+		}
+
+		/**
+		 * Forces next read to be handled as an initial read which
+		 * notifies joined machines.
+		 */
+		void resync() {
+			synchronized (joinLock) {
+				ready = false;
+			}
+			refresh();
+		}
+
+		void disconnected() {
+			synchronized (joinLock) {
+				ready = false;
+			}
+			notifyError(new StateMachineEnsembleException("Lost connection to zookeeper"));
+			StateWrapper stateWrapper = stateRef.get();
+			for (StateMachine<S, E> stateMachine : joinedSnapshot()) {
+				notifyLeft(stateMachine, stateWrapper != null ? stateWrapper.context : null);
+			}
+		}
+
+		private List<StateMachine<S, E>> joinedSnapshot() {
+			synchronized (joinLock) {
+				return new ArrayList<StateMachine<S, E>>(joined);
+			}
+		}
+
+		private void handleDataChange(StateWrapper newWrapper) {
+			if (!ready) {
+				// initial read or a reconnect, simply take what's
+				// there and tell joined machines about it
+				stateRef.set(newWrapper);
+				notifyRef.set(newWrapper);
+				List<StateMachine<S, E>> machines;
+				synchronized (joinLock) {
+					ready = true;
+					machines = new ArrayList<StateMachine<S, E>>(joined);
+				}
+				if (connected) {
+					for (StateMachine<S, E> stateMachine : machines) {
+						notifyJoined(stateMachine, newWrapper.context);
+					}
+				}
+				return;
+			}
+			advanceStateRef(newWrapper);
+			StateWrapper notifyWrapper = notifyRef.get();
+			int notified = notifyWrapper != null ? notifyWrapper.version : 0;
+			if (newWrapper.version <= notified) {
+				return;
+			} else if (newWrapper.version == notified + 1) {
+				mayNotifyStateChanged(newWrapper);
+			} else {
+				replay(notified + 1, newWrapper);
+			}
+		}
+
+		/**
+		 * Reads versions from {@code from} until a version before given latest
+		 * wrapper from a log with pipelined background reads and notifies
+		 * all of those in order when every read has completed.
+		 */
+		private void replay(final int from, final StateWrapper latest) {
+			final int count = latest.version - from;
+			if (log.isDebugEnabled()) {
+				log.debug("Events missed for machine " + machineId + ", trying to replay from " + from + " count " + count);
+			}
+			try {
+				persist.readLogInBackground(from, count, contexts -> {
+					for (int i = 0; i < contexts.size(); i++) {
+						// slot has been overwritten meaning we're behind more than
+						// a log size and can't replay full history
+						if (contexts.get(i) == null) {
+							notifyError(new StateMachineEnsembleException("Current version behind more than log size"));
+							return;
+						}
+						mayNotifyStateChanged(new StateWrapper(contexts.get(i), from + i));
+					}
+					mayNotifyStateChanged(latest);
+				});
+			} catch (Exception e) {
+				log.error("Error replaying log for machine " + machineId, e);
+			}
+		}
+
+		private void advanceStateRef(StateWrapper wrapper) {
+			StateWrapper current;
+			do {
+				current = stateRef.get();
+				if (current != null && current.version >= wrapper.version) {
+					return;
+				}
+			} while (!stateRef.compareAndSet(current, wrapper));
+		}
+
+		private void mayNotifyStateChanged(StateWrapper wrapper) {
+			StateWrapper notifyWrapper = notifyRef.get();
+			if (notifyWrapper == null || wrapper.version > notifyWrapper.version) {
+				notifyRef.set(wrapper);
+				if (wrapper.context != null) {
+					notifyStateChanged(wrapper.context);
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "MachineEnsemble [machineId=" + machineId + ", group=" + uuid + "]";
+		}
+	}
+
+	/**
+	 * Wrapper object for a {@link StateMachineContext} and its
+	 * current version.
+	 */
+	private class StateWrapper {
+		private final StateMachineContext<S, E> context;
+		private final int version;
+
+		public StateWrapper(StateMachineContext<S, E> context, int version) {
+			this.context = context;
+			this.version = version;
+		}
+
+		@Override
+		public String toString() {
+			return "StateWrapper [context=" + context + ", version=" + version + "]";
+		}
+	}
+}
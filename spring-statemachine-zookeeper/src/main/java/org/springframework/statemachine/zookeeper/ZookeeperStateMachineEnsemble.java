@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2019 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,11 +17,13 @@ package org.springframework.statemachine.zookeeper;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.logging.Log;
@@ -41,10 +43,10 @@ import org.apache.zookeeper.data.Stat;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.StateMachineContext;
 import org.springframework.statemachine.StateMachineException;
-import org.springframework.statemachine.StateMachinePersist;
 import org.springframework.statemachine.ensemble.StateMachineEnsemble;
 import org.springframework.statemachine.ensemble.StateMachineEnsembleException;
 import org.springframework.statemachine.ensemble.StateMachineEnsembleObjectSupport;
+import org.springframework.util.Assert;
 
 import reactor.core.publisher.Mono;
 
@@ -73,7 +75,7 @@ public class ZookeeperStateMachineEnsemble<S, E> extends StateMachineEnsembleObj
 	private final String memberPath;
 	private final String mutexPath;
 	private final boolean cleanState;
-	private final StateMachinePersist<S, E, Stat> persist;
+	private final ZookeeperStateMachinePersist<S, E> persist;
 	private final AtomicReference<StateWrapper> stateRef = new AtomicReference<StateWrapper>();
 	private final AtomicReference<StateWrapper> notifyRef = new AtomicReference<StateWrapper>();
 	private final CuratorWatcher watcher = new StateWatcher();
@@ -82,6 +84,9 @@ public class ZookeeperStateMachineEnsemble<S, E> extends StateMachineEnsembleObj
 	private final List<StateMachine<S, E>> joined = new ArrayList<StateMachine<S,E>>();
 	private final Object joinLock = new Object();
 	private final ConnectionStateListener connectionListener = new LocalConnectionStateListener();
+	private final AtomicBoolean replaying = new AtomicBoolean();
+	private volatile boolean replayRequested;
+	private volatile boolean snapshotCatchUp;
 
 	/**
 	 * Instantiates a new zookeeper state machine ensemble.
@@ -164,6 +169,18 @@ public class ZookeeperStateMachineEnsemble<S, E> extends StateMachineEnsembleObj
 		curatorClient.getConnectionStateListenable().removeListener(connectionListener);
 	}
 
+	/**
+	 * Sets if a member which has fallen behind more than a log size catches
+	 * up from a current context instead of failing with an ensemble error.
+	 * When enabled joined machines are re-joined with a current context.
+	 * Defaults to {@code false}.
+	 *
+	 * @param snapshotCatchUp the snapshot catch up flag
+	 */
+	public void setSnapshotCatchUp(boolean snapshotCatchUp) {
+		this.snapshotCatchUp = snapshotCatchUp;
+	}
+
 	@Override
 	public void join(StateMachine<S, E> stateMachine) {
 		if (!isRunning()) {
@@ -257,8 +274,94 @@ public class ZookeeperStateMachineEnsemble<S, E> extends StateMachineEnsembleObj
 		return readCurrentContext().context;
 	}
 
+	/**
+	 * Sets multiple states as a {@link StateMachineContext}s within a single
+	 * transaction, deleting given paths on a same transaction. Nothing is
+	 * written and {@link StateMachineException} is thrown if expected version
+	 * is stale or any of the paths doesn't exist.
+	 *
+	 * @param contexts the state machine contexts in order
+	 * @param expectedVersion the expected current version
+	 * @param deletePaths the paths to delete
+	 */
+	protected synchronized void setStates(List<StateMachineContext<S, E>> contexts, int expectedVersion,
+			Collection<String> deletePaths) {
+		Assert.state(contexts.size() <= logSize, "Number of contexts can't exceed log size " + logSize);
+		if (log.isDebugEnabled()) {
+			log.debug("Setting " + contexts.size() + " state contexts with version " + expectedVersion
+					+ " for ensemble " + uuid);
+		}
+		Stat stat = new Stat();
+		stat.setVersion(expectedVersion);
+		persist.writeBatch(contexts, stat, deletePaths);
+		advanceStateRef(new StateWrapper(contexts.get(contexts.size() - 1), stat.getVersion()));
+	}
+
+	/**
+	 * Gets a version of a latest state known to this ensemble.
+	 *
+	 * @return the known state version
+	 */
+	protected int getStateVersion() {
+		StateWrapper stateWrapper = stateRef.get();
+		return stateWrapper != null ? stateWrapper.version : 0;
+	}
+
+	/**
+	 * Reads a current state version from zookeeper.
+	 *
+	 * @return the current state version
+	 * @throws Exception if error occurred
+	 */
+	protected int readStateVersion() throws Exception {
+		return curatorClient.checkExists().forPath(statePath).getVersion();
+	}
+
+	/**
+	 * Advances a known state to a context committed on behalf of this
+	 * ensemble with a given version.
+	 *
+	 * @param context the state machine context
+	 * @param version the version of a committed context
+	 */
+	protected void stateCommitted(StateMachineContext<S, E> context, int version) {
+		advanceStateRef(new StateWrapper(context, version));
+	}
+
+	/**
+	 * Serialize a {@link StateMachineContext} with a format used by this ensemble.
+	 *
+	 * @param context the state machine context
+	 * @return the serialized context
+	 */
+	protected byte[] serializeContext(StateMachineContext<S, E> context) {
+		return persist.serialize(context);
+	}
+
+	/**
+	 * Deserialize a {@link StateMachineContext} serialized with
+	 * {@link #serializeContext(StateMachineContext)}.
+	 *
+	 * @param data the serialized context
+	 * @return the state machine context
+	 */
+	protected StateMachineContext<S, E> deserializeContext(byte[] data) {
+		return persist.deserialize(data);
+	}
+
+	/**
+	 * Gets the log size.
+	 *
+	 * @return the log size
+	 */
+	protected int getLogSize() {
+		return logSize;
+	}
+
 	private void handleZkConnect() {
 		log.info("Handling Zookeeper connect");
+		// background reads from a lost session will not complete
+		replaying.set(false);
 		joinQueued();
 		notifyJoined();
 		registerWatcherForStatePath();
@@ -396,11 +499,9 @@ public class ZookeeperStateMachineEnsemble<S, E> extends StateMachineEnsembleObj
 			switch (event.getType()) {
 			case NodeDataChanged:
 				try {
-					// re-read once if we did read log history
+					// replay re-reads once when done as
 					// there might be unread change
-					if (handleDataChange()) {
-						handleDataChange();
-					}
+					handleDataChange();
 				} catch (Exception e) {
 					log.error("Error handling event", e);
 				}
@@ -416,12 +517,13 @@ public class ZookeeperStateMachineEnsemble<S, E> extends StateMachineEnsembleObj
 
 	/**
 	 * Handles internal logic of reading and comparing current
-	 * wrapper references and re-plays logs if needed.
+	 * wrapper references and re-plays logs if needed. Missed log
+	 * entries are read with pipelined background reads and
+	 * replayed in version order once all of those have arrived.
 	 *
-	 * @return true if log is replayed
 	 * @throws Exception if error occurred
 	 */
-	private boolean handleDataChange() throws Exception {
+	private void handleDataChange() throws Exception {
 		StateWrapper currentWrapper = stateRef.get();
 		StateWrapper notifyWrapper = notifyRef.get();
 		StateWrapper newWrapper = readCurrentContext();
@@ -434,44 +536,103 @@ public class ZookeeperStateMachineEnsemble<S, E> extends StateMachineEnsembleObj
 			// we can just try to notify
 			mayNotifyStateChanged(newWrapper);
 		} else {
-			final int start = (notifyWrapper != null ? (notifyWrapper.version) : 0) % logSize;
-			int count = newWrapper.version - (notifyWrapper != null ? (notifyWrapper.version) : 0);
+			final int start = (notifyWrapper != null ? (notifyWrapper.version) : 0) + 1;
+			int count = newWrapper.version - start;
+			if (count < 0) {
+				return;
+			}
+			if (!replaying.compareAndSet(false, true)) {
+				// replay in progress, it will re-check when done
+				replayRequested = true;
+				return;
+			}
 			if (log.isDebugEnabled()) {
 				log.debug("Events missed, trying to replay start " + start + " count " + count);
 			}
-			for (int i = start; i < (start + count); i++) {
-				Stat stat = new Stat();
-				StateMachineContext<S, E> context = ((ZookeeperStateMachinePersist<S, E>) persist).readLog(i, stat);
-				int ver = (stat.getVersion() - 1) * logSize + (i + 1);
-
-				// check if we're behind more than a log size meaning we can't
-				// replay full history, notify and break out from a loop
-				if (i + logSize < ver) {
-					notifyError(new StateMachineEnsembleException("Current version behind more than log size"));
-					break;
+			try {
+				persist.readLogInBackground(start, count, contexts -> replay(start, contexts, newWrapper));
+			} catch (Exception e) {
+				replaying.set(false);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Replays contexts read from a log in version order followed by
+	 * a latest known context.
+	 *
+	 * @param start the version of a first context
+	 * @param contexts the contexts from a log
+	 * @param latest the latest known wrapper
+	 */
+	private void replay(int start, List<StateMachineContext<S, E>> contexts, StateWrapper latest) {
+		try {
+			for (int i = 0; i < contexts.size(); i++) {
+				StateMachineContext<S, E> context = contexts.get(i);
+				// null means slot has been overwritten, we're behind more than a
+				// log size and can't replay full history
+				if (context == null) {
+					if (snapshotCatchUp) {
+						catchUpFromSnapshot(latest);
+					} else {
+						notifyError(new StateMachineEnsembleException("Current version behind more than log size"));
+					}
+					return;
 				}
+				StateWrapper wrapper = new StateWrapper(context, start + i);
 				if (log.isDebugEnabled()) {
-					log.debug("Replay position " + i + " with version " + ver);
-					log.debug("Context in position " + i + " " + context);
-				}
-
-				StateWrapper wrapper = new StateWrapper(context, ver);
-
-				// need to set stateRef when replaying if its
-				// context is not set or otherwise just set
-				// if stateRef still is currentWrapper
-				StateWrapper currentWrapperx = stateRef.get();
-				if (currentWrapperx.context == null) {
-					stateRef.set(wrapper);
-				} else if (wrapper.version == currentWrapperx.version + 1) {
-					stateRef.set(wrapper);
+					log.debug("Replay version " + wrapper.version + " context " + context);
 				}
+				advanceStateRef(wrapper);
 				mayNotifyStateChanged(wrapper);
 			}
-			// did we replay
-			return count > 0;
+			advanceStateRef(latest);
+			mayNotifyStateChanged(latest);
+		} finally {
+			replaying.set(false);
+			if (replayRequested) {
+				replayRequested = false;
+				registerWatcherForStatePath();
+				try {
+					handleDataChange();
+				} catch (Exception e) {
+					log.error("Error handling event", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Catch up from a latest context when history can't be replayed from a
+	 * log. Joined machines are re-joined with a latest context which resets
+	 * them into a current distributed state.
+	 *
+	 * @param latest the latest known wrapper
+	 */
+	private void catchUpFromSnapshot(StateWrapper latest) {
+		log.info("Current version behind more than log size, catching up from snapshot " + latest);
+		advanceStateRef(latest);
+		notifyRef.set(latest);
+		List<StateMachine<S, E>> machines;
+		synchronized (joinLock) {
+			machines = new ArrayList<StateMachine<S, E>>(joined);
+		}
+		for (StateMachine<S, E> stateMachine : machines) {
+			notifyJoined(stateMachine, latest.context);
 		}
-		return false;
+	}
+
+	private void advanceStateRef(StateWrapper wrapper) {
+		// need to set stateRef when replaying if its
+		// context is not set or otherwise just move forward
+		StateWrapper current;
+		do {
+			current = stateRef.get();
+			if (current != null && current.context != null && current.version >= wrapper.version) {
+				return;
+			}
+		} while (!stateRef.compareAndSet(current, wrapper));
 	}
 
 	private class LocalConnectionStateListener implements ConnectionStateListener {
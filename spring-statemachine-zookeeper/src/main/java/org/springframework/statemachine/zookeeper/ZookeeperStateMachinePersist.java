@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,13 +17,21 @@ package org.springframework.statemachine.zookeeper;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.api.transaction.CuratorTransaction;
 import org.apache.curator.framework.api.transaction.CuratorTransactionFinal;
 import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
+import org.apache.curator.framework.api.transaction.OperationType;
+import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.data.Stat;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.statemachine.StateMachineContext;
@@ -115,6 +123,48 @@ public class ZookeeperStateMachinePersist<S, E> implements StateMachinePersist<S
 
 	}
 
+	/**
+	 * Writes multiple contexts within a single transaction. Every context is
+	 * set with its own expected version, thus version is increased and a log
+	 * slot is written for each context as if those were written one by one.
+	 * Given additional paths are deleted within a same transaction.
+	 *
+	 * @param contexts the contexts in order
+	 * @param stat the stat holding expected version, updated to a new version
+	 * @param deletePaths the paths to delete
+	 */
+	public void writeBatch(List<StateMachineContext<S, E>> contexts, Stat stat, Collection<String> deletePaths) {
+		Assert.notEmpty(contexts, "Contexts must be set");
+		CuratorTransaction tx = curatorClient.inTransaction();
+		try {
+			CuratorTransactionFinal tt = null;
+			int version = stat.getVersion();
+			for (StateMachineContext<S, E> context : contexts) {
+				byte[] data = serialize(context);
+				tt = tx.setData().withVersion(version).forPath(path, data).and();
+				if (logPath != null) {
+					tt = tt.setData().forPath(logPath + "/" + version % logSize, data).and();
+				}
+				tx = tt;
+				version++;
+			}
+			if (deletePaths != null) {
+				for (String deletePath : deletePaths) {
+					tt = tt.delete().forPath(deletePath).and();
+				}
+			}
+			Collection<CuratorTransactionResult> results = tt.commit();
+			for (CuratorTransactionResult result : results) {
+				if (result.getType() == OperationType.SET_DATA && path.equals(result.getForPath())) {
+					version = result.getResultStat().getVersion();
+				}
+			}
+			stat.setVersion(version);
+		} catch (Exception e) {
+			throw new StateMachineException("Error persisting data", e);
+		}
+	}
+
 	@Override
 	public StateMachineContext<S, E> read(Stat stat) throws Exception {
 		return deserialize(curatorClient.getData().storingStatIn(stat).forPath(path));
@@ -124,7 +174,53 @@ public class ZookeeperStateMachinePersist<S, E> implements StateMachinePersist<S
 		return deserialize(curatorClient.getData().storingStatIn(stat).forPath(logPath + "/" + version));
 	}
 
-	private byte[] serialize(StateMachineContext<S, E> context) {
+	/**
+	 * Reads contexts for a range of versions from a log with pipelined
+	 * background reads. Callback is called once all reads have completed
+	 * with contexts in version order, a {@code null} element indicates that
+	 * a version is no longer available because its log slot has already
+	 * been overwritten.
+	 *
+	 * @param fromVersion the first version to read
+	 * @param count the number of versions to read
+	 * @param callback the callback receiving contexts
+	 * @throws Exception if background reads cannot be issued
+	 */
+	public void readLogInBackground(final int fromVersion, final int count,
+			final Consumer<List<StateMachineContext<S, E>>> callback) throws Exception {
+		Assert.state(logPath != null, "Log path must be set");
+		if (count < 1) {
+			callback.accept(Collections.<StateMachineContext<S, E>>emptyList());
+			return;
+		}
+		final AtomicReferenceArray<StateMachineContext<S, E>> contexts = new AtomicReferenceArray<>(count);
+		final AtomicInteger pending = new AtomicInteger(count);
+		for (int i = 0; i < count; i++) {
+			final int index = i;
+			final int version = fromVersion + i;
+			final int slot = (version - 1) % logSize;
+			curatorClient.getData().inBackground((client, event) -> {
+				try {
+					// slot version tells how many times it has been written
+					// which together with slot index gives a context version
+					if (event.getResultCode() == KeeperException.Code.OK.intValue()
+							&& (event.getStat().getVersion() - 1) * logSize + slot + 1 == version) {
+						contexts.set(index, deserialize(event.getData()));
+					}
+				} finally {
+					if (pending.decrementAndGet() == 0) {
+						List<StateMachineContext<S, E>> result = new ArrayList<>(count);
+						for (int j = 0; j < count; j++) {
+							result.add(contexts.get(j));
+						}
+						callback.accept(result);
+					}
+				}
+			}).forPath(logPath + "/" + slot);
+		}
+	}
+
+	byte[] serialize(StateMachineContext<S, E> context) {
 		Kryo kryo = kryoThreadLocal.get();
 		ByteArrayOutputStream out = new ByteArrayOutputStream();
 		Output output = new Output(out);
@@ -134,7 +230,7 @@ public class ZookeeperStateMachinePersist<S, E> implements StateMachinePersist<S
 	}
 
 	@SuppressWarnings("unchecked")
-	private StateMachineContext<S, E> deserialize(byte[] data) {
+	StateMachineContext<S, E> deserialize(byte[] data) {
 		if (data == null || data.length == 0) {
 			return null;
 		}
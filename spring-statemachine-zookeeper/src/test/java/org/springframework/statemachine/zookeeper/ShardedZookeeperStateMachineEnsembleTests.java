@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.statemachine.zookeeper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.junit.jupiter.api.Test;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.ensemble.EnsembleListenerAdapter;
+import org.springframework.statemachine.ensemble.StateMachineEnsemble;
+import org.springframework.statemachine.ensemble.StateMachineEnsembleException;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+
+public class ShardedZookeeperStateMachineEnsembleTests extends AbstractZookeeperTests {
+
+	@Test
+	public void testPathsSharded() throws Exception {
+		context.register(ZkServerConfig.class, BaseConfig.class);
+		context.refresh();
+
+		CuratorFramework curatorClient =
+				context.getBean("curatorClient", CuratorFramework.class);
+
+		ShardedZookeeperStateMachineEnsemble<String, String> group =
+				new ShardedZookeeperStateMachineEnsemble<String, String>(curatorClient, "/foo", 4, 4);
+		group.afterPropertiesSet();
+		group.start();
+
+		StateMachineEnsemble<String, String> ensemble = group.getEnsemble("m1");
+		assertThat(group.getEnsemble("m1")).isSameAs(ensemble);
+
+		String machinePath = "/foo/shards/" + group.getShard("m1") + "/m1";
+		for (int i = 0; i < 50 && curatorClient.checkExists().forPath(machinePath + "/log/3") == null; i++) {
+			Thread.sleep(100);
+		}
+		assertThat(curatorClient.checkExists().forPath(machinePath + "/log/3")).isNotNull();
+		assertThat(curatorClient.checkExists().forPath(machinePath + "/current")).isNotNull();
+		assertThat(curatorClient.checkExists().forPath(machinePath + "/log/4")).isNull();
+		assertThat(curatorClient.getChildren().forPath("/foo/members")).hasSize(1);
+	}
+
+	@Test
+	public void testMachinesAreIsolated() throws Exception {
+		context.register(ZkServerConfig.class, BaseConfig.class);
+		context.refresh();
+
+		CuratorFramework curatorClient =
+				context.getBean("curatorClient", CuratorFramework.class);
+
+		ShardedZookeeperStateMachineEnsemble<String, String> group =
+				new ShardedZookeeperStateMachineEnsemble<String, String>(curatorClient, "/foo");
+		group.afterPropertiesSet();
+		group.start();
+
+		StateMachineEnsemble<String, String> ensemble1 = group.getEnsemble("m1");
+		StateMachineEnsemble<String, String> ensemble2 = group.getEnsemble("m2");
+		TestEnsembleListener listener1 = new TestEnsembleListener(1);
+		TestEnsembleListener listener2 = new TestEnsembleListener(0);
+		ensemble1.addEnsembleListener(listener1);
+		ensemble2.addEnsembleListener(listener2);
+		ensemble1.join(stateMachine());
+		ensemble2.join(stateMachine());
+		assertThat(listener1.joinedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(listener2.joinedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		ensemble1.setState(new DefaultStateMachineContext<String, String>("S1", "E1", new HashMap<String, Object>(),
+				new DefaultExtendedState()));
+
+		assertThat(listener1.eventLatch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(ensemble1.getState().getState()).isEqualTo("S1");
+		assertThat(ensemble2.getState()).isNull();
+		assertThat(listener2.events).isEmpty();
+	}
+
+	@Test
+	public void testReceiveEventsBetweenGroups() throws Exception {
+		context.register(ZkServerConfig.class, BaseConfig.class);
+		context.refresh();
+
+		CuratorFramework curatorClient =
+				context.getBean("curatorClient", CuratorFramework.class);
+
+		ShardedZookeeperStateMachineEnsemble<String, String> group1 =
+				new ShardedZookeeperStateMachineEnsemble<String, String>(curatorClient, "/foo");
+		ShardedZookeeperStateMachineEnsemble<String, String> group2 =
+				new ShardedZookeeperStateMachineEnsemble<String, String>(curatorClient, "/foo");
+		group1.afterPropertiesSet();
+		group1.start();
+		group2.afterPropertiesSet();
+		group2.start();
+
+		StateMachineEnsemble<String, String> ensemble1 = group1.getEnsemble("m1");
+		StateMachineEnsemble<String, String> ensemble2 = group2.getEnsemble("m1");
+		TestEnsembleListener listener2 = new TestEnsembleListener(10);
+		ensemble2.addEnsembleListener(listener2);
+		ensemble2.join(stateMachine());
+		assertThat(listener2.joinedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+		TestEnsembleListener listener1 = new TestEnsembleListener(10);
+		ensemble1.addEnsembleListener(listener1);
+		ensemble1.join(stateMachine());
+		assertThat(listener1.joinedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		for (int i = 0; i < 10; i++) {
+			ensemble1.setState(new DefaultStateMachineContext<String, String>("S" + i, "E" + i,
+					new HashMap<String, Object>(), new DefaultExtendedState()));
+		}
+
+		assertThat(listener2.eventLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(listener2.events).hasSize(10);
+		for (int i = 0; i < 10; i++) {
+			assertThat(listener2.events.get(i).getEvent()).isEqualTo("E" + i);
+		}
+		assertThat(listener2.errors).isEmpty();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static StateMachine<String, String> stateMachine() {
+		return mock(StateMachine.class);
+	}
+
+	private static class TestEnsembleListener extends EnsembleListenerAdapter<String, String> {
+
+		final CountDownLatch joinedLatch = new CountDownLatch(1);
+		final CountDownLatch eventLatch;
+		final List<StateMachineContext<String, String>> events =
+				Collections.synchronizedList(new ArrayList<StateMachineContext<String, String>>());
+		final List<Exception> errors = Collections.synchronizedList(new ArrayList<Exception>());
+
+		TestEnsembleListener(int events) {
+			this.eventLatch = new CountDownLatch(events);
+		}
+
+		@Override
+		public void stateMachineJoined(StateMachine<String, String> stateMachine, StateMachineContext<String, String> context) {
+			joinedLatch.countDown();
+		}
+
+		@Override
+		public void stateChanged(StateMachineContext<String, String> context) {
+			events.add(context);
+			eventLatch.countDown();
+		}
+
+		@Override
+		public void ensembleError(StateMachineEnsembleException exception) {
+			errors.add(exception);
+		}
+	}
+}
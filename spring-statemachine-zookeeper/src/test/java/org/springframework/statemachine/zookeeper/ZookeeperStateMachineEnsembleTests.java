@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2021 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -621,6 +621,44 @@ public class ZookeeperStateMachineEnsembleTests extends AbstractZookeeperTests {
 		assertThat(listener.errorLatch.await(2, TimeUnit.SECONDS)).isTrue();
 	}
 
+	@Test
+	public void testEventsOverflowSnapshotCatchUp() throws Exception {
+		context.register(ZkServerConfig.class, BaseConfig.class);
+		context.refresh();
+		CuratorFramework curatorClient =
+				context.getBean("curatorClient", CuratorFramework.class);
+		OverflowControlZookeeperStateMachineEnsemble ensemble =
+				new OverflowControlZookeeperStateMachineEnsemble(curatorClient, "/foo", true, 4);
+		ensemble.setSnapshotCatchUp(true);
+
+		TestEnsembleListener listener = new TestEnsembleListener();
+		ensemble.addEnsembleListener(listener);
+
+		ensemble.afterPropertiesSet();
+		ensemble.start();
+
+		ensemble.join(new TestStateMachine());
+		assertThat(listener.joinedLatch.await(3, TimeUnit.SECONDS)).isTrue();
+
+		listener.reset(0, 10, 1);
+
+		for (int i = 0; i < 10; i++) {
+			ensemble.setState(new DefaultStateMachineContext<String, String>("S" + i, "E" + i,
+					new HashMap<String, Object>(), new DefaultExtendedState()));
+		}
+
+		ensemble.enabled = true;
+		TestUtils.callMethod("registerWatcherForStatePath", ensemble);
+		listener.reset(1, 0, 1);
+
+		// overflow should re-join with a latest context instead of failing
+		ensemble.setState(new DefaultStateMachineContext<String, String>("S10", "E10",
+				new HashMap<String, Object>(), new DefaultExtendedState()));
+		assertThat(listener.joinedLatch.await(3, TimeUnit.SECONDS)).isTrue();
+		assertThat(listener.errors).isEmpty();
+		assertThat(ensemble.getState().getState()).isEqualTo("S10");
+	}
+
 	private class OverflowControlZookeeperStateMachineEnsemble extends ZookeeperStateMachineEnsemble<String, String> {
 
 		boolean enabled = false;